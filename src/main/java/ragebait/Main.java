@@ -17,7 +17,7 @@ import ragebait.ui.MainWindow;
  */
 public class Main extends Application {
 
-    /** Core Ragebait application instance used by the GUI */
+    /** Core Ragebait application instance used by the GUI. Loads its data in the background */
     private final Ragebait ragebait = new Ragebait();
 
     /**
@@ -40,6 +40,7 @@ public class Main extends Application {
             controller.setRagebait(ragebait);
 
             stage.show();
+            ragebait.markStartupPhase("window shown");
         } catch (IOException e) {
             e.printStackTrace();
         }
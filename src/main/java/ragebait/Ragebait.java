@@ -1,12 +1,21 @@
 package ragebait;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import ragebait.command.Command;
 import ragebait.command.Context;
 import ragebait.contacts.ContactList;
 import ragebait.exception.RagebaitException;
 import ragebait.parser.Parser;
 import ragebait.storage.ContactStorage;
+import ragebait.storage.DataFileWatcher;
 import ragebait.storage.Storage;
+import ragebait.storage.StorageFormat;
 import ragebait.task.TaskList;
 import ragebait.ui.UI;
 
@@ -15,9 +24,16 @@ import ragebait.ui.UI;
  *
  * This class:
  * - Initializes UI, storage handlers, and data lists
- * - Loads persisted tasks and contacts
+ * - Loads persisted tasks and contacts concurrently in the background
  * - Processes user input through the Parser
  * - Delegates command execution
+ *
+ * The constructor returns before loading finishes, so the window can show
+ * up right away. Commands submitted earlier are queued and run in order
+ * once both lists are ready.
+ *
+ * Once loaded, the data files are watched, and changes made to them by
+ * other programs are applied to the lists in place.
  */
 public class Ragebait {
 
@@ -27,91 +43,289 @@ public class Ragebait {
     /** Default file path used for storing contact data */
     private static final String CONTACTS_FILE_PATH = "data/ragebaitContacts.txt";
 
+    /** Task journal size in bytes after which it is compacted into the task file */
+    private static final long TASK_JOURNAL_THRESHOLD = 64 * 1024;
+
+    /** Layout of the task file. BINARY migrates an existing text file on the next start */
+    private static final StorageFormat TASK_FILE_FORMAT = StorageFormat.TEXT;
+
+    /** Whether saves are forced to disk and atomically renamed into place */
+    private static final boolean IS_DURABLE_SAVE = true;
+
+    /** Time a task stays done before it is moved to the archive on startup: 30 days */
+    private static final long TASK_ARCHIVE_AGE_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    /**
+     * Number of decoded tasks kept in memory when the task file is opened lazily, or 0 to load
+     * every task up front. A lazy list needs a plain text file, so it switches journaling off
+     */
+    private static final int LAZY_TASK_CACHE_CAPACITY = 0;
+
+    /** Number of background threads loading data at startup, one per file */
+    private static final int LOADER_THREADS = 2;
+
+    /** Measures how long startup phases take */
+    private final StartupTimer startupTimer = new StartupTimer();
+
     /** Responsible for persisting task data */
     private final Storage taskStorage;
 
-    /** Collection of tasks managed by the application */
-    private final TaskList tasks;
-
     /** Handles user interaction and message formatting */
     private final UI ui;
 
     /** Responsible for persisting contact data */
     private final ContactStorage contactStorage;
 
-    /** Collection of contacts managed by the application */
-    private final ContactList contacts;
+    /** Shared execution context passed to commands, completed once loading finishes */
+    private final CompletableFuture<Context> context;
 
-    /** Shared execution context passed to commands */
-    private final Context context;
+    /** Most recently submitted command, which the next command waits for */
+    private CompletableFuture<String> lastCommand;
 
     /**
      * Constructs a Ragebait application instance.
      *
-     * Initializes UI, storage handlers, and loads saved data.
+     * Initializes UI and storage handlers, and starts loading saved tasks and
+     * contacts in parallel on background threads.
      * If loading fails, empty lists are created instead.
      */
     public Ragebait() {
         ui = new UI();
-        taskStorage = new Storage(TASK_FILE_PATH);
-        tasks = initialiseTasks(TASK_FILE_PATH);
-        contactStorage = new ContactStorage(CONTACTS_FILE_PATH);
-        contacts = initialiseContacts(CONTACTS_FILE_PATH);
-        context = new Context(tasks, taskStorage, contacts, contactStorage);
+        long journalThreshold = LAZY_TASK_CACHE_CAPACITY > 0 ? 0 : TASK_JOURNAL_THRESHOLD;
+        taskStorage = new Storage(TASK_FILE_PATH, journalThreshold, TASK_FILE_FORMAT, IS_DURABLE_SAVE,
+                TASK_ARCHIVE_AGE_MILLIS);
+        contactStorage = new ContactStorage(CONTACTS_FILE_PATH, IS_DURABLE_SAVE);
+
+        ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ragebait-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<TaskList> tasks = CompletableFuture.supplyAsync(() -> {
+            TaskList loadedTasks = initialiseTasks(TASK_FILE_PATH);
+            startupTimer.mark("tasks loaded");
+            return loadedTasks;
+        }, loader);
+        CompletableFuture<ContactList> contacts = CompletableFuture.supplyAsync(() -> {
+            ContactList loadedContacts = initialiseContacts(CONTACTS_FILE_PATH);
+            startupTimer.mark("contacts loaded");
+            return loadedContacts;
+        }, loader);
+        loader.shutdown();
+
+        context = tasks.thenCombine(contacts, (loadedTasks, loadedContacts) -> {
+            Context ready = new Context(loadedTasks, taskStorage, loadedContacts, contactStorage);
+            watchDataFiles(ready);
+            startupTimer.mark("ready for commands");
+            return ready;
+        });
+        lastCommand = context.thenApply(ready -> null);
     }
 
     /**
-     * Loads tasks from storage.
+     * Loads tasks from storage and moves long-completed ones to the archive.
+     * The tasks are decoded on demand if a lazy cache capacity is configured.
      *
-     * If loading fails, an empty TaskList is returned.
+     * If loading fails, even with an unexpected runtime exception, an empty TaskList is returned.
+     * If archiving fails, the tasks simply stay in the list.
+     * The journal is then folded into the task file, before the file watcher
+     * starts, so an edit of the file by another program sees every task.
      *
      * @param filePath Path to the task storage file.
      * @return Initialized TaskList.
      */
     public TaskList initialiseTasks(String filePath) {
-        TaskList loadedTasks;
+        TaskList tasks;
         try {
-            loadedTasks = new TaskList(taskStorage.load().getAllTasks());
-        } catch (RagebaitException e) {
+            tasks = LAZY_TASK_CACHE_CAPACITY > 0
+                    ? taskStorage.loadLazily(LAZY_TASK_CACHE_CAPACITY)
+                    : taskStorage.load();
+        } catch (RagebaitException | RuntimeException e) {
             ui.showError("Task storage failed to load. Guess we’re starting from scratch.");
             e.printStackTrace();
-            loadedTasks = new TaskList();
+            return new TaskList();
+        }
+
+        try {
+            taskStorage.archiveCompleted(tasks);
+        } catch (RagebaitException e) {
+            ui.showError("Couldn’t archive your finished tasks. They’ll just have to clutter things up.");
+            e.printStackTrace();
+        }
+
+        try {
+            taskStorage.compactJournal(tasks);
+        } catch (RagebaitException e) {
+            ui.showError("Couldn’t fold the task journal into the task file. Don’t go editing it by hand.");
+            e.printStackTrace();
         }
-        return loadedTasks;
+        return tasks;
     }
 
     /**
      * Loads contacts from storage.
      *
-     * If loading fails, an empty ContactList is returned.
+     * If loading fails, even with an unexpected runtime exception, an empty ContactList is returned.
      *
      * @param filePath Path to the contact storage file.
      * @return Initialized ContactList.
      */
     public ContactList initialiseContacts(String filePath) {
-        ContactList loadedContacts;
         try {
-            loadedContacts = new ContactList(contactStorage.load().getAllContacts());
-        } catch (RagebaitException e) {
+            return contactStorage.load();
+        } catch (RagebaitException | RuntimeException e) {
             ui.showError("Contact storage failed to load. Social reset activated.");
             e.printStackTrace();
-            loadedContacts = new ContactList();
+            return new ContactList();
+        }
+    }
+
+    /**
+     * Starts applying external changes of the data files to the loaded lists.
+     *
+     * If the files cannot be watched, external changes are only picked up on the next start.
+     *
+     * @param ready Loaded execution context.
+     */
+    private void watchDataFiles(Context ready) {
+        try {
+            DataFileWatcher watcher = new DataFileWatcher(this::reportReloadFailure);
+            watcher.watch(TASK_FILE_PATH, () -> reloadTasks(ready));
+            watcher.watch(CONTACTS_FILE_PATH, () -> reloadContacts(ready));
+            watcher.start();
+        } catch (IOException e) {
+            System.err.println("Can't watch the data files. Edit them behind my back and I won't notice: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies an external change of the task file, unless a save of our own is pending
+     * or happens meanwhile, in which case that save wins.
+     *
+     * Events for the file exactly as we last wrote it are our own saves and are skipped.
+     * The file is loaded outside the persister's monitor, so commands keep running while
+     * it is parsed, and only the diff is applied under it.
+     *
+     * @param ready Loaded execution context.
+     * @throws RagebaitException If the task file cannot be loaded.
+     */
+    private void reloadTasks(Context ready) throws RagebaitException {
+        long generation = ready.persister.getSavedGeneration();
+        if (generation < 0 || taskStorage.isUnchangedSinceWrite()) {
+            return;
+        }
+        TaskList loaded = taskStorage.loadExternalChange();
+        synchronized (ready.persister) {
+            if (ready.persister.getSavedGeneration() == generation) {
+                taskStorage.reload(ready.tasks, loaded);
+            }
+        }
+    }
+
+    /**
+     * Applies an external change of the contact file, unless a save of our own is pending
+     * or happens meanwhile, in which case that save wins.
+     *
+     * Works like reloadTasks.
+     *
+     * @param ready Loaded execution context.
+     * @throws RagebaitException If the contact file cannot be loaded.
+     */
+    private void reloadContacts(Context ready) throws RagebaitException {
+        long generation = ready.persister.getSavedGeneration();
+        if (generation < 0 || contactStorage.isUnchangedSinceWrite()) {
+            return;
         }
-        return loadedContacts;
+        ContactList loaded = contactStorage.load();
+        synchronized (ready.persister) {
+            if (ready.persister.getSavedGeneration() == generation) {
+                contactStorage.reload(ready.contacts, loaded);
+            }
+        }
+    }
+
+    /**
+     * Reports an external change of a data file that could not be applied.
+     * The list keeps what it had.
+     *
+     * @param file Data file that changed.
+     * @param e Failure of the reload.
+     */
+    private void reportReloadFailure(Path file, Exception e) {
+        ui.showError("Someone messed with " + file.getFileName() + " and I can't make sense of it."
+                + " Keeping what I had.");
+        e.printStackTrace();
     }
 
     /**
-     * Processes user input and returns the resulting response.
+     * Processes user input and returns the resulting response,
+     * waiting for loading to finish if needed.
      *
      * The input is parsed into a Command and executed.
-     * Any parsing or execution errors are returned as formatted messages.
+     * Any parsing or execution errors are thrown as RagebaitExceptions.
      *
      * @param input Raw user input.
      * @return Response message.
+     * @throws RagebaitException If the input cannot be parsed or executed.
      */
     public String getResponse(String input) throws RagebaitException {
-        Command command = Parser.parse(input);
-        return command.execute(ui, context);
+        try {
+            return getResponseAsync(input).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RagebaitException) {
+                throw (RagebaitException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues user input to be processed after every earlier input, and after
+     * loading finishes.
+     *
+     * If nothing is pending, the command runs on the calling thread before
+     * this returns. Parsing or execution errors complete the returned future
+     * exceptionally with a RagebaitException as the cause.
+     *
+     * @param input Raw user input.
+     * @return Future completed with the response message.
+     */
+    public synchronized CompletableFuture<String> getResponseAsync(String input) {
+        CompletableFuture<String> response = lastCommand
+                .handle((previous, error) -> null)
+                .thenCompose(ignored -> context)
+                .thenApply(ready -> execute(input, ready));
+        lastCommand = response;
+        return response;
+    }
+
+    /**
+     * Parses and executes one command.
+     *
+     * @param input Raw user input.
+     * @param ready Loaded execution context.
+     * @return Response message.
+     */
+    private String execute(String input, Context ready) {
+        try {
+            Command command = Parser.parse(input);
+            // Hold the persister's monitor so the background writer never snapshots a half-applied command
+            synchronized (ready.persister) {
+                return command.execute(ui, ready);
+            }
+        } catch (RagebaitException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Records that a startup phase outside this class, such as showing the window, has been reached.
+     *
+     * @param phase Name of the phase.
+     */
+    public void markStartupPhase(String phase) {
+        startupTimer.mark(phase);
     }
 
     /**
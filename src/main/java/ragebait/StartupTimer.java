@@ -0,0 +1,39 @@
+package ragebait;
+
+/**
+ * Measures how long each startup phase takes to be reached.
+ *
+ * When the ragebait.startupTiming system property is true, every phase is
+ * printed to standard error with the milliseconds elapsed since the timer
+ * was created, so startup changes can be compared run to run. Otherwise the
+ * timer only returns the elapsed time.
+ */
+public class StartupTimer {
+
+    /** System property that turns on printing the phases. */
+    public static final String TIMING_PROPERTY = "ragebait.startupTiming";
+
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** Time the timer was created. */
+    private final long startNanos = System.nanoTime();
+
+    /** Whether phases are printed. */
+    private final boolean isPrinting = Boolean.getBoolean(TIMING_PROPERTY);
+
+    /**
+     * Records that a startup phase has been reached.
+     *
+     * @param phase Name of the phase.
+     * @return Milliseconds elapsed since the timer was created.
+     */
+    public double mark(String phase) {
+        double elapsedMillis = (System.nanoTime() - startNanos) / NANOS_PER_MILLI;
+        if (isPrinting) {
+            System.err.printf("[startup] %s after %.1f ms (%s)%n", phase, elapsedMillis,
+                    Thread.currentThread().getName());
+        }
+        return elapsedMillis;
+    }
+}
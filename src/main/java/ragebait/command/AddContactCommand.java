@@ -3,7 +3,6 @@ package ragebait.command;
 import ragebait.contacts.Contact;
 import ragebait.contacts.ContactList;
 import ragebait.exception.RagebaitException;
-import ragebait.storage.ContactStorage;
 import ragebait.ui.UI;
 
 /**
@@ -14,7 +13,7 @@ import ragebait.ui.UI;
  *
  * This command parses the raw argument string, validates the extracted
  * name, phone number, and email, creates a new Contact, adds it
- * to the list, and persists the updated list using ContactStorage.
+ * to the list, and marks the list dirty for the write-behind persister.
  *
  * If the input format is invalid or any validation fails, a
  * RagebaitException will be thrown with an appropriately
@@ -55,7 +54,7 @@ public class AddContactCommand extends ContactCommand {
      * Executes the add contact command.
      *
      * Parses and validates user input, creates a Contact,
-     * adds it to the ContactList, saves it using ContactStorage,
+     * adds it to the ContactList, marks the list dirty for saving,
      * and returns a UI message confirming the addition.
      *
      * @param ui The UI instance used to generate user-facing messages.
@@ -65,12 +64,11 @@ public class AddContactCommand extends ContactCommand {
      */
     public String execute(UI ui, Context context) throws RagebaitException {
         ContactList contacts = context.contacts;
-        ContactStorage contactStorage = context.contactStorage;
 
         Contact contact = createContact();
 
         contacts.add(contact);
-        contactStorage.save(contacts);
+        context.persister.markContactsDirty();
 
         return ui.getContactAdded(contact, contacts.size());
     }
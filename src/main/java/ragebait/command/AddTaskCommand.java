@@ -5,7 +5,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 import ragebait.exception.RagebaitException;
-import ragebait.storage.Storage;
 import ragebait.task.Deadline;
 import ragebait.task.Event;
 import ragebait.task.Task;
@@ -90,21 +89,21 @@ public class AddTaskCommand extends TaskCommand {
     @Override
     public String execute(UI ui, Context context) throws RagebaitException {
         TaskList tasks = context.tasks;
-        Storage taskStorage = context.taskStorage;
         Task task = createTask();
 
         tasks.add(task);
-        taskStorage.save(tasks);
+        context.persister.markTasksDirty();
         return ui.getTaskAdded(task, tasks.size());
     }
 
     /**
-     * Creates a Task based on the task type and user arguments.
+     * Creates a Task based on the task type and user arguments,
+     * without adding it anywhere.
      *
      * @return The constructed Task.
      * @throws RagebaitException If the task type is unknown or if parsing fails due to invalid input.
      */
-    private Task createTask() throws RagebaitException {
+    public Task createTask() throws RagebaitException {
         switch (type) {
         case TODO:
             return new ToDo(args);
@@ -185,7 +184,7 @@ public class AddTaskCommand extends TaskCommand {
      * @return Parsed LocalDateTime.
      * @throws RagebaitException If parsing fails due to invalid format.
      */
-    private LocalDateTime parseDateTime(String input, String field)
+    static LocalDateTime parseDateTime(String input, String field)
             throws RagebaitException {
         try {
             return LocalDateTime.parse(input, FORMATTER);
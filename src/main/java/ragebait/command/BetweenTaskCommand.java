@@ -0,0 +1,63 @@
+package ragebait.command;
+
+import java.time.LocalDateTime;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+import ragebait.ui.UI;
+
+/**
+ * Command to list the deadlines due within a time window and the events
+ * overlapping it, ordered by due or start time.
+ *
+ * Expected input format:
+ * /from d/M/yyyy HHmm /to d/M/yyyy HHmm
+ *
+ * The tasks are read from the time index of the TaskList, so the cost
+ * depends on how many fall in the window, not on how many tasks there are.
+ */
+public class BetweenTaskCommand extends TaskCommand {
+
+    /** The raw argument string containing the /from and /to times. */
+    private final String args;
+
+    /**
+     * Constructs a BetweenTaskCommand.
+     *
+     * @param args The raw argument string provided by the user.
+     */
+    public BetweenTaskCommand(String args) {
+        this.args = args;
+    }
+
+    /**
+     * Executes the between task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing tasks.
+     * @return A message listing the tasks in the window, or a no tasks found message.
+     * @throws RagebaitException If a tag is missing, a time cannot be parsed, or the window ends before it starts.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        String tagged = " " + args;
+        if (!tagged.startsWith(AddTaskCommand.TAG_FROM) || !tagged.contains(AddTaskCommand.TAG_TO)) {
+            throw new RagebaitException("Missing /from or /to. Use: task between /from d/M/yyyy HHmm"
+                    + " /to d/M/yyyy HHmm. Both of them.");
+        }
+
+        String[] fromTo = tagged.substring(AddTaskCommand.TAG_FROM.length()).split(AddTaskCommand.TAG_TO, 2);
+        LocalDateTime from = AddTaskCommand.parseDateTime(fromTo[0].trim(), "from");
+        LocalDateTime to = AddTaskCommand.parseDateTime(fromTo[1].trim(), "to");
+        if (to.isBefore(from)) {
+            throw new RagebaitException("Your window ends before it starts. Time travel still isn't supported.");
+        }
+
+        TaskList windowTasks = new TaskList(context.tasks.findBetween(from, to));
+        if (windowTasks.isEmpty()) {
+            return ui.getNoTasksFound();
+        } else {
+            return ui.getBetweenHeader(windowTasks);
+        }
+    }
+}
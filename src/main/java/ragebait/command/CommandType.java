@@ -70,7 +70,46 @@ public enum CommandType {
     /**
      * Adds a new contact.
      */
-    add;
+    add,
+
+    /**
+     * Exports all tasks to a human-readable text file.
+     */
+    export,
+
+    /**
+     * Lists, searches or restores archived completed tasks.
+     * Only applicable to tasks.
+     */
+    archive,
+
+    /**
+     * Adds every task in a file of todo, deadline and event lines.
+     * Typed as "import", which Java reserves as a keyword.
+     * Only applicable to tasks.
+     */
+    import_,
+
+    /**
+     * Lists the deadlines due before a given time.
+     * Only applicable to tasks.
+     */
+    due,
+
+    /**
+     * Lists the deadlines and events falling within a time window.
+     * Only applicable to tasks.
+     */
+    between,
+
+    /**
+     * Reports the memory taken by task descriptions.
+     * Only applicable to tasks.
+     */
+    stats;
+
+    /** Command word typed for import_. */
+    private static final String IMPORT_WORD = "import";
 
     /**
      * Converts a string input into the corresponding CommandType.
@@ -83,7 +122,7 @@ public enum CommandType {
      */
     public static CommandType convertToCommandType(String input) throws RagebaitException {
         try {
-            return CommandType.valueOf(input);
+            return input.equals(IMPORT_WORD) ? import_ : CommandType.valueOf(input);
         } catch (IllegalArgumentException e) {
             throw new RagebaitException(
                     "Unknown command: \"" + input
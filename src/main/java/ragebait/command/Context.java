@@ -3,6 +3,7 @@ package ragebait.command;
 import ragebait.contacts.ContactList;
 import ragebait.storage.ContactStorage;
 import ragebait.storage.Storage;
+import ragebait.storage.WriteBehindPersister;
 import ragebait.task.TaskList;
 
 /**
@@ -41,7 +42,13 @@ public class Context {
     public final ContactStorage contactStorage;
 
     /**
-     * Constructs a Context containing all shared application state.
+     * The background writer that saves tasks and contacts after commands mark them dirty.
+     */
+    public final WriteBehindPersister persister;
+
+    /**
+     * Constructs a Context containing all shared application state,
+     * saving changes within the default staleness window.
      *
      * @param tasks The TaskList instance.
      * @param taskStorage The Storage instance for tasks.
@@ -50,9 +57,24 @@ public class Context {
      */
     public Context(TaskList tasks, Storage taskStorage,
                    ContactList contacts, ContactStorage contactStorage) {
+        this(tasks, taskStorage, contacts, contactStorage, WriteBehindPersister.DEFAULT_MAX_STALENESS_MILLIS);
+    }
+
+    /**
+     * Constructs a Context containing all shared application state.
+     *
+     * @param tasks The TaskList instance.
+     * @param taskStorage The Storage instance for tasks.
+     * @param contacts The ContactList instance.
+     * @param contactStorage The ContactStorage instance.
+     * @param maxStalenessMillis Upper bound in milliseconds on how long a change stays unsaved.
+     */
+    public Context(TaskList tasks, Storage taskStorage,
+                   ContactList contacts, ContactStorage contactStorage, long maxStalenessMillis) {
         this.tasks = tasks;
         this.taskStorage = taskStorage;
         this.contacts = contacts;
         this.contactStorage = contactStorage;
+        this.persister = new WriteBehindPersister(tasks, taskStorage, contacts, contactStorage, maxStalenessMillis);
     }
 }
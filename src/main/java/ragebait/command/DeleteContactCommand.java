@@ -3,7 +3,6 @@ package ragebait.command;
 import ragebait.contacts.Contact;
 import ragebait.contacts.ContactList;
 import ragebait.exception.RagebaitException;
-import ragebait.storage.ContactStorage;
 import ragebait.ui.UI;
 
 /**
@@ -49,7 +48,6 @@ public class DeleteContactCommand extends ContactCommand {
     @Override
     public String execute(UI ui, Context context) throws RagebaitException {
         ContactList contacts = context.contacts;
-        ContactStorage contactStorage = context.contactStorage;
         int endRange = contacts.size();
 
         if (index < START_RANGE || index >= endRange) {
@@ -62,7 +60,7 @@ public class DeleteContactCommand extends ContactCommand {
         String result = ui.getDeleteContact(selectedContact, endRange - 1);
 
         contacts.remove(index);
-        contactStorage.save(contacts);
+        context.persister.markContactsDirty();
 
         return result;
     }
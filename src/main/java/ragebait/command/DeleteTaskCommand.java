@@ -1,26 +1,25 @@
 package ragebait.command;
 
+import java.util.List;
+
 import ragebait.exception.RagebaitException;
-import ragebait.storage.Storage;
 import ragebait.task.Task;
 import ragebait.task.TaskList;
 import ragebait.ui.UI;
 
 /**
- * Represents a command that deletes a task from the TaskList.
+ * Represents a command that deletes tasks from the TaskList.
  *
- * The task is removed based on its 0-based index.
- * If the index is invalid, a RagebaitException is thrown
+ * The tasks are selected by 0-based index, range or ID through a
+ * TaskSelection. If an index is invalid, a RagebaitException is thrown
  * with a rage-level message to remind the user that not everything
- * they imagine exists.
+ * they imagine exists. Several tasks are removed from the list in one
+ * pass and persisted once.
  */
 public class DeleteTaskCommand extends TaskCommand {
 
-    /** Minimum valid task index (0-based). */
-    private static final int START_RANGE = 0;
-
-    /** Index of the task to delete (0-based). */
-    private final int index;
+    /** The tasks to delete. */
+    private final TaskSelection selection;
 
     /**
      * Constructs a DeleteTaskCommand for the task at the specified index.
@@ -28,47 +27,64 @@ public class DeleteTaskCommand extends TaskCommand {
      * @param index The 0-based index of the task to delete.
      */
     public DeleteTaskCommand(int index) {
-        this.index = index;
+        this(TaskSelection.ofIndex(index));
+    }
+
+    /**
+     * Constructs a DeleteTaskCommand for the selected tasks.
+     *
+     * @param selection The tasks to delete.
+     */
+    public DeleteTaskCommand(TaskSelection selection) {
+        this.selection = selection;
     }
 
     /**
      * Returns the index of the task to be deleted.
      *
-     * @return 0-based task index.
+     * @return 0-based task index, or -1 if the task is addressed by ID.
      */
     public int getIndex() {
-        return index;
+        return selection.getIndex();
     }
 
     /**
      * Executes the delete task command.
      *
-     * Removes the task at the specified index from the TaskList,
+     * Removes the selected tasks from the TaskList,
      * updates storage, and returns a UI message confirming deletion.
      *
      * @param ui The UI component used to generate feedback messages.
      * @param context The execution context containing tasks and storage.
      * @return A message confirming task deletion.
-     * @throws RagebaitException If the index is out of bounds.
+     * @throws RagebaitException If an index is out of bounds.
      */
     @Override
     public String execute(UI ui, Context context) throws RagebaitException {
         TaskList tasks = context.tasks;
-        Storage taskStorage = context.taskStorage;
-        int endRange = tasks.size();
+        int[] indices = selection.resolve(tasks, "I CAN'T DELETE! THIS DOES NOT EXIST! READ THE LIST NEXT TIME.");
 
-        if (index < START_RANGE || index >= endRange) {
-            throw new RagebaitException(
-                    "I CAN'T DELETE! THIS DOES NOT EXIST! READ THE LIST NEXT TIME."
-            );
-        }
+        if (selection.isSingle()) {
+            Task selectedTask = tasks.get(indices[0]);
+            String result = ui.getDelete(selectedTask, tasks.size() - 1);
+
+            tasks.remove(indices[0]);
+            context.persister.markTasksDirty();
 
-        Task selectedTask = tasks.get(index);
-        String result = ui.getDelete(selectedTask, endRange - 1);
+            return result;
+        }
 
-        tasks.remove(index);
-        taskStorage.save(tasks);
+        List<Task> removed = tasks.removeAll(indices);
+        context.persister.markTasksDirty();
+        return ui.getDeleteMany(removed, tasks.size());
+    }
 
-        return result;
+    /**
+     * Returns the ID of the task to delete.
+     *
+     * @return The ID, or 0 if the task is addressed by index.
+     */
+    public long getId() {
+        return selection.getId();
     }
 }
@@ -0,0 +1,57 @@
+package ragebait.command;
+
+import java.time.LocalDateTime;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+import ragebait.ui.UI;
+
+/**
+ * Command to list the deadlines due before a given time, earliest first.
+ *
+ * Expected input format:
+ * /before d/M/yyyy HHmm
+ *
+ * The deadlines are read from the time index of the TaskList, so the
+ * cost depends on how many are due, not on how many tasks there are.
+ */
+public class DueTaskCommand extends TaskCommand {
+
+    /** Tag introducing the time the deadlines must be due before. */
+    public static final String TAG_BEFORE = "/before ";
+
+    /** The raw argument string containing the /before time. */
+    private final String args;
+
+    /**
+     * Constructs a DueTaskCommand.
+     *
+     * @param args The raw argument string provided by the user.
+     */
+    public DueTaskCommand(String args) {
+        this.args = args;
+    }
+
+    /**
+     * Executes the due task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing tasks.
+     * @return A message listing the deadlines due, or a no tasks found message.
+     * @throws RagebaitException If the /before tag is missing or the time cannot be parsed.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        if (!args.startsWith(TAG_BEFORE)) {
+            throw new RagebaitException("Missing /before. Use: task due /before d/M/yyyy HHmm. It's one tag.");
+        }
+        LocalDateTime before = AddTaskCommand.parseDateTime(args.substring(TAG_BEFORE.length()).trim(), "before");
+
+        TaskList dueTasks = new TaskList(context.tasks.findDueBefore(before));
+        if (dueTasks.isEmpty()) {
+            return ui.getNoTasksFound();
+        } else {
+            return ui.getDueHeader(dueTasks);
+        }
+    }
+}
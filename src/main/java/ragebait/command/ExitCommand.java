@@ -1,17 +1,15 @@
 package ragebait.command;
 
-import ragebait.contacts.ContactList;
 import ragebait.exception.RagebaitException;
-import ragebait.storage.ContactStorage;
-import ragebait.storage.Storage;
-import ragebait.task.TaskList;
+import ragebait.storage.WriteBehindPersister;
 import ragebait.ui.UI;
 
 /**
  * Represents the command to exit the Ragebait application.
  *
- * When executed, this command saves the current state of tasks and contacts
- * to persistent storage and returns a farewell message for the user.
+ * When executed, this command waits for the write-behind persister to flush
+ * the current state of tasks and contacts, folds the task journal into the
+ * task file so it is complete between sessions, then returns a farewell message.
  *
  * If saving fails for some reason, a RagebaitException will be thrown
  * with a message that basically screams, "Fix your storage!"
@@ -21,7 +19,8 @@ public class ExitCommand implements Command {
     /**
      * Executes the exit command.
      *
-     * Saves all tasks and contacts to their respective storage components
+     * Marks tasks and contacts dirty so they are written one final time,
+     * closes the persister once the flush completes, compacts the task journal,
      * and returns a UI-generated goodbye message.
      *
      * @param ui The UI used to generate a farewell message.
@@ -31,13 +30,12 @@ public class ExitCommand implements Command {
      */
     @Override
     public String execute(UI ui, Context context) throws RagebaitException {
-        TaskList tasks = context.tasks;
-        Storage tasksStorage = context.taskStorage;
-        ContactList contacts = context.contacts;
-        ContactStorage contactsStorage = context.contactStorage;
+        WriteBehindPersister persister = context.persister;
 
-        tasksStorage.save(tasks);
-        contactsStorage.save(contacts);
+        persister.markTasksDirty();
+        persister.markContactsDirty();
+        persister.close();
+        context.taskStorage.compactJournal(context.tasks);
 
         return ui.getGoodbye();
     }
@@ -0,0 +1,44 @@
+package ragebait.command;
+
+import ragebait.exception.RagebaitException;
+import ragebait.storage.Storage;
+import ragebait.task.TaskList;
+import ragebait.ui.UI;
+
+/**
+ * Command to export all tasks to a human-readable text file.
+ *
+ * The export always uses the text storage format, even when tasks are
+ * stored in the binary format, so the data can be read or edited by hand.
+ */
+public class ExportTaskCommand extends TaskCommand {
+
+    /** Path of the file to export to. */
+    private final String exportPath;
+
+    /**
+     * Constructs an ExportTaskCommand writing to the given path.
+     *
+     * @param exportPath Path of the file to export to.
+     */
+    public ExportTaskCommand(String exportPath) {
+        this.exportPath = exportPath;
+    }
+
+    /**
+     * Executes the export task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing tasks and storage.
+     * @return A message confirming the export.
+     * @throws RagebaitException If the export file cannot be written.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        TaskList tasks = context.tasks;
+        Storage taskStorage = context.taskStorage;
+
+        taskStorage.exportText(tasks, exportPath);
+        return ui.getExported(tasks.size(), exportPath);
+    }
+}
@@ -0,0 +1,66 @@
+package ragebait.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.ui.UI;
+
+/**
+ * Command to search the archive of completed tasks for a keyword.
+ *
+ * Performs a case-insensitive search while streaming the archive segments,
+ * keeping only the matches in memory. Matches are shown with their archive
+ * numbers, which the restore command takes.
+ */
+public class FindArchivedTaskCommand extends TaskCommand {
+
+    /** Keyword used to search archived task descriptions. */
+    private final String keyword;
+
+    /**
+     * Constructs a FindArchivedTaskCommand with the specified keyword.
+     *
+     * @param keyword The keyword to search for in archived task descriptions.
+     */
+    public FindArchivedTaskCommand(String keyword) {
+        this.keyword = keyword;
+    }
+
+    /**
+     * Executes the find archived task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing the task storage.
+     * @return A message listing matching archived tasks or no tasks found message if there are no matches.
+     * @throws RagebaitException If archiving is disabled or the archive cannot be read.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        List<Integer> numbers = new ArrayList<>();
+        List<Task> matches = new ArrayList<>();
+        String lowerKeyword = keyword.toLowerCase();
+        context.taskStorage.getArchive().scan((number, task) -> {
+            if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                numbers.add(number);
+                matches.add(task);
+            }
+        });
+
+        if (matches.isEmpty()) {
+            return ui.getNoTasksFound();
+        } else {
+            return ui.getArchiveFindHeader(numbers, matches);
+        }
+    }
+
+    /**
+     * Returns the keyword to search for.
+     *
+     * @return The search keyword.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+}
@@ -1,14 +1,18 @@
 package ragebait.command;
 
-import ragebait.contacts.Contact;
 import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
 import ragebait.ui.UI;
 
 /**
  * Command to search for contacts whose names contain a given keyword.
  *
- * Performs a case-insensitive search across all contacts and
- * collects matching contacts into a temporary list.
+ * Performs a case-insensitive search across all contacts, through the
+ * name index of the ContactList, and collects matching contacts into a
+ * temporary list.
+ *
+ * As with tasks, a keyword starting with ~ asks for a typo-tolerant
+ * search, with the closest names first.
  *
  * If no contacts match, the UI will return a rage-infused
  * "no results found" message.
@@ -35,18 +39,20 @@ public class FindContactCommand extends ContactCommand {
      * @param ui The UI used to generate feedback messages.
      * @param context The execution context containing contacts.
      * @return A message listing the matching contacts or a no contacts found message if there are no matches.
+     * @throws RagebaitException If the keyword is nothing but the fuzzy prefix.
      */
     @Override
-    public String execute(UI ui, Context context) {
-        ContactList contacts = context.contacts;
-        ContactList matchingContacts = new ContactList();
-
-        for (Contact contact : contacts.getAllContacts()) {
-            if (contact.getName().toLowerCase().contains(keyword.toLowerCase())) {
-                matchingContacts.add(contact);
-            }
+    public String execute(UI ui, Context context) throws RagebaitException {
+        if (keyword.startsWith(FindTaskCommand.FUZZY_PREFIX)) {
+            ContactList matchingContacts = new ContactList(
+                    context.contacts.findByNameFuzzy(FindTaskCommand.fuzzyKeyword(keyword)));
+            return matchingContacts.isEmpty()
+                    ? ui.getNoContactsFound()
+                    : ui.getFuzzyFindContactHeader(matchingContacts);
         }
 
+        ContactList matchingContacts = new ContactList(context.contacts.findByName(keyword));
+
         if (matchingContacts.isEmpty()) {
             return ui.getNoContactsFound();
         } else {
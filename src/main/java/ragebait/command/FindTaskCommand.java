@@ -1,20 +1,28 @@
 package ragebait.command;
 
-import ragebait.task.Task;
+import ragebait.exception.RagebaitException;
 import ragebait.task.TaskList;
 import ragebait.ui.UI;
 
 /**
  * Command to search for tasks whose descriptions contain a given keyword.
  *
- * Performs a case-insensitive search across all tasks and
- * collects matching tasks into a temporary list.
+ * Performs a case-insensitive search across all tasks, through the
+ * trigram index of the TaskList, and collects matching tasks into a
+ * temporary list.
+ *
+ * A keyword starting with ~ switches to a typo-tolerant search: the words
+ * of the keyword are looked up in the fuzzy index of the TaskList, and
+ * tasks with near-misses are listed closest first.
  *
  * If no tasks match, the UI will return a rage-infused
  * "no tasks found" message to remind the user that reading matters.
  */
 public class FindTaskCommand extends TaskCommand {
 
+    /** Prefix of a keyword that asks for a typo-tolerant search. */
+    public static final String FUZZY_PREFIX = "~";
+
     /** Keyword used to search task descriptions. */
     private final String keyword;
 
@@ -33,22 +41,36 @@ public class FindTaskCommand extends TaskCommand {
      * @param ui The UI used to generate feedback messages.
      * @param context The execution context containing tasks.
      * @return A message listing matching tasks or no tasks found message if there are no matches.
+     * @throws RagebaitException If the keyword is nothing but the fuzzy prefix.
      */
     @Override
-    public String execute(UI ui, Context context) {
-        TaskList tasks = context.tasks;
-        TaskList matchingTasks = new TaskList();
-
-        for (Task task : tasks.getAllTasks()) {
-            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
-                matchingTasks.add(task);
-            }
+    public String execute(UI ui, Context context) throws RagebaitException {
+        if (keyword.startsWith(FUZZY_PREFIX)) {
+            TaskList matchingTasks = new TaskList(context.tasks.findFuzzy(fuzzyKeyword(keyword)));
+            return matchingTasks.isEmpty() ? ui.getNoTasksFound() : ui.getFuzzyFindHeader(matchingTasks);
         }
 
+        TaskList matchingTasks = new TaskList(context.tasks.findByKeyword(keyword));
+
         if (matchingTasks.isEmpty()) {
             return ui.getNoTasksFound();
         } else {
             return ui.getFindHeader(matchingTasks);
         }
     }
+
+    /**
+     * Strips the fuzzy prefix off a keyword.
+     *
+     * @param keyword Keyword starting with the fuzzy prefix.
+     * @return The words to search for.
+     * @throws RagebaitException If nothing follows the prefix.
+     */
+    static String fuzzyKeyword(String keyword) throws RagebaitException {
+        String words = keyword.substring(FUZZY_PREFIX.length()).trim();
+        if (words.isEmpty()) {
+            throw new RagebaitException("A ~ and nothing else? Even a fuzzy search needs something to be fuzzy about.");
+        }
+        return words;
+    }
 }
@@ -0,0 +1,191 @@
+package ragebait.command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+import ragebait.task.TaskType;
+import ragebait.ui.UI;
+
+/**
+ * Command to add every task listed in a file in one go.
+ *
+ * Each line is a todo, deadline or event command as typed after "task",
+ * optionally with the "task" in front. Blank lines are skipped. The file is
+ * streamed in batches, each batch is parsed in parallel, and the tasks are
+ * appended in file order. Bad lines are collected and reported instead of
+ * stopping the import, and the task list is saved once at the end.
+ */
+public class ImportTaskCommand extends TaskCommand {
+
+    /** Number of lines read and parsed together. */
+    private static final int BATCH_SIZE = 8192;
+
+    /** Number of bad lines listed in the report. The rest are only counted. */
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    /** Optional category word in front of each line. */
+    private static final String TASK_PREFIX = "task";
+
+    /** Path of the file to import from. */
+    private final String importPath;
+
+    /**
+     * Constructs an ImportTaskCommand reading from the given path.
+     *
+     * @param importPath Path of the file to import from.
+     */
+    public ImportTaskCommand(String importPath) {
+        this.importPath = importPath;
+    }
+
+    /**
+     * Executes the import task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing tasks and storage.
+     * @return A message summarising what was imported and which lines were rejected.
+     * @throws RagebaitException If the file cannot be read or the tasks cannot be saved.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        TaskList tasks = context.tasks;
+        List<String> errors = new ArrayList<>();
+        int imported = 0;
+        int errorCount = 0;
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(importPath), Charset.defaultCharset())) {
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            int firstLineNumber = 1;
+            String line;
+            do {
+                line = reader.readLine();
+                if (line != null) {
+                    batch.add(line);
+                }
+                if (batch.size() == BATCH_SIZE || (line == null && !batch.isEmpty())) {
+                    List<ParsedLine> parsed = parseBatch(batch);
+                    for (int i = 0; i < parsed.size(); i++) {
+                        ParsedLine result = parsed.get(i);
+                        if (result.task != null) {
+                            tasks.add(result.task);
+                            imported++;
+                        } else if (result.error != null) {
+                            errorCount++;
+                            if (errors.size() < MAX_REPORTED_ERRORS) {
+                                errors.add("Line " + (firstLineNumber + i) + ": " + result.error);
+                            }
+                        }
+                    }
+                    firstLineNumber += batch.size();
+                    batch.clear();
+                }
+            } while (line != null);
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to read import file: " + importPath + ". Does it even exist?", e);
+        } finally {
+            if (imported > 0) {
+                context.persister.markTasksDirty();
+            }
+        }
+
+        if (imported > 0) {
+            context.persister.flush();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return ui.getImported(imported, tasks.size(), elapsedMillis, errorCount, errors);
+    }
+
+    /**
+     * Returns the path of the file to import from.
+     *
+     * @return The import path.
+     */
+    public String getImportPath() {
+        return importPath;
+    }
+
+    /**
+     * Parses a batch of lines in parallel.
+     *
+     * @return Result of every line, in batch order.
+     */
+    private static List<ParsedLine> parseBatch(List<String> batch) {
+        ParsedLine[] parsed = new ParsedLine[batch.size()];
+        Arrays.parallelSetAll(parsed, i -> parseLine(batch.get(i)));
+        return Arrays.asList(parsed);
+    }
+
+    /**
+     * Turns one line into a Task.
+     *
+     * @return The Task, the error message if the line is bad, or BLANK if it is blank.
+     */
+    private static ParsedLine parseLine(String line) {
+        String[] parts = line.trim().split(" ", 2);
+        if (parts[0].equalsIgnoreCase(TASK_PREFIX)) {
+            parts = parts.length > 1 ? parts[1].trim().split(" ", 2) : new String[] {""};
+        } else if (parts[0].isEmpty()) {
+            return ParsedLine.BLANK;
+        }
+        String args = parts.length > 1 ? parts[1].trim() : "";
+
+        try {
+            TaskType type = toTaskType(CommandType.convertToCommandType(parts[0].toLowerCase()));
+            if (args.isEmpty()) {
+                throw new RagebaitException("A " + parts[0] + " with nothing after it. Really?");
+            }
+            return new ParsedLine(new AddTaskCommand(type, args).createTask(), null);
+        } catch (RagebaitException e) {
+            return new ParsedLine(null, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the type of task a command word creates.
+     *
+     * @throws RagebaitException If the command does not create a task.
+     */
+    private static TaskType toTaskType(CommandType commandType) throws RagebaitException {
+        switch (commandType) {
+        case todo:
+            return TaskType.TODO;
+        case deadline:
+            return TaskType.DEADLINE;
+        case event:
+            return TaskType.EVENT;
+        default:
+            throw new RagebaitException("Only todo, deadline and event lines can be imported. Not "
+                    + commandType + ".");
+        }
+    }
+
+    /**
+     * Result of parsing one line: a task, an error message, or neither for a blank line.
+     */
+    private static class ParsedLine {
+
+        /** Result of a blank line. */
+        private static final ParsedLine BLANK = new ParsedLine(null, null);
+
+        /** Parsed task, or null if the line is bad or blank. */
+        private final Task task;
+
+        /** Why the line is bad, or null if it is not. */
+        private final String error;
+
+        ParsedLine(Task task, String error) {
+            this.task = task;
+            this.error = error;
+        }
+    }
+}
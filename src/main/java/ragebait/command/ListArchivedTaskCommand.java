@@ -0,0 +1,42 @@
+package ragebait.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.ui.UI;
+
+/**
+ * Command to list every task in the archive of completed tasks.
+ *
+ * The archive segments are streamed from disk, since archived tasks are
+ * never kept in memory. Tasks are shown with their archive numbers, which
+ * the restore command takes.
+ */
+public class ListArchivedTaskCommand extends TaskCommand {
+
+    /**
+     * Executes the list archived tasks command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing the task storage.
+     * @return A message listing all archived tasks or indicating the archive is empty.
+     * @throws RagebaitException If archiving is disabled or the archive cannot be read.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        List<Integer> numbers = new ArrayList<>();
+        List<Task> archived = new ArrayList<>();
+        context.taskStorage.getArchive().scan((number, task) -> {
+            numbers.add(number);
+            archived.add(task);
+        });
+
+        if (archived.isEmpty()) {
+            return ui.getNoArchivedTasks();
+        } else {
+            return ui.getArchiveList(numbers, archived);
+        }
+    }
+}
@@ -1,35 +1,71 @@
 package ragebait.command;
 
 import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
 import ragebait.ui.UI;
 
 /**
- * Command to list all contacts in the contact list.
+ * Command to list the contacts in the contact list, one page at a time.
  *
  * If the contact list is empty, a rage-level message is returned
  * to remind the user that the list is barren.
- * Otherwise, a formatted list of contacts is returned via the UI.
+ * Otherwise, the requested page of contacts is returned via the UI with the total count.
  */
 public class ListContactCommand extends ContactCommand {
 
+    /** Number of contacts on a page unless the user asks for another size. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
     /** Represents an empty contact list size. */
     private static final int NO_CONTACTS = 0;
 
+    /** Page to show, starting from 1. */
+    private final int page;
+
+    /** Number of contacts on a page. */
+    private final int pageSize;
+
+    /**
+     * Creates a command listing the first page of contacts.
+     */
+    public ListContactCommand() {
+        this(1, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a command listing one page of contacts.
+     *
+     * @param page Page to show, starting from 1.
+     * @param pageSize Number of contacts on a page.
+     */
+    public ListContactCommand(int page, int pageSize) {
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
     /**
      * Executes the list contact command.
      *
      * @param ui The UI used to generate feedback messages.
      * @param context The execution context containing contacts.
-     * @return A message listing all contacts or indicating no contacts exist.
+     * @return A message listing one page of contacts or indicating no contacts exist.
+     * @throws RagebaitException If the page size is not positive or the page does not exist.
      */
     @Override
-    public String execute(UI ui, Context context) {
+    public String execute(UI ui, Context context) throws RagebaitException {
         ContactList contacts = context.contacts;
+        int size = contacts.size();
 
-        if (contacts.size() == NO_CONTACTS) {
+        if (size == NO_CONTACTS) {
             return ui.getNoContacts();
-        } else {
-            return ui.getContactList(contacts);
         }
+        int pageCount = ListTaskCommand.countPages(size, pageSize);
+        if (page < 1 || page > pageCount) {
+            throw new RagebaitException("There's no page " + page + ". You've got " + pageCount
+                    + (pageCount == 1 ? " page" : " pages") + " of contacts. That's it.");
+        }
+        int from = (page - 1) * pageSize;
+        int to = (int) Math.min((long) from + pageSize, size);
+        return ui.getContactList(contacts.listContacts(from, pageSize), from + 1, to, size, page, pageCount);
     }
 }
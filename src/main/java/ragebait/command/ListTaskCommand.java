@@ -1,35 +1,105 @@
 package ragebait.command;
 
+import ragebait.exception.RagebaitException;
 import ragebait.task.TaskList;
 import ragebait.ui.UI;
 
 /**
- * Command to list all tasks in the TaskList.
+ * Command to list the tasks in the TaskList, one page at a time.
  *
  * If the task list is empty, a rage-level message is returned
  * to remind the user that they have no tasks and should get a life.
- * Otherwise, a formatted list of tasks is displayed via the UI.
+ * Otherwise, the requested page of tasks is displayed via the UI with the
+ * total count, so a huge list never has to be laid out in one go.
  */
 public class ListTaskCommand extends TaskCommand {
 
+    /** Number of tasks on a page unless the user asks for another size. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
     /** Constant representing an empty task list. */
     private static final int NO_TASKS = 0;
 
+    /** Page to show, starting from 1. */
+    private final int page;
+
+    /** Number of tasks on a page. */
+    private final int pageSize;
+
+    /**
+     * Creates a command listing the first page of tasks.
+     */
+    public ListTaskCommand() {
+        this(1, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a command listing one page of tasks.
+     *
+     * @param page Page to show, starting from 1.
+     * @param pageSize Number of tasks on a page.
+     */
+    public ListTaskCommand(int page, int pageSize) {
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the page this command shows.
+     *
+     * @return Page number, starting from 1.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Returns the number of tasks on a page.
+     *
+     * @return Page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
     /**
      * Executes the list task command.
      *
      * @param ui The UI used to generate feedback messages.
      * @param context The execution context containing tasks.
-     * @return A message listing all tasks or indicating no tasks exist.
+     * @return A message listing one page of tasks or indicating no tasks exist.
+     * @throws RagebaitException If the page size is not positive or the page does not exist.
      */
     @Override
-    public String execute(UI ui, Context context) {
+    public String execute(UI ui, Context context) throws RagebaitException {
         TaskList tasks = context.tasks;
+        int size = tasks.size();
 
-        if (tasks.size() == NO_TASKS) {
+        if (size == NO_TASKS) {
             return ui.getNoTasks();
-        } else {
-            return ui.getListHeader(tasks);
         }
+        int pageCount = countPages(size, pageSize);
+        if (page < 1 || page > pageCount) {
+            throw new RagebaitException("There's no page " + page + ". You've got " + pageCount
+                    + (pageCount == 1 ? " page" : " pages") + ". Learn to count.");
+        }
+        int from = (page - 1) * pageSize;
+        int to = (int) Math.min((long) from + pageSize, size);
+        return ui.getListHeader(tasks.listTasks(from, pageSize), from + 1, to, size, page, pageCount);
+    }
+
+    /**
+     * Returns the number of pages a list takes up.
+     *
+     * @param size Number of entries in the list.
+     * @param pageSize Number of entries on a page.
+     * @return Number of pages, at least 1.
+     * @throws RagebaitException If the page size is not positive.
+     */
+    static int countPages(int size, int pageSize) throws RagebaitException {
+        if (pageSize < 1) {
+            throw new RagebaitException("A page with " + pageSize + " entries on it? Pick a size of at least 1.");
+        }
+        return (int) Math.max(1, ((long) size + pageSize - 1) / pageSize);
     }
 }
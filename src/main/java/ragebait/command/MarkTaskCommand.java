@@ -1,25 +1,26 @@
 package ragebait.command;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import ragebait.exception.RagebaitException;
-import ragebait.storage.Storage;
 import ragebait.task.Task;
 import ragebait.task.TaskList;
 import ragebait.ui.UI;
 
 /**
- * Command to mark a task as completed in the TaskList.
+ * Command to mark tasks as completed in the TaskList.
  *
- * The task is selected using its 0-based index.
- * If the index is invalid or the task is already marked,
- * a rage-level RagebaitException is thrown to lecture the user.
+ * The tasks are selected by 0-based index, range or ID through a
+ * TaskSelection. If an index is invalid or a single task is already
+ * marked, a rage-level RagebaitException is thrown to lecture the user.
+ * When several tasks are selected, the ones already marked are skipped,
+ * and the list is persisted once for all of them.
  */
 public class MarkTaskCommand extends TaskCommand {
 
-    /** Minimum valid task index (0-based). */
-    private static final int START_INDEX = 0;
-
-    /** Index of the task to be marked (0-based). */
-    private final int index;
+    /** The tasks to be marked. */
+    private final TaskSelection selection;
 
     /**
      * Constructs a MarkTaskCommand for the task at the specified index.
@@ -27,50 +28,76 @@ public class MarkTaskCommand extends TaskCommand {
      * @param index The 0-based index of the task to mark.
      */
     public MarkTaskCommand(int index) {
-        this.index = index;
+        this(TaskSelection.ofIndex(index));
+    }
+
+    /**
+     * Constructs a MarkTaskCommand for the selected tasks.
+     *
+     * @param selection The tasks to mark.
+     */
+    public MarkTaskCommand(TaskSelection selection) {
+        this.selection = selection;
     }
 
     /**
      * Executes the mark task command.
      *
-     * Marks the specified task as completed and updates storage.
+     * Marks the selected tasks as completed and updates storage.
      *
      * @param ui The UI used to generate feedback messages.
      * @param context The execution context containing tasks and storage.
-     * @return A message confirming the task has been marked as done.
-     * @throws RagebaitException If the task index is out of range
-     *                           or the task is already marked.
+     * @return A message confirming the tasks have been marked as done.
+     * @throws RagebaitException If a task index is out of range
+     *                           or every selected task is already marked.
      */
     @Override
     public String execute(UI ui, Context context) throws RagebaitException {
         TaskList tasks = context.tasks;
-        Storage taskStorage = context.taskStorage;
+        int[] indices = selection.resolve(tasks, "Specified task number does not exist! READ THE LIST NEXT TIME.");
 
-        if (index < START_INDEX || index >= tasks.size()) {
-            throw new RagebaitException(
-                    "Specified task number does not exist! READ THE LIST NEXT TIME."
-            );
-        }
+        if (selection.isSingle()) {
+            Task selectedTask = tasks.get(indices[0]);
 
-        Task selectedTask = tasks.get(index);
+            if (selectedTask.isMarked()) {
+                throw new RagebaitException(
+                        "Task is already marked! Are you even paying attention?"
+                );
+            }
 
-        if (selectedTask.isMarked()) {
-            throw new RagebaitException(
-                    "Task is already marked! Are you even paying attention?"
-            );
+            tasks.markDone(indices[0]);
+            context.persister.markTasksDirty();
+            return ui.getMarked(selectedTask);
         }
 
-        selectedTask.markDone();
-        taskStorage.save(tasks);
-        return ui.getMarked(selectedTask);
+        List<Task> marked = new ArrayList<>();
+        for (int index : indices) {
+            if (!tasks.get(index).isMarked()) {
+                marked.add(tasks.markDone(index));
+            }
+        }
+        if (marked.isEmpty()) {
+            throw new RagebaitException("Every one of those is already marked! Are you even paying attention?");
+        }
+        context.persister.markTasksDirty();
+        return ui.getMarkedMany(marked, indices.length - marked.size());
     }
 
     /**
      * Returns the index of the task to be marked.
      *
-     * @return The 0-based task index.
+     * @return The 0-based task index, or -1 if the task is addressed by ID.
      */
     public int getIndex() {
-        return index;
+        return selection.getIndex();
+    }
+
+    /**
+     * Returns the ID of the task to mark.
+     *
+     * @return The ID, or 0 if the task is addressed by index.
+     */
+    public long getId() {
+        return selection.getId();
     }
 }
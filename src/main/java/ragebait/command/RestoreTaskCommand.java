@@ -0,0 +1,69 @@
+package ragebait.command;
+
+import ragebait.exception.RagebaitException;
+import ragebait.storage.TaskArchive;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+import ragebait.ui.UI;
+
+/**
+ * Command to move a task from the archive back into the TaskList.
+ *
+ * The task is appended to the TaskList and saved before it is removed from
+ * the archive, so a crash in between leaves it in both places rather than
+ * in neither. If the save fails, the task is taken out of the TaskList again,
+ * so it stays in the archive only. It keeps its done status, and ages
+ * towards the archive again from the next sweep.
+ */
+public class RestoreTaskCommand extends TaskCommand {
+
+    /** Number of the task in the archive (1-based, as listed). */
+    private final int number;
+
+    /**
+     * Constructs a RestoreTaskCommand for the archived task with the given number.
+     *
+     * @param number The 1-based archive number of the task to restore.
+     */
+    public RestoreTaskCommand(int number) {
+        this.number = number;
+    }
+
+    /**
+     * Executes the restore task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing tasks and storage.
+     * @return A message confirming the task is back in the list.
+     * @throws RagebaitException If archiving is disabled, the number does not exist,
+     *                           or the task cannot be saved.
+     */
+    @Override
+    public String execute(UI ui, Context context) throws RagebaitException {
+        TaskList tasks = context.tasks;
+        TaskArchive archive = context.taskStorage.getArchive();
+
+        Task restored = archive.get(number);
+        tasks.add(restored);
+        context.persister.markTasksDirty();
+        try {
+            context.persister.flush();
+        } catch (RagebaitException e) {
+            // The archive still holds the task, so it must not stay in the list too
+            tasks.remove(tasks.indexOfId(restored.getId()));
+            context.persister.markTasksDirty();
+            throw e;
+        }
+        archive.remove(number);
+        return ui.getRestored(restored, tasks.size());
+    }
+
+    /**
+     * Returns the archive number of the task to restore.
+     *
+     * @return The 1-based archive number.
+     */
+    public int getNumber() {
+        return number;
+    }
+}
@@ -0,0 +1,51 @@
+package ragebait.command;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import ragebait.task.DescriptionPool;
+import ragebait.task.Task;
+import ragebait.ui.UI;
+
+/**
+ * Command to report how much memory the task descriptions take, with and
+ * without the sharing done by the DescriptionPool.
+ *
+ * Without the pool every task would hold its own copy of its description.
+ * With it, tasks with the same description hold the same String, so only
+ * the distinct String objects count. Both figures are estimates from the
+ * string lengths; the heap in use is what the JVM reports.
+ */
+public class StatsTaskCommand extends TaskCommand {
+
+    /** Bytes per mebibyte, for the heap figure. */
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    /**
+     * Executes the stats task command.
+     *
+     * @param ui The UI used to generate feedback messages.
+     * @param context The execution context containing tasks.
+     * @return A message with the task count and memory figures.
+     */
+    @Override
+    public String execute(UI ui, Context context) {
+        long unpooledBytes = 0;
+        long pooledBytes = 0;
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Task task : context.tasks.getAllTasks()) {
+            long size = DescriptionPool.estimateSize(task.getDescription());
+            unpooledBytes += size;
+            if (seen.add(task.getDescription())) {
+                pooledBytes += size;
+            }
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long heapMb = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MB;
+        DescriptionPool pool = DescriptionPool.getShared();
+        return ui.getStats(context.tasks.size(), seen.size(), unpooledBytes, pooledBytes, heapMb,
+                pool.getLookups(), pool.getHits());
+    }
+}
@@ -0,0 +1,121 @@
+package ragebait.command;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+
+/**
+ * The tasks a mark, unmark or delete command applies to, as typed by the
+ * user: single numbers, ranges of numbers and task IDs, as in
+ * {@code 3,7,10-250,#42}.
+ *
+ * Ranges are kept as typed and only expanded against the list when the
+ * command runs, so a huge range costs nothing until it is checked.
+ */
+public class TaskSelection {
+
+    /** ID of a selection that names no task by ID. */
+    public static final long NO_ID = 0;
+
+    /** First 0-based index of every range. */
+    private final List<Integer> firsts;
+
+    /** Last 0-based index of every range, inclusive. */
+    private final List<Integer> lasts;
+
+    /** IDs of the tasks named by ID. */
+    private final List<Long> ids;
+
+    /**
+     * Constructs a selection of index ranges and IDs.
+     *
+     * @param firsts First 0-based index of every range.
+     * @param lasts Last 0-based index of every range, inclusive, in the same order.
+     * @param ids IDs of the tasks named by ID.
+     */
+    public TaskSelection(List<Integer> firsts, List<Integer> lasts, List<Long> ids) {
+        assert firsts.size() == lasts.size() : "Every range needs a first and a last index.";
+        this.firsts = new ArrayList<>(firsts);
+        this.lasts = new ArrayList<>(lasts);
+        this.ids = new ArrayList<>(ids);
+    }
+
+    /**
+     * Returns a selection of the task at one index.
+     *
+     * @param index The 0-based index.
+     * @return The selection.
+     */
+    public static TaskSelection ofIndex(int index) {
+        return new TaskSelection(List.of(index), List.of(index), List.of());
+    }
+
+    /**
+     * Returns a selection of the task with one ID.
+     *
+     * @param id The ID of the task.
+     * @return The selection.
+     */
+    public static TaskSelection ofId(long id) {
+        return new TaskSelection(List.of(), List.of(), List.of(id));
+    }
+
+    /**
+     * Returns whether the selection names exactly one task, so the command
+     * answers as it always has for a single task.
+     *
+     * @return true for a single number or ID.
+     */
+    public boolean isSingle() {
+        return ids.isEmpty() ? firsts.size() == 1 && firsts.get(0).equals(lasts.get(0))
+                : ids.size() == 1 && firsts.isEmpty();
+    }
+
+    /**
+     * Returns the first index of the first range.
+     *
+     * @return The 0-based index, or -1 if the selection only names IDs.
+     */
+    public int getIndex() {
+        return firsts.isEmpty() ? -1 : firsts.get(0);
+    }
+
+    /**
+     * Returns the first ID of the selection.
+     *
+     * @return The ID, or NO_ID if the selection names no task by ID.
+     */
+    public long getId() {
+        return ids.isEmpty() ? NO_ID : ids.get(0);
+    }
+
+    /**
+     * Returns the current indices of the selected tasks.
+     *
+     * @param tasks The task list.
+     * @param outOfRangeMessage Complaint for a number that is not in the list.
+     * @return Distinct 0-based indices in ascending order.
+     * @throws RagebaitException If a number is out of range or no task has one of the IDs.
+     */
+    public int[] resolve(TaskList tasks, String outOfRangeMessage) throws RagebaitException {
+        BitSet selected = new BitSet(tasks.size());
+        for (int i = 0; i < firsts.size(); i++) {
+            if (firsts.get(i) < 0 || lasts.get(i) >= tasks.size()) {
+                throw new RagebaitException(outOfRangeMessage);
+            }
+            selected.set(firsts.get(i), lasts.get(i) + 1);
+        }
+        for (long id : ids) {
+            int index = tasks.indexOfId(id);
+            if (index < 0) {
+                throw new RagebaitException("There's no task " + TaskList.ID_PREFIX + id
+                        + ". Deleted it already, or just made it up?");
+            }
+            selected.set(index);
+        }
+        return selected.stream().toArray();
+    }
+}
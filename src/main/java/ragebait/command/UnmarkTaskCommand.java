@@ -1,25 +1,26 @@
 package ragebait.command;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import ragebait.exception.RagebaitException;
-import ragebait.storage.Storage;
 import ragebait.task.Task;
 import ragebait.task.TaskList;
 import ragebait.ui.UI;
 
 /**
- * Command to mark a task as not completed (undo mark) in the TaskList.
+ * Command to mark tasks as not completed (undo mark) in the TaskList.
  *
- * The task is identified by its 0-based index.
- * If the index is invalid or the task is already unmarked,
- * a rage-level RagebaitException is thrown to lecture the user.
+ * The tasks are identified by 0-based index, range or ID through a
+ * TaskSelection. If an index is invalid or a single task is already
+ * unmarked, a rage-level RagebaitException is thrown to lecture the user.
+ * When several tasks are selected, the ones not marked are skipped, and
+ * the list is persisted once for all of them.
  */
 public class UnmarkTaskCommand extends TaskCommand {
 
-    /** Minimum valid task index (0-based). */
-    private static final int MIN_INDEX = 0;
-
-    /** Index of the task to unmark (0-based indexing). */
-    private final int index;
+    /** The tasks to unmark. */
+    private final TaskSelection selection;
 
     /**
      * Constructs an UnmarkTaskCommand for the task at the specified index.
@@ -27,53 +28,77 @@ public class UnmarkTaskCommand extends TaskCommand {
      * @param index The 0-based index of the task to unmark.
      */
     public UnmarkTaskCommand(int index) {
-        this.index = index;
+        this(TaskSelection.ofIndex(index));
+    }
+
+    /**
+     * Constructs an UnmarkTaskCommand for the selected tasks.
+     *
+     * @param selection The tasks to unmark.
+     */
+    public UnmarkTaskCommand(TaskSelection selection) {
+        this.selection = selection;
     }
 
     /**
      * Executes the unmark task command.
      *
-     * Marks the specified task as not completed and updates storage.
+     * Marks the selected tasks as not completed and updates storage.
      *
      * @param ui The UI used to generate feedback messages.
      * @param context The execution context containing tasks and storage.
-     * @return A message confirming the task has been unmarked.
-     * @throws RagebaitException If the task index is out of range
-     *                           or the task is already unmarked.
+     * @return A message confirming the tasks have been unmarked.
+     * @throws RagebaitException If a task index is out of range
+     *                           or every selected task is already unmarked.
      */
     @Override
     public String execute(UI ui, Context context) throws RagebaitException {
         TaskList tasks = context.tasks;
-        Storage taskStorage = context.taskStorage;
+        int[] indices = selection.resolve(tasks, "Cannot unmark a task that does not exist! PAY ATTENTION NEXT TIME.");
 
-        int endIndex = tasks.size();
+        if (selection.isSingle()) {
+            Task selectedTask = tasks.get(indices[0]);
 
-        if (index < MIN_INDEX || index >= endIndex) {
-            throw new RagebaitException(
-                    "Cannot unmark a task that does not exist! PAY ATTENTION NEXT TIME."
-            );
-        }
+            if (!selectedTask.isMarked()) {
+                throw new RagebaitException(
+                        "Task is already unmarked! Are you even looking at the list?"
+                );
+            }
 
-        Task selectedTask = tasks.get(index);
+            tasks.markUndone(indices[0]);
+            context.persister.markTasksDirty();
 
-        if (!selectedTask.isMarked()) {
-            throw new RagebaitException(
-                    "Task is already unmarked! Are you even looking at the list?"
-            );
+            return ui.getUnmarked(selectedTask);
         }
 
-        selectedTask.markUndone();
-        taskStorage.save(tasks);
-
-        return ui.getUnmarked(selectedTask);
+        List<Task> unmarked = new ArrayList<>();
+        for (int index : indices) {
+            if (tasks.get(index).isMarked()) {
+                unmarked.add(tasks.markUndone(index));
+            }
+        }
+        if (unmarked.isEmpty()) {
+            throw new RagebaitException("None of those were marked! Are you even looking at the list?");
+        }
+        context.persister.markTasksDirty();
+        return ui.getUnmarkedMany(unmarked, indices.length - unmarked.size());
     }
 
     /**
      * Returns the index of the task to be unmarked.
      *
-     * @return The 0-based task index.
+     * @return The 0-based task index, or -1 if the task is addressed by ID.
      */
     public int getIndex() {
-        return index;
+        return selection.getIndex();
+    }
+
+    /**
+     * Returns the ID of the task to unmark.
+     *
+     * @return The ID, or 0 if the task is addressed by index.
+     */
+    public long getId() {
+        return selection.getId();
     }
 }
@@ -0,0 +1,190 @@
+package ragebait.contacts;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * ContactList that may be read and changed from several threads at once.
+ *
+ * Works like ConcurrentTaskList: the contacts live in a plain ContactList
+ * guarded by a StampedLock, changes take the write lock one at a time and
+ * name searches share the read lock, with the name indexes built up front.
+ * get, size and isEmpty try an optimistic read before taking the read lock.
+ * listContacts() and getAllContacts() keep their result until the next
+ * change, each built by the first call after it, while a page of the
+ * listing is read under the read lock.
+ *
+ * Each method is atomic, but a sequence of calls is not.
+ */
+public class ConcurrentContactList extends ContactList {
+
+    /** Contacts, only touched while holding the lock. */
+    private final ContactList contacts;
+
+    /** Write lock for changes, read lock for searches. */
+    private final StampedLock lock = new StampedLock();
+
+    /** Copy of the contacts as they are, or null if the list changed since the last one. */
+    private volatile List<Contact> contactSnapshot;
+
+    /** Listing of the contacts as they are, or null if the list changed since the last one. */
+    private volatile String listing;
+
+    /**
+     * Constructs an empty ConcurrentContactList.
+     */
+    public ConcurrentContactList() {
+        this(List.of());
+    }
+
+    /**
+     * Constructs a ConcurrentContactList with an existing list of contacts.
+     *
+     * @param contacts List of contacts to initialize the list.
+     */
+    public ConcurrentContactList(List<Contact> contacts) {
+        this.contacts = new ContactList(contacts);
+
+        // Build the lazy name indexes now, so searches only ever read
+        this.contacts.findByName("");
+        this.contacts.findByNameFuzzy("");
+    }
+
+    @Override
+    public void add(Contact c) {
+        write(() -> {
+            contacts.add(c);
+            return null;
+        });
+    }
+
+    @Override
+    public void add(int index, Contact c) {
+        write(() -> {
+            contacts.add(index, c);
+            return null;
+        });
+    }
+
+    @Override
+    public Contact remove(int index) {
+        return write(() -> contacts.remove(index));
+    }
+
+    @Override
+    public List<Contact> findByName(String keyword) {
+        return read(() -> contacts.findByName(keyword));
+    }
+
+    @Override
+    public List<Contact> findByNameFuzzy(String keyword) {
+        return read(() -> contacts.findByNameFuzzy(keyword));
+    }
+
+    @Override
+    public Contact get(int index) {
+        return optimisticRead(() -> contacts.get(index));
+    }
+
+    @Override
+    public int size() {
+        return optimisticRead(contacts::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return optimisticRead(contacts::isEmpty);
+    }
+
+    /**
+     * Returns the contacts in the order they had at one moment, which no
+     * later add or remove affects. The contacts themselves are shared with
+     * the list, so edits to their details show through.
+     *
+     * @return Unmodifiable list of the contacts.
+     */
+    @Override
+    public List<Contact> getAllContacts() {
+        List<Contact> current = contactSnapshot;
+        if (current != null) {
+            return current;
+        }
+        return read(() -> {
+            List<Contact> copy = contactSnapshot;
+            if (copy == null) {
+                copy = List.copyOf(contacts.getAllContacts());
+                contactSnapshot = copy;
+            }
+            return copy;
+        });
+    }
+
+    @Override
+    public String listContacts() {
+        String current = listing;
+        if (current != null) {
+            return current;
+        }
+        return read(() -> {
+            String text = listing;
+            if (text == null) {
+                text = contacts.listContacts();
+                listing = text;
+            }
+            return text;
+        });
+    }
+
+    @Override
+    public String listContacts(int from, int count) {
+        return read(() -> contacts.listContacts(from, count));
+    }
+
+    /**
+     * Runs a short query without locking, and again under the read lock if a
+     * change ran meanwhile.
+     */
+    private <R> R optimisticRead(Supplier<R> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return read(query);
+    }
+
+    /**
+     * Runs a search while holding the read lock.
+     */
+    private <R> R read(Supplier<R> search) {
+        long stamp = lock.readLock();
+        try {
+            return search.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a change while holding the write lock, dropping the cached copy and listing first.
+     */
+    private <R> R write(Supplier<R> change) {
+        long stamp = lock.writeLock();
+        try {
+            contactSnapshot = null;
+            listing = null;
+            return change.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -4,18 +4,31 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import ragebait.index.FuzzyIndex;
+import ragebait.index.TrigramIndex;
+
 /**
  * Represents a collection of Contact objects in Ragebait.
  *
  * Provides methods to add, remove, retrieve, and list contacts.
  * Ensures the internal list cannot be modified directly by callers.
  * Supports creating an empty list or initializing with existing contacts.
+ *
+ * Name searches go through a TrigramIndex, and typo-tolerant ones through
+ * a FuzzyIndex. Each is built on the first search that needs it and kept up
+ * to date as contacts are added and removed.
  */
 public class ContactList {
 
     /** Internal list storing contacts. */
     private final List<Contact> contacts;
 
+    /** Contacts by the trigrams of their names, or null until the first search. */
+    private TrigramIndex<Contact> nameIndex;
+
+    /** Contacts by the words of their names, for typo-tolerant search, or null until the first one. */
+    private FuzzyIndex<Contact> fuzzyIndex;
+
     /**
      * Constructs an empty ContactList.
      */
@@ -40,6 +53,18 @@ public class ContactList {
      */
     public void add(Contact c) {
         contacts.add(c);
+        index(contacts.size() - 1, c);
+    }
+
+    /**
+     * Inserts a contact at the specified index, shifting later contacts up.
+     *
+     * @param index 0-based index the contact will occupy.
+     * @param c The Contact to insert.
+     */
+    public void add(int index, Contact c) {
+        contacts.add(index, c);
+        index(index, c);
     }
 
     /**
@@ -49,7 +74,68 @@ public class ContactList {
      * @return The removed Contact.
      */
     public Contact remove(int index) {
-        return contacts.remove(index);
+        Contact removed = contacts.remove(index);
+        if (nameIndex != null) {
+            nameIndex.remove(removed);
+        }
+        if (fuzzyIndex != null) {
+            fuzzyIndex.remove(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns every contact whose name contains the keyword, ignoring case, in list order.
+     *
+     * @param keyword Keyword to search for.
+     * @return Matching contacts.
+     */
+    public List<Contact> findByName(String keyword) {
+        if (nameIndex == null) {
+            nameIndex = new TrigramIndex<>(contacts, Contact::getName);
+        }
+        List<Contact> matches = nameIndex.find(keyword);
+        if (matches != null) {
+            return matches;
+        }
+
+        // Keyword too short to look up
+        matches = new ArrayList<>();
+        String lowerKeyword = keyword.toLowerCase();
+        for (Contact contact : contacts) {
+            if (contact.getName().toLowerCase().contains(lowerKeyword)) {
+                matches.add(contact);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns every contact with a name word close to each word of the keyword.
+     * Closest matches come first, then list order.
+     *
+     * @param keyword Keyword to search for, possibly misspelt.
+     * @return Matching contacts, closest first.
+     */
+    public List<Contact> findByNameFuzzy(String keyword) {
+        if (fuzzyIndex == null) {
+            fuzzyIndex = new FuzzyIndex<>(contacts, Contact::getName);
+        }
+        return fuzzyIndex.find(keyword);
+    }
+
+    /**
+     * Adds a newly inserted contact to the name indexes that have been built.
+     */
+    private void index(int index, Contact c) {
+        Contact before = index > 0 ? contacts.get(index - 1) : null;
+        Contact after = index + 1 < contacts.size() ? contacts.get(index + 1) : null;
+        if (nameIndex != null && !nameIndex.add(c, before, after)) {
+            nameIndex = new TrigramIndex<>(contacts, Contact::getName);
+        }
+        if (fuzzyIndex != null && !fuzzyIndex.add(c, before, after)) {
+            fuzzyIndex = new FuzzyIndex<>(contacts, Contact::getName);
+        }
     }
 
     /**
@@ -107,4 +193,27 @@ public class ContactList {
         }
         return sb.toString().trim();
     }
+
+    /**
+     * Returns a human-readable string listing one page of contacts, numbered
+     * as in the full listing. Only the contacts on the page are read.
+     *
+     * The position works as a cursor: the next page starts at from + count.
+     *
+     * @param from Index of the first contact on the page.
+     * @param count Maximum number of contacts on the page.
+     * @return Formatted string of the contacts on the page, empty if from is past the end.
+     */
+    public String listContacts(int from, int count) {
+        assert from >= 0 && count >= 0 : "Page must not start or end before the list.";
+        int to = (int) Math.min((long) from + count, contacts.size());
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                sb.append("\n");
+            }
+            sb.append(i + 1).append(". ").append(contacts.get(i));
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,240 @@
+package ragebait.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Typo-tolerant index finding items whose words are within a small edit
+ * distance of the words of a keyword.
+ *
+ * Texts are lower-cased and split into words at every character that is not
+ * a letter or digit. Every distinct word goes into a BK-tree: each child edge
+ * is labelled with the Levenshtein distance between child and parent, so by
+ * the triangle inequality a search within distance d of a word only needs
+ * to follow the edges labelled within d of that word's distance to the
+ * node. A lookup therefore visits a small part of the vocabulary.
+ *
+ * BK-trees cannot drop a word without rebuilding the subtree under it, so a
+ * word that no item uses any more stays in the tree with no postings and is
+ * skipped by searches. If the word comes back, the node is reused.
+ *
+ * @param <T> Type of the indexed items. Items are told apart by identity.
+ */
+public class FuzzyIndex<T> {
+
+    /** Words up to this long may be off by one edit, longer ones by two. */
+    private static final int SHORT_WORD_LENGTH = 4;
+
+    /** Extracts the searchable text of an item. */
+    private final Function<T, String> text;
+
+    /** Items using each word. Words no item uses are absent. */
+    private final Map<String, Set<T>> postings = new HashMap<>();
+
+    /** Position of the items relative to each other. */
+    private final ListOrder<T> order;
+
+    /** Root of the BK-tree over every word seen, or null while empty. */
+    private Node root;
+
+    /**
+     * Builds the index over the given items in one pass.
+     *
+     * @param items Items in list order.
+     * @param text Extracts the searchable text of an item.
+     */
+    public FuzzyIndex(List<T> items, Function<T, String> text) {
+        this.text = text;
+        this.order = new ListOrder<>(items);
+        for (T item : items) {
+            addPostings(item);
+        }
+    }
+
+    /**
+     * Adds an item inserted between two neighbours.
+     *
+     * @param item Inserted item.
+     * @param before Item now just before it, or null if it is first.
+     * @param after Item now just after it, or null if it is last.
+     * @return false if there was no room to order it, and the index must be rebuilt.
+     */
+    public boolean add(T item, T before, T after) {
+        if (!order.add(item, before, after)) {
+            return false;
+        }
+        addPostings(item);
+        return true;
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param item Removed item, the same object that was added.
+     */
+    public void remove(T item) {
+        for (String word : words(text.apply(item))) {
+            Set<T> users = postings.get(word);
+            if (users != null) {
+                users.remove(item);
+                if (users.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+        order.remove(item);
+    }
+
+    /**
+     * Returns the items that have, for every word of the keyword, a word within
+     * one edit of it (two for words longer than four characters). Items are
+     * ranked by the total distance of their closest words, then by list order.
+     *
+     * @param keyword Keyword to search for.
+     * @return Matching items, closest first.
+     */
+    public List<T> find(String keyword) {
+        Map<T, Integer> distances = null;
+        for (String keywordWord : words(keyword)) {
+            int maxDistance = keywordWord.length() <= SHORT_WORD_LENGTH ? 1 : 2;
+            Map<String, Integer> near = new HashMap<>();
+            search(root, keywordWord, maxDistance, near);
+            Map<T, Integer> closest = new IdentityHashMap<>();
+            for (Map.Entry<String, Integer> word : near.entrySet()) {
+                for (T item : postings.getOrDefault(word.getKey(), Collections.emptySet())) {
+                    closest.merge(item, word.getValue(), Math::min);
+                }
+            }
+
+            if (distances == null) {
+                distances = closest;
+            } else {
+                distances.keySet().retainAll(closest.keySet());
+                for (Map.Entry<T, Integer> entry : distances.entrySet()) {
+                    entry.setValue(entry.getValue() + closest.get(entry.getKey()));
+                }
+            }
+            if (distances.isEmpty()) {
+                break;
+            }
+        }
+        if (distances == null) {
+            return new ArrayList<>();
+        }
+
+        Comparator<T> byDistance = Comparator.comparing(distances::get);
+        List<T> matches = new ArrayList<>(distances.keySet());
+        matches.sort(byDistance.thenComparing(order.comparator()));
+        return matches;
+    }
+
+    private void addPostings(T item) {
+        for (String word : words(text.apply(item))) {
+            postings.computeIfAbsent(word, w -> Collections.newSetFromMap(new IdentityHashMap<>())).add(item);
+            insert(word);
+        }
+    }
+
+    /**
+     * Adds a word to the BK-tree unless it is already there.
+     */
+    private void insert(String word) {
+        if (root == null) {
+            root = new Node(word);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Collects every word in the subtree within maxDistance of the given word, with its distance.
+     */
+    private static void search(Node node, String word, int maxDistance, Map<String, Integer> near) {
+        if (node == null) {
+            return;
+        }
+        int distance = distance(word, node.word);
+        if (distance <= maxDistance) {
+            near.put(node.word, distance);
+        }
+        for (int edge = Math.max(1, distance - maxDistance); edge <= distance + maxDistance; edge++) {
+            search(node.children.get(edge), word, maxDistance, near);
+        }
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words.
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Splits text into its distinct lower-cased runs of letters and digits.
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        String lower = text.toLowerCase();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean isWordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Node of the BK-tree.
+     */
+    private static class Node {
+        /** Word held by the node. */
+        private final String word;
+
+        /** Children by their distance to this word. */
+        private final Map<Integer, Node> children = new HashMap<>();
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
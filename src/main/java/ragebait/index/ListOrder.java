@@ -0,0 +1,83 @@
+package ragebait.index;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order keys that increase along a list, so an index holding list items
+ * rather than positions can still return its matches in list order.
+ *
+ * Keys are spaced out, so inserting between two items rarely runs out of
+ * room. Removing an item never moves the others.
+ *
+ * @param <T> Type of the items. Items are told apart by identity.
+ */
+public class ListOrder<T> {
+
+    /** Space left between the keys of neighbouring items. */
+    private static final long GAP = 1L << 20;
+
+    /** Key of every item. */
+    private final Map<T, Long> keys = new IdentityHashMap<>();
+
+    /**
+     * Assigns keys to the given items.
+     *
+     * @param items Items in list order.
+     */
+    public ListOrder(List<T> items) {
+        long key = 0;
+        for (T item : items) {
+            keys.put(item, key);
+            key += GAP;
+        }
+    }
+
+    /**
+     * Assigns a key to an item inserted between two neighbours.
+     *
+     * @param item Inserted item.
+     * @param before Item now just before it, or null if it is first.
+     * @param after Item now just after it, or null if it is last.
+     * @return false if there is no room between the neighbours, and the keys must be reassigned.
+     */
+    public boolean add(T item, T before, T after) {
+        long key;
+        if (before == null && after == null) {
+            key = 0;
+        } else if (after == null) {
+            key = keys.get(before) + GAP;
+        } else if (before == null) {
+            key = keys.get(after) - GAP;
+        } else {
+            long low = keys.get(before);
+            long high = keys.get(after);
+            if (high - low < 2) {
+                return false;
+            }
+            key = low + (high - low) / 2;
+        }
+        keys.put(item, key);
+        return true;
+    }
+
+    /**
+     * Forgets the key of a removed item.
+     *
+     * @param item Removed item.
+     */
+    public void remove(T item) {
+        keys.remove(item);
+    }
+
+    /**
+     * Returns a comparator putting items in list order.
+     *
+     * @return Comparator by key.
+     */
+    public Comparator<T> comparator() {
+        return Comparator.comparingLong(keys::get);
+    }
+}
@@ -0,0 +1,147 @@
+package ragebait.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Trigram index answering case-insensitive substring searches over the
+ * items of a list, with exactly the same results as String.contains.
+ *
+ * Every item's text is lower-cased and each run of three characters in it
+ * is a trigram. Any text containing a keyword also contains every trigram
+ * of the keyword, so a search intersects the postings of the keyword's
+ * trigrams, smallest first, and then checks each candidate exactly.
+ * Keywords shorter than three characters have no trigrams; find() returns
+ * null for them and the caller scans instead.
+ *
+ * Postings hold the items themselves, which do not move when the list
+ * shifts, and a ListOrder puts the matches back in list order.
+ *
+ * @param <T> Type of the indexed items. Items are told apart by identity.
+ */
+public class TrigramIndex<T> {
+
+    /** Length of a gram. */
+    private static final int GRAM_LENGTH = 3;
+
+    /** Extracts the searchable text of an item. */
+    private final Function<T, String> text;
+
+    /** Items containing each trigram, keyed by the three chars packed into a long. */
+    private final Map<Long, Set<T>> postings = new HashMap<>();
+
+    /** Position of the items relative to each other. */
+    private final ListOrder<T> order;
+
+    /**
+     * Builds the index over the given items in one pass.
+     *
+     * @param items Items in list order.
+     * @param text Extracts the searchable text of an item.
+     */
+    public TrigramIndex(List<T> items, Function<T, String> text) {
+        this.text = text;
+        this.order = new ListOrder<>(items);
+        for (T item : items) {
+            addPostings(item);
+        }
+    }
+
+    /**
+     * Adds an item inserted between two neighbours.
+     *
+     * @param item Inserted item.
+     * @param before Item now just before it, or null if it is first.
+     * @param after Item now just after it, or null if it is last.
+     * @return false if there was no room for its order key, and the index must be rebuilt.
+     */
+    public boolean add(T item, T before, T after) {
+        if (!order.add(item, before, after)) {
+            return false;
+        }
+        addPostings(item);
+        return true;
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param item Removed item, the same object that was added.
+     */
+    public void remove(T item) {
+        for (long gram : trigrams(text.apply(item).toLowerCase())) {
+            Set<T> containing = postings.get(gram);
+            if (containing != null) {
+                containing.remove(item);
+                if (containing.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        order.remove(item);
+    }
+
+    /**
+     * Returns the items whose text contains the keyword, ignoring case, in list order.
+     *
+     * @param keyword Keyword to search for.
+     * @return Matching items, or null if the keyword is too short to look up.
+     */
+    public List<T> find(String keyword) {
+        String lowerKeyword = keyword.toLowerCase();
+        Set<Long> grams = trigrams(lowerKeyword);
+        if (grams.isEmpty()) {
+            return null;
+        }
+
+        List<Set<T>> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Set<T> containing = postings.get(gram);
+            if (containing == null) {
+                return new ArrayList<>();
+            }
+            lists.add(containing);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<T> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidates.addAll(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+
+        List<T> matches = new ArrayList<>();
+        for (T item : candidates) {
+            if (text.apply(item).toLowerCase().contains(lowerKeyword)) {
+                matches.add(item);
+            }
+        }
+        matches.sort(order.comparator());
+        return matches;
+    }
+
+    private void addPostings(T item) {
+        for (long gram : trigrams(text.apply(item).toLowerCase())) {
+            postings.computeIfAbsent(gram, g -> Collections.newSetFromMap(new IdentityHashMap<>())).add(item);
+        }
+    }
+
+    /**
+     * Returns the distinct trigrams of lower-cased text, each packed into a long.
+     */
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
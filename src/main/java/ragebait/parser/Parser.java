@@ -1,22 +1,35 @@
 package ragebait.parser;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import ragebait.command.AddContactCommand;
 import ragebait.command.AddTaskCommand;
+import ragebait.command.BetweenTaskCommand;
 import ragebait.command.Category;
 import ragebait.command.Command;
 import ragebait.command.CommandType;
 import ragebait.command.ContactCommand;
 import ragebait.command.DeleteContactCommand;
 import ragebait.command.DeleteTaskCommand;
+import ragebait.command.DueTaskCommand;
 import ragebait.command.ExitCommand;
+import ragebait.command.ExportTaskCommand;
+import ragebait.command.FindArchivedTaskCommand;
 import ragebait.command.FindContactCommand;
 import ragebait.command.FindTaskCommand;
+import ragebait.command.ImportTaskCommand;
+import ragebait.command.ListArchivedTaskCommand;
 import ragebait.command.ListContactCommand;
 import ragebait.command.ListTaskCommand;
 import ragebait.command.MarkTaskCommand;
+import ragebait.command.RestoreTaskCommand;
+import ragebait.command.StatsTaskCommand;
 import ragebait.command.TaskCommand;
+import ragebait.command.TaskSelection;
 import ragebait.command.UnmarkTaskCommand;
 import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
 import ragebait.task.TaskType;
 
 /**
@@ -39,6 +52,13 @@ public class Parser {
     private static final int COMMAND_PARTS_LIMIT = 3;
     private static final int USER_INDEX_OFFSET = 1;
     private static final String EMPTY = "";
+    private static final String ARCHIVE_LIST = "list";
+    private static final String ARCHIVE_FIND = "find";
+    private static final String ARCHIVE_RESTORE = "restore";
+    private static final String SELECTION_SEPARATOR = ",";
+    private static final char RANGE_SEPARATOR = '-';
+    private static final String PAGE = "page";
+    private static final String PAGE_SIZE = "size";
 
     /**
      * Parses a raw user input string into the corresponding Command object.
@@ -83,16 +103,17 @@ public class Parser {
     private static TaskCommand parseTaskCommand(CommandType commandType, String args) throws RagebaitException {
         switch (commandType) {
         case list:
-            return new ListTaskCommand();
+            int[] taskPage = parsePage(args, ListTaskCommand.DEFAULT_PAGE_SIZE, "task");
+            return new ListTaskCommand(taskPage[0], taskPage[1]);
         case mark:
             requireArgs(args, "Specify an existing task number! Check using command task list!");
-            return new MarkTaskCommand(parseIndex(args));
+            return new MarkTaskCommand(parseSelection(args));
         case unmark:
             requireArgs(args, "Specify an existing task number! Check using command task list!");
-            return new UnmarkTaskCommand(parseIndex(args));
+            return new UnmarkTaskCommand(parseSelection(args));
         case delete:
             requireArgs(args, "Specify an existing task number! Check using command task list!");
-            return new DeleteTaskCommand(parseIndex(args));
+            return new DeleteTaskCommand(parseSelection(args));
         case todo:
             requireArgs(args, "The description of a todo cannot be empty. Do you even type?");
             return new AddTaskCommand(TaskType.TODO, args);
@@ -105,15 +126,52 @@ public class Parser {
         case find:
             requireArgs(args, "Provide a keyword to search for a task! Seriously?");
             return new FindTaskCommand(args);
+        case export:
+            requireArgs(args, "Export to where? Give me a file path!");
+            return new ExportTaskCommand(args);
+        case import_:
+            requireArgs(args, "Import from where? Give me a file path!");
+            return new ImportTaskCommand(args);
+        case due:
+            requireArgs(args, "Due before when? Use: task due /before d/M/yyyy HHmm.");
+            return new DueTaskCommand(args);
+        case between:
+            requireArgs(args, "Between what and what? Use: task between /from d/M/yyyy HHmm /to d/M/yyyy HHmm.");
+            return new BetweenTaskCommand(args);
+        case stats:
+            return new StatsTaskCommand();
+        case archive:
+            requireArgs(args, "Archive what? Use task archive list, find <keyword> or restore <number>.");
+            return parseArchiveCommand(args);
         default:
             throw new RagebaitException("Unknown command! Are you making this up?");
         }
     }
 
+    private static TaskCommand parseArchiveCommand(String args) throws RagebaitException {
+        String[] parts = args.split(" ", 2);
+        String archiveArgs = parts.length > 1 ? parts[1].trim() : EMPTY;
+
+        switch (parts[0].toLowerCase()) {
+        case ARCHIVE_LIST:
+            return new ListArchivedTaskCommand();
+        case ARCHIVE_FIND:
+            requireArgs(archiveArgs, "Provide a keyword to search the archive! It's not a mind reader.");
+            return new FindArchivedTaskCommand(archiveArgs);
+        case ARCHIVE_RESTORE:
+            requireArgs(archiveArgs, "Specify an archived task number! Check using command task archive list!");
+            return new RestoreTaskCommand(parseNumber(archiveArgs));
+        default:
+            throw new RagebaitException("Unknown archive command: \"" + parts[0]
+                    + "\". It's list, find or restore. Three options. You can do this.");
+        }
+    }
+
     private static ContactCommand parseContactCommand(CommandType commandType, String args) throws RagebaitException {
         switch (commandType) {
         case list:
-            return new ListContactCommand();
+            int[] contactPage = parsePage(args, ListContactCommand.DEFAULT_PAGE_SIZE, "contact");
+            return new ListContactCommand(contactPage[0], contactPage[1]);
         case add:
             requireArgs(args, "The details of the contact cannot be empty! Enter something, will ya?");
             return new AddContactCommand(args);
@@ -141,6 +199,36 @@ public class Parser {
         }
     }
 
+    /**
+     * Converts the arguments of a list command, nothing or {@code page N [size M]},
+     * into a page number and page size.
+     *
+     * @param args the user input after list
+     * @param defaultPageSize the page size when none is given
+     * @param category the category listed, for the error message
+     * @return the page number, starting from 1, and the page size
+     * @throws RagebaitException if the arguments are not of that form
+     */
+    private static int[] parsePage(String args, int defaultPageSize, String category) throws RagebaitException {
+        if (args.isEmpty()) {
+            return new int[] {1, defaultPageSize};
+        }
+        String[] parts = args.split("\\s+");
+        boolean isPage = (parts.length == 2 || parts.length == 4) && parts[0].equalsIgnoreCase(PAGE)
+                && (parts.length == 2 || parts[2].equalsIgnoreCase(PAGE_SIZE));
+        if (!isPage) {
+            throw new RagebaitException("It's " + category + " list, or " + category
+                    + " list page <number> [size <number>]. Not whatever that was.");
+        }
+        try {
+            int page = Integer.parseInt(parts[1]);
+            int pageSize = parts.length == 4 ? Integer.parseInt(parts[3]) : defaultPageSize;
+            return new int[] {page, pageSize};
+        } catch (NumberFormatException e) {
+            throw new RagebaitException("Page numbers are numbers! Stop typing garbage!");
+        }
+    }
+
     /**
      * Converts a user-provided index to a 0-based integer.
      *
@@ -149,8 +237,85 @@ public class Parser {
      * @throws RagebaitException if the input is not a valid integer
      */
     private static int parseIndex(String args) throws RagebaitException {
+        return parseNumber(args) - USER_INDEX_OFFSET;
+    }
+
+    /**
+     * Converts a user-provided selection of tasks, such as {@code 3,7,10-250,#42},
+     * into 0-based index ranges and task IDs.
+     *
+     * @param args the user input, comma-separated numbers, ranges and IDs
+     * @return the selection
+     * @throws RagebaitException if a part is empty, not a number, or a range runs backwards
+     */
+    private static TaskSelection parseSelection(String args) throws RagebaitException {
+        List<Integer> firsts = new ArrayList<>();
+        List<Integer> lasts = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (String part : args.split(SELECTION_SEPARATOR, -1)) {
+            String item = part.trim();
+            if (item.isEmpty()) {
+                throw new RagebaitException("Nothing between those commas! Numbers go there. Try again.");
+            }
+            if (isId(item)) {
+                ids.add(parseId(item));
+                continue;
+            }
+
+            // Skip the first char so that a lone negative number is read as one number
+            int dash = item.indexOf(RANGE_SEPARATOR, 1);
+            int first = parseIndex(dash < 0 ? item : item.substring(0, dash).trim());
+            int last = dash < 0 ? first : parseIndex(item.substring(dash + 1).trim());
+            if (last < first) {
+                throw new RagebaitException("Ranges go from low to high. " + item
+                        + " is not a range, it's a cry for help.");
+            }
+            firsts.add(first);
+            lasts.add(last);
+        }
+        return new TaskSelection(firsts, lasts, ids);
+    }
+
+    /**
+     * Returns whether a task is addressed by its ID, as in {@code #12}, rather than its number.
+     *
+     * @param args the user input
+     * @return true if the input starts with the ID prefix
+     */
+    private static boolean isId(String args) {
+        return args.startsWith(TaskList.ID_PREFIX);
+    }
+
+    /**
+     * Converts a user-provided task ID, prefix included, into the ID.
+     *
+     * @param args the user input, such as {@code #12}
+     * @return the ID
+     * @throws RagebaitException if the rest of the input is not a positive integer
+     */
+    private static long parseId(String args) throws RagebaitException {
+        long id;
+        try {
+            id = Long.parseLong(args.substring(TaskList.ID_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            id = 0;
+        }
+        if (id <= 0) {
+            throw new RagebaitException("Task IDs look like #12. Positive numbers, no decorations.");
+        }
+        return id;
+    }
+
+    /**
+     * Converts a user-provided number as it was typed, without shifting it to 0-based.
+     *
+     * @param args the user input number string
+     * @return the number
+     * @throws RagebaitException if the input is not a valid integer
+     */
+    private static int parseNumber(String args) throws RagebaitException {
         try {
-            return Integer.parseInt(args) - USER_INDEX_OFFSET;
+            return Integer.parseInt(args);
         } catch (NumberFormatException e) {
             throw new RagebaitException("Task number must be a valid integer! Stop typing garbage!");
         }
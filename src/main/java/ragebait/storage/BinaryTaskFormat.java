@@ -0,0 +1,220 @@
+package ragebait.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Event;
+import ragebait.task.Task;
+import ragebait.task.ToDo;
+
+/**
+ * Compact binary layout for the task storage file.
+ *
+ * Layout:
+ * - header: the magic bytes "RGBT" followed by a one-byte version
+ * - per task: a type/done byte, the UTF-8 description length as an unsigned
+ *   varint, the description bytes, then the epoch minute (UTC) of Deadline.by,
+ *   or of Event from and to, as 8-byte longs
+ *
+ * Records run until the end of the file, so the file can be written
+ * in a single streaming pass without knowing the task count upfront.
+ */
+public class BinaryTaskFormat {
+
+    /** Magic bytes at the start of every binary task file. */
+    private static final byte[] MAGIC = {'R', 'G', 'B', 'T'};
+
+    /** Current layout version. */
+    private static final byte VERSION = 1;
+
+    /** Type codes stored in the low bits of the type/done byte. */
+    private static final int TODO_CODE = 0;
+    private static final int DEADLINE_CODE = 1;
+    private static final int EVENT_CODE = 2;
+
+    /** Bit of the type/done byte set for completed tasks. */
+    private static final int DONE_BIT = 0x80;
+
+    /** Mask selecting the type code from the type/done byte. */
+    private static final int TYPE_MASK = 0x7F;
+
+    /** Seconds per epoch minute. */
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    /**
+     * Returns whether the file starts with the binary task file magic.
+     *
+     * @param file File to inspect.
+     * @return true if the file is in the binary format.
+     * @throws RagebaitException If the file cannot be read.
+     */
+    public static boolean isBinary(File file) throws RagebaitException {
+        try (InputStream in = new FileInputStream(file)) {
+            return Arrays.equals(MAGIC, in.readNBytes(MAGIC.length));
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to read storage file: " + file.getPath(), e);
+        }
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param out Stream positioned at the start of the file.
+     * @throws IOException If writing fails.
+     */
+    public void writeHeader(DataOutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * Reads and checks the file header.
+     *
+     * @param in Stream positioned at the start of the file.
+     * @throws IOException If reading fails.
+     * @throws RagebaitException If the magic or version is not supported.
+     */
+    public void readHeader(DataInputStream in) throws IOException, RagebaitException {
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new RagebaitException("Not a binary task file. Who renamed what?");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new RagebaitException("Binary task file version " + version
+                    + " is from the future. Update the app, then come back.");
+        }
+    }
+
+    /**
+     * Writes one task record.
+     *
+     * @param task Task to write.
+     * @param out Stream positioned after the header or a previous record.
+     * @throws IOException If writing fails.
+     */
+    public void write(Task task, DataOutputStream out) throws IOException {
+        out.writeByte(typeByte(task));
+        writeDescription(task.getDescription().getBytes(StandardCharsets.UTF_8), out);
+
+        if (task instanceof Deadline) {
+            out.writeLong(toEpochMinute(((Deadline) task).getBy()));
+        } else if (task instanceof Event) {
+            out.writeLong(toEpochMinute(((Event) task).getFrom()));
+            out.writeLong(toEpochMinute(((Event) task).getTo()));
+        }
+    }
+
+    /**
+     * Returns the type/done byte that starts the record of a task.
+     *
+     * @param task Task to describe.
+     * @return Type code combined with the done bit.
+     */
+    public int typeByte(Task task) {
+        int done = task.isMarked() ? DONE_BIT : 0;
+        if (task instanceof Deadline) {
+            return DEADLINE_CODE | done;
+        } else if (task instanceof Event) {
+            return EVENT_CODE | done;
+        } else {
+            return TODO_CODE | done;
+        }
+    }
+
+    /**
+     * Returns the length of the file header in bytes.
+     *
+     * @return Header length.
+     */
+    public int headerLength() {
+        return MAGIC.length + 1;
+    }
+
+    /**
+     * Reads the next task record.
+     *
+     * @param in Stream positioned after the header or a previous record.
+     * @return The task read, or null at the end of the file.
+     * @throws IOException If reading fails or a record is cut short.
+     * @throws RagebaitException If a record has an unknown type.
+     */
+    public Task read(DataInputStream in) throws IOException, RagebaitException {
+        int header = in.read();
+        if (header < 0) {
+            return null;
+        }
+        boolean isDone = (header & DONE_BIT) != 0;
+        String description = readDescription(in);
+
+        switch (header & TYPE_MASK) {
+        case TODO_CODE:
+            return new ToDo(description, isDone);
+        case DEADLINE_CODE:
+            return new Deadline(description, fromEpochMinute(in.readLong()), isDone);
+        case EVENT_CODE:
+            LocalDateTime from = fromEpochMinute(in.readLong());
+            return new Event(description, from, fromEpochMinute(in.readLong()), isDone);
+        default:
+            throw new RagebaitException("Unknown task type code " + (header & TYPE_MASK)
+                    + " in binary storage. What did you put in here?");
+        }
+    }
+
+    /**
+     * Writes a description as an unsigned varint length followed by its bytes.
+     */
+    private static void writeDescription(byte[] description, DataOutputStream out) throws IOException {
+        int length = description.length;
+        while ((length & ~0x7F) != 0) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+        out.write(description);
+    }
+
+    /**
+     * Reads a description written by writeDescription.
+     */
+    private static String readDescription(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (shift > 21) {
+                throw new IOException("Description length varint is too long.");
+            }
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts a date-time to minutes since the epoch, in UTC.
+     */
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    /**
+     * Converts minutes since the epoch, in UTC, back to a date-time.
+     */
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,46 @@
+package ragebait.storage;
+
+import ragebait.contacts.Contact;
+import ragebait.exception.RagebaitException;
+
+/**
+ * Converts contacts to and from single lines of the contact storage file.
+ *
+ * Line format: name | phone | email
+ */
+public class ContactCodec implements RecordCodec<Contact> {
+
+    /** Regex separator used for file storage. */
+    private static final String SEPARATOR = " \\| ";
+
+    /**
+     * Parses a single storage line into a Contact.
+     *
+     * @param line Line without its terminator.
+     * @return Contact represented by the line.
+     * @throws RagebaitException If the line format is invalid or corrupted.
+     */
+    @Override
+    public Contact decode(CharSequence line) throws RagebaitException {
+        String[] parts = line.toString().split(SEPARATOR);
+        if (parts.length != 3) {
+            throw new RagebaitException("Corrupted contact line detected: " + line + " WHAT DID YOU DO?!");
+        }
+        String name = parts[0].trim();
+        String phone = parts[1].trim();
+        String email = parts[2].trim();
+
+        return new Contact(name, phone, email);
+    }
+
+    /**
+     * Appends the storage line of a contact, without a terminator.
+     *
+     * @param contact Contact to encode.
+     * @param out Builder receiving the line.
+     */
+    @Override
+    public void encode(Contact contact, StringBuilder out) {
+        out.append(contact.toFileFormat());
+    }
+}
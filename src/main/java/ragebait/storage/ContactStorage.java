@@ -1,11 +1,6 @@
 package ragebait.storage;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
 
 import ragebait.contacts.Contact;
 import ragebait.contacts.ContactList;
@@ -14,17 +9,20 @@ import ragebait.exception.RagebaitException;
 /**
  * Handles persistent storage of contacts for the Ragebait application.
  *
- * Supports loading contacts from a file and saving them back.
- * Ensures directories exist and throws rage-level exceptions when
- * the file is missing, corrupted, or unwritable.
+ * Supports loading contacts from a file and saving them back through a
+ * RecordStore. Ensures directories exist and throws rage-level exceptions
+ * when the file is corrupted or unwritable.
  */
 public class ContactStorage {
 
-    /** Regex separator used for file storage. */
-    private static final String SEPARATOR = " \\| ";
+    /** Codec converting contacts to and from storage lines. */
+    private static final ContactCodec CODEC = new ContactCodec();
 
-    /** Path to the storage file. */
-    private final String filePath;
+    /** Store reading and writing the contact lines. */
+    private final RecordStore<Contact> store;
+
+    /** How the storage file looked after this process last wrote it. */
+    private final WriteStamp lastWrite;
 
     /**
      * Constructs a ContactStorage for the given file path.
@@ -32,7 +30,22 @@ public class ContactStorage {
      * @param filePath Path to the file where contacts will be loaded/saved.
      */
     public ContactStorage(String filePath) {
-        this.filePath = filePath;
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a ContactStorage for the given file path and durability.
+     *
+     * In durable mode every save writes a temp file, forces it to disk and
+     * atomically renames it over the storage file. Saves that arrive while
+     * another one is being written are batched into one group commit.
+     *
+     * @param filePath Path to the file where contacts will be loaded/saved.
+     * @param isDurable Whether saves are forced to disk and atomically renamed into place.
+     */
+    public ContactStorage(String filePath, boolean isDurable) {
+        this.store = new RecordStore<>(new File(filePath), CODEC, "contact", isDurable);
+        this.lastWrite = new WriteStamp(new File(filePath));
     }
 
     /**
@@ -46,70 +59,74 @@ public class ContactStorage {
      */
     public ContactList load() throws RagebaitException {
         ContactList contacts = new ContactList();
-        File file = new File(filePath);
-
-        File parent = file.getParentFile();
-        if (parent != null) {
-            parent.mkdirs();
-        }
-
-        if (!file.exists()) {
-            return contacts; // Empty list, calm down
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                try {
-                    Contact contact = parseContactLine(line);
-                    contacts.add(contact);
-                } catch (RagebaitException e) {
-                    throw new RagebaitException("Aborting load. Corrupted line: " + line, e);
-                }
-            }
-        } catch (IOException e) {
-            throw new RagebaitException("Error reading contact storage file: " + filePath, e);
-        }
-
+        store.load(contacts::add);
         return contacts;
     }
 
     /**
-     * Saves all contacts to the storage file.
+     * Returns whether the storage file is still exactly as this process last
+     * wrote it, judged by its size, modification time and file key without
+     * reading it. A file watcher uses this to skip the events of our own saves.
      *
-     * @param contacts ContactList containing all contacts to persist.
-     * @throws RagebaitException If writing to the file fails.
+     * @return false if this process never wrote the file, or it changed since.
      */
-    public void save(ContactList contacts) throws RagebaitException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath))) {
-            for (Contact c : contacts.getAllContacts()) {
-                bw.write(c.toFileFormat());
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            throw new RagebaitException("Error saving contacts to file: " + filePath
-                    + ". Fix your disk or permissions!", e);
-        }
+    public boolean isUnchangedSinceWrite() {
+        return lastWrite.isUnchanged();
     }
 
     /**
-     * Parses a single line from storage into a Contact object.
+     * Brings the ContactList in line with the storage file after it was
+     * changed by another program, editing only the contacts that differ.
      *
-     * Expected format: name | phone | email
+     * The caller must make sure the ContactList has no unsaved changes,
+     * which would otherwise be lost.
      *
-     * @param line Line from the storage file.
-     * @return Contact object created from the line.
-     * @throws RagebaitException If the line format is invalid or corrupted.
+     * @param contacts ContactList previously loaded from or saved to this storage.
+     * @return Number of contacts removed plus number inserted.
+     * @throws RagebaitException If the file cannot be loaded.
      */
-    private Contact parseContactLine(String line) throws RagebaitException {
-        String[] parts = line.split(SEPARATOR);
-        if (parts.length != 3) {
-            throw new RagebaitException("Corrupted contact line detected: " + line + " WHAT DID YOU DO?!");
-        }
-        String name = parts[0].trim();
-        String phone = parts[1].trim();
-        String email = parts[2].trim();
+    public int reload(ContactList contacts) throws RagebaitException {
+        return reload(contacts, load());
+    }
+
+    /**
+     * Brings the ContactList in line with a list freshly loaded from the
+     * storage file, editing only the contacts that differ.
+     *
+     * Callers that must hold a lock while the ContactList changes can load
+     * first, outside the lock, and only apply the result under it. The caller
+     * must make sure nothing was saved since the list was loaded, and that
+     * the ContactList has no unsaved changes.
+     *
+     * @param contacts ContactList previously loaded from or saved to this storage.
+     * @param loaded ContactList returned by load().
+     * @return Number of contacts removed plus number inserted.
+     */
+    public int reload(ContactList contacts, ContactList loaded) {
+        return RecordDiff.apply(contacts.getAllContacts(), loaded.getAllContacts(), CODEC,
+                new RecordDiff.Editor<Contact>() {
+                    @Override
+                    public void remove(int index) {
+                        contacts.remove(index);
+                    }
+
+                    @Override
+                    public void insert(int index, Contact contact) {
+                        contacts.add(index, contact);
+                    }
+                });
+    }
 
-        return new Contact(name, phone, email);
+    /**
+     * Saves all contacts to the storage file.
+     *
+     * In durable mode the save is part of a group commit and is on disk once this returns.
+     *
+     * @param contacts ContactList containing all contacts to persist.
+     * @throws RagebaitException If writing to the file fails.
+     */
+    public void save(ContactList contacts) throws RagebaitException {
+        store.save(contacts.getAllContacts());
+        lastWrite.record();
     }
 }
@@ -0,0 +1,194 @@
+package ragebait.storage;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import ragebait.exception.RagebaitException;
+
+/**
+ * Watches data files for changes made by other programs, using a WatchService
+ * on their directories, and runs a handler for every file that changed.
+ *
+ * Editors and sync tools often write a file in several steps, so events are
+ * collected until the directory has been quiet for a short while, and each
+ * changed file is then handled once. Handlers run on the watcher thread,
+ * and their failures go to the FailureHandler given on construction.
+ *
+ * Saves made by Ragebait itself are reported too. Handlers are expected to
+ * recognise them, for example through Storage.isUnchangedSinceWrite(), and
+ * do nothing.
+ */
+public class DataFileWatcher {
+
+    /** Name of the watcher thread. */
+    private static final String THREAD_NAME = "ragebait-file-watcher";
+
+    /** How long a directory must stay quiet before the changes are handled. */
+    private static final long SETTLE_MILLIS = 50;
+
+    /** Service delivering the directory events. */
+    private final WatchService watchService;
+
+    /** Handlers by watched file, keyed by absolute path. */
+    private final Map<Path, ChangeHandler> handlers = new HashMap<>();
+
+    /** Watched directory of every registration. */
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /** Receives the failures of handlers. */
+    private final FailureHandler failureHandler;
+
+    /** Watcher thread, started by start(). */
+    private Thread thread;
+
+    /**
+     * Reacts to a watched file having changed on disk.
+     */
+    @FunctionalInterface
+    public interface ChangeHandler {
+
+        /**
+         * Handles a change of the watched file.
+         *
+         * @throws RagebaitException If the new contents cannot be applied.
+         */
+        void fileChanged() throws RagebaitException;
+    }
+
+    /**
+     * Reports a ChangeHandler that failed. The watcher carries on either way.
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+
+        /**
+         * Reports the failure of the handler of a changed file.
+         *
+         * @param file Watched file whose change could not be applied.
+         * @param e RagebaitException or RuntimeException thrown by the handler.
+         */
+        void handlerFailed(Path file, Exception e);
+    }
+
+    /**
+     * Constructs a watcher on the default file system.
+     *
+     * @param failureHandler Receives the failures of handlers, on the watcher thread.
+     * @throws IOException If the WatchService cannot be created.
+     */
+    public DataFileWatcher(FailureHandler failureHandler) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Runs the handler whenever the given file is created, replaced or modified.
+     *
+     * @param filePath File to watch. Its directory must exist.
+     * @param handler Handler run on the watcher thread after each change.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public synchronized void watch(String filePath, ChangeHandler handler) throws IOException {
+        Path file = Paths.get(filePath).toAbsolutePath();
+        Path directory = file.getParent();
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, directory);
+        handlers.put(file, handler);
+    }
+
+    /**
+     * Starts the watcher thread. The thread is a daemon and stops on close().
+     */
+    public synchronized void start() {
+        assert thread == null : "Watcher already started.";
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching. A handler that is already running is not interrupted.
+     *
+     * @throws IOException If the WatchService cannot be closed.
+     */
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Watcher loop: collects changed files until things settle, then handles each once.
+     */
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                do {
+                    collect(key, changed);
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                for (Path file : changed) {
+                    handle(file);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed on exit, nothing left to watch
+        }
+    }
+
+    /**
+     * Adds every watched file named by the key's pending events, then re-arms the key.
+     */
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory;
+        synchronized (this) {
+            directory = directories.get(key);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so any file in the directory may have changed
+                synchronized (this) {
+                    handlers.keySet().stream()
+                            .filter(file -> file.getParent().equals(directory))
+                            .forEach(changed::add);
+                }
+            } else if (directory != null) {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Runs the handler of a changed file, if it is watched, reporting failures without stopping.
+     */
+    private void handle(Path file) {
+        ChangeHandler handler;
+        synchronized (this) {
+            handler = handlers.get(file);
+        }
+        if (handler == null) {
+            return; // Temp files and other neighbours, not our business
+        }
+        try {
+            handler.fileChanged();
+        } catch (RagebaitException | RuntimeException e) {
+            failureHandler.handlerFailed(file, e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package ragebait.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces a file crash-safely, batching concurrent replacements into one write.
+ *
+ * Every commit writes the new contents to a temp file through a FileChannel,
+ * forces it to disk, atomically renames it over the target and forces the
+ * directory, so a crash leaves either the old or the new file, never a
+ * truncated one, and a commit that returned survives a power cut.
+ *
+ * Each commit carries the complete new contents, so a commit that arrives
+ * while another one is being written only needs the newest contents to reach
+ * the disk. All commits waiting behind an in-flight write are folded into a
+ * single group commit of the newest contents, and each caller returns once
+ * a write covering its request is durable.
+ *
+ * The write-behind persister already folds a burst of commands into one
+ * save per file, so commits only group when saves from other threads
+ * overlap it, such as a journal compaction finishing while the next one
+ * is requested.
+ */
+public class GroupCommitFile {
+
+    /** Suffix of the temp file written before the rename. */
+    private static final String TEMP_SUFFIX = ".commit";
+
+    /** Whether directories cannot be opened to force them. */
+    private static final boolean IS_WINDOWS = System.getProperty("os.name").startsWith("Windows");
+
+    /** File being replaced. */
+    private final File target;
+
+    /** Temp file the contents are written to before the rename. */
+    private final File tempFile;
+
+    /** Whether the temp file is deleted when a write fails. */
+    private final boolean isCleaningUp;
+
+    /** Number of commits requested so far. */
+    private long requestedTicket;
+
+    /** Highest ticket covered by a finished write, successful or not. */
+    private long finishedTicket;
+
+    /** Whether a write is in flight. */
+    private boolean isWriting;
+
+    /** Newest contents not yet handed to a writer. */
+    private Contents pending;
+
+    /** Lowest ticket covered by the most recent failed write. */
+    private long failedFrom;
+
+    /** Highest ticket covered by the most recent failed write. */
+    private long failedTicket;
+
+    /** Failure of the most recent failed write. */
+    private IOException failure;
+
+    /**
+     * Contents written in full by a commit.
+     */
+    @FunctionalInterface
+    public interface Contents {
+
+        /**
+         * Writes the complete file contents.
+         *
+         * @param out Stream positioned at the start of the file. Not to be closed.
+         * @throws IOException If writing fails.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Constructs a committer for the given file.
+     *
+     * @param target File to replace on every commit.
+     */
+    public GroupCommitFile(File target) {
+        this(target, new File(target.getPath() + TEMP_SUFFIX), true);
+    }
+
+    /**
+     * Constructs a committer for the given file that writes through a temp
+     * file the caller owns. The temp file is left in place when a write
+     * fails, so the caller can tell an unfinished replacement apart after a crash.
+     *
+     * @param target File to replace on every commit.
+     * @param tempFile Temp file to write before the rename.
+     */
+    public GroupCommitFile(File target, File tempFile) {
+        this(target, tempFile, false);
+    }
+
+    private GroupCommitFile(File target, File tempFile, boolean isCleaningUp) {
+        this.target = target;
+        this.tempFile = tempFile;
+        this.isCleaningUp = isCleaningUp;
+    }
+
+    /**
+     * Durably replaces the file with the given contents, or with newer
+     * contents committed concurrently.
+     *
+     * @param contents Complete new file contents.
+     * @throws IOException If the write covering this request failed.
+     */
+    public void commit(Contents contents) throws IOException {
+        long ticket;
+        Contents newest;
+        long groupStart;
+        long groupTicket;
+        synchronized (this) {
+            ticket = ++requestedTicket;
+            pending = contents;
+            while (isWriting && finishedTicket < ticket) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a group commit.", e);
+                }
+            }
+            if (finishedTicket >= ticket) {
+                throwIfFailed(ticket);
+                return;
+            }
+            // This caller leads the next group: write whatever is newest by now
+            isWriting = true;
+            newest = pending;
+            groupStart = finishedTicket + 1;
+            groupTicket = requestedTicket;
+            pending = null;
+        }
+
+        IOException error = null;
+        try {
+            replace(newest);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            finishedTicket = groupTicket;
+            if (error != null) {
+                failedFrom = groupStart;
+                failedTicket = groupTicket;
+                failure = error;
+            }
+            isWriting = false;
+            notifyAll();
+            throwIfFailed(ticket);
+        }
+    }
+
+    /**
+     * Rethrows the failure of the write that covered the given ticket, if any.
+     */
+    private void throwIfFailed(long ticket) throws IOException {
+        if (failure != null && ticket >= failedFrom && ticket <= failedTicket) {
+            throw new IOException("Group commit failed for " + target.getPath(), failure);
+        }
+    }
+
+    /**
+     * Writes the contents to the temp file, forces it, renames it over the
+     * target and forces the directory holding the target.
+     *
+     * @param contents Contents to write.
+     * @throws IOException If any step fails. The target is left untouched
+     *         unless only forcing the directory failed.
+     */
+    private void replace(Contents contents) throws IOException {
+        try {
+            write(tempFile, contents, true);
+            Files.move(tempFile.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (isCleaningUp) {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+            throw e;
+        }
+        forceDirectory(target);
+    }
+
+    /**
+     * Writes contents to a file through a FileChannel, truncating it first.
+     *
+     * @param file File to write.
+     * @param contents Contents to write.
+     * @param isForced Whether to force the contents to disk before returning.
+     * @throws IOException If writing fails.
+     */
+    public static void write(File file, Contents contents, boolean isForced) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            contents.writeTo(out);
+            out.flush();
+            if (isForced) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Forces the directory holding a file to disk, so a file just renamed or
+     * created there survives a crash. Does nothing on Windows, where a
+     * directory cannot be opened to force it.
+     *
+     * @param file File whose directory to force.
+     * @throws IOException If the directory cannot be forced.
+     */
+    public static void forceDirectory(File file) throws IOException {
+        if (IS_WINDOWS) {
+            return;
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package ragebait.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+
+/**
+ * Rewrites only the changed part of a task file, using the modifications
+ * tracked by TaskList and a table of record byte offsets.
+ *
+ * Records before the lowest dirty index are left in place, except that a
+ * flipped done flag is patched with a single one-byte write. Everything from
+ * the lowest dirty index on is rewritten and the file is truncated after it.
+ *
+ * The offset table only describes files this object wrote itself. Until the
+ * first full rewrite, or after anything goes wrong, it is invalid and the
+ * next save rewrites the whole file.
+ *
+ * Patching in place cannot be atomic, so Storage only writes through this
+ * class when it is neither journaled nor durable. A journaled Storage
+ * appends the same dirty tail to its journal instead, which is forced to
+ * disk in durable mode.
+ */
+public class IncrementalTaskFile {
+
+    /** Byte offset of the done flag within a text line: a one-character type, then " | ". */
+    private static final int TEXT_DONE_OFFSET = 4;
+
+    /** Initial capacity of the offset table. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** File being written. */
+    private final File file;
+
+    /** Codec for text lines. */
+    private final TaskCodec codec;
+
+    /** Layout for binary records. */
+    private final BinaryTaskFormat binaryFormat;
+
+    /** Charset of text files. */
+    private final Charset charset;
+
+    /** Start offset of every record, plus the end of the file after the last one. */
+    private long[] offsets = new long[INITIAL_CAPACITY];
+
+    /** Number of records the offset table describes, or -1 if it is invalid. */
+    private int recordCount = -1;
+
+    /** Layout the offset table was built for. */
+    private StorageFormat offsetsFormat;
+
+    /**
+     * Constructs an incremental writer for the given file.
+     *
+     * @param file Task file to write.
+     * @param codec Codec for text lines.
+     * @param binaryFormat Layout for binary records.
+     * @param charset Charset of text files.
+     */
+    public IncrementalTaskFile(File file, TaskCodec codec, BinaryTaskFormat binaryFormat, Charset charset) {
+        this.file = file;
+        this.codec = codec;
+        this.binaryFormat = binaryFormat;
+        this.charset = charset;
+    }
+
+    /**
+     * Forgets the offset table, so the next save rewrites the whole file.
+     * Called whenever the file may have been written by someone else.
+     */
+    public synchronized void invalidate() {
+        recordCount = -1;
+    }
+
+    /**
+     * Writes the tasks, rewriting only what changed since the last save when possible.
+     *
+     * @param tasks Tasks to write, with their tracked modifications.
+     * @param format Layout to write.
+     * @throws IOException If writing fails. The next save then rewrites the whole file.
+     */
+    public synchronized void save(TaskList tasks, StorageFormat format) throws IOException {
+        List<Task> all = tasks.getAllTasks();
+        int from = canPatch(format) ? Math.min(tasks.getDirtyFrom(), recordCount) : 0;
+        recordCount = -1;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position;
+            if (from == 0) {
+                position = writeHeader(channel, format);
+            } else {
+                patchFlippedFlags(channel, all, tasks, from, format);
+                position = offsets[from];
+            }
+
+            position = writeTail(channel, all, from, position, format);
+            channel.truncate(position);
+        }
+
+        recordCount = all.size();
+        offsetsFormat = format;
+    }
+
+    /**
+     * Returns whether the offset table still matches the file on disk.
+     */
+    private boolean canPatch(StorageFormat format) {
+        boolean isAsciiCompatible = format == StorageFormat.BINARY || "0".getBytes(charset).length == 1;
+        return recordCount >= 0 && format == offsetsFormat && isAsciiCompatible
+                && file.length() == offsets[recordCount];
+    }
+
+    /**
+     * Writes the header the layout needs at the start of the file.
+     *
+     * @return Position right after the header.
+     */
+    private long writeHeader(FileChannel channel, StorageFormat format) throws IOException {
+        if (format != StorageFormat.BINARY) {
+            return 0;
+        }
+        ByteArrayOutputStream header = new ByteArrayOutputStream(binaryFormat.headerLength());
+        binaryFormat.writeHeader(new DataOutputStream(header));
+        writeFully(channel, ByteBuffer.wrap(header.toByteArray()), 0);
+        return header.size();
+    }
+
+    /**
+     * Overwrites the done flag of every flipped record before the rewritten tail.
+     */
+    private void patchFlippedFlags(FileChannel channel, List<Task> all, TaskList tasks, int from,
+                                   StorageFormat format) throws IOException {
+        ByteBuffer flag = ByteBuffer.allocate(1);
+        for (int index : tasks.getFlippedIndices()) {
+            if (index >= from) {
+                break;
+            }
+            Task task = all.get(index);
+            flag.clear();
+            if (format == StorageFormat.BINARY) {
+                flag.put((byte) binaryFormat.typeByte(task));
+                flag.flip();
+                writeFully(channel, flag, offsets[index]);
+            } else {
+                flag.put((task.isMarked() ? Task.MARKED : Task.UNMARKED).getBytes(charset));
+                flag.flip();
+                writeFully(channel, flag, offsets[index] + TEXT_DONE_OFFSET);
+            }
+        }
+    }
+
+    /**
+     * Writes every record from the given index on, recording their offsets.
+     *
+     * @return Position right after the last record.
+     */
+    private long writeTail(FileChannel channel, List<Task> all, int from, long position,
+                           StorageFormat format) throws IOException {
+        ensureCapacity(all.size() + 1);
+        channel.position(position);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordData = new DataOutputStream(record);
+        StringBuilder line = new StringBuilder();
+        String lineSeparator = System.lineSeparator();
+
+        for (int i = from; i < all.size(); i++) {
+            offsets[i] = position;
+            record.reset();
+            if (format == StorageFormat.BINARY) {
+                binaryFormat.write(all.get(i), recordData);
+            } else {
+                line.setLength(0);
+                codec.encode(all.get(i), line);
+                line.append(lineSeparator);
+                record.write(line.toString().getBytes(charset));
+            }
+            record.writeTo(out);
+            position += record.size();
+        }
+        out.flush();
+        offsets[all.size()] = position;
+        return position;
+    }
+
+    /**
+     * Grows the offset table to hold at least the given number of entries.
+     */
+    private void ensureCapacity(int capacity) {
+        if (offsets.length < capacity) {
+            offsets = Arrays.copyOf(offsets, Math.max(capacity, offsets.length * 2));
+        }
+    }
+
+    /**
+     * Writes the whole buffer at the given position.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
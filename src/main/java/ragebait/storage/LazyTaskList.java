@@ -0,0 +1,872 @@
+package ragebait.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+
+/**
+ * TaskList over a text task file that decodes tasks only when they are used.
+ *
+ * Opening the list only finds where every line starts, either by scanning
+ * the file once or by reading the offset index persisted next to it. get(i)
+ * decodes the line on demand and keeps the Task in a bounded LRU cache.
+ * When a task whose done flag changed is evicted, the flag is written back
+ * into the file in place. Tasks added since the last save stay in memory
+ * until the next save. IDs are kept per position, counting from 1 in file
+ * order when the list is opened, and stay with their tasks across saves.
+ *
+ * getAllTasks(), listTasks() and iteration stream through the file without
+ * filling the cache, so finding or listing tasks never needs the whole file
+ * on the heap.
+ *
+ * copy() takes a read-only snapshot for the write-behind persister: it
+ * shares the offset index, copies the position arrays and keeps frozen
+ * copies of the tasks that differ from the file. While a snapshot is
+ * pending, changed flags are no longer written back in place, since the
+ * snapshot may be copying the very line. Once the snapshot is saved, the
+ * list moves over to the new file and keeps every change made meanwhile.
+ * Methods are synchronized, so the persister can save on its own thread.
+ */
+public class LazyTaskList extends TaskList {
+
+    /** Suffix of the persisted offset index. */
+    private static final String INDEX_SUFFIX = ".idx";
+
+    /** Suffix of the file written while saving. */
+    private static final String TEMP_SUFFIX = ".lazy";
+
+    /** Magic number at the start of the offset index: "RGIX". */
+    private static final int INDEX_MAGIC = 0x52474958;
+
+    /** Bytes read from the file at a time. */
+    private static final int WINDOW_SIZE = 64 * 1024;
+
+    /** Byte offset of the done flag within a text line: a one-character type, then " | ". */
+    private static final int TEXT_DONE_OFFSET = 4;
+
+    private final File file;
+    private final TaskCodec codec;
+    private final Charset charset;
+    private final int cacheCapacity;
+
+    /** Start offset of every line of the file, plus the end of the file. */
+    private long[] offsets;
+
+    /** For each list position, the file line it shows, or -(key + 1) for an unsaved task. */
+    private int[] slots;
+
+    private int size;
+
+    /** ID of the task at every position. */
+    private long[] ids;
+
+    /** ID given to the next task added without one. */
+    private long nextId;
+
+    /** Tasks added since the last save, by key. */
+    private final Map<Integer, Task> unsaved = new HashMap<>();
+
+    private int nextUnsavedKey;
+
+    /** Recently used tasks by file line, in access order. */
+    private final LinkedHashMap<Integer, Task> cache;
+
+    /** File lines whose cached task differs from the file. */
+    private final Set<Integer> dirtyLines = new HashSet<>();
+
+    /** Changed tasks that were evicted but could not be written back, or changed during a save. */
+    private final Map<Integer, Task> pinned = new HashMap<>();
+
+    /** List this is a snapshot of, or null if this list was opened on the file. */
+    private final LazyTaskList origin;
+
+    /** Snapshots taken by copy() and not yet saved. */
+    private int pendingSnapshots;
+
+    /** Read-write channel on the file, opened on first use. */
+    private FileChannel channel;
+
+    /** Bytes of the file starting at windowStart. */
+    private byte[] window = new byte[WINDOW_SIZE];
+
+    private long windowStart;
+    private int windowLength;
+
+    /**
+     * Constructs a lazy list over the given line offsets.
+     */
+    private LazyTaskList(File file, TaskCodec codec, Charset charset, int cacheCapacity, long[] offsets) {
+        assert cacheCapacity > 0 : "Cache capacity must be positive.";
+        this.file = file;
+        this.codec = codec;
+        this.charset = charset;
+        this.cacheCapacity = cacheCapacity;
+        this.cache = newCache();
+        this.origin = null;
+        this.offsets = offsets;
+        size = offsets.length - 1;
+        slots = new int[Math.max(size, 1)];
+        ids = new long[slots.length];
+        for (int i = 0; i < size; i++) {
+            slots[i] = i;
+            ids[i] = i + 1;
+        }
+        nextId = size + 1;
+    }
+
+    /**
+     * Constructs a snapshot of the given list over the same file, with
+     * frozen copies of the tasks that differ from it.
+     */
+    private LazyTaskList(LazyTaskList origin) {
+        this.file = origin.file;
+        this.codec = origin.codec;
+        this.charset = origin.charset;
+        this.cacheCapacity = origin.cacheCapacity;
+        this.cache = newCache();
+        this.origin = origin;
+        this.offsets = origin.offsets;
+        this.size = origin.size;
+        this.slots = Arrays.copyOf(origin.slots, origin.slots.length);
+        this.ids = Arrays.copyOf(origin.ids, origin.ids.length);
+        this.nextId = origin.nextId;
+        this.nextUnsavedKey = origin.nextUnsavedKey;
+        origin.unsaved.forEach((key, task) -> unsaved.put(key, task.copy()));
+        for (int line : origin.dirtyLines) {
+            pinned.put(line, origin.cache.get(line).copy());
+        }
+        origin.pinned.forEach((line, task) -> pinned.put(line, task.copy()));
+    }
+
+    /**
+     * Returns an empty LRU cache that evicts beyond the cache capacity.
+     */
+    private LinkedHashMap<Integer, Task> newCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                if (size() <= LazyTaskList.this.cacheCapacity) {
+                    return false;
+                }
+                evict(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Opens a lazy list over a text task file, using the persisted offset
+     * index if it still matches the file and scanning the file otherwise.
+     *
+     * @param file Text task file. A missing file gives an empty list.
+     * @param codec Codec for task lines.
+     * @param charset Charset of the file.
+     * @param cacheCapacity Maximum number of decoded tasks kept in memory.
+     * @return Lazy list over the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static LazyTaskList open(File file, TaskCodec codec, Charset charset, int cacheCapacity)
+            throws IOException {
+        long[] offsets = readIndex(file);
+        if (offsets == null) {
+            offsets = scanOffsets(file);
+            writeIndex(file, offsets);
+        }
+        return new LazyTaskList(file, codec, charset, cacheCapacity, offsets);
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        checkWritable();
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null.");
+        }
+        int key = nextUnsavedKey++;
+        unsaved.put(key, task);
+        ensureCapacity(size + 1);
+        ids[size] = assignId(task);
+        slots[size++] = -(key + 1);
+    }
+
+    @Override
+    public synchronized void add(int index, Task task) {
+        checkWritable();
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null.");
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int key = nextUnsavedKey++;
+        unsaved.put(key, task);
+        ensureCapacity(size + 1);
+        System.arraycopy(slots, index, slots, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        slots[index] = -(key + 1);
+        ids[index] = assignId(task);
+        size++;
+    }
+
+    @Override
+    public synchronized Task remove(int index) {
+        checkWritable();
+        Task removed = get(index);
+        int slot = slots[index];
+        if (slot < 0) {
+            unsaved.remove(-slot - 1);
+        } else {
+            cache.remove(slot);
+            dirtyLines.remove(slot);
+            pinned.remove(slot);
+        }
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    @Override
+    public synchronized Task markDone(int index) {
+        checkWritable();
+        Task task = get(index);
+        task.markDone();
+        recordChange(index);
+        return task;
+    }
+
+    @Override
+    public synchronized Task markUndone(int index) {
+        checkWritable();
+        Task task = get(index);
+        task.markUndone();
+        recordChange(index);
+        return task;
+    }
+
+    /**
+     * Returns the task at the specified index, decoding and caching it if needed.
+     *
+     * @param index Index of the task to retrieve.
+     * @return The Task at the specified index.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     * @throws UncheckedIOException if the file cannot be read, or the flag of an evicted task
+     *         cannot be written back.
+     * @throws IllegalStateException if the line is corrupted.
+     */
+    @Override
+    public synchronized Task get(int index) {
+        checkIndex(index);
+        int slot = slots[index];
+        if (slot < 0) {
+            return unsaved.get(-slot - 1);
+        }
+        Task task = cache.get(slot);
+        if (task == null) {
+            task = pinned.get(slot);
+        }
+        if (task == null) {
+            task = decodeLine(slot);
+            setTaskId(task, ids[index]);
+            cache.put(slot, task);
+        }
+        return task;
+    }
+
+    @Override
+    public synchronized int indexOfId(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns an unmodifiable view that decodes tasks as they are read,
+     * without caching them. Iterating it streams through the file.
+     *
+     * @return Unmodifiable streaming view of the tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        return Collections.unmodifiableList(new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return peek(index);
+            }
+
+            @Override
+            public int size() {
+                return LazyTaskList.this.size();
+            }
+        });
+    }
+
+    @Override
+    public synchronized String listTasks() {
+        if (size == 0) {
+            return "Task list is empty.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            appendEntry(sb, i + 1, peek(i));
+
+            if (i < size - 1) {
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public synchronized String listTasks(int from, int count) {
+        int to = (int) Math.min((long) from + count, size);
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                sb.append("\n");
+            }
+            appendEntry(sb, i + 1, peek(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns 0: a lazy list is always saved as a whole.
+     *
+     * @return 0.
+     */
+    @Override
+    public int getDirtyFrom() {
+        return 0;
+    }
+
+    @Override
+    public SortedSet<Integer> getFlippedIndices() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>());
+    }
+
+    @Override
+    public void clearModifications() {
+        // Nothing tracked: the whole list is written on every save
+    }
+
+    /**
+     * Returns false: indexing would mean decoding every task up front, so
+     * queries by type or status scan the file instead.
+     *
+     * @return false.
+     */
+    @Override
+    protected boolean isIndexed() {
+        return false;
+    }
+
+    /**
+     * Returns a read-only snapshot of the list for saving on another thread.
+     *
+     * Costs a copy of the position arrays plus one encode and decode per
+     * changed or unsaved task. Every snapshot must be saved, as flags are not
+     * written back in place until then.
+     *
+     * @return Snapshot of this list.
+     */
+    @Override
+    public synchronized TaskList copy() {
+        return snapshot();
+    }
+
+    /**
+     * Writes the list to a temp file and moves it over the task file.
+     *
+     * Unchanged lines are copied byte for byte, so only changed and new
+     * tasks are encoded. Saving a snapshot moves the list it was taken from
+     * over to the new file, keeping the changes made since the snapshot.
+     *
+     * @param isForced Whether to force the temp file to disk before the move.
+     * @throws IOException If writing or moving fails, or the file was replaced since the
+     *         snapshot was taken. The task file is left untouched.
+     */
+    public void save(boolean isForced) throws IOException {
+        if (origin == null) {
+            snapshot().save(isForced);
+            return;
+        }
+
+        try {
+            File temp = new File(file.getPath() + TEMP_SUFFIX);
+            long[] newOffsets = writeTemp(temp, isForced);
+            close();
+            origin.commit(this, temp, newOffsets, isForced);
+        } finally {
+            close();
+            origin.release();
+        }
+    }
+
+    /**
+     * Closes the file channel. It is reopened on the next read.
+     *
+     * @throws IOException If closing fails.
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        windowLength = 0;
+    }
+
+    /**
+     * Takes a snapshot and counts it as pending until it is saved.
+     */
+    private synchronized LazyTaskList snapshot() {
+        LazyTaskList snapshot = new LazyTaskList(this);
+        pendingSnapshots++;
+        return snapshot;
+    }
+
+    /**
+     * Counts a snapshot as no longer pending, whether its save worked or not.
+     */
+    private synchronized void release() {
+        pendingSnapshots--;
+    }
+
+    /**
+     * Writes the whole list to the given file.
+     *
+     * @return Line start offsets in the written file, plus its end.
+     */
+    private long[] writeTemp(File temp, boolean isForced) throws IOException {
+        long[] newOffsets = new long[size + 1];
+        byte[] lineSeparator = System.lineSeparator().getBytes(charset);
+        StringBuilder line = new StringBuilder();
+
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream bos = new BufferedOutputStream(Channels.newOutputStream(out));
+            long position = 0;
+            for (int i = 0; i < size; i++) {
+                newOffsets[i] = position;
+                int slot = slots[i];
+                if (slot >= 0 && !dirtyLines.contains(slot) && !pinned.containsKey(slot)) {
+                    int length = readRaw(slot);
+                    int start = (int) (offsets[slot] - windowStart);
+                    bos.write(window, start, length);
+                    position += length;
+                    if (length == 0 || window[start + length - 1] != '\n') {
+                        bos.write(lineSeparator);
+                        position += lineSeparator.length;
+                    }
+                } else {
+                    line.setLength(0);
+                    codec.encode(peek(i), line);
+                    byte[] bytes = line.toString().getBytes(charset);
+                    bos.write(bytes);
+                    bos.write(lineSeparator);
+                    position += bytes.length + lineSeparator.length;
+                }
+            }
+            newOffsets[size] = position;
+            bos.flush();
+            if (isForced) {
+                out.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp.toPath());
+            throw e;
+        }
+        return newOffsets;
+    }
+
+    /**
+     * Moves a saved snapshot of this list over the task file and carries on
+     * from the new file.
+     */
+    private synchronized void commit(LazyTaskList snapshot, File temp, long[] newOffsets, boolean isForced)
+            throws IOException {
+        if (snapshot.offsets != offsets) {
+            Files.deleteIfExists(temp.toPath());
+            throw new IOException("Task file was replaced while a snapshot of it was saved: " + file.getPath());
+        }
+
+        close();
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (isForced) {
+            GroupCommitFile.forceDirectory(file);
+        }
+        remap(snapshot, newOffsets);
+        writeIndex(file, newOffsets);
+    }
+
+    /**
+     * Points every position at its line in the file written from the
+     * snapshot. Tasks added since stay unsaved, and tasks in memory that
+     * no longer match what the snapshot wrote stay pinned until the next save.
+     */
+    private void remap(LazyTaskList snapshot, long[] newOffsets) {
+        int[] newLineOfOld = new int[offsets.length - 1];
+        Map<Integer, Integer> newLineOfKey = new HashMap<>();
+        Map<Integer, Task> written = new HashMap<>();
+        for (int i = 0; i < snapshot.size; i++) {
+            int slot = snapshot.slots[i];
+            Task frozen;
+            if (slot >= 0) {
+                newLineOfOld[slot] = i;
+                frozen = snapshot.pinned.get(slot);
+            } else {
+                newLineOfKey.put(-slot - 1, i);
+                frozen = snapshot.unsaved.get(-slot - 1);
+            }
+            if (frozen != null) {
+                written.put(i, frozen);
+            }
+        }
+
+        Map<Integer, Task> clean = new HashMap<>();
+        Map<Integer, Task> changed = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            int line;
+            Task task;
+            boolean isDirty;
+            if (slot >= 0) {
+                line = newLineOfOld[slot];
+                isDirty = dirtyLines.contains(slot) || pinned.containsKey(slot);
+                task = pinned.containsKey(slot) ? pinned.get(slot) : cache.get(slot);
+            } else if (newLineOfKey.containsKey(-slot - 1)) {
+                line = newLineOfKey.get(-slot - 1);
+                isDirty = true;
+                task = unsaved.remove(-slot - 1);
+            } else {
+                continue; // Added after the snapshot
+            }
+
+            slots[i] = line;
+            if (task != null) {
+                boolean isWritten = !isDirty || encode(task).equals(encodeOrNull(written.get(line)));
+                (isWritten ? clean : changed).put(line, task);
+            }
+        }
+
+        offsets = newOffsets;
+        dirtyLines.clear();
+        pinned.clear();
+        pinned.putAll(changed);
+        cache.clear();
+        clean.forEach(cache::put);
+        windowLength = 0;
+    }
+
+    private String encode(Task task) {
+        StringBuilder line = new StringBuilder();
+        codec.encode(task, line);
+        return line.toString();
+    }
+
+    private String encodeOrNull(Task task) {
+        return task == null ? null : encode(task);
+    }
+
+    /**
+     * Throws if this list is a snapshot.
+     */
+    private void checkWritable() {
+        if (origin != null) {
+            throw new UnsupportedOperationException("Lazy task list snapshots are read-only.");
+        }
+    }
+
+    /**
+     * Returns the task at the specified index without caching it.
+     */
+    private synchronized Task peek(int index) {
+        checkIndex(index);
+        int slot = slots[index];
+        if (slot < 0) {
+            return unsaved.get(-slot - 1);
+        }
+        if (dirtyLines.contains(slot)) {
+            return cache.get(slot);
+        }
+        Task task = pinned.get(slot);
+        if (task == null) {
+            task = decodeLine(slot);
+            setTaskId(task, ids[index]);
+        }
+        return task;
+    }
+
+    /**
+     * Returns the next ID for a task entering the list, even if it brings one
+     * from another list, so an ID is never reused once its task was removed.
+     */
+    private long assignId(Task task) {
+        setTaskId(task, nextId++);
+        return task.getId();
+    }
+
+    /**
+     * Remembers that the task at the index no longer matches its line.
+     */
+    private void recordChange(int index) {
+        int slot = slots[index];
+        if (slot >= 0 && !pinned.containsKey(slot)) {
+            dirtyLines.add(slot);
+        }
+    }
+
+    /**
+     * Handles a task leaving the cache: a changed task has its done flag
+     * written back into its line, or is pinned in memory while a snapshot is
+     * pending or if writing fails. A failure is thrown on after pinning.
+     */
+    private void evict(int line, Task task) {
+        if (!dirtyLines.remove(line)) {
+            return;
+        }
+        pinned.put(line, task);
+        if (pendingSnapshots > 0) {
+            return; // A snapshot may be copying the line, so the next save writes it
+        }
+        try {
+            if (writeBackFlag(line, task)) {
+                pinned.remove(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write a done flag back into the storage file, keeping it"
+                    + " in memory until the next save: " + file.getPath(), e);
+        }
+    }
+
+    /**
+     * Overwrites the done flag of a line in place, if the line has the
+     * plain "X | d | ..." layout written by the codec.
+     *
+     * @return true if the flag was written.
+     */
+    private boolean writeBackFlag(int line, Task task) throws IOException {
+        int length = readRaw(line);
+        int start = (int) (offsets[line] - windowStart);
+        boolean isPlainLayout = length > TEXT_DONE_OFFSET
+                && window[start + 1] == ' ' && window[start + 2] == '|' && window[start + 3] == ' '
+                && (window[start + TEXT_DONE_OFFSET] == '0' || window[start + TEXT_DONE_OFFSET] == '1');
+        if (!isPlainLayout || "0".getBytes(charset).length != 1) {
+            return false;
+        }
+
+        byte flag = (byte) (task.isMarked() ? '1' : '0');
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {flag});
+        long position = offsets[line] + TEXT_DONE_OFFSET;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position);
+        }
+        window[start + TEXT_DONE_OFFSET] = flag;
+        return true;
+    }
+
+    /**
+     * Decodes one line of the file.
+     */
+    private Task decodeLine(int line) {
+        String text;
+        try {
+            int length = readRaw(line);
+            int start = (int) (offsets[line] - windowStart);
+            while (length > 0 && (window[start + length - 1] == '\n' || window[start + length - 1] == '\r')) {
+                length--;
+            }
+            text = new String(window, start, length, charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read storage file: " + file.getPath(), e);
+        }
+
+        try {
+            return codec.decode(text);
+        } catch (RagebaitException e) {
+            throw new IllegalStateException("Corrupted task line: " + text, e);
+        }
+    }
+
+    /**
+     * Makes sure the window holds the whole raw line, terminator included.
+     *
+     * @return Length of the raw line in bytes.
+     */
+    private int readRaw(int line) throws IOException {
+        long start = offsets[line];
+        int length = (int) (offsets[line + 1] - start);
+        if (start >= windowStart && start + length <= windowStart + windowLength) {
+            return length;
+        }
+
+        if (window.length < length) {
+            window = new byte[length];
+        }
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(window);
+        windowStart = start;
+        windowLength = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, start + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        windowLength = buffer.position();
+        if (windowLength < length) {
+            throw new IOException("Storage file shrank while it was open: " + file.getPath());
+        }
+        return length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (slots.length < capacity) {
+            slots = Arrays.copyOf(slots, Math.max(capacity, slots.length * 2));
+        }
+        if (ids.length < capacity) {
+            ids = Arrays.copyOf(ids, slots.length);
+        }
+    }
+
+    /**
+     * Finds the start of every line with one sequential pass over the file.
+     *
+     * @return Line start offsets, plus the end of the file.
+     */
+    private static long[] scanOffsets(File file) throws IOException {
+        if (!file.exists()) {
+            return new long[] {0};
+        }
+
+        long[] offsets = new long[1024];
+        int count = 0;
+        long position = 0;
+        boolean isLineStart = true;
+        byte[] buffer = new byte[WINDOW_SIZE];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (isLineStart) {
+                        if (count + 1 >= offsets.length) {
+                            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        }
+                        offsets[count++] = position + i;
+                        isLineStart = false;
+                    }
+                    if (buffer[i] == '\n') {
+                        isLineStart = true;
+                    }
+                }
+                position += read;
+            }
+        }
+        offsets[count] = position;
+        return Arrays.copyOf(offsets, count + 1);
+    }
+
+    /**
+     * Reads the persisted offset index, if it describes the file as it is now.
+     *
+     * @return Line offsets, or null if there is no matching index.
+     */
+    private static long[] readIndex(File file) {
+        File indexFile = new File(file.getPath() + INDEX_SUFFIX);
+        if (!file.exists() || !indexFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            boolean isCurrent = in.readInt() == INDEX_MAGIC
+                    && in.readLong() == file.length()
+                    && in.readLong() == file.lastModified();
+            if (!isCurrent) {
+                return null;
+            }
+            int count = in.readInt();
+            if (count < 0 || indexFile.length() != Integer.BYTES * 2 + Long.BYTES * (3L + count)) {
+                return null;
+            }
+            long[] offsets = new long[count + 1];
+            for (int i = 0; i <= count; i++) {
+                offsets[i] = in.readLong();
+            }
+            return offsets[count] == file.length() ? offsets : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Persists the offset index next to the file. Failures only cost a rescan later.
+     */
+    private static void writeIndex(File file, long[] offsets) {
+        if (!file.exists()) {
+            return;
+        }
+
+        File indexFile = new File(file.getPath() + INDEX_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(file.length());
+            out.writeLong(file.lastModified());
+            out.writeInt(offsets.length - 1);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        } catch (IOException e) {
+            indexFile.delete();
+        }
+    }
+}
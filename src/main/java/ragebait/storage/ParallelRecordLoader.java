@@ -0,0 +1,264 @@
+package ragebait.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import ragebait.exception.RagebaitException;
+
+/**
+ * Loads a line-per-record storage file by parsing newline-aligned chunks in parallel.
+ *
+ * The file is cut into chunks that each end right after a newline, and
+ * every chunk is read, decoded and parsed on a ForkJoinPool. Chunks are
+ * read with positional FileChannel reads rather than a memory mapping,
+ * since a mapping stays open until it is garbage collected, and on Windows
+ * an open mapping makes the next save's atomic rename over the file fail.
+ * Chunks are joined in file order, so the records handed to the sink and
+ * the first reported corrupted line are identical to a serial line-by-line
+ * load.
+ *
+ * @param <T> Type of record stored one per line.
+ */
+public class ParallelRecordLoader<T> {
+
+    /** Smallest chunk worth handing to its own worker. */
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+
+    /** Number of chunks per worker, so uneven chunks still balance out. */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /** Bytes read at a time while looking for the newline that ends a chunk. */
+    private static final int SCAN_BYTES = 4096;
+
+    /** Codec applied to every line. Must be safe to call from several threads. */
+    private final RecordCodec<T> codec;
+
+    /** Builds the error reported for the first corrupted line. */
+    private final CorruptedLineReporter reporter;
+
+    /** Pool running the chunk parsers. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Builds the error reported when a line cannot be parsed.
+     */
+    @FunctionalInterface
+    public interface CorruptedLineReporter {
+
+        /**
+         * Returns the error describing a corrupted line.
+         *
+         * @param line The corrupted line.
+         * @param cause Error raised by the codec.
+         * @return Error to report.
+         */
+        RagebaitException corrupted(String line, RagebaitException cause);
+    }
+
+    /**
+     * Constructs a loader that parses on the common ForkJoinPool.
+     *
+     * @param codec Thread-safe codec applied to every line.
+     * @param reporter Builds the error reported for the first corrupted line.
+     */
+    public ParallelRecordLoader(RecordCodec<T> codec, CorruptedLineReporter reporter) {
+        this(codec, reporter, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a loader that parses on the given pool.
+     *
+     * @param codec Thread-safe codec applied to every line.
+     * @param reporter Builds the error reported for the first corrupted line.
+     * @param pool Pool running the chunk parsers.
+     */
+    public ParallelRecordLoader(RecordCodec<T> codec, CorruptedLineReporter reporter, ForkJoinPool pool) {
+        this.codec = codec;
+        this.reporter = reporter;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns whether a file can be split safely at newline bytes.
+     *
+     * Only single-byte-newline charsets qualify, and chunk offsets must
+     * fit in an int.
+     *
+     * @param file File to load.
+     * @param charset Charset the file is decoded with.
+     * @return true if the parallel path may be used.
+     */
+    public static boolean supports(File file, Charset charset) {
+        boolean isAsciiCompatible = charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+        return isAsciiCompatible && file.length() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Parses every line of the file and hands the records to the sink in file order.
+     *
+     * @param file Storage file to load.
+     * @param charset Charset the file is decoded with.
+     * @param sink Receives the parsed records on the calling thread.
+     * @throws RagebaitException If a line is corrupted.
+     * @throws IOException If the file cannot be read or the sink fails.
+     */
+    public void load(File file, Charset charset, RecordStore.RecordSink<T> sink)
+            throws RagebaitException, IOException {
+        assert supports(file, charset) : "File must be splittable at newline bytes.";
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<ForkJoinTask<ChunkResult<T>>> chunks = new ArrayList<>();
+            for (int[] bounds : split(channel)) {
+                chunks.add(pool.submit(() -> parseChunk(charset.decode(read(channel, bounds[0], bounds[1])))));
+            }
+
+            // Joined before the channel closes, so no chunk is still reading from it
+            try {
+                for (ForkJoinTask<ChunkResult<T>> chunk : chunks) {
+                    ChunkResult<T> result = chunk.join();
+                    for (T record : result.records) {
+                        sink.accept(record);
+                    }
+                    if (result.error != null) {
+                        throw result.error;
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                for (ForkJoinTask<ChunkResult<T>> chunk : chunks) {
+                    chunk.cancel(false);
+                    chunk.quietlyJoin();
+                }
+            }
+        }
+    }
+
+    /**
+     * Cuts the file into chunks that each end right after a newline,
+     * except possibly the last one.
+     *
+     * @param channel Channel open on the file.
+     * @return Start (inclusive) and end (exclusive) offsets of every chunk.
+     * @throws IOException If the file cannot be read.
+     */
+    private List<int[]> split(FileChannel channel) throws IOException {
+        int size = (int) channel.size();
+        int chunkCount = Math.max(1, pool.getParallelism() * CHUNKS_PER_WORKER);
+        int target = Math.max(MIN_CHUNK_BYTES, size / chunkCount + 1);
+
+        List<int[]> bounds = new ArrayList<>();
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BYTES);
+        int start = 0;
+        while (start < size) {
+            int end = Math.min(size, start + target);
+            while (end < size) {
+                scan.clear();
+                int read = channel.read(scan, end - 1);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = indexOfNewline(scan.array(), read);
+                if (newline >= 0) {
+                    end += newline;
+                    break;
+                }
+                end = Math.min(size, end + read);
+            }
+            bounds.add(new int[] {start, end});
+            start = end;
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the index of the first newline among the first bytes of the array, or -1.
+     */
+    private static int indexOfNewline(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads one chunk of the file with positional reads, which are safe
+     * to run on several threads over the same channel.
+     *
+     * @throws UncheckedIOException If the chunk cannot be read.
+     */
+    private static ByteBuffer read(FileChannel channel, int start, int end) {
+        ByteBuffer buffer = ByteBuffer.allocate(end - start);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Storage file shrank while it was loaded.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Parses the lines of one decoded chunk, stopping at the first corrupted line.
+     *
+     * Lines are terminated by "\n", "\r" or "\r\n", matching BufferedReader.
+     *
+     * @param text Decoded chunk.
+     * @return Records parsed before any error, and that error if one occurred.
+     */
+    private ChunkResult<T> parseChunk(CharBuffer text) {
+        ChunkResult<T> result = new ChunkResult<>();
+        int length = text.length();
+        int lineStart = 0;
+        int i = 0;
+        while (lineStart < length) {
+            while (i < length && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+                i++;
+            }
+            String line = text.subSequence(lineStart, i).toString();
+            try {
+                result.records.add(codec.decode(line));
+            } catch (RagebaitException e) {
+                result.error = reporter.corrupted(line, e);
+                return result;
+            }
+            if (i < length && text.charAt(i) == '\r') {
+                i++;
+                if (i < length && text.charAt(i) == '\n') {
+                    i++;
+                }
+            } else if (i < length) {
+                i++;
+            }
+            lineStart = i;
+        }
+        return result;
+    }
+
+    /**
+     * Records parsed from one chunk and the error that stopped it, if any.
+     */
+    private static class ChunkResult<T> {
+        private final List<T> records = new ArrayList<>();
+        private RagebaitException error;
+    }
+}
@@ -0,0 +1,355 @@
+package ragebait.storage;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+
+/**
+ * TaskList over a PartitionedTaskStore that loads each monthly partition
+ * the first time one of its tasks is used.
+ *
+ * The list always knows which partition every position belongs to, from
+ * the manifest, so indices are stable before anything is loaded. get(i)
+ * loads the whole partition of position i. Adding a task loads the
+ * partition it belongs in, so a changed partition is always complete in
+ * memory and can be rewritten on its own.
+ *
+ * IDs are kept per position, so tasks of partitions not loaded yet have
+ * them too. They count from 1 in list order when the list is opened.
+ *
+ * Instead of a dirty index, the list tracks which partitions changed and
+ * whether the order changed, which is all the store needs to save it.
+ */
+public class PartitionedTaskList extends TaskList {
+
+    /** Store the partitions are loaded from. */
+    private final PartitionedTaskStore store;
+
+    /** Task at every position, or null while its partition is not loaded. */
+    private final List<Task> slots;
+
+    /** Partition key of every position. */
+    private final List<String> keys;
+
+    /** ID of the task at every position. */
+    private final List<Long> ids;
+
+    /** ID given to the next task added without one. */
+    private long nextId = 1;
+
+    /** Partitions whose tasks are all in slots. */
+    private final Set<String> loaded;
+
+    /** Partitions changed since modifications were last cleared. */
+    private final Set<String> changed;
+
+    /** Whether tasks were added or removed since modifications were last cleared. */
+    private boolean isOrderChanged;
+
+    /**
+     * Constructs a list with every task loaded and every partition changed,
+     * as when first moving tasks into partitions.
+     *
+     * @param store Store the list is saved to.
+     * @param tasks Tasks in list order.
+     */
+    PartitionedTaskList(PartitionedTaskStore store, List<Task> tasks) {
+        this(store, new ArrayList<>(tasks), new ArrayList<>(tasks.size()), new ArrayList<>(tasks.size()),
+                new HashSet<>(), new HashSet<>(), true);
+        for (Task task : tasks) {
+            keys.add(PartitionedTaskStore.partitionKey(task));
+            ids.add(assignId(task));
+        }
+        loaded.addAll(keys);
+        changed.addAll(keys);
+    }
+
+    private PartitionedTaskList(PartitionedTaskStore store, List<Task> slots, List<String> keys, List<Long> ids,
+                                Set<String> loaded, Set<String> changed, boolean isOrderChanged) {
+        this.store = store;
+        this.slots = slots;
+        this.keys = keys;
+        this.ids = ids;
+        this.loaded = loaded;
+        this.changed = changed;
+        this.isOrderChanged = isOrderChanged;
+    }
+
+    /**
+     * Returns a list over the given positions with nothing loaded or changed.
+     *
+     * @param store Store the partitions are loaded from.
+     * @param keys Partition key of every position, in list order.
+     * @return List that loads each partition on first use.
+     */
+    static PartitionedTaskList unloaded(PartitionedTaskStore store, List<String> keys) {
+        List<Long> ids = new ArrayList<>(keys.size());
+        for (long id = 1; id <= keys.size(); id++) {
+            ids.add(id);
+        }
+        PartitionedTaskList tasks = new PartitionedTaskList(store,
+                new ArrayList<>(Collections.nCopies(keys.size(), null)), new ArrayList<>(keys), ids,
+                new HashSet<>(), new HashSet<>(), false);
+        tasks.nextId = keys.size() + 1;
+        return tasks;
+    }
+
+    @Override
+    public void add(Task task) {
+        add(slots.size(), task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null.");
+        }
+        String key = PartitionedTaskStore.partitionKey(task);
+        ensureLoaded(key);
+        slots.add(index, task);
+        keys.add(index, key);
+        ids.add(index, assignId(task));
+        changed.add(key);
+        isOrderChanged = true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        changed.add(keys.remove(index));
+        slots.remove(index);
+        ids.remove(index);
+        isOrderChanged = true;
+        return removed;
+    }
+
+    @Override
+    public Task markDone(int index) {
+        Task task = get(index);
+        task.markDone();
+        changed.add(keys.get(index));
+        return task;
+    }
+
+    @Override
+    public Task markUndone(int index) {
+        Task task = get(index);
+        task.markUndone();
+        changed.add(keys.get(index));
+        return task;
+    }
+
+    /**
+     * Returns the task at the specified index, loading its partition if needed.
+     *
+     * @param index Index of the task to retrieve.
+     * @return The Task at the specified index.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     * @throws IllegalStateException if the partition cannot be loaded.
+     */
+    @Override
+    public Task get(int index) {
+        Task task = slots.get(index);
+        if (task == null) {
+            ensureLoaded(keys.get(index));
+            task = slots.get(index);
+        }
+        return task;
+    }
+
+    /**
+     * Returns whether the task at the specified index is in memory,
+     * so reading it does not touch the disk.
+     *
+     * @param index Index of the task.
+     * @return true if its partition is loaded.
+     */
+    public boolean isLoaded(int index) {
+        return slots.get(index) != null;
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        return ids.indexOf(id);
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    /**
+     * Returns an unmodifiable view that loads partitions as their tasks are read.
+     *
+     * @return Unmodifiable view of the tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        return Collections.unmodifiableList(new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return PartitionedTaskList.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return slots.size();
+            }
+        });
+    }
+
+    @Override
+    public String listTasks() {
+        if (slots.isEmpty()) {
+            return "Task list is empty.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < slots.size(); i++) {
+            appendEntry(sb, i + 1, get(i));
+
+            if (i < slots.size() - 1) {
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns 0 if anything changed, since the flat-file dirty index does not
+     * apply to partitions, or size() otherwise.
+     *
+     * @return 0 or size().
+     */
+    @Override
+    public int getDirtyFrom() {
+        return changed.isEmpty() && !isOrderChanged ? slots.size() : 0;
+    }
+
+    @Override
+    public SortedSet<Integer> getFlippedIndices() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>());
+    }
+
+    @Override
+    public void clearModifications() {
+        changed.clear();
+        isOrderChanged = false;
+    }
+
+    /**
+     * Returns false: the type and done flag of a task are only known once its
+     * partition is loaded, so queries by type or status load every partition.
+     *
+     * @return false.
+     */
+    @Override
+    protected boolean isIndexed() {
+        return false;
+    }
+
+    /**
+     * Returns a copy that shares the Task objects, the loaded partitions and
+     * the tracked modifications. Partitions not loaded yet stay unloaded.
+     *
+     * @return Copy of this list.
+     */
+    @Override
+    public TaskList copy() {
+        PartitionedTaskList copy = new PartitionedTaskList(store, new ArrayList<>(slots), new ArrayList<>(keys),
+                new ArrayList<>(ids), new HashSet<>(loaded), new HashSet<>(changed), isOrderChanged);
+        copy.nextId = nextId;
+        return copy;
+    }
+
+    /**
+     * Returns the partitions changed since modifications were last cleared.
+     */
+    Set<String> getChangedPartitions() {
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * Returns whether tasks were added or removed since modifications were last cleared.
+     */
+    boolean isOrderChanged() {
+        return isOrderChanged;
+    }
+
+    /**
+     * Returns the partition key of every position, in list order.
+     */
+    List<String> getKeys() {
+        return Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * Returns the tasks of one partition in list order, loading it if needed.
+     */
+    List<Task> getPartition(String key) {
+        ensureLoaded(key);
+        List<Task> partition = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i++) {
+            if (keys.get(i).equals(key)) {
+                partition.add(slots.get(i));
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * Returns the next ID for a task entering the list, even if it brings one
+     * from another list, so an ID is never reused once its task was removed.
+     */
+    private long assignId(Task task) {
+        setTaskId(task, nextId++);
+        return task.getId();
+    }
+
+    /**
+     * Loads a partition into its positions unless it is already loaded.
+     */
+    private void ensureLoaded(String key) {
+        if (loaded.contains(key)) {
+            return;
+        }
+
+        List<Task> partition;
+        try {
+            partition = store.readPartition(key);
+        } catch (RagebaitException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        int next = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            if (keys.get(i).equals(key)) {
+                if (next == partition.size()) {
+                    throw new IllegalStateException("Partition " + key + " has fewer tasks than the manifest says."
+                            + " Who's been editing my files?");
+                }
+                setTaskId(partition.get(next), ids.get(i));
+                slots.set(i, partition.get(next++));
+            }
+        }
+        if (next != partition.size()) {
+            throw new IllegalStateException("Partition " + key + " has more tasks than the manifest says."
+                    + " Who's been editing my files?");
+        }
+        loaded.add(key);
+    }
+}
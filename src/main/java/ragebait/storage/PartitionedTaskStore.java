@@ -0,0 +1,368 @@
+package ragebait.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Event;
+import ragebait.task.Task;
+
+/**
+ * Stores tasks as one text file per calendar month, plus a small manifest.
+ *
+ * A Deadline belongs to the month of its due date and an Event to the month
+ * it starts; undated tasks share their own partition. Each partition file
+ * holds its tasks in list order, in the same line format as the flat task
+ * file. The manifest lists every partition with its task count and file
+ * size, and the list order as runs of partition numbers, so the list can be
+ * rebuilt without reading any partition.
+ *
+ * Loading reads only the undated partition and the months around now; the
+ * rest are loaded by PartitionedTaskList on first use. Saving rewrites only
+ * the partitions that changed, then the manifest. Every file is replaced by
+ * writing a temp file and renaming it, so a crash leaves whole files. If the
+ * partitions and the manifest disagree after a crash, every partition is read
+ * and the list is rebuilt as closely to the manifest order as they allow.
+ */
+public class PartitionedTaskStore {
+
+    /** Partition key of tasks without a date. */
+    public static final String UNDATED = "undated";
+
+    /** Number of months before the current one that are loaded eagerly. */
+    private static final int EAGER_MONTHS_BEFORE = 1;
+
+    /** Number of months after the current one that are loaded eagerly. */
+    private static final int EAGER_MONTHS_AFTER = 2;
+
+    /** Name of the manifest file. */
+    private static final String MANIFEST_NAME = "manifest";
+
+    /** First line of the manifest, with the layout version. */
+    private static final String MANIFEST_HEADER = "ragebait-partitions 1";
+
+    /** Tag of a manifest line describing one partition. */
+    private static final String PARTITION_TAG = "partition";
+
+    /** Tag of the manifest line holding the list order. */
+    private static final String ORDER_TAG = "order";
+
+    /** Separator between a partition number and its run length in the order line. */
+    private static final String RUN_SEPARATOR = "x";
+
+    /** Suffix of a partition file. */
+    private static final String PARTITION_SUFFIX = ".txt";
+
+    /** Suffix of a file being written. */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Directory holding the partitions and the manifest. */
+    private final File directory;
+
+    /** Codec converting tasks to and from lines. */
+    private final TaskCodec codec;
+
+    /** Whether files are forced to disk before being renamed into place. */
+    private final boolean isDurable;
+
+    /**
+     * Constructs a store in the given directory.
+     *
+     * @param directory Directory holding the partitions and the manifest.
+     * @param codec Codec converting tasks to and from lines.
+     * @param isDurable Whether files are forced to disk before being renamed into place.
+     */
+    public PartitionedTaskStore(File directory, TaskCodec codec, boolean isDurable) {
+        this.directory = directory;
+        this.codec = codec;
+        this.isDurable = isDurable;
+    }
+
+    /**
+     * Returns the partition a task belongs to.
+     *
+     * @param task Task to place.
+     * @return "yyyy-MM" of its date, or UNDATED.
+     */
+    public static String partitionKey(Task task) {
+        if (task instanceof Deadline) {
+            return YearMonth.from(((Deadline) task).getBy()).toString();
+        } else if (task instanceof Event) {
+            return YearMonth.from(((Event) task).getFrom()).toString();
+        }
+        return UNDATED;
+    }
+
+    /**
+     * Returns whether a manifest has been written.
+     *
+     * @return true if the store holds partitions.
+     */
+    public boolean exists() {
+        return manifestFile().exists();
+    }
+
+    /**
+     * Loads the list, reading only the undated partition and the months around the given one.
+     *
+     * @param now Month the eagerly loaded window is centred on.
+     * @return List with the tasks of those partitions loaded.
+     * @throws RagebaitException If the manifest or a partition is corrupted or cannot be read.
+     */
+    public PartitionedTaskList load(YearMonth now) throws RagebaitException {
+        if (!exists()) {
+            return PartitionedTaskList.unloaded(this, new ArrayList<>());
+        }
+
+        Manifest manifest = readManifest();
+        for (Map.Entry<String, long[]> partition : manifest.partitions.entrySet()) {
+            if (partitionFile(partition.getKey()).length() != partition.getValue()[1]) {
+                return recover(manifest);
+            }
+        }
+
+        PartitionedTaskList tasks = PartitionedTaskList.unloaded(this, manifest.keys);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (isEager(manifest.keys.get(i), now) && !tasks.isLoaded(i)) {
+                try {
+                    tasks.get(i);
+                } catch (IllegalStateException e) {
+                    return recover(manifest);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes every task into partitions, replacing whatever the store held.
+     *
+     * The new partitions and manifest are written before the partitions they
+     * replace are deleted, so a crash in between leaves the old store or the
+     * new one, plus files no manifest names.
+     *
+     * @param tasks Tasks in list order.
+     * @throws RagebaitException If a file cannot be written.
+     */
+    public void write(List<Task> tasks) throws RagebaitException {
+        PartitionedTaskList all = new PartitionedTaskList(this, tasks);
+        List<String> previous = exists() ? new ArrayList<>(readManifest().partitions.keySet()) : List.of();
+        save(all);
+        for (String stale : previous) {
+            if (!all.getChangedPartitions().contains(stale)) {
+                deleteFile(partitionFile(stale));
+            }
+        }
+    }
+
+    /**
+     * Rewrites the partitions that changed in the list, then the manifest.
+     *
+     * @param tasks List loaded from or written to this store.
+     * @throws RagebaitException If a file cannot be written.
+     */
+    public void save(PartitionedTaskList tasks) throws RagebaitException {
+        if (tasks.getChangedPartitions().isEmpty() && !tasks.isOrderChanged()) {
+            return;
+        }
+        directory.mkdirs();
+
+        for (String key : tasks.getChangedPartitions()) {
+            List<Task> partition = tasks.getPartition(key);
+            File file = partitionFile(key);
+            if (partition.isEmpty()) {
+                deleteFile(file);
+            } else {
+                RecordStore<Task> lines = new RecordStore<>(file, codec, "task", false);
+                replace(file, out -> lines.writeTo(out, partition));
+            }
+        }
+        writeManifest(tasks.getKeys());
+    }
+
+    /**
+     * Reads every task of one partition, in list order.
+     *
+     * @param key Partition key.
+     * @return Tasks of the partition, empty if it has no file.
+     * @throws RagebaitException If the file is corrupted or cannot be read.
+     */
+    List<Task> readPartition(String key) throws RagebaitException {
+        List<Task> partition = new ArrayList<>();
+        new RecordStore<>(partitionFile(key), codec, "task", false).load(partition::add);
+        return partition;
+    }
+
+    /**
+     * Returns whether a partition is loaded eagerly around the given month.
+     */
+    private static boolean isEager(String key, YearMonth now) {
+        if (key.equals(UNDATED)) {
+            return true;
+        }
+        YearMonth month = YearMonth.parse(key);
+        return !month.isBefore(now.minusMonths(EAGER_MONTHS_BEFORE))
+                && !month.isAfter(now.plusMonths(EAGER_MONTHS_AFTER));
+    }
+
+    /**
+     * Rebuilds the list from every partition when they disagree with the manifest.
+     *
+     * Positions are taken in manifest order while their partition still has
+     * tasks left, and tasks the manifest does not account for are appended.
+     */
+    private PartitionedTaskList recover(Manifest manifest) throws RagebaitException {
+        Map<String, List<Task>> partitions = new HashMap<>();
+        Map<String, Integer> taken = new HashMap<>();
+        for (String key : manifest.partitions.keySet()) {
+            partitions.put(key, readPartition(key));
+            taken.put(key, 0);
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        for (String key : manifest.keys) {
+            List<Task> partition = partitions.get(key);
+            int next = taken.get(key);
+            if (next < partition.size()) {
+                tasks.add(partition.get(next));
+                taken.put(key, next + 1);
+            }
+        }
+        for (Map.Entry<String, List<Task>> partition : partitions.entrySet()) {
+            List<Task> left = partition.getValue();
+            tasks.addAll(left.subList(taken.get(partition.getKey()), left.size()));
+        }
+
+        PartitionedTaskList recovered = new PartitionedTaskList(this, tasks);
+        save(recovered);
+        recovered.clearModifications();
+        return recovered;
+    }
+
+    /**
+     * Reads the partition table and the list order from the manifest.
+     */
+    private Manifest readManifest() throws RagebaitException {
+        Manifest manifest = new Manifest();
+        List<String> partitionKeys = new ArrayList<>();
+        try {
+            List<String> lines = Files.readAllLines(manifestFile().toPath(), Charset.defaultCharset());
+            if (lines.isEmpty() || !lines.get(0).equals(MANIFEST_HEADER)) {
+                throw new RagebaitException("Partition manifest has no header. Not touching that.");
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.trim().split(" ");
+                if (fields[0].equals(PARTITION_TAG) && fields.length == 4) {
+                    partitionKeys.add(fields[1]);
+                    manifest.partitions.put(fields[1],
+                            new long[] {Long.parseLong(fields[2]), Long.parseLong(fields[3])});
+                } else if (fields[0].equals(ORDER_TAG)) {
+                    for (int i = 1; i < fields.length; i++) {
+                        String[] run = fields[i].split(RUN_SEPARATOR);
+                        String key = partitionKeys.get(Integer.parseInt(run[0]));
+                        manifest.keys.addAll(Collections.nCopies(Integer.parseInt(run[1]), key));
+                    }
+                } else if (!line.isBlank()) {
+                    throw new RagebaitException("Unknown partition manifest line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to read partition manifest: " + manifestFile().getPath(), e);
+        } catch (RuntimeException e) {
+            throw new RagebaitException("Aborting load. Corrupted partition manifest: " + manifestFile().getPath(), e);
+        }
+        return manifest;
+    }
+
+    /**
+     * Replaces the manifest with the current partition table and list order.
+     */
+    private void writeManifest(List<String> keys) throws RagebaitException {
+        Map<String, Integer> numbers = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : keys) {
+            numbers.putIfAbsent(key, numbers.size());
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+        for (String key : numbers.keySet()) {
+            manifest.append(PARTITION_TAG).append(' ').append(key)
+                    .append(' ').append(counts.get(key))
+                    .append(' ').append(partitionFile(key).length()).append('\n');
+        }
+        manifest.append(ORDER_TAG);
+        for (int start = 0; start < keys.size(); ) {
+            int end = start;
+            while (end < keys.size() && keys.get(end).equals(keys.get(start))) {
+                end++;
+            }
+            manifest.append(' ').append(numbers.get(keys.get(start))).append(RUN_SEPARATOR).append(end - start);
+            start = end;
+        }
+        manifest.append('\n');
+
+        byte[] contents = manifest.toString().getBytes(Charset.defaultCharset());
+        replace(manifestFile(), out -> out.write(contents));
+    }
+
+    /**
+     * Writes a file through a temp file and renames it into place.
+     */
+    private void replace(File file, GroupCommitFile.Contents contents) throws RagebaitException {
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            GroupCommitFile.write(temp, contents, isDurable);
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (isDurable) {
+                GroupCommitFile.forceDirectory(file);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw new RagebaitException("Failed to save task partition: " + file.getPath()
+                    + ". Seriously, fix your disk!", e);
+        }
+    }
+
+    /**
+     * Deletes a file if it exists.
+     */
+    private static void deleteFile(File file) throws RagebaitException {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to delete empty task partition: " + file.getPath(), e);
+        }
+    }
+
+    private File manifestFile() {
+        return new File(directory, MANIFEST_NAME);
+    }
+
+    private File partitionFile(String key) {
+        return new File(directory, key + PARTITION_SUFFIX);
+    }
+
+    /**
+     * Partition table and list order read from the manifest.
+     */
+    private static class Manifest {
+        /** Task count and file size of every partition, by key. */
+        private final Map<String, long[]> partitions = new LinkedHashMap<>();
+
+        /** Partition key of every position, in list order. */
+        private final List<String> keys = new ArrayList<>();
+    }
+}
@@ -0,0 +1,31 @@
+package ragebait.storage;
+
+import ragebait.exception.RagebaitException;
+
+/**
+ * Converts records to and from single lines of a storage file.
+ *
+ * Implementations must be stateless so a single instance can be shared
+ * by the parallel loader and background writers.
+ *
+ * @param <T> Type of record stored one per line.
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Parses a single storage line into a record.
+     *
+     * @param line Line without its terminator.
+     * @return Record represented by the line.
+     * @throws RagebaitException If the line is corrupted.
+     */
+    T decode(CharSequence line) throws RagebaitException;
+
+    /**
+     * Appends the storage line of a record, without a terminator.
+     *
+     * @param record Record to encode.
+     * @param out Builder receiving the line.
+     */
+    void encode(T record, StringBuilder out);
+}
@@ -0,0 +1,157 @@
+package ragebait.storage;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings an in-memory list in line with freshly loaded records by editing
+ * only the records that differ.
+ *
+ * Records are compared by the hash of their encoded storage line, with the
+ * lines themselves compared on a hash match. The common prefix and suffix
+ * are left alone. The rest is walked once in step, using a hash lookup of
+ * where each record appears on the other side to tell inserted, removed
+ * and edited records apart. The result is not always the smallest possible
+ * edit, but unchanged records between separate edits are kept.
+ */
+public class RecordDiff {
+
+    /**
+     * Applies single-record edits to the list being brought up to date.
+     *
+     * @param <T> Type of record in the list.
+     */
+    public interface Editor<T> {
+
+        /**
+         * Removes the record at the given index.
+         *
+         * @param index 0-based index of the record.
+         */
+        void remove(int index);
+
+        /**
+         * Inserts a record at the given index.
+         *
+         * @param index 0-based index the record will occupy.
+         * @param record Record to insert.
+         */
+        void insert(int index, T record);
+    }
+
+    /**
+     * Edits the current records until they match the loaded ones.
+     *
+     * @param current Records in memory. Read before any edit is made.
+     * @param loaded Records just loaded from storage.
+     * @param codec Codec producing the lines the records are compared by.
+     * @param editor Applies the edits to the list behind current.
+     * @param <T> Type of record.
+     * @return Number of records removed plus number inserted.
+     */
+    public static <T> int apply(List<T> current, List<T> loaded, RecordCodec<T> codec, Editor<T> editor) {
+        String[] currentLines = encode(current, codec);
+        String[] loadedLines = encode(loaded, codec);
+
+        int prefix = 0;
+        int shorter = Math.min(currentLines.length, loadedLines.length);
+        while (prefix < shorter && isSame(currentLines[prefix], loadedLines[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shorter - prefix && isSame(currentLines[currentLines.length - 1 - suffix],
+                loadedLines[loadedLines.length - 1 - suffix])) {
+            suffix++;
+        }
+
+        int currentEnd = currentLines.length - suffix;
+        int loadedEnd = loadedLines.length - suffix;
+        Map<String, ArrayDeque<Integer>> currentPositions = positions(currentLines, prefix, currentEnd);
+        Map<String, ArrayDeque<Integer>> loadedPositions = positions(loadedLines, prefix, loadedEnd);
+
+        int edits = 0;
+        int i = prefix;
+        int j = prefix;
+        while (i < currentEnd || j < loadedEnd) {
+            if (i < currentEnd && j < loadedEnd && isSame(currentLines[i], loadedLines[j])) {
+                i++;
+                j++;
+                continue;
+            }
+            int keptAt = i < currentEnd ? nextPosition(loadedPositions, currentLines[i], j) : -1;
+            int foundAt = j < loadedEnd ? nextPosition(currentPositions, loadedLines[j], i) : -1;
+            if (i == currentEnd || (keptAt >= 0 && (foundAt < 0 || keptAt - j <= foundAt - i))) {
+                // Records inserted in front of one that is still there
+                int insertEnd = i == currentEnd ? loadedEnd : keptAt;
+                for (; j < insertEnd; j++) {
+                    editor.insert(j, loaded.get(j));
+                    edits++;
+                }
+            } else if (j == loadedEnd || foundAt >= 0) {
+                // Records removed in front of one that is still there
+                int removeEnd = j == loadedEnd ? currentEnd : foundAt;
+                for (; i < removeEnd; i++) {
+                    editor.remove(j);
+                    edits++;
+                }
+            } else {
+                // Record edited in place
+                editor.remove(j);
+                editor.insert(j, loaded.get(j));
+                edits += 2;
+                i++;
+                j++;
+            }
+        }
+        return edits;
+    }
+
+    /**
+     * Returns the positions of every line in the given range, grouped by line, in ascending order.
+     */
+    private static Map<String, ArrayDeque<Integer>> positions(String[] lines, int from, int to) {
+        Map<String, ArrayDeque<Integer>> positions = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            positions.computeIfAbsent(lines[i], line -> new ArrayDeque<>()).addLast(i);
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the first position of the line at or after the given one, or -1 if there is none.
+     * Positions before it are dropped, since the walk never goes back.
+     */
+    private static int nextPosition(Map<String, ArrayDeque<Integer>> positions, String line, int from) {
+        ArrayDeque<Integer> candidates = positions.get(line);
+        if (candidates == null) {
+            return -1;
+        }
+        while (!candidates.isEmpty() && candidates.peekFirst() < from) {
+            candidates.pollFirst();
+        }
+        return candidates.isEmpty() ? -1 : candidates.peekFirst();
+    }
+
+    /**
+     * Encodes every record into its storage line.
+     */
+    private static <T> String[] encode(List<T> records, RecordCodec<T> codec) {
+        String[] lines = new String[records.size()];
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            line.setLength(0);
+            codec.encode(records.get(i), line);
+            lines[i] = line.toString();
+        }
+        return lines;
+    }
+
+    /**
+     * Returns whether two lines hold the same record, checking the cached hashes first.
+     */
+    private static boolean isSame(String a, String b) {
+        return a.hashCode() == b.hashCode() && a.equals(b);
+    }
+}
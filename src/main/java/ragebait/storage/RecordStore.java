@@ -0,0 +1,336 @@
+package ragebait.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import ragebait.exception.RagebaitException;
+
+/**
+ * Loads and saves a file holding one record per line, for any record type
+ * with a RecordCodec.
+ *
+ * Reads go through a FileChannel into a reused byte buffer and are decoded
+ * into a reused char buffer, so a load allocates nothing per line apart
+ * from the records themselves. Files past a size threshold are parsed in
+ * parallel by a ParallelRecordLoader instead. Writes encode into a reused
+ * line buffer and byte buffer before reaching the stream.
+ *
+ * Every load and save failure is reported through the same rage-level
+ * messages, naming the record type.
+ *
+ * @param <T> Type of record stored one per line.
+ */
+public class RecordStore<T> {
+
+    /** File size in bytes from which the file is parsed in parallel. */
+    private static final long PARALLEL_LOAD_THRESHOLD = 1024 * 1024;
+
+    /** Size of the reused read and write buffers. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** File holding the records. */
+    private final File file;
+
+    /** Codec converting records to and from lines. */
+    private final RecordCodec<T> codec;
+
+    /** Name of one record, used in error messages. */
+    private final String recordName;
+
+    /** Charset of the file. */
+    private final Charset charset;
+
+    /** Committer replacing the file in durable mode, or null otherwise. */
+    private final GroupCommitFile committer;
+
+    /** Bytes read from the file. Guarded by this. */
+    private final ByteBuffer readBytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Characters decoded from readBytes. Guarded by this. */
+    private final CharBuffer readChars = CharBuffer.allocate(BUFFER_SIZE);
+
+    /** Line being read or lines being written. Guarded by this. */
+    private final StringBuilder lines = new StringBuilder();
+
+    /** Bytes encoded from lines before they are written. Guarded by this. */
+    private final ByteBuffer writeBytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Receives records as they are loaded, in file order.
+     *
+     * @param <T> Type of record received.
+     */
+    @FunctionalInterface
+    public interface RecordSink<T> {
+
+        /**
+         * Accepts the next record.
+         *
+         * @param record Record just loaded.
+         * @throws IOException If the sink writes the record somewhere and that fails.
+         */
+        void accept(T record) throws IOException;
+    }
+
+    /**
+     * Constructs a store for the given file, writing in the default charset.
+     *
+     * In durable mode every save writes a temp file, forces it to disk and
+     * atomically renames it over the file. Saves that arrive while another
+     * one is being written are batched into one group commit.
+     *
+     * @param file File holding the records.
+     * @param codec Thread-safe codec converting records to and from lines.
+     * @param recordName Name of one record, used in error messages.
+     * @param isDurable Whether saves are forced to disk and atomically renamed into place.
+     */
+    public RecordStore(File file, RecordCodec<T> codec, String recordName, boolean isDurable) {
+        this.file = file;
+        this.codec = codec;
+        this.recordName = recordName;
+        this.charset = Charset.defaultCharset();
+        this.committer = isDurable ? new GroupCommitFile(file) : null;
+    }
+
+    /**
+     * Loads every record of the file into the sink.
+     *
+     * Creates parent directories if they do not exist.
+     * Loads nothing if the file does not exist yet.
+     *
+     * @param sink Receives the records in file order.
+     * @throws RagebaitException If a line is corrupted or the file cannot be read.
+     */
+    public void load(RecordSink<T> sink) throws RagebaitException {
+        File parent = file.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        if (!file.exists()) {
+            return; // Nothing saved yet, calm down
+        }
+
+        if (file.length() >= PARALLEL_LOAD_THRESHOLD && ParallelRecordLoader.supports(file, charset)) {
+            loadInParallel(sink);
+        } else {
+            loadSerially(sink);
+        }
+    }
+
+    /**
+     * Parses the file on several threads through a ParallelRecordLoader.
+     *
+     * @param sink Receives the records in file order.
+     * @throws RagebaitException If a line is corrupted or the file cannot be read.
+     */
+    void loadInParallel(RecordSink<T> sink) throws RagebaitException {
+        try {
+            new ParallelRecordLoader<>(codec, this::corrupted).load(file, charset, sink);
+        } catch (IOException e) {
+            throw readFailed(e);
+        }
+    }
+
+    /**
+     * Reads the file one buffer at a time on the calling thread.
+     *
+     * Lines are terminated by "\n", "\r" or "\r\n", matching BufferedReader,
+     * and may straddle buffer boundaries.
+     *
+     * @param sink Receives the records in file order.
+     * @throws RagebaitException If a line is corrupted or the file cannot be read.
+     */
+    synchronized void loadSerially(RecordSink<T> sink) throws RagebaitException {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        readBytes.clear();
+        readChars.clear();
+        lines.setLength(0);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            boolean isAfterCr = false;
+            boolean isEndOfInput = false;
+            while (!isEndOfInput) {
+                isEndOfInput = channel.read(readBytes) < 0;
+                readBytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(readBytes, readChars, isEndOfInput);
+                    isAfterCr = splitLines(sink, isAfterCr);
+                } while (result.isOverflow());
+                readBytes.compact();
+            }
+            while (decoder.flush(readChars).isOverflow()) {
+                isAfterCr = splitLines(sink, isAfterCr);
+            }
+            splitLines(sink, isAfterCr);
+            if (lines.length() > 0) {
+                acceptLine(sink);
+            }
+        } catch (IOException e) {
+            throw readFailed(e);
+        }
+    }
+
+    /**
+     * Moves the decoded characters into the current line, handing every
+     * completed line to the sink.
+     *
+     * @param sink Receives the records.
+     * @param isAfterCr Whether the previous character was a "\r" ending a line.
+     * @return Whether the last character consumed was a "\r" ending a line.
+     */
+    private boolean splitLines(RecordSink<T> sink, boolean isAfterCr) throws RagebaitException, IOException {
+        readChars.flip();
+        while (readChars.hasRemaining()) {
+            char c = readChars.get();
+            if (c == '\n' && isAfterCr) {
+                isAfterCr = false;
+            } else if (c == '\n' || c == '\r') {
+                acceptLine(sink);
+                isAfterCr = c == '\r';
+            } else {
+                lines.append(c);
+                isAfterCr = false;
+            }
+        }
+        readChars.clear();
+        return isAfterCr;
+    }
+
+    /**
+     * Decodes the current line, hands the record to the sink and starts a new line.
+     */
+    private void acceptLine(RecordSink<T> sink) throws RagebaitException, IOException {
+        T record;
+        try {
+            record = codec.decode(lines);
+        } catch (RagebaitException e) {
+            throw corrupted(lines.toString(), e);
+        }
+        lines.setLength(0);
+        sink.accept(record);
+    }
+
+    /**
+     * Replaces the file with the given records.
+     *
+     * In durable mode the save is part of a group commit and is on disk once this returns.
+     *
+     * @param records Records to write, in order.
+     * @throws RagebaitException If writing to the file fails.
+     */
+    public void save(List<T> records) throws RagebaitException {
+        try {
+            if (committer != null) {
+                committer.commit(out -> writeTo(out, records));
+            } else {
+                GroupCommitFile.write(file, out -> writeTo(out, records), false);
+            }
+        } catch (IOException e) {
+            throw saveFailed(e);
+        }
+    }
+
+    /**
+     * Writes records as lines, each followed by the platform line separator.
+     *
+     * @param out Stream to write to. Flushed but not closed.
+     * @param records Records to write, in order.
+     * @throws IOException If writing fails.
+     */
+    public synchronized void writeTo(OutputStream out, List<T> records) throws IOException {
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        String lineSeparator = System.lineSeparator();
+        lines.setLength(0);
+        writeBytes.clear();
+
+        for (T record : records) {
+            codec.encode(record, lines);
+            lines.append(lineSeparator);
+            if (lines.length() >= BUFFER_SIZE) {
+                encodeLines(encoder, out, false);
+            }
+        }
+        encodeLines(encoder, out, true);
+        while (encoder.flush(writeBytes).isOverflow()) {
+            drain(out);
+        }
+        drain(out);
+        out.flush();
+    }
+
+    /**
+     * Encodes the buffered lines into writeBytes, draining it to the stream whenever it fills up.
+     */
+    private void encodeLines(CharsetEncoder encoder, OutputStream out, boolean isEndOfInput) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(lines);
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, writeBytes, isEndOfInput);
+            if (result.isError()) {
+                throw new CharacterCodingException();
+            }
+            if (result.isOverflow()) {
+                drain(out);
+            }
+        } while (result.isOverflow());
+        lines.setLength(0);
+    }
+
+    /**
+     * Writes the encoded bytes to the stream and empties writeBytes.
+     */
+    private void drain(OutputStream out) throws IOException {
+        out.write(writeBytes.array(), 0, writeBytes.position());
+        writeBytes.clear();
+    }
+
+    /**
+     * Returns the error reported when a line cannot be decoded.
+     *
+     * @param line The corrupted line.
+     * @param cause Error raised by the codec.
+     * @return Error naming the record type and the line.
+     */
+    public RagebaitException corrupted(String line, RagebaitException cause) {
+        return new RagebaitException("Aborting load. Corrupted " + recordName + " line: " + line, cause);
+    }
+
+    /**
+     * Returns the error reported when the file cannot be read.
+     *
+     * @param cause Underlying I/O failure.
+     * @return Error naming the record type and the file.
+     */
+    public RagebaitException readFailed(IOException cause) {
+        return new RagebaitException("Failed to read " + recordName + " storage file: " + file.getPath(), cause);
+    }
+
+    /**
+     * Returns the error reported when the file cannot be written.
+     *
+     * @param cause Underlying I/O failure.
+     * @return Error naming the record type and the file.
+     */
+    public RagebaitException saveFailed(IOException cause) {
+        return new RagebaitException("Failed to save " + recordName + "s to file: " + file.getPath()
+                + ". Seriously, fix your disk!", cause);
+    }
+}
@@ -0,0 +1,73 @@
+package ragebait.storage;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Event;
+import ragebait.task.Task;
+import ragebait.task.TaskType;
+import ragebait.task.ToDo;
+
+/**
+ * Original regex and DateTimeFormatter based task line codec.
+ *
+ * Kept as the reference that faster codecs are checked against.
+ */
+public class ReferenceTaskCodec implements TaskCodec {
+
+    /** Minimum and maximum fields expected per task line in storage. */
+    private static final int MIN_TASK_PARTS = 3;
+    private static final int MAX_TASK_PARTS = 5;
+
+    /** Separator regex used to split fields in storage file. */
+    private static final String SEPARATOR = " \\| ";
+
+    /** Value indicating a task is marked as done in storage. */
+    private static final String MARKED_DONE = "1";
+
+    @Override
+    public Task decode(CharSequence line) throws RagebaitException {
+        String[] parts = line.toString().split(SEPARATOR);
+
+        if (parts.length < MIN_TASK_PARTS || parts.length > MAX_TASK_PARTS) {
+            throw new RagebaitException("Corrupted task line: invalid number of fields. Are you trying to break me?");
+        }
+
+        TaskType type = TaskType.convertToTaskType(parts[0]);
+        boolean isDone = MARKED_DONE.equals(parts[1]);
+        String description = parts[2];
+
+        switch (type) {
+        case TODO:
+            return new ToDo(description, isDone);
+        case DEADLINE:
+            LocalDateTime byDateTime = parseDateTime(parts[3]);
+            return new Deadline(description, byDateTime, isDone);
+        case EVENT:
+            LocalDateTime fromDateTime = parseDateTime(parts[3]);
+            LocalDateTime toDateTime = parseDateTime(parts[4]);
+            return new Event(description, fromDateTime, toDateTime, isDone);
+        default:
+            throw new RagebaitException("Unknown task type found in storage file. What did you put in here?");
+        }
+    }
+
+    @Override
+    public void encode(Task task, StringBuilder out) {
+        out.append(task.toFileFormat());
+    }
+
+    /**
+     * Parses a dd/MM/yyyy HHmm timestamp, reporting a malformed one as a corrupted line.
+     */
+    private static LocalDateTime parseDateTime(String text) throws RagebaitException {
+        try {
+            return LocalDateTime.parse(text, DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm"));
+        } catch (DateTimeParseException e) {
+            throw new RagebaitException("Corrupted task line: unreadable date. Are you trying to break me?", e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ragebait.storage;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Event;
+import ragebait.task.Task;
+import ragebait.task.TaskType;
+import ragebait.task.ToDo;
+
+/**
+ * Single-pass task line codec that avoids regex, field arrays and formatters.
+ *
+ * Fields are located by scanning for " | " once, and the fixed-width
+ * dd/MM/yyyy HHmm timestamps are read and written digit by digit.
+ * Timestamps outside the plain fixed-width range fall back to
+ * DateTimeFormatter, so the output matches ReferenceTaskCodec byte for byte.
+ */
+public class ScannerTaskCodec implements TaskCodec {
+
+    /** Separator between fields in the storage file. */
+    private static final String SEPARATOR = " | ";
+
+    /** Storage timestamp pattern, used only for values the fast path rejects. */
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+
+    /** Length of a timestamp in dd/MM/yyyy HHmm form. */
+    private static final int DATE_TIME_LENGTH = 15;
+
+    /** Largest year written with exactly four digits by the formatter. */
+    private static final int MAX_FIXED_WIDTH_YEAR = 9999;
+
+    @Override
+    public Task decode(CharSequence line) throws RagebaitException {
+        int length = line.length();
+        int typeEnd = indexOfSeparator(line, 0);
+        int doneStart = typeEnd + SEPARATOR.length();
+        int doneEnd = indexOfSeparator(line, doneStart);
+        int descriptionStart = doneEnd + SEPARATOR.length();
+        int descriptionEnd = indexOfSeparator(line, descriptionStart);
+        int firstTimeStart = descriptionEnd + SEPARATOR.length();
+        int firstTimeEnd = indexOfSeparator(line, firstTimeStart);
+        int secondTimeStart = firstTimeEnd + SEPARATOR.length();
+        int secondTimeEnd = indexOfSeparator(line, secondTimeStart);
+
+        if (doneEnd >= length || secondTimeEnd < length) {
+            throw new RagebaitException("Corrupted task line: invalid number of fields. Are you trying to break me?");
+        }
+
+        if (descriptionEnd <= descriptionStart) {
+            throw new RagebaitException("Corrupted task line: empty description. Are you trying to break me?");
+        }
+
+        TaskType type = decodeType(line, 0, typeEnd);
+        boolean isDone = doneEnd - doneStart == 1 && line.charAt(doneStart) == '1';
+        String description = line.subSequence(descriptionStart, descriptionEnd).toString();
+
+        switch (type) {
+        case TODO:
+            return new ToDo(description, isDone);
+        case DEADLINE:
+            requireField(firstTimeStart, length);
+            return new Deadline(description, decodeDateTime(line, firstTimeStart, firstTimeEnd), isDone);
+        case EVENT:
+            requireField(secondTimeStart, length);
+            return new Event(description, decodeDateTime(line, firstTimeStart, firstTimeEnd),
+                    decodeDateTime(line, secondTimeStart, secondTimeEnd), isDone);
+        default:
+            throw new RagebaitException("Unknown task type found in storage file. What did you put in here?");
+        }
+    }
+
+    @Override
+    public void encode(Task task, StringBuilder out) {
+        out.append(task.getType().getSymbol())
+                .append(SEPARATOR)
+                .append(task.isMarked() ? Task.MARKED : Task.UNMARKED)
+                .append(SEPARATOR)
+                .append(task.getDescription());
+
+        if (task instanceof Deadline) {
+            out.append(SEPARATOR);
+            encodeDateTime(((Deadline) task).getBy(), out);
+        } else if (task instanceof Event) {
+            out.append(SEPARATOR);
+            encodeDateTime(((Event) task).getFrom(), out);
+            out.append(SEPARATOR);
+            encodeDateTime(((Event) task).getTo(), out);
+        }
+    }
+
+    /**
+     * Returns the index of the next " | " at or after the given index,
+     * or the line length if there is none.
+     */
+    private static int indexOfSeparator(CharSequence line, int from) {
+        int last = line.length() - SEPARATOR.length();
+        for (int i = from; i <= last; i++) {
+            if (line.charAt(i) == ' ' && line.charAt(i + 1) == '|' && line.charAt(i + 2) == ' ') {
+                return i;
+            }
+        }
+        return Math.max(from, line.length());
+    }
+
+    /**
+     * Ensures a field that the task type needs is present.
+     */
+    private static void requireField(int start, int length) throws RagebaitException {
+        if (start > length) {
+            throw new RagebaitException("Corrupted task line: missing date. Are you trying to break me?");
+        }
+    }
+
+    /**
+     * Reads a task type symbol, ignoring surrounding whitespace and case.
+     */
+    private static TaskType decodeType(CharSequence line, int start, int end) throws RagebaitException {
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start == 1) {
+            switch (Character.toUpperCase(line.charAt(start))) {
+            case 'T':
+                return TaskType.TODO;
+            case 'D':
+                return TaskType.DEADLINE;
+            case 'E':
+                return TaskType.EVENT;
+            default:
+                break;
+            }
+        }
+        return TaskType.convertToTaskType(line.subSequence(start, end).toString());
+    }
+
+    /**
+     * Reads a dd/MM/yyyy HHmm timestamp digit by digit, falling back to the
+     * formatter for anything that is not a plain in-range value.
+     */
+    private static LocalDateTime decodeDateTime(CharSequence line, int start, int end) throws RagebaitException {
+        if (end - start == DATE_TIME_LENGTH
+                && line.charAt(start + 2) == '/' && line.charAt(start + 5) == '/' && line.charAt(start + 10) == ' ') {
+            int day = digits(line, start, 2);
+            int month = digits(line, start + 3, 2);
+            int year = digits(line, start + 6, 4);
+            int hour = digits(line, start + 11, 2);
+            int minute = digits(line, start + 13, 2);
+            boolean isPlainTime = hour >= 0 && hour < 24 && minute >= 0 && minute < 60;
+            boolean isPlainDate = year >= 1 && month >= 1 && month <= 12
+                    && day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
+            if (isPlainTime && isPlainDate) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        try {
+            return LocalDateTime.parse(line.subSequence(start, end), FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new RagebaitException("Corrupted task line: unreadable date. Are you trying to break me?", e);
+        }
+    }
+
+    /**
+     * Reads a fixed number of ASCII digits, or returns -1 if any is not a digit.
+     */
+    private static int digits(CharSequence line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Writes a timestamp as dd/MM/yyyy HHmm, falling back to the formatter
+     * for years that are not written with exactly four digits.
+     */
+    private static void encodeDateTime(LocalDateTime dateTime, StringBuilder out) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > MAX_FIXED_WIDTH_YEAR) {
+            FORMATTER.formatTo(dateTime, out);
+            return;
+        }
+        appendTwoDigits(dateTime.getDayOfMonth(), out);
+        out.append('/');
+        appendTwoDigits(dateTime.getMonthValue(), out);
+        out.append('/');
+        appendTwoDigits(year / 100, out);
+        appendTwoDigits(year % 100, out);
+        out.append(' ');
+        appendTwoDigits(dateTime.getHour(), out);
+        appendTwoDigits(dateTime.getMinute(), out);
+    }
+
+    /**
+     * Appends a number between 0 and 99 as exactly two digits.
+     */
+    private static void appendTwoDigits(int value, StringBuilder out) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
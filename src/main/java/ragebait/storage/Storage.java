@@ -1,21 +1,25 @@
 package ragebait.storage;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
 
 import ragebait.exception.RagebaitException;
-import ragebait.task.Deadline;
-import ragebait.task.Event;
 import ragebait.task.Task;
+import ragebait.task.TaskChange;
 import ragebait.task.TaskList;
-import ragebait.task.TaskType;
-import ragebait.task.ToDo;
 
 /**
  * Handles persistent storage of tasks for the Ragebait application.
@@ -23,29 +27,162 @@ import ragebait.task.ToDo;
  * Responsible for reading tasks from a file on startup and saving tasks
  * whenever the TaskList changes. Throws rage-level exceptions when
  * the storage file is corrupted or unwritable.
+ *
+ * In journaled mode, the changes a TaskList tracked since its last save are
+ * appended to a TaskJournal instead of rewriting the whole file, and the
+ * journal is replayed on load. Changes it could not track, such as inserts,
+ * are journaled as a rewrite of the dirty tail of the list.
+ *
+ * The file is either text or binary (see StorageFormat). The format is
+ * detected on load, and a text file is migrated when binary is requested.
+ *
+ * In durable mode, saves never truncate the live file: see GroupCommitFile.
+ *
+ * Text files are read and written through the same RecordStore that
+ * backs ContactStorage.
+ *
+ * With archiving enabled, long-completed tasks can be moved out of the file
+ * into a TaskArchive, so they are no longer loaded or saved with the rest.
+ *
+ * In the PARTITIONED format the tasks live in a directory next to the file,
+ * one file per month (see PartitionedTaskStore). An existing flat file is
+ * moved into partitions on the first load. Partitioned storage is never
+ * journaled, since a save already rewrites only the changed months.
  */
 public class Storage {
 
-    /** Minimum and maximum fields expected per task line in storage. */
-    private static final int MIN_TASK_PARTS = 3;
-    private static final int MAX_TASK_PARTS = 5;
-
-    /** Separator regex used to split fields in storage file. */
+    /** Separator regex used to split journal records. */
     private static final String SEPARATOR = " \\| ";
 
-    /** Value indicating a task is marked as done in storage. */
-    private static final String MARKED_DONE = "1";
+    /** Codec converting tasks to and from storage lines. */
+    private static final TaskCodec CODEC = new ScannerTaskCodec();
+
+    /** Binary layout used when the format is BINARY. */
+    private static final BinaryTaskFormat BINARY_FORMAT = new BinaryTaskFormat();
+
+    /** Journal threshold meaning that journaling is disabled. */
+    private static final long NO_JOURNAL = 0;
+
+    /** Archive age meaning that archiving is disabled. */
+    private static final long NO_ARCHIVE = -1;
+
+    /** Suffix of the directory holding the partitions in the PARTITIONED format. */
+    private static final String PARTITIONS_SUFFIX = ".partitions";
+
+    /** Suffix of the binary file written while migrating a text file. */
+    private static final String MIGRATION_SUFFIX = ".migrating";
 
     /** Path to the storage file. */
     private final String filePath;
 
+    /** Journal receiving single-task changes, or null when not journaled. */
+    private final TaskJournal journal;
+
+    /** Whether the last journal write failed, so the journal may miss changes the lists no longer track. */
+    private volatile boolean isJournalBehind;
+
+    /** Layout the file is written in. Switches to BINARY if a binary file is loaded. */
+    private volatile StorageFormat format;
+
+    /** Whether saves are forced to disk and atomically renamed into place. */
+    private final boolean isDurable;
+
+    /** Committer replacing the file in durable mode, or null otherwise. */
+    private final GroupCommitFile committer;
+
+    /** Writer rewriting only the changed tail of the file in plain mode. */
+    private final IncrementalTaskFile incrementalFile;
+
+    /** Store reading and writing the file in the text format. */
+    private final RecordStore<Task> textStore;
+
+    /** Archive receiving long-completed tasks, or null when archiving is disabled. */
+    private final TaskArchive archive;
+
+    /** Store holding the tasks in the PARTITIONED format. */
+    private final PartitionedTaskStore partitions;
+
+    /** How the storage file looked after this process last wrote it. */
+    private final WriteStamp lastWrite;
+
     /**
      * Constructs a Storage object pointing to the given file path.
      *
      * @param filePath Path to the file used for persisting tasks.
      */
     public Storage(String filePath) {
+        this(filePath, NO_JOURNAL, StorageFormat.TEXT);
+    }
+
+    /**
+     * Constructs a journaled Storage object pointing to the given file path.
+     *
+     * Single-task changes are appended to a journal next to the file, which
+     * is compacted into the file once it grows past the given size.
+     *
+     * @param filePath Path to the file used for persisting tasks.
+     * @param journalThreshold Journal size in bytes that triggers compaction.
+     */
+    public Storage(String filePath, long journalThreshold) {
+        this(filePath, journalThreshold, StorageFormat.TEXT);
+    }
+
+    /**
+     * Constructs a Storage object with the given journaling and file format.
+     *
+     * @param filePath Path to the file used for persisting tasks.
+     * @param journalThreshold Journal size in bytes that triggers compaction, or 0 to disable journaling.
+     * @param format Layout to write the file in. A text file is migrated on load if BINARY is given.
+     */
+    public Storage(String filePath, long journalThreshold, StorageFormat format) {
+        this(filePath, journalThreshold, format, false);
+    }
+
+    /**
+     * Constructs a Storage object with the given journaling, file format and durability.
+     *
+     * In durable mode every save writes a temp file, forces it to disk and
+     * atomically renames it over the storage file. Saves that arrive while
+     * another one is being written are batched into one group commit.
+     *
+     * @param filePath Path to the file used for persisting tasks.
+     * @param journalThreshold Journal size in bytes that triggers compaction, or 0 to disable journaling.
+     * @param format Layout to write the file in. A text file is migrated on load if BINARY is given.
+     * @param isDurable Whether saves are forced to disk and atomically renamed into place.
+     */
+    public Storage(String filePath, long journalThreshold, StorageFormat format, boolean isDurable) {
+        this(filePath, journalThreshold, format, isDurable, NO_ARCHIVE);
+    }
+
+    /**
+     * Constructs a Storage object with the given journaling, file format,
+     * durability and archiving.
+     *
+     * @param filePath Path to the file used for persisting tasks.
+     * @param journalThreshold Journal size in bytes that triggers compaction, or 0 to disable journaling.
+     * @param format Layout to write the file in. A text file is migrated on load if BINARY is given.
+     * @param isDurable Whether saves are forced to disk and atomically renamed into place.
+     * @param archiveAgeMillis Time in milliseconds a task stays done before archiveCompleted() moves it
+     *                         to the archive, or -1 to disable archiving.
+     */
+    public Storage(String filePath, long journalThreshold, StorageFormat format, boolean isDurable,
+                   long archiveAgeMillis) {
         this.filePath = filePath;
+        this.format = format;
+        this.isDurable = isDurable;
+        this.lastWrite = new WriteStamp(new File(filePath));
+        this.committer = isDurable ? new GroupCommitFile(new File(filePath)) : null;
+        this.textStore = new RecordStore<>(new File(filePath), CODEC, "task", false);
+        this.partitions = new PartitionedTaskStore(new File(filePath + PARTITIONS_SUFFIX), CODEC, isDurable);
+        this.archive = archiveAgeMillis > NO_ARCHIVE
+                ? new TaskArchive(new File(filePath), CODEC, archiveAgeMillis)
+                : null;
+        this.incrementalFile = new IncrementalTaskFile(new File(filePath), CODEC, BINARY_FORMAT,
+                Charset.defaultCharset());
+        this.journal = journalThreshold > NO_JOURNAL && format != StorageFormat.PARTITIONED
+                ? new TaskJournal(new File(filePath), journalThreshold,
+                        (out, tasks) -> writeContents(out, tasks, this.format), isDurable, lastWrite::record)
+                : null;
     }
 
     /**
@@ -53,54 +190,589 @@ public class Storage {
      *
      * Creates parent directories if they do not exist.
      * Returns an empty TaskList if the file does not exist.
+     * In journaled mode, pending journal records are replayed on top.
+     * In the PARTITIONED format a PartitionedTaskList is returned, with only
+     * the months around now loaded. Otherwise the list starts with no tracked
+     * modifications, so its first save only writes what changed after loading.
      *
      * @return TaskList containing all successfully loaded tasks.
      * @throws RagebaitException If a line is corrupted or cannot be parsed.
      */
     public TaskList load() throws RagebaitException {
+        return load(true);
+    }
+
+    /**
+     * Loads tasks from the storage file alone, after another program edited it.
+     *
+     * Journal records are positions in the file as this process last wrote
+     * it, so they are not replayed on top of an edited file. Pass the result
+     * to reload(), which then discards the journal.
+     *
+     * @return TaskList containing the tasks of the edited file.
+     * @throws RagebaitException If a line is corrupted or cannot be parsed.
+     */
+    public TaskList loadExternalChange() throws RagebaitException {
+        return load(false);
+    }
+
+    /**
+     * Loads tasks from the storage file, replaying the journal on top if asked to.
+     */
+    private TaskList load(boolean isJournalReplayed) throws RagebaitException {
         TaskList tasks = new TaskList();
         File file = new File(filePath);
+        incrementalFile.invalidate();
 
         File parent = file.getParentFile();
         if (parent != null) {
             parent.mkdirs();
         }
 
-        if (!file.exists()) {
-            return tasks; // Calmly return empty task list
+        if (format == StorageFormat.PARTITIONED || (partitions.exists() && !file.exists())) {
+            format = StorageFormat.PARTITIONED;
+            return loadPartitions(file, tasks);
+        }
+
+        // Settle the journal first, so a compaction finishing mid-load cannot fold records into a file already read
+        List<String> records = journal != null ? journal.recover() : List.of();
+        if (file.exists() && BinaryTaskFormat.isBinary(file)) {
+            format = StorageFormat.BINARY;
+            readBinaryTasks(file, tasks);
+        } else if (file.exists() && format == StorageFormat.BINARY) {
+            migrateToBinary(file, tasks);
+        } else if (file.exists()) {
+            textStore.load(tasks::add);
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                try {
-                    Task task = parseTask(line);
-                    tasks.add(task);
-                } catch (RagebaitException e) {
-                    throw new RagebaitException("Aborting load. Corrupted task line: " + line, e);
-                }
+        if (isJournalReplayed) {
+            replayJournal(tasks, records);
+        }
+        tasks.clearModifications();
+        return tasks;
+    }
+
+    /**
+     * Loads the partitions, first moving the flat file into them if it is still there.
+     *
+     * @param file Flat storage file.
+     * @param tasks Empty TaskList used to read the flat file.
+     * @return PartitionedTaskList over the partitions.
+     * @throws RagebaitException If a file is corrupted or cannot be read or written.
+     */
+    private PartitionedTaskList loadPartitions(File file, TaskList tasks) throws RagebaitException {
+        if (file.exists()) {
+            if (BinaryTaskFormat.isBinary(file)) {
+                readBinaryTasks(file, tasks);
+            } else {
+                textStore.load(tasks::add);
+            }
+            partitions.write(tasks.getAllTasks());
+            try {
+                Files.delete(file.toPath());
+            } catch (IOException e) {
+                throw new RagebaitException("Moved tasks into partitions but can't delete " + filePath
+                        + ". Delete it yourself before it gets loaded twice!", e);
             }
+        }
+        return partitions.load(YearMonth.now());
+    }
+
+    /**
+     * Moves tasks done for longer than the archive age into the archive and
+     * saves what is left. Does nothing when archiving is disabled.
+     *
+     * @param tasks TaskList loaded from this storage.
+     * @return Number of tasks archived.
+     * @throws RagebaitException If the archive or the storage file cannot be written.
+     */
+    public int archiveCompleted(TaskList tasks) throws RagebaitException {
+        if (archive == null) {
+            return 0;
+        }
+        int archived = archive.sweep(tasks, System.currentTimeMillis());
+        if (archived > 0) {
+            save(tasks);
+        }
+        return archived;
+    }
+
+    /**
+     * Returns the archive of long-completed tasks.
+     *
+     * @return The TaskArchive next to the storage file.
+     * @throws RagebaitException If archiving is disabled.
+     */
+    public TaskArchive getArchive() throws RagebaitException {
+        if (archive == null) {
+            throw new RagebaitException("Archiving is switched off. Your finished tasks stay right where they are.");
+        }
+        return archive;
+    }
+
+    /**
+     * Folds the journal into the storage file, so the file alone holds every
+     * task. Another program editing the file then edits the tasks as they
+     * are, rather than a file the journal still has to be replayed on.
+     * Does nothing when not journaled or when the journal is empty.
+     *
+     * The TaskList must have no unsaved changes other than the ones it
+     * tracks, which the compaction writes and clears.
+     *
+     * @param tasks TaskList loaded from this storage, with every change saved.
+     * @throws RagebaitException If the storage file cannot be written.
+     */
+    public void compactJournal(TaskList tasks) throws RagebaitException {
+        if (journal == null || (!journal.hasRecords() && !isJournalBehind)) {
+            return;
+        }
+        isJournalBehind = true;
+        journal.compact(tasks.getAllTasks());
+        tasks.clearModifications();
+        isJournalBehind = false;
+    }
+
+    /**
+     * Returns whether the storage file is still exactly as this process last
+     * wrote it, judged by its size, modification time and file key without
+     * reading it. A file watcher uses this to skip the events of our own saves.
+     *
+     * Journal appends leave the storage file alone, so only full rewrites,
+     * incremental saves and compactions count as writes here.
+     *
+     * @return false if this process never wrote the file, or it changed since.
+     */
+    public boolean isUnchangedSinceWrite() {
+        return lastWrite.isUnchanged();
+    }
+
+    /**
+     * Brings the TaskList in line with the storage file after it was changed
+     * by another program, editing only the tasks that differ.
+     *
+     * The caller must make sure the TaskList has no unsaved changes, which
+     * would otherwise be lost.
+     *
+     * @param tasks TaskList previously loaded from or saved to this storage.
+     * @return Number of tasks removed plus number inserted.
+     * @throws RagebaitException If the list is lazy, or the file cannot be loaded.
+     */
+    public int reload(TaskList tasks) throws RagebaitException {
+        return reload(tasks, loadExternalChange());
+    }
+
+    /**
+     * Brings the TaskList in line with a list freshly loaded from the storage
+     * file, editing only the tasks that differ.
+     *
+     * Loading is the slow part, so callers that must hold a lock while the
+     * TaskList changes can load first, outside the lock, and only apply the
+     * result under it. The caller must make sure nothing was saved since the
+     * list was loaded, and that the TaskList has no unsaved changes.
+     *
+     * The edited file is the whole truth afterwards, so in journaled mode the
+     * journal, whose records belong to the file before the edit, is discarded.
+     *
+     * @param tasks TaskList previously loaded from or saved to this storage.
+     * @param loaded TaskList returned by loadExternalChange().
+     * @return Number of tasks removed plus number inserted.
+     * @throws RagebaitException If the list is lazy, or the journal cannot be discarded.
+     */
+    public int reload(TaskList tasks, TaskList loaded) throws RagebaitException {
+        if (tasks instanceof LazyTaskList) {
+            throw new RagebaitException("A lazy task list can't follow external edits. Reopen it.");
+        }
+
+        int edits = RecordDiff.apply(tasks.getAllTasks(), loaded.getAllTasks(), CODEC,
+                new RecordDiff.Editor<Task>() {
+                    @Override
+                    public void remove(int index) {
+                        tasks.remove(index);
+                    }
+
+                    @Override
+                    public void insert(int index, Task task) {
+                        tasks.add(index, task);
+                    }
+                });
+        tasks.clearModifications();
+        if (journal != null) {
+            journal.discard();
+            isJournalBehind = false;
+        }
+        return edits;
+    }
+
+    /**
+     * Opens the storage file as a LazyTaskList that decodes tasks on demand
+     * instead of materializing every task up front.
+     *
+     * Only available for flat text files without a journal, since journal
+     * records, binary records and partitions are not line-addressable.
+     *
+     * @param cacheCapacity Maximum number of decoded tasks kept in memory.
+     * @return LazyTaskList over the storage file.
+     * @throws RagebaitException If the storage is journaled or binary, or the file cannot be read.
+     */
+    public LazyTaskList loadLazily(int cacheCapacity) throws RagebaitException {
+        File file = new File(filePath);
+        File parent = file.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        boolean isBinary = format == StorageFormat.BINARY || (file.exists() && BinaryTaskFormat.isBinary(file));
+        if (journal != null || isBinary || format == StorageFormat.PARTITIONED) {
+            throw new RagebaitException("Lazy loading only works on plain text storage."
+                    + " No journal, no binary, no partitions.");
+        }
+
+        incrementalFile.invalidate();
+        try {
+            return LazyTaskList.open(file, CODEC, Charset.defaultCharset(), cacheCapacity);
         } catch (IOException e) {
-            throw new RagebaitException("Failed to read storage file: " + filePath, e);
+            throw textStore.readFailed(e);
         }
+    }
 
-        return tasks;
+    /**
+     * Reads the text storage file on several threads, bypassing the size threshold.
+     *
+     * @param tasks TaskList receiving the parsed tasks.
+     * @throws RagebaitException If a line is corrupted or the file cannot be read.
+     */
+    void readTasksInParallel(TaskList tasks) throws RagebaitException {
+        textStore.loadInParallel(tasks::add);
+    }
+
+    /**
+     * Reads the text storage file on the calling thread, bypassing the size threshold.
+     *
+     * @param tasks TaskList receiving the parsed tasks.
+     * @throws RagebaitException If a line is corrupted or the file cannot be read.
+     */
+    void readTasksSerially(TaskList tasks) throws RagebaitException {
+        textStore.loadSerially(tasks::add);
+    }
+
+    /**
+     * Reads every record of a binary storage file into the TaskList.
+     *
+     * @param file Binary storage file to read.
+     * @param tasks TaskList receiving the tasks.
+     * @throws RagebaitException If a record is corrupted or the file cannot be read.
+     */
+    private void readBinaryTasks(File file, TaskList tasks) throws RagebaitException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            BINARY_FORMAT.readHeader(in);
+            Task task;
+            while ((task = BINARY_FORMAT.read(in)) != null) {
+                tasks.add(task);
+            }
+        } catch (IOException e) {
+            throw new RagebaitException("Aborting load. Corrupted binary storage file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Converts a text storage file to the binary format in a single streaming
+     * pass, collecting the tasks on the way, then swaps it in atomically.
+     *
+     * @param file Text storage file to migrate.
+     * @param tasks TaskList receiving the tasks.
+     * @throws RagebaitException If a line is corrupted or either file cannot be accessed.
+     */
+    private void migrateToBinary(File file, TaskList tasks) throws RagebaitException {
+        File migrated = new File(filePath + MIGRATION_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(migrated)))) {
+            BINARY_FORMAT.writeHeader(out);
+            textStore.loadSerially(task -> {
+                tasks.add(task);
+                BINARY_FORMAT.write(task, out);
+            });
+        } catch (IOException e) {
+            migrated.delete();
+            throw new RagebaitException("Failed to migrate storage file to binary: " + filePath, e);
+        } catch (RagebaitException e) {
+            migrated.delete();
+            throw e;
+        }
+
+        try {
+            Files.move(migrated.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to replace storage file after migration: " + filePath, e);
+        }
     }
 
     /**
      * Saves all tasks in the TaskList to the storage file.
      *
+     * In journaled mode the changes the TaskList tracked are appended to the
+     * journal, which is compacted into the file once it grows past its
+     * threshold. When the changes were not all tracked, the dirty tail of
+     * the list is appended instead. When the whole list is dirty, or the last
+     * journal write failed, the file is rewritten and the journal cleared.
+     * In durable mode the save is on disk once this returns, as part of a
+     * group commit when not journaled. Otherwise only the records changed
+     * since the last save are rewritten, based on the modifications tracked
+     * by the TaskList. The modifications are cleared in every mode.
+     * A LazyTaskList is always written out as a whole and swapped in atomically.
+     *
      * @param tasks TaskList containing tasks to save.
      * @throws RagebaitException If writing to the file fails.
      */
     public void save(TaskList tasks) throws RagebaitException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath))) {
-            for (Task task : tasks.getAllTasks()) {
-                bw.write(task.toFileFormat());
-                bw.newLine();
+        if (tasks instanceof LazyTaskList) {
+            saveLazily((LazyTaskList) tasks);
+            return;
+        }
+
+        if (tasks instanceof PartitionedTaskList) {
+            partitions.save((PartitionedTaskList) tasks);
+            tasks.clearModifications();
+            return;
+        }
+
+        if (journal != null) {
+            saveToJournal(tasks);
+            tasks.clearModifications();
+            return;
+        }
+
+        List<Task> snapshot = tasks.getAllTasks();
+        try {
+            if (committer != null) {
+                StorageFormat snapshotFormat = format;
+                committer.commit(out -> writeContents(out, snapshot, snapshotFormat));
+            } else {
+                incrementalFile.save(tasks, format);
             }
         } catch (IOException e) {
-            throw new RagebaitException("Failed to save tasks to file: " + filePath + ". Seriously, fix your disk!", e);
+            throw textStore.saveFailed(e);
+        }
+        lastWrite.record();
+        tasks.clearModifications();
+    }
+
+    /**
+     * Replaces the storage file with the contents of a LazyTaskList.
+     *
+     * @param tasks LazyTaskList opened on this storage file.
+     * @throws RagebaitException If writing to the file fails.
+     */
+    private void saveLazily(LazyTaskList tasks) throws RagebaitException {
+        try {
+            tasks.save(isDurable);
+        } catch (IOException e) {
+            throw textStore.saveFailed(e);
+        }
+        lastWrite.record();
+    }
+
+    /**
+     * Writes all tasks in the TaskList to another file in the text format,
+     * regardless of the format of the storage file.
+     *
+     * @param tasks TaskList containing tasks to export.
+     * @param exportPath Path of the file to write.
+     * @throws RagebaitException If writing to the file fails.
+     */
+    public void exportText(TaskList tasks, String exportPath) throws RagebaitException {
+        File exportFile = new File(exportPath);
+        File parent = exportFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        try {
+            GroupCommitFile.write(exportFile, out -> writeText(out, tasks.getAllTasks()), false);
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to export tasks to file: " + exportPath + ". Pick a real path!", e);
+        }
+    }
+
+    /**
+     * Writes tasks in the given storage format.
+     *
+     * @param out Stream to write to. Flushed but not closed.
+     * @param tasks Tasks to write.
+     * @param format Layout to write.
+     * @throws IOException If writing fails.
+     */
+    private void writeContents(OutputStream out, List<Task> tasks, StorageFormat format) throws IOException {
+        if (format == StorageFormat.BINARY) {
+            writeBinary(out, tasks);
+        } else {
+            writeText(out, tasks);
+        }
+    }
+
+    /**
+     * Writes tasks as text lines.
+     *
+     * @param out Stream to write to. Flushed but not closed.
+     * @param tasks Tasks to write.
+     * @throws IOException If writing fails.
+     */
+    private void writeText(OutputStream out, List<Task> tasks) throws IOException {
+        textStore.writeTo(out, tasks);
+    }
+
+    /**
+     * Writes tasks as binary records after the binary header.
+     *
+     * @param out Stream to write to. Flushed but not closed.
+     * @param tasks Tasks to write.
+     * @throws IOException If writing fails.
+     */
+    private static void writeBinary(OutputStream out, List<Task> tasks) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        BINARY_FORMAT.writeHeader(data);
+        for (Task task : tasks) {
+            BINARY_FORMAT.write(task, data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Appends the changes the TaskList tracked to the journal. If they were
+     * not all tracked, the dirty tail of the list is appended instead, and
+     * if the whole list is dirty the journal is compacted into a rewritten file.
+     *
+     * @param tasks TaskList after the changes.
+     * @throws RagebaitException If writing to storage fails.
+     */
+    private void saveToJournal(TaskList tasks) throws RagebaitException {
+        List<TaskChange> changes = tasks.getChanges();
+        boolean isCompacting = isJournalBehind || (changes == null && tasks.getDirtyFrom() == 0);
+        isJournalBehind = true;
+        if (isCompacting) {
+            journal.compact(tasks.getAllTasks());
+        } else if (changes == null) {
+            journal.append(toTailRecords(tasks), tasks.getAllTasks());
+        } else if (!changes.isEmpty()) {
+            journal.append(toRecords(changes), tasks.getAllTasks());
+        }
+        isJournalBehind = false;
+    }
+
+    /**
+     * Turns the modifications tracked by a TaskList into journal records that
+     * drop every task from the lowest dirty index on, set the flipped done
+     * flags below it, and append the tasks from that index on again.
+     *
+     * @param tasks TaskList with tracked modifications.
+     * @return Records bringing the journaled list in line with the TaskList.
+     */
+    private static List<String> toTailRecords(TaskList tasks) {
+        List<Task> all = tasks.getAllTasks();
+        int from = tasks.getDirtyFrom();
+        List<String> records = new ArrayList<>();
+        records.add(TaskJournal.TRUNCATE + Task.VERTICAL_BAR_SEPERATOR + from);
+        for (int index : tasks.getFlippedIndices()) {
+            String tag = all.get(index).isMarked() ? TaskJournal.MARK : TaskJournal.UNMARK;
+            records.add(tag + Task.VERTICAL_BAR_SEPERATOR + index);
+        }
+        for (int i = from; i < all.size(); i++) {
+            records.add(toAddRecord(all.get(i)));
+        }
+        return records;
+    }
+
+    /**
+     * Turns tracked changes into journal records.
+     *
+     * @param changes Changes to record, oldest first.
+     * @return One record per change.
+     */
+    private static List<String> toRecords(List<TaskChange> changes) {
+        List<String> records = new ArrayList<>(changes.size());
+        for (TaskChange change : changes) {
+            switch (change.getKind()) {
+            case ADD:
+                records.add(toAddRecord(change.getTask()));
+                break;
+            case DELETE:
+                records.add(TaskJournal.DELETE + Task.VERTICAL_BAR_SEPERATOR + change.getIndex());
+                break;
+            case MARK:
+                records.add(TaskJournal.MARK + Task.VERTICAL_BAR_SEPERATOR + change.getIndex());
+                break;
+            default:
+                records.add(TaskJournal.UNMARK + Task.VERTICAL_BAR_SEPERATOR + change.getIndex());
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns the journal record appending the given task.
+     */
+    private static String toAddRecord(Task task) {
+        StringBuilder record = new StringBuilder(TaskJournal.ADD).append(Task.VERTICAL_BAR_SEPERATOR);
+        CODEC.encode(task, record);
+        return record.toString();
+    }
+
+    /**
+     * Applies the journal records left over from the last run.
+     *
+     * @param tasks TaskList loaded from the storage file.
+     * @param records Records recovered from the journal, oldest first.
+     * @throws RagebaitException If a journal record is corrupted.
+     */
+    private void replayJournal(TaskList tasks, List<String> records) throws RagebaitException {
+        for (String record : records) {
+            try {
+                applyRecord(tasks, record);
+            } catch (RagebaitException | RuntimeException e) {
+                throw new RagebaitException("Aborting load. Corrupted journal record: " + record, e);
+            }
+        }
+    }
+
+    /**
+     * Applies a single journal record to the TaskList.
+     *
+     * @param tasks TaskList to update.
+     * @param record Journal record to apply.
+     * @throws RagebaitException If the record is malformed.
+     */
+    private void applyRecord(TaskList tasks, String record) throws RagebaitException {
+        String[] parts = record.split(SEPARATOR, 2);
+        if (parts.length < 2) {
+            throw new RagebaitException("Journal record without a payload. Who wrote this?");
+        }
+
+        switch (parts[0]) {
+        case TaskJournal.ADD:
+            tasks.add(CODEC.decode(parts[1]));
+            break;
+        case TaskJournal.DELETE:
+            tasks.remove(Integer.parseInt(parts[1]));
+            break;
+        case TaskJournal.MARK:
+            tasks.markDone(Integer.parseInt(parts[1]));
+            break;
+        case TaskJournal.UNMARK:
+            tasks.markUndone(Integer.parseInt(parts[1]));
+            break;
+        case TaskJournal.TRUNCATE:
+            int kept = Integer.parseInt(parts[1]);
+            if (kept > tasks.size()) {
+                throw new RagebaitException("Journal keeps " + kept + " tasks but only " + tasks.size()
+                        + " exist. Something ate them.");
+            }
+            while (tasks.size() > kept) {
+                tasks.remove(tasks.size() - 1);
+            }
+            break;
+        default:
+            throw new RagebaitException("Unknown journal record: " + parts[0] + ". Did you edit this by hand?");
         }
     }
 
@@ -114,29 +786,6 @@ public class Storage {
      * @throws RagebaitException If the line format is invalid or task type is unknown.
      */
     public Task parseTask(String line) throws RagebaitException {
-        String[] parts = line.split(SEPARATOR);
-
-        if (parts.length < MIN_TASK_PARTS || parts.length > MAX_TASK_PARTS) {
-            throw new RagebaitException("Corrupted task line: invalid number of fields. Are you trying to break me?");
-        }
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
-        TaskType type = TaskType.convertToTaskType(parts[0]);
-        boolean isDone = MARKED_DONE.equals(parts[1]);
-        String description = parts[2];
-
-        switch (type) {
-        case TODO:
-            return new ToDo(description, isDone);
-        case DEADLINE:
-            LocalDateTime byDateTime = LocalDateTime.parse(parts[3], formatter);
-            return new Deadline(description, byDateTime, isDone);
-        case EVENT:
-            LocalDateTime fromDateTime = LocalDateTime.parse(parts[3], formatter);
-            LocalDateTime toDateTime = LocalDateTime.parse(parts[4], formatter);
-            return new Event(description, fromDateTime, toDateTime, isDone);
-        default:
-            throw new RagebaitException("Unknown task type found in storage file. What did you put in here?");
-        }
+        return CODEC.decode(line);
     }
 }
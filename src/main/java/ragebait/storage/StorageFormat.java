@@ -0,0 +1,16 @@
+package ragebait.storage;
+
+/**
+ * Enumerates the on-disk layouts supported for the task storage file.
+ */
+public enum StorageFormat {
+
+    /** Human-readable " | " separated lines, one task per line. */
+    TEXT,
+
+    /** Compact binary records, see BinaryTaskFormat. */
+    BINARY,
+
+    /** Text lines split into one file per calendar month, see PartitionedTaskStore. */
+    PARTITIONED
+}
@@ -0,0 +1,359 @@
+package ragebait.storage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+
+/**
+ * Cold archive for completed tasks, kept in GZIP-compressed segment files
+ * next to the task file.
+ *
+ * Every sweep moves the tasks that have been done for longer than the
+ * configured age into one new segment. Segments are never appended to
+ * once written; only restoring a task rewrites the segment it came from.
+ * Archived tasks are numbered from 1 across all segments in order, and
+ * are read by streaming the segments on demand.
+ *
+ * Tasks do not record when they were marked done, so a sidecar file maps
+ * the storage line of every done task to the time a sweep first saw it
+ * done. A task therefore ages from the first sweep after it was marked.
+ */
+public class TaskArchive {
+
+    /** Infix between the task file name and the segment number. */
+    private static final String SEGMENT_INFIX = ".archive-";
+
+    /** Suffix of a segment file. */
+    private static final String SEGMENT_SUFFIX = ".gz";
+
+    /** Suffix of the file mapping done tasks to the time they were first seen done. */
+    private static final String COMPLETED_SUFFIX = ".completed";
+
+    /** Suffix of a segment or sidecar being written. */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Separator between the time and the task line in the sidecar file. */
+    private static final String SEPARATOR = " | ";
+
+    /** Task file the archive belongs to. */
+    private final File hotFile;
+
+    /** Codec converting tasks to and from storage lines. */
+    private final TaskCodec codec;
+
+    /** Age in milliseconds after which a done task is archived. */
+    private final long maxAgeMillis;
+
+    /** File mapping done tasks to the time they were first seen done. */
+    private final File completedFile;
+
+    /**
+     * Receives archived tasks as the segments are streamed.
+     */
+    @FunctionalInterface
+    public interface ArchivedTaskSink {
+
+        /**
+         * Accepts the next archived task.
+         *
+         * @param number 1-based number of the task in the archive.
+         * @param task The archived task.
+         */
+        void accept(int number, Task task);
+    }
+
+    /**
+     * Constructs the archive of the given task file.
+     *
+     * @param hotFile Task file the archive belongs to.
+     * @param codec Codec converting tasks to and from storage lines.
+     * @param maxAgeMillis Age in milliseconds after which a done task is archived.
+     */
+    public TaskArchive(File hotFile, TaskCodec codec, long maxAgeMillis) {
+        assert maxAgeMillis >= 0 : "Archive age cannot be negative.";
+        this.hotFile = hotFile;
+        this.codec = codec;
+        this.maxAgeMillis = maxAgeMillis;
+        this.completedFile = new File(hotFile.getPath() + COMPLETED_SUFFIX);
+    }
+
+    /**
+     * Moves every task done for longer than the configured age out of the
+     * TaskList and into a new segment.
+     *
+     * The segment is durable before the tasks are removed. The caller saves
+     * the TaskList afterwards; a crash in between archives those tasks twice
+     * but never loses them.
+     *
+     * Partitions of a PartitionedTaskList that are not loaded yet are left
+     * alone, so a sweep never drags old months into memory. Their tasks are
+     * swept once something else loads them.
+     *
+     * @param tasks Hot tasks to sweep.
+     * @param nowMillis Current time in milliseconds since the epoch.
+     * @return Number of tasks archived.
+     * @throws RagebaitException If the segment or the sidecar file cannot be written.
+     */
+    public synchronized int sweep(TaskList tasks, long nowMillis) throws RagebaitException {
+        Map<String, Long> completedSince = readCompletionTimes();
+        Map<String, Long> stillHot = new HashMap<>();
+        List<Integer> expiredIndices = new ArrayList<>();
+        List<Task> expired = new ArrayList<>();
+        boolean isPartial = false;
+
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks instanceof PartitionedTaskList && !((PartitionedTaskList) tasks).isLoaded(i)) {
+                isPartial = true;
+                continue;
+            }
+            Task task = tasks.get(i);
+            if (!task.isMarked()) {
+                continue;
+            }
+            line.setLength(0);
+            codec.encode(task, line);
+            String key = line.toString();
+            long since = completedSince.getOrDefault(key, nowMillis);
+            if (nowMillis - since >= maxAgeMillis) {
+                expiredIndices.add(i);
+                expired.add(task);
+            } else {
+                stillHot.put(key, since);
+            }
+        }
+        if (isPartial) {
+            // Entries of unloaded tasks were not seen, keep them ageing
+            Map<String, Long> unseen = new HashMap<>(completedSince);
+            for (Task task : expired) {
+                line.setLength(0);
+                codec.encode(task, line);
+                unseen.remove(line.toString());
+            }
+            unseen.forEach(stillHot::putIfAbsent);
+        }
+
+        if (!expired.isEmpty()) {
+            writeSegment(nextSegmentFile(), expired);
+            for (int i = expiredIndices.size() - 1; i >= 0; i--) {
+                tasks.remove((int) expiredIndices.get(i));
+            }
+        }
+        if (!stillHot.equals(completedSince)) {
+            writeCompletionTimes(stillHot);
+        }
+        return expired.size();
+    }
+
+    /**
+     * Streams every archived task, oldest segment first.
+     *
+     * @param sink Receives the tasks with their archive numbers.
+     * @throws RagebaitException If a segment cannot be read or is corrupted.
+     */
+    public synchronized void scan(ArchivedTaskSink sink) throws RagebaitException {
+        int number = 0;
+        for (File segment : segments().values()) {
+            for (Task task : readSegment(segment)) {
+                sink.accept(++number, task);
+            }
+        }
+    }
+
+    /**
+     * Returns the archived task with the given number without removing it.
+     *
+     * @param number 1-based number of the task in the archive.
+     * @return The archived task.
+     * @throws RagebaitException If there is no such task or a segment cannot be read.
+     */
+    public synchronized Task get(int number) throws RagebaitException {
+        int skipped = 0;
+        for (File segment : segments().values()) {
+            List<Task> archived = readSegment(segment);
+            if (number - skipped <= archived.size() && number > skipped) {
+                return archived.get(number - skipped - 1);
+            }
+            skipped += archived.size();
+        }
+        throw noSuchTask(number);
+    }
+
+    /**
+     * Removes the archived task with the given number by rewriting its segment.
+     * A segment left empty is deleted.
+     *
+     * @param number 1-based number of the task in the archive.
+     * @throws RagebaitException If there is no such task or the segment cannot be rewritten.
+     */
+    public synchronized void remove(int number) throws RagebaitException {
+        int skipped = 0;
+        for (File segment : segments().values()) {
+            List<Task> archived = readSegment(segment);
+            if (number - skipped <= archived.size() && number > skipped) {
+                archived.remove(number - skipped - 1);
+                if (archived.isEmpty()) {
+                    deleteSegment(segment);
+                } else {
+                    writeSegment(segment, archived);
+                }
+                return;
+            }
+            skipped += archived.size();
+        }
+        throw noSuchTask(number);
+    }
+
+    /**
+     * Returns the error reported for an archive number that does not exist.
+     */
+    private static RagebaitException noSuchTask(int number) {
+        return new RagebaitException("There is no archived task " + number
+                + ". Check using command task archive list!");
+    }
+
+    /**
+     * Returns the segment files by segment number, in ascending order.
+     */
+    private TreeMap<Integer, File> segments() {
+        TreeMap<Integer, File> segments = new TreeMap<>();
+        File directory = hotFile.getAbsoluteFile().getParentFile();
+        String prefix = hotFile.getName() + SEGMENT_INFIX;
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return segments;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                segments.put(Integer.parseInt(name.substring(prefix.length(),
+                        name.length() - SEGMENT_SUFFIX.length())), file);
+            } catch (NumberFormatException e) {
+                // Not one of ours, leave it alone
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the file of the segment numbered after the newest one.
+     */
+    private File nextSegmentFile() {
+        TreeMap<Integer, File> segments = segments();
+        int next = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        return new File(hotFile.getPath() + SEGMENT_INFIX + String.format("%06d", next) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Reads every task of a segment.
+     */
+    private List<Task> readSegment(File segment) throws RagebaitException {
+        List<Task> archived = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(segment)), Charset.defaultCharset()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                try {
+                    archived.add(codec.decode(line));
+                } catch (RagebaitException e) {
+                    throw new RagebaitException("Corrupted archived task line in " + segment.getName() + ": " + line
+                            + ". Who's been messing with my archive?", e);
+                }
+            }
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to read archive segment: " + segment.getPath(), e);
+        }
+        return archived;
+    }
+
+    /**
+     * Writes a segment to a temp file, forces it to disk, renames it into place and forces the directory.
+     */
+    private void writeSegment(File segment, List<Task> archived) throws RagebaitException {
+        File temp = new File(segment.getPath() + TEMP_SUFFIX);
+        RecordStore<Task> lines = new RecordStore<>(segment, codec, "archived task", false);
+        try {
+            GroupCommitFile.write(temp, out -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                lines.writeTo(gzip, archived);
+                gzip.finish();
+            }, true);
+            Files.move(temp.toPath(), segment.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            GroupCommitFile.forceDirectory(segment);
+        } catch (IOException e) {
+            temp.delete();
+            throw new RagebaitException("Failed to write archive segment: " + segment.getPath()
+                    + ". Your finished tasks have nowhere to go!", e);
+        }
+    }
+
+    /**
+     * Deletes an emptied segment.
+     */
+    private void deleteSegment(File segment) throws RagebaitException {
+        try {
+            Files.delete(segment.toPath());
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to delete empty archive segment: " + segment.getPath(), e);
+        }
+    }
+
+    /**
+     * Reads the time every done task was first seen done, keyed by its storage line.
+     */
+    private Map<String, Long> readCompletionTimes() throws RagebaitException {
+        Map<String, Long> completedSince = new HashMap<>();
+        if (!completedFile.exists()) {
+            return completedSince;
+        }
+        try {
+            for (String entry : Files.readAllLines(completedFile.toPath(), Charset.defaultCharset())) {
+                int separator = entry.indexOf(SEPARATOR);
+                if (separator < 0) {
+                    continue; // Torn entry, the task just starts ageing again
+                }
+                try {
+                    completedSince.put(entry.substring(separator + SEPARATOR.length()),
+                            Long.parseLong(entry.substring(0, separator)));
+                } catch (NumberFormatException e) {
+                    // Same as a torn entry
+                }
+            }
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to read completion times: " + completedFile.getPath(), e);
+        }
+        return completedSince;
+    }
+
+    /**
+     * Replaces the sidecar file with the given completion times.
+     */
+    private void writeCompletionTimes(Map<String, Long> completedSince) throws RagebaitException {
+        List<String> entries = new ArrayList<>(completedSince.size());
+        for (Map.Entry<String, Long> entry : completedSince.entrySet()) {
+            entries.add(entry.getValue() + SEPARATOR + entry.getKey());
+        }
+        try {
+            Files.write(completedFile.toPath(), entries, Charset.defaultCharset());
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to save completion times: " + completedFile.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ragebait.storage;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+
+/**
+ * Converts tasks to and from single lines of the task storage file.
+ *
+ * Line format:
+ * TYPE | completion_status | description [| dd/MM/yyyy HHmm [| dd/MM/yyyy HHmm]]
+ *
+ * Implementations must be stateless so a single instance can be shared
+ * by the parallel loader and the journal compactor.
+ */
+public interface TaskCodec extends RecordCodec<Task> {
+
+    /**
+     * Parses a single storage line into a Task.
+     *
+     * @param line Line without its terminator.
+     * @return Task represented by the line.
+     * @throws RagebaitException If the line format is invalid or the task type is unknown.
+     */
+    @Override
+    Task decode(CharSequence line) throws RagebaitException;
+
+    /**
+     * Appends the storage line of a task, without a terminator.
+     *
+     * @param task Task to encode.
+     * @param out Builder receiving the line.
+     */
+    @Override
+    void encode(Task task, StringBuilder out);
+}
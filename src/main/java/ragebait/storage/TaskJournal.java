@@ -0,0 +1,444 @@
+package ragebait.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+
+/**
+ * Append-only write-ahead journal kept next to a task storage file.
+ *
+ * Every mutation is appended as one short record instead of rewriting
+ * the whole task file. Once the journal grows past its threshold, the
+ * task file is rewritten from a snapshot on a background thread and
+ * the journal starts over. A forced journal is synced to disk after
+ * every append, so a change is durable once its record is written.
+ *
+ * Compaction creates an empty temp snapshot before rotating the journal,
+ * so a crash at any point can be told apart on the next load:
+ * - temp snapshot only: compaction never rotated, the temp file is dropped
+ * - temp snapshot and rotated journal: snapshot not committed, both journals are replayed
+ * - rotated journal only: snapshot committed, the rotated journal is stale
+ */
+public class TaskJournal {
+
+    /** Record tag for an appended task. */
+    public static final String ADD = "ADD";
+
+    /** Record tag for a deleted task. */
+    public static final String DELETE = "DELETE";
+
+    /** Record tag for a task marked as done. */
+    public static final String MARK = "MARK";
+
+    /** Record tag for a task marked as not done. */
+    public static final String UNMARK = "UNMARK";
+
+    /** Record tag for dropping every task from an index on. */
+    public static final String TRUNCATE = "TRUNCATE";
+
+    /** Suffix of the live journal file. */
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    /** Suffix of the journal being folded into a snapshot. */
+    private static final String ROTATED_SUFFIX = ".journal.compacting";
+
+    /** Suffix of the snapshot being written during compaction. */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Journal receiving new records. */
+    private final File journalFile;
+
+    /** Journal rotated out for an in-flight or interrupted compaction. */
+    private final File rotatedFile;
+
+    /** Snapshot being written by an in-flight or interrupted compaction. */
+    private final File tempFile;
+
+    /** Journal size in bytes that triggers a background compaction. */
+    private final long compactionThreshold;
+
+    /** Writer producing the snapshot file in the storage format. */
+    private final SnapshotWriter snapshotWriter;
+
+    /** Committer replacing the task file with a snapshot, through the temp file. */
+    private final GroupCommitFile committer;
+
+    /** Whether appended records are forced to disk. */
+    private final boolean isForced;
+
+    /** Called on the committing thread each time a snapshot has replaced the task file. */
+    private final Runnable onCommit;
+
+    /**
+     * Writes a complete task file.
+     */
+    @FunctionalInterface
+    public interface SnapshotWriter {
+
+        /**
+         * Writes the given tasks as the complete contents of a task file.
+         *
+         * @param out Stream positioned at the start of the file. Not to be closed.
+         * @param tasks Tasks to write.
+         * @throws IOException If writing fails.
+         */
+        void write(OutputStream out, List<Task> tasks) throws IOException;
+    }
+
+    /** Single background thread running compactions, created on first use. */
+    private ExecutorService compactor;
+
+    /** Result of the most recently started background compaction, until its failure is reported. */
+    private Future<?> pendingCompaction;
+
+    /**
+     * Constructs a journal for the given task storage file.
+     *
+     * @param snapshotFile Task file the journal belongs to.
+     * @param compactionThreshold Journal size in bytes that triggers compaction.
+     * @param snapshotWriter Writer producing the snapshot file in the storage format.
+     * @param isForced Whether appended records are forced to disk.
+     * @param onCommit Called each time a snapshot has replaced the task file, possibly on the
+     *                 background thread.
+     */
+    public TaskJournal(File snapshotFile, long compactionThreshold, SnapshotWriter snapshotWriter,
+                       boolean isForced, Runnable onCommit) {
+        assert compactionThreshold > 0 : "Compaction threshold must be positive.";
+        this.journalFile = new File(snapshotFile.getPath() + JOURNAL_SUFFIX);
+        this.rotatedFile = new File(snapshotFile.getPath() + ROTATED_SUFFIX);
+        this.tempFile = new File(snapshotFile.getPath() + TEMP_SUFFIX);
+        this.compactionThreshold = compactionThreshold;
+        this.snapshotWriter = snapshotWriter;
+        this.committer = new GroupCommitFile(snapshotFile, tempFile);
+        this.isForced = isForced;
+        this.onCommit = onCommit;
+    }
+
+    /**
+     * Settles any interrupted compaction and returns the records that still
+     * have to be replayed on top of the task file, oldest first.
+     *
+     * A background compaction still in flight is waited for first, so the
+     * task file read after this returns matches the records. Its failure is
+     * left for the next append to report. A record torn by a crash
+     * mid-append is cut off the file, so the next append starts on a line
+     * of its own.
+     *
+     * @return Journal records not yet folded into the task file.
+     * @throws RagebaitException If the journal cannot be read.
+     */
+    public synchronized List<String> recover() throws RagebaitException {
+        awaitCompletion(pendingCompaction);
+        List<String> records = new ArrayList<>();
+        try {
+            if (rotatedFile.exists() && !tempFile.exists()) {
+                Files.delete(rotatedFile.toPath());
+            }
+            if (tempFile.exists() && !rotatedFile.exists()) {
+                Files.delete(tempFile.toPath());
+            }
+            if (rotatedFile.exists()) {
+                truncateTornRecord(rotatedFile);
+                records.addAll(readRecords(rotatedFile));
+            }
+            if (journalFile.exists()) {
+                truncateTornRecord(journalFile);
+                records.addAll(readRecords(journalFile));
+            }
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to read task journal: " + journalFile.getPath(), e);
+        }
+        return records;
+    }
+
+    /**
+     * Returns whether any record is waiting to be folded into the task file.
+     *
+     * @return true if the live or a rotated journal holds records.
+     */
+    public synchronized boolean hasRecords() {
+        return journalFile.length() > 0 || rotatedFile.exists();
+    }
+
+    /**
+     * Drops every record not yet folded into the task file, once the task
+     * file no longer is the file they were appended against, as after
+     * another program edited it. Waits for a compaction in flight first.
+     *
+     * @throws RagebaitException If a journal file cannot be deleted.
+     */
+    public synchronized void discard() throws RagebaitException {
+        awaitCompletion(pendingCompaction);
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+            Files.deleteIfExists(rotatedFile.toPath());
+            Files.deleteIfExists(tempFile.toPath());
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to discard stale task journal: " + journalFile.getPath(), e);
+        }
+    }
+
+    /**
+     * Appends records to the journal in one write and starts a background
+     * compaction once the journal has grown past its threshold.
+     *
+     * @param records Records to append, oldest first, without trailing newlines.
+     * @param tasks Tasks after the records, used as the snapshot if compaction starts.
+     * @throws RagebaitException If the records cannot be written, or the last
+     *         background compaction failed. No record is written then, and
+     *         whatever part of them did reach the file is cut off again.
+     */
+    public synchronized void append(List<String> records, List<Task> tasks) throws RagebaitException {
+        if (pendingCompaction != null && pendingCompaction.isDone()) {
+            awaitPendingCompaction();
+        }
+        long lengthBefore = journalFile.length();
+        try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+            BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(out));
+            for (String record : records) {
+                bw.write(record);
+                bw.newLine();
+            }
+            bw.flush();
+            if (isForced) {
+                out.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            RagebaitException failure = new RagebaitException("Failed to append to task journal: "
+                    + journalFile.getPath(), e);
+            try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+                raf.setLength(lengthBefore);
+            } catch (IOException truncateFailure) {
+                // The torn record is cut off by recover() on the next load instead
+                failure.addSuppressed(truncateFailure);
+            }
+            throw failure;
+        }
+
+        boolean isIdle = pendingCompaction == null || pendingCompaction.isDone();
+        if (isIdle && journalFile.length() >= compactionThreshold) {
+            startCompaction(new ArrayList<>(tasks));
+        }
+    }
+
+    /**
+     * Writes the given tasks as the new task file and clears the journal,
+     * waiting for any in-flight background compaction first.
+     *
+     * @param tasks Tasks to write as the snapshot.
+     * @throws RagebaitException If the snapshot cannot be written, or the
+     *         last background compaction failed. Nothing is written then.
+     */
+    public synchronized void compact(List<Task> tasks) throws RagebaitException {
+        awaitPendingCompaction();
+        try {
+            rotate();
+            commitSnapshot(tasks);
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to compact task journal: " + journalFile.getPath(), e);
+        }
+    }
+
+    /**
+     * Rotates the journal and hands the snapshot to the background thread.
+     *
+     * @param snapshot Copy of the tasks at the moment of rotation.
+     * @throws RagebaitException If the journal cannot be rotated.
+     */
+    private void startCompaction(List<Task> snapshot) throws RagebaitException {
+        try {
+            rotate();
+        } catch (IOException e) {
+            throw new RagebaitException("Failed to rotate task journal: " + journalFile.getPath(), e);
+        }
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ragebait-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // A failure leaves the rotated journal and temp snapshot behind, so the next load replays them
+        pendingCompaction = compactor.submit(() -> {
+            commitSnapshot(snapshot);
+            return null;
+        });
+    }
+
+    /**
+     * Blocks until the most recent background compaction has finished, and
+     * reports its failure once.
+     *
+     * @throws RagebaitException If the background compaction failed.
+     */
+    private void awaitPendingCompaction() throws RagebaitException {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new RagebaitException("Background journal compaction failed. Your tasks are safe in the journal,"
+                    + " unlike your sanity: " + rotatedFile.getPath(), e.getCause());
+        } finally {
+            if (pendingCompaction.isDone()) {
+                pendingCompaction = null;
+            }
+        }
+    }
+
+    /**
+     * Blocks until the given compaction has finished, whether it succeeded or not.
+     *
+     * @param compaction Compaction to wait for, or null.
+     */
+    private static void awaitCompletion(Future<?> compaction) {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Reported by awaitPendingCompaction
+        }
+    }
+
+    /**
+     * Marks a compaction as started and moves the live journal aside.
+     *
+     * If an earlier compaction failed and left a rotated journal behind,
+     * the live journal is appended to it instead so no record is lost.
+     *
+     * @throws IOException If the files cannot be created or moved.
+     */
+    private void rotate() throws IOException {
+        if (!tempFile.exists()) {
+            Files.createFile(tempFile.toPath());
+        }
+        if (!journalFile.exists()) {
+            return;
+        }
+        if (!rotatedFile.exists()) {
+            Files.move(journalFile.toPath(), rotatedFile.toPath());
+            return;
+        }
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(rotatedFile, true))) {
+            for (String record : readRecords(journalFile)) {
+                bw.write(record);
+                bw.newLine();
+            }
+        }
+        Files.delete(journalFile.toPath());
+    }
+
+    /**
+     * Writes the snapshot to the temp file and commits it over the task file,
+     * then discards the rotated journal it supersedes.
+     *
+     * The commit is forced to disk, directory included, even when appends
+     * are not, since deleting the rotated journal must never reach the disk
+     * before the snapshot does. A failed commit leaves the temp file behind,
+     * so the rotated journal is still replayed.
+     *
+     * @param snapshot Tasks to write.
+     * @throws IOException If writing or moving fails.
+     */
+    private void commitSnapshot(List<Task> snapshot) throws IOException {
+        committer.commit(out -> snapshotWriter.write(out, snapshot));
+        onCommit.run();
+        Files.deleteIfExists(rotatedFile.toPath());
+    }
+
+    /**
+     * Reads every complete record from a journal file.
+     *
+     * A final record without its trailing newline was torn by a crash
+     * mid-append and is dropped.
+     *
+     * @param file Journal file to read.
+     * @return Records in the order they were appended.
+     * @throws IOException If reading fails.
+     */
+    private static List<String> readRecords(File file) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                records.add(line);
+            }
+        }
+        if (!records.isEmpty() && !endsWithNewline(file)) {
+            records.remove(records.size() - 1);
+        }
+        return records;
+    }
+
+    /**
+     * Cuts a final record without its trailing newline off the file. It was
+     * torn by a crash mid-append, and the next append would otherwise
+     * continue it as if it were part of the new record.
+     *
+     * @param file Journal file to repair.
+     * @throws IOException If reading or truncating fails.
+     */
+    private static void truncateTornRecord(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long length = raf.length();
+            long end = length;
+            while (end > 0) {
+                raf.seek(end - 1);
+                int last = raf.read();
+                if (last == '\n' || last == '\r') {
+                    break;
+                }
+                end--;
+            }
+            if (end < length) {
+                raf.setLength(end);
+                raf.getChannel().force(false);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the last byte of a file is a line terminator.
+     *
+     * @param file File to inspect.
+     * @return true if the file ends with a newline.
+     * @throws IOException If reading fails.
+     */
+    private static boolean endsWithNewline(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length == 0) {
+                return true;
+            }
+            raf.seek(length - 1);
+            int last = raf.read();
+            return last == '\n' || last == '\r';
+        }
+    }
+}
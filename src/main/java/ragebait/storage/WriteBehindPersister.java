@@ -0,0 +1,320 @@
+package ragebait.storage;
+
+import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+
+/**
+ * Saves tasks and contacts on a background thread instead of on the caller.
+ *
+ * Commands only mark a list dirty. A single writer thread waits until the
+ * oldest unsaved change is the maximum staleness old, then writes a snapshot
+ * of every dirty list in one save each, so a burst of commands costs one
+ * save per list instead of one per command. For a journaled task storage,
+ * that save appends the changes of the whole burst in one write.
+ *
+ * Snapshots are taken while holding this object's monitor. Callers that
+ * mutate the lists from another thread should do so while holding it too,
+ * so the writer never copies a half-applied change. A task snapshot records
+ * the done flags as they are then (see TaskList.copy), so marking a task
+ * while the writer encodes it does not race.
+ */
+public class WriteBehindPersister {
+
+    /** Default upper bound in milliseconds on how long a change stays unsaved. */
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 200;
+
+    /** Name of the background writer thread. */
+    private static final String THREAD_NAME = "ragebait-write-behind";
+
+    private final TaskList tasks;
+    private final Storage taskStorage;
+    private final ContactList contacts;
+    private final ContactStorage contactStorage;
+
+    /** Upper bound in milliseconds on how long a change stays unsaved. */
+    private final long maxStalenessMillis;
+
+    private boolean isTasksDirty;
+    private boolean isContactsDirty;
+
+    /** Time in nanoseconds of the oldest change not yet handed to the writer. */
+    private long firstDirtyNanos;
+
+    /** Number of changes marked so far. */
+    private long markedGeneration;
+
+    /** Generation of the most recent snapshot handed to the writer. */
+    private long snapshotGeneration;
+
+    /** Highest generation that has been written out, successfully or not. */
+    private long writtenGeneration;
+
+    /** Number of flush calls waiting, which make the writer skip the staleness window. */
+    private int flushWaiters;
+
+    private boolean isClosed;
+
+    /** Whether the writer thread is running and will pick up new changes. */
+    private boolean isWriterRunning;
+
+    /** Failure of the most recent save, reported by the next flush. */
+    private RagebaitException failure;
+
+    /** Background writer, started on the first change. */
+    private Thread writer;
+
+    /**
+     * Constructs a persister for the given lists and storages.
+     *
+     * Either pair may be null if the caller never marks that list dirty.
+     *
+     * @param tasks Tasks to save.
+     * @param taskStorage Storage the tasks are saved to.
+     * @param contacts Contacts to save.
+     * @param contactStorage Storage the contacts are saved to.
+     * @param maxStalenessMillis Upper bound in milliseconds on how long a change stays unsaved.
+     */
+    public WriteBehindPersister(TaskList tasks, Storage taskStorage,
+                                ContactList contacts, ContactStorage contactStorage, long maxStalenessMillis) {
+        assert maxStalenessMillis >= 0 : "Staleness window cannot be negative.";
+        this.tasks = tasks;
+        this.taskStorage = taskStorage;
+        this.contacts = contacts;
+        this.contactStorage = contactStorage;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Records that the task list has changed and needs to be saved.
+     */
+    public synchronized void markTasksDirty() {
+        isTasksDirty = true;
+        markDirty();
+    }
+
+    /**
+     * Records that the contact list has changed and needs to be saved.
+     */
+    public synchronized void markContactsDirty() {
+        isContactsDirty = true;
+        markDirty();
+    }
+
+    /**
+     * Returns whether a marked change has not been written yet, including
+     * one whose save is in flight or failed.
+     *
+     * @return true if the files on disk may be behind the lists.
+     */
+    public synchronized boolean hasUnsavedChanges() {
+        return writtenGeneration < markedGeneration || failure != null;
+    }
+
+    /**
+     * Returns the number of changes marked so far, if every one of them has
+     * been written, so a caller can tell afterwards whether anything was
+     * saved in between.
+     *
+     * @return Number of changes marked so far, or -1 if one is unsaved.
+     */
+    public synchronized long getSavedGeneration() {
+        return hasUnsavedChanges() ? -1 : markedGeneration;
+    }
+
+    /**
+     * Blocks until every change marked before this call has been written.
+     *
+     * @throws RagebaitException If the save covering those changes failed.
+     */
+    public synchronized void flush() throws RagebaitException {
+        long target = markedGeneration;
+        flushWaiters++;
+        notifyAll();
+        try {
+            while (writtenGeneration < target) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RagebaitException("Interrupted while saving. Let me finish writing, geez.", e);
+        } finally {
+            flushWaiters--;
+        }
+
+        RagebaitException error = failure;
+        failure = null;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Writes every pending change and stops the writer thread.
+     *
+     * Changes marked after closing are saved on the caller's thread.
+     *
+     * @throws RagebaitException If the final save failed.
+     */
+    public synchronized void close() throws RagebaitException {
+        isClosed = true;
+        try {
+            flush();
+        } finally {
+            // Waiting on the monitor rather than joining, so callers already holding it cannot deadlock
+            notifyAll();
+            boolean isInterrupted = false;
+            while (isWriterRunning && !isInterrupted) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    isInterrupted = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Bumps the generation and wakes the writer, starting it if needed.
+     */
+    private void markDirty() {
+        if (markedGeneration == snapshotGeneration) {
+            firstDirtyNanos = System.nanoTime();
+        }
+        markedGeneration++;
+
+        if (isClosed && !isWriterRunning) {
+            saveClosed();
+            return;
+        }
+        if (writer == null) {
+            writer = new Thread(this::runWriter, THREAD_NAME);
+            writer.setDaemon(true);
+            isWriterRunning = true;
+            writer.start();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Saves a change marked after close on the caller's thread.
+     */
+    private void saveClosed() {
+        Snapshot snapshot = takeSnapshot();
+        try {
+            snapshot.write();
+        } catch (RagebaitException e) {
+            failure = e;
+        }
+        writtenGeneration = snapshot.generation;
+    }
+
+    /**
+     * Writer loop: waits for a change, lets the staleness window run out,
+     * then saves a snapshot outside the monitor.
+     */
+    private void runWriter() {
+        while (true) {
+            Snapshot snapshot;
+            synchronized (this) {
+                try {
+                    awaitDue();
+                } catch (InterruptedException e) {
+                    isWriterRunning = false;
+                    notifyAll();
+                    return;
+                }
+                if (markedGeneration == snapshotGeneration) {
+                    isWriterRunning = false;
+                    notifyAll();
+                    return;
+                }
+                snapshot = takeSnapshot();
+            }
+
+            RagebaitException error = null;
+            try {
+                snapshot.write();
+            } catch (RagebaitException e) {
+                // Reported by the next flush
+                error = e;
+            }
+
+            synchronized (this) {
+                writtenGeneration = Math.max(writtenGeneration, snapshot.generation);
+                if (error != null) {
+                    failure = error;
+                    isTasksDirty |= snapshot.taskCopy != null;
+                    isContactsDirty |= snapshot.contactCopy != null;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until there are unsaved changes that are due, or the writer is
+     * closed with nothing left to save. Must hold the monitor.
+     */
+    private void awaitDue() throws InterruptedException {
+        while (true) {
+            boolean hasPending = markedGeneration > snapshotGeneration;
+            if (!hasPending) {
+                if (isClosed) {
+                    return;
+                }
+                wait();
+                continue;
+            }
+            if (flushWaiters > 0 || isClosed) {
+                return;
+            }
+            long remainingNanos = firstDirtyNanos + maxStalenessMillis * 1_000_000 - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return;
+            }
+            wait(Math.max(1, remainingNanos / 1_000_000));
+        }
+    }
+
+    /**
+     * Copies every dirty list and clears the dirty flags. Must hold the monitor.
+     */
+    private Snapshot takeSnapshot() {
+        Snapshot snapshot = new Snapshot(markedGeneration,
+                isTasksDirty ? tasks.copy() : null,
+                isContactsDirty ? new ContactList(contacts.getAllContacts()) : null);
+        if (isTasksDirty) {
+            tasks.clearModifications();
+        }
+        isTasksDirty = false;
+        isContactsDirty = false;
+        snapshotGeneration = markedGeneration;
+        return snapshot;
+    }
+
+    /**
+     * Copies of the dirty lists at one generation, written outside the monitor.
+     */
+    private class Snapshot {
+        private final long generation;
+        private final TaskList taskCopy;
+        private final ContactList contactCopy;
+
+        Snapshot(long generation, TaskList taskCopy, ContactList contactCopy) {
+            this.generation = generation;
+            this.taskCopy = taskCopy;
+            this.contactCopy = contactCopy;
+        }
+
+        void write() throws RagebaitException {
+            if (taskCopy != null) {
+                taskStorage.save(taskCopy);
+            }
+            if (contactCopy != null) {
+                contactStorage.save(contactCopy);
+            }
+        }
+    }
+}
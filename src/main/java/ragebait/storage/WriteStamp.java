@@ -0,0 +1,97 @@
+package ragebait.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+
+/**
+ * Remembers how a file looked right after this process last wrote it, so
+ * that a DataFileWatcher event for one of our own saves can be told apart
+ * from an edit made by another program without reading the file.
+ *
+ * A file is identified by its size, modification time and file key (the
+ * inode, where the file system has one). Editors that save by renaming a
+ * new file into place change the key even within one tick of the clock.
+ */
+class WriteStamp {
+
+    /** File being tracked. */
+    private final File file;
+
+    /** Attributes of the file right after the last write, or null if nothing was written yet. */
+    private volatile Attributes written;
+
+    /**
+     * Constructs a stamp for the given file, with no write recorded.
+     *
+     * @param file File to track.
+     */
+    WriteStamp(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Records the file as it is now, right after this process wrote it.
+     */
+    void record() {
+        written = Attributes.of(file);
+    }
+
+    /**
+     * Returns whether the file is still exactly as this process last wrote it.
+     *
+     * @return false if nothing was written yet, or the file changed since.
+     */
+    boolean isUnchanged() {
+        Attributes last = written;
+        return last != null && last.equals(Attributes.of(file));
+    }
+
+    /**
+     * Size, modification time and key of a file at one moment.
+     */
+    private static class Attributes {
+
+        /** Attributes standing for a file that does not exist or cannot be read. */
+        private static final Attributes MISSING = new Attributes(-1, null, null);
+
+        private final long size;
+        private final FileTime modified;
+        private final Object key;
+
+        Attributes(long size, FileTime modified, Object key) {
+            this.size = size;
+            this.modified = modified;
+            this.key = key;
+        }
+
+        /**
+         * Reads the attributes of the file as it is now.
+         */
+        static Attributes of(File file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                return new Attributes(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Attributes)) {
+                return false;
+            }
+            Attributes other = (Attributes) o;
+            return size == other.size && Objects.equals(modified, other.modified) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, modified, key);
+        }
+    }
+}
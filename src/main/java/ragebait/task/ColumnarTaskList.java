@@ -0,0 +1,470 @@
+package ragebait.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * TaskList that keeps its tasks in primitive columns instead of Task objects,
+ * for lists too large to hold a few hundred bytes of objects per task.
+ *
+ * Every position has an ID, a type ordinal in a byte[], a bit in a PositionBitSet
+ * for the done flag, and two epoch-minute longs for the deadline due time or
+ * the event start and end. Descriptions are UTF-8 bytes in one shared arena,
+ * found through a start and length per position. Removing a task leaves its
+ * bytes in the arena until the dead bytes outnumber the live ones, when the
+ * arena is compacted. Times are kept to the minute, which is all the storage
+ * formats keep anyway.
+ *
+ * get(i) builds a fresh Task from the columns on every call, so tasks must be
+ * changed through the list: marking a returned task has no effect on the list.
+ * Queries by type or status read the columns directly, and finding a task by
+ * ID scans the ID column. Searches by time or
+ * keyword scan views of every task, as the list keeps no further indexes.
+ */
+public class ColumnarTaskList extends TaskList {
+
+    /** Capacity of the columns of an empty list. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** ID of every position. */
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    /** ID given to the next task added without one. */
+    private long nextId = 1;
+
+    /** Type ordinal of every position. */
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    /** Done flag of every position. */
+    private PositionBitSet done = new PositionBitSet();
+
+    /** Due time of a deadline or start time of an event, in epoch minutes. */
+    private long[] starts = new long[INITIAL_CAPACITY];
+
+    /** End time of an event, in epoch minutes. */
+    private long[] ends = new long[INITIAL_CAPACITY];
+
+    /** Offset of every description in the arena. */
+    private int[] textStarts = new int[INITIAL_CAPACITY];
+
+    /** Length of every description in bytes. */
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+
+    /** UTF-8 bytes of the descriptions, in the order they were added. */
+    private byte[] arena = new byte[INITIAL_CAPACITY * 32];
+
+    /** Bytes of the arena in use, dead ones included. */
+    private int arenaLength;
+
+    /** Bytes of the arena belonging to removed tasks. */
+    private int deadBytes;
+
+    private int size;
+
+    /** Lowest index whose record may have moved or changed since modifications were last cleared. */
+    private int dirtyFrom;
+
+    /** Indices below dirtyFrom whose done flag was flipped since modifications were last cleared. */
+    private final SortedSet<Integer> flippedIndices = new TreeSet<>();
+
+    /**
+     * Creates an empty ColumnarTaskList.
+     */
+    public ColumnarTaskList() {
+    }
+
+    /**
+     * Creates a ColumnarTaskList holding the given tasks. The tasks are
+     * copied into the columns and not referenced afterwards.
+     *
+     * @param tasks Tasks in list order.
+     */
+    public ColumnarTaskList(List<Task> tasks) {
+        ensureCapacity(tasks.size());
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        add(size, task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null.");
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        ensureCapacity(size + 1);
+        int moved = size - index;
+        System.arraycopy(ids, index, ids, index + 1, moved);
+        System.arraycopy(types, index, types, index + 1, moved);
+        System.arraycopy(starts, index, starts, index + 1, moved);
+        System.arraycopy(ends, index, ends, index + 1, moved);
+        System.arraycopy(textStarts, index, textStarts, index + 1, moved);
+        System.arraycopy(textLengths, index, textLengths, index + 1, moved);
+        size++;
+
+        // A task brought from another list gets a new ID too, so none is reused
+        setTaskId(task, nextId++);
+        ids[index] = task.getId();
+        types[index] = (byte) task.getType().ordinal();
+        done.insert(index, task.isMarked());
+        starts[index] = 0;
+        ends[index] = 0;
+        if (task instanceof Deadline) {
+            starts[index] = toEpochMinute(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            starts[index] = toEpochMinute(((Event) task).getFrom());
+            ends[index] = toEpochMinute(((Event) task).getTo());
+        }
+        byte[] text = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        ensureArenaCapacity(text.length);
+        System.arraycopy(text, 0, arena, arenaLength, text.length);
+        textStarts[index] = arenaLength;
+        textLengths[index] = text.length;
+        arenaLength += text.length;
+        dirtyFrom = Math.min(dirtyFrom, index);
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        deadBytes += textLengths[index];
+        int moved = size - index - 1;
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(starts, index + 1, starts, index, moved);
+        System.arraycopy(ends, index + 1, ends, index, moved);
+        System.arraycopy(textStarts, index + 1, textStarts, index, moved);
+        System.arraycopy(textLengths, index + 1, textLengths, index, moved);
+        done.remove(index);
+        size--;
+        if (deadBytes > arenaLength - deadBytes) {
+            compact();
+        }
+        dirtyFrom = Math.min(dirtyFrom, index);
+        return removed;
+    }
+
+    /**
+     * Removes the tasks at the given indices with one sweep over the columns.
+     *
+     * @param indices Distinct zero-based indices in ascending order.
+     * @return The removed tasks, in list order.
+     * @throws IndexOutOfBoundsException if an index is invalid.
+     */
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        List<Task> removed = new ArrayList<>(indices.length);
+        if (indices.length == 0) {
+            return removed;
+        }
+        checkIndex(indices[0]);
+        checkIndex(indices[indices.length - 1]);
+
+        PositionBitSet keptDone = new PositionBitSet();
+        int next = 0;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (next < indices.length && indices[next] == i) {
+                removed.add(get(i));
+                deadBytes += textLengths[i];
+                next++;
+                continue;
+            }
+            ids[kept] = ids[i];
+            types[kept] = types[i];
+            starts[kept] = starts[i];
+            ends[kept] = ends[i];
+            textStarts[kept] = textStarts[i];
+            textLengths[kept] = textLengths[i];
+            keptDone.insert(kept, done.get(i));
+            kept++;
+        }
+        done = keptDone;
+        size = kept;
+        if (deadBytes > arenaLength - deadBytes) {
+            compact();
+        }
+        dirtyFrom = Math.min(dirtyFrom, indices[0]);
+        return removed;
+    }
+
+    @Override
+    public Task markDone(int index) {
+        checkIndex(index);
+        done.set(index, true);
+        recordFlip(index);
+        return get(index);
+    }
+
+    @Override
+    public Task markUndone(int index) {
+        checkIndex(index);
+        done.set(index, false);
+        recordFlip(index);
+        return get(index);
+    }
+
+    /**
+     * Returns a new Task built from the columns at the specified index.
+     * The view's description is not interned, so reading a task does not
+     * count towards the DescriptionPool statistics.
+     *
+     * @param index Index of the task to retrieve.
+     * @return A Task equal to the one stored at the index.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        String description = new String(arena, textStarts[index], textLengths[index], StandardCharsets.UTF_8);
+        boolean isDone = done.get(index);
+        Task task;
+        switch (TaskType.values()[types[index]]) {
+        case DEADLINE:
+            task = new Deadline(description, toDateTime(starts[index]), isDone, false);
+            break;
+        case EVENT:
+            task = new Event(description, toDateTime(starts[index]), toDateTime(ends[index]), isDone, false);
+            break;
+        default:
+            task = new ToDo(description, isDone, false);
+            break;
+        }
+        task.setId(ids[index]);
+        return task;
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns an unmodifiable view that builds each task as it is read.
+     *
+     * @return Unmodifiable view of the tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        return Collections.unmodifiableList(new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return ColumnarTaskList.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+    }
+
+    @Override
+    public String listTasks() {
+        if (size == 0) {
+            return "Task list is empty.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            appendEntry(sb, i + 1, get(i));
+
+            if (i < size - 1) {
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int getDirtyFrom() {
+        return dirtyFrom;
+    }
+
+    @Override
+    public SortedSet<Integer> getFlippedIndices() {
+        return Collections.unmodifiableSortedSet(flippedIndices.headSet(dirtyFrom));
+    }
+
+    @Override
+    public void clearModifications() {
+        dirtyFrom = size;
+        flippedIndices.clear();
+    }
+
+    /**
+     * Returns a copy with its own columns and the same tracked modifications.
+     *
+     * @return Copy of this list.
+     */
+    @Override
+    public TaskList copy() {
+        ColumnarTaskList copy = new ColumnarTaskList();
+        copy.ids = Arrays.copyOf(ids, Math.max(size, 1));
+        copy.nextId = nextId;
+        copy.types = Arrays.copyOf(types, Math.max(size, 1));
+        copy.starts = Arrays.copyOf(starts, Math.max(size, 1));
+        copy.ends = Arrays.copyOf(ends, Math.max(size, 1));
+        copy.textStarts = Arrays.copyOf(textStarts, Math.max(size, 1));
+        copy.textLengths = Arrays.copyOf(textLengths, Math.max(size, 1));
+        copy.arena = Arrays.copyOf(arena, Math.max(arenaLength, 1));
+        copy.arenaLength = arenaLength;
+        copy.deadBytes = deadBytes;
+        copy.size = size;
+        for (int i = 0; i < size; i++) {
+            copy.done.insert(i, done.get(i));
+        }
+        copy.dirtyFrom = dirtyFrom;
+        copy.flippedIndices.addAll(flippedIndices);
+        return copy;
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countByStatus(boolean isDone) {
+        return done.count(isDone);
+    }
+
+    @Override
+    public List<Integer> findByType(TaskType type) {
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type.ordinal()) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Integer> findByStatus(boolean isDone) {
+        return done.positions(isDone);
+    }
+
+    @Override
+    public List<Integer> find(TaskType type, boolean isDone) {
+        List<Integer> matches = new ArrayList<>();
+        for (int i : done.positions(isDone)) {
+            if (types[i] == type.ordinal()) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns false: the columns answer queries by type and status, and the
+     * other queries scan task views.
+     *
+     * @return false.
+     */
+    @Override
+    protected boolean isIndexed() {
+        return false;
+    }
+
+    /**
+     * Returns the number of arena bytes held for removed tasks.
+     */
+    int getDeadBytes() {
+        return deadBytes;
+    }
+
+    /**
+     * Moves the live descriptions to the front of a right-sized arena, in list order.
+     */
+    private void compact() {
+        byte[] compacted = new byte[Math.max(arenaLength - deadBytes, INITIAL_CAPACITY) * 2];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, textStarts[i], compacted, length, textLengths[i]);
+            textStarts[i] = length;
+            length += textLengths[i];
+        }
+        arena = compacted;
+        arenaLength = length;
+        deadBytes = 0;
+    }
+
+    /**
+     * Records a done flag flip, unless the record is rewritten anyway.
+     */
+    private void recordFlip(int index) {
+        if (index < dirtyFrom) {
+            flippedIndices.add(index);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (types.length >= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, types.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        starts = Arrays.copyOf(starts, newCapacity);
+        ends = Arrays.copyOf(ends, newCapacity);
+        textStarts = Arrays.copyOf(textStarts, newCapacity);
+        textLengths = Arrays.copyOf(textLengths, newCapacity);
+    }
+
+    private void ensureArenaCapacity(int extra) {
+        if (arena.length - arenaLength < extra) {
+            arena = Arrays.copyOf(arena, Math.max(arenaLength + extra, arena.length * 2));
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
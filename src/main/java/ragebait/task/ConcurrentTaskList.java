@@ -0,0 +1,307 @@
+package ragebait.task;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * TaskList that may be read and changed from several threads at once, so
+ * commands can run off the JavaFX thread or for more than one client.
+ *
+ * The tasks live in a plain TaskList guarded by a StampedLock. Changes take
+ * the write lock, so they are applied one at a time, and queries share the
+ * read lock. The search indexes are built up front, so no query ever
+ * changes the list under the read lock.
+ *
+ * get, size and isEmpty first try an optimistic read, which takes no lock
+ * at all, and only fall back to the read lock if a change got in the way.
+ * listTasks() and getAllTasks() keep their result until the next change,
+ * each built by the first call after it, so a burst of changes that nobody
+ * lists costs no copy of the list at all.
+ *
+ * Each method is atomic, but a sequence of calls is not: a task found by
+ * index may move before it is marked. Callers that need a sequence to be
+ * atomic must serialize it themselves, as commands do through the
+ * persister's monitor. Tasks are shared with the list, so read their done
+ * flags through the list rather than from a task held on to.
+ */
+public class ConcurrentTaskList extends TaskList {
+
+    /** Tasks, only touched while holding the lock. */
+    private final TaskList tasks;
+
+    /** Write lock for changes, read lock for queries. */
+    private final StampedLock lock = new StampedLock();
+
+    /** Copy of the task order as it is, or null if the list changed since the last one. */
+    private volatile List<Task> taskSnapshot;
+
+    /** Listing of the tasks as they are, or null if the list changed since the last one. */
+    private volatile String listing;
+
+    /**
+     * Creates an empty ConcurrentTaskList.
+     */
+    public ConcurrentTaskList() {
+        this(List.of());
+    }
+
+    /**
+     * Creates a ConcurrentTaskList initialized with the given tasks, which
+     * are given IDs as if added one by one.
+     *
+     * @param tasks List of tasks used to initialize this list.
+     */
+    public ConcurrentTaskList(List<Task> tasks) {
+        this.tasks = new TaskList();
+        for (Task task : tasks) {
+            this.tasks.add(task);
+        }
+        this.tasks.clearModifications();
+
+        // Build the lazy search indexes now, so queries only ever read
+        this.tasks.findByKeyword("");
+        this.tasks.findFuzzy("");
+    }
+
+    @Override
+    public void add(Task task) {
+        write(() -> {
+            tasks.add(task);
+            return null;
+        });
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        write(() -> {
+            tasks.add(index, task);
+            return null;
+        });
+    }
+
+    @Override
+    public Task remove(int index) {
+        return write(() -> tasks.remove(index));
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        return write(() -> tasks.removeAll(indices));
+    }
+
+    @Override
+    public Task markDone(int index) {
+        return write(() -> tasks.markDone(index));
+    }
+
+    @Override
+    public Task markUndone(int index) {
+        return write(() -> tasks.markUndone(index));
+    }
+
+    @Override
+    public void clearModifications() {
+        write(() -> {
+            tasks.clearModifications();
+            return null;
+        });
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        return read(() -> tasks.indexOfId(id));
+    }
+
+    @Override
+    public int getDirtyFrom() {
+        return read(tasks::getDirtyFrom);
+    }
+
+    @Override
+    public List<TaskChange> getChanges() {
+        return read(() -> {
+            List<TaskChange> changes = tasks.getChanges();
+            return changes == null ? null : List.copyOf(changes);
+        });
+    }
+
+    @Override
+    public SortedSet<Integer> getFlippedIndices() {
+        return read(() -> Collections.unmodifiableSortedSet(new TreeSet<>(tasks.getFlippedIndices())));
+    }
+
+    /**
+     * Returns a read-only snapshot of this list, keeping the tracked
+     * modifications, as the persister saves it.
+     *
+     * @return Copy of this list.
+     */
+    @Override
+    public TaskList copy() {
+        return read(tasks::copy);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return read(() -> tasks.countByType(type));
+    }
+
+    @Override
+    public int countByStatus(boolean isDone) {
+        return read(() -> tasks.countByStatus(isDone));
+    }
+
+    @Override
+    public List<Integer> findByType(TaskType type) {
+        return read(() -> tasks.findByType(type));
+    }
+
+    @Override
+    public List<Integer> findByStatus(boolean isDone) {
+        return read(() -> tasks.findByStatus(isDone));
+    }
+
+    @Override
+    public List<Integer> find(TaskType type, boolean isDone) {
+        return read(() -> tasks.find(type, isDone));
+    }
+
+    @Override
+    public List<Task> findDueBefore(LocalDateTime time) {
+        return read(() -> tasks.findDueBefore(time));
+    }
+
+    @Override
+    public List<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        return read(() -> tasks.findBetween(from, to));
+    }
+
+    @Override
+    public List<Task> findByKeyword(String keyword) {
+        return read(() -> tasks.findByKeyword(keyword));
+    }
+
+    @Override
+    public List<Task> findFuzzy(String keyword) {
+        return read(() -> tasks.findFuzzy(keyword));
+    }
+
+    @Override
+    public Task get(int index) {
+        return optimisticRead(() -> tasks.get(index));
+    }
+
+    @Override
+    public int size() {
+        return optimisticRead(tasks::size);
+    }
+
+    /**
+     * Returns the tasks in the order they had at one moment, which no later
+     * add or remove affects. The tasks themselves are shared with the list,
+     * so their done flags follow later marks.
+     *
+     * @return Unmodifiable list of the tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> current = taskSnapshot;
+        if (current != null) {
+            return current;
+        }
+        return read(() -> {
+            // Another reader may have taken it while we waited, and no writer can null it while we hold the lock
+            List<Task> copy = taskSnapshot;
+            if (copy == null) {
+                copy = List.copyOf(tasks.getAllTasks());
+                taskSnapshot = copy;
+            }
+            return copy;
+        });
+    }
+
+    @Override
+    public String listTasks() {
+        String current = listing;
+        if (current != null) {
+            return current;
+        }
+        return read(() -> {
+            String text = listing;
+            if (text == null) {
+                text = tasks.listTasks();
+                listing = text;
+            }
+            return text;
+        });
+    }
+
+    /**
+     * Lists one page under the read lock rather than from the snapshot, so a
+     * page never costs a copy of the whole list.
+     */
+    @Override
+    public String listTasks(int from, int count) {
+        return read(() -> tasks.listTasks(from, count));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return optimisticRead(tasks::isEmpty);
+    }
+
+    /**
+     * Runs a short query without locking, and again under the read lock if a
+     * change ran meanwhile. A failure seen while a change ran is discarded
+     * the same way, since the query may have seen the list half-changed.
+     */
+    private <R> R optimisticRead(Supplier<R> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return read(query);
+    }
+
+    /**
+     * Runs a query while holding the read lock.
+     */
+    private <R> R read(Supplier<R> query) {
+        long stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a change while holding the write lock, dropping the cached copy
+     * and listing before anything changes so that no reader can take up the
+     * old ones afterwards.
+     */
+    private <R> R write(Supplier<R> change) {
+        long stamp = lock.writeLock();
+        try {
+            taskSnapshot = null;
+            listing = null;
+            return change.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
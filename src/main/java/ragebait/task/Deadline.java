@@ -9,6 +9,12 @@ import java.time.format.DateTimeFormatter;
  */
 public class Deadline extends Task {
 
+    /** Formatter for the date/time stored in the task file. */
+    private static final DateTimeFormatter STORAGE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+
+    /** Formatter for the date/time shown to the user. */
+    private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
     /** The due date and time of this deadline task. */
     protected final LocalDateTime by;
 
@@ -19,9 +25,7 @@ public class Deadline extends Task {
      * @param by Due date and time of the task. Must not be null.
      */
     public Deadline(String description, LocalDateTime by) {
-        super(description, TaskType.DEADLINE);
-        assert by != null : "Deadline date cannot be null";
-        this.by = by;
+        this(description, by, false);
     }
 
     /**
@@ -32,7 +36,22 @@ public class Deadline extends Task {
      * @param isDone True if the task is already completed; false otherwise.
      */
     public Deadline(String description, LocalDateTime byDateTime, boolean isDone) {
-        this(description, byDateTime);
+        this(description, byDateTime, isDone, true);
+    }
+
+    /**
+     * Constructs a Deadline task, sharing its description through the
+     * DescriptionPool only if asked to.
+     *
+     * @param description Description of the task.
+     * @param by Due date/time of the task. Must not be null.
+     * @param isDone True if the task is already completed; false otherwise.
+     * @param isPooled Whether to intern the description.
+     */
+    Deadline(String description, LocalDateTime by, boolean isDone, boolean isPooled) {
+        super(description, TaskType.DEADLINE, isPooled);
+        assert by != null : "Deadline date cannot be null";
+        this.by = by;
         if (isDone) {
             markDone();
         }
@@ -46,9 +65,8 @@ public class Deadline extends Task {
      */
     @Override
     public String toFileFormat() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
         return type.getSymbol() + VERTICAL_BAR_SEPERATOR + super.toFileFormat()
-                + VERTICAL_BAR_SEPERATOR + by.format(formatter);
+                + VERTICAL_BAR_SEPERATOR + by.format(STORAGE_FORMATTER);
     }
 
     /**
@@ -59,8 +77,7 @@ public class Deadline extends Task {
      */
     @Override
     public String toString() {
-        DateTimeFormatter displayFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
-        return String.format("[%s]%s (by: %s)", type.getSymbol(), super.toString(), by.format(displayFormatter));
+        return String.format("[%s]%s (by: %s)", type.getSymbol(), super.toString(), by.format(DISPLAY_FORMATTER));
     }
 
     /**
@@ -71,4 +88,9 @@ public class Deadline extends Task {
     public LocalDateTime getBy() {
         return by;
     }
+
+    @Override
+    Task copyWithStatus(boolean isDone) {
+        return new Deadline(description, by, isDone, false);
+    }
 }
@@ -0,0 +1,121 @@
+package ragebait.task;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded intern table that lets tasks with the same description share one
+ * String, since task lists repeat "Buy milk" and "standup" endlessly.
+ *
+ * The table has a fixed number of slots, each holding a weak reference to
+ * one description, picked by its hash. Interning a description that is in
+ * its slot returns the pooled String; anything else takes over the slot.
+ * The table therefore never grows, and a description no task uses any more
+ * is collected like any other String.
+ *
+ * Task constructors intern every description through the shared pool, so
+ * tasks decoded by Storage.load() are deduplicated as they are read. The
+ * pool may be used from the loader threads at once: a race only costs a
+ * missed match.
+ */
+public class DescriptionPool {
+
+    /** Slots in the shared pool. */
+    private static final int SHARED_CAPACITY = 1 << 16;
+
+    /** Pool used by the Task constructors. */
+    private static final DescriptionPool SHARED = new DescriptionPool(SHARED_CAPACITY);
+
+    /** Bytes of a String object and its array header, on a 64-bit JVM with compressed pointers. */
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    /** Weakly held description of every slot, or null while empty. */
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+
+    /** Number of slots, minus one. */
+    private final int mask;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param capacity Number of slots, rounded up to a power of two.
+     */
+    public DescriptionPool(int capacity) {
+        assert capacity > 0 : "Capacity must be positive.";
+        int slotCount = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.mask = slotCount - 1;
+    }
+
+    /**
+     * Returns the pool used by the Task constructors.
+     *
+     * @return Shared pool.
+     */
+    public static DescriptionPool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pooled String equal to the description, pooling the
+     * description itself if there is none.
+     *
+     * @param description Description to intern.
+     * @return An equal String, shared with other tasks where possible.
+     */
+    public String intern(String description) {
+        lookups.increment();
+        int hash = description.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        WeakReference<String> reference = slots.get(slot);
+        String pooled = reference == null ? null : reference.get();
+        if (description.equals(pooled)) {
+            hits.increment();
+            return pooled;
+        }
+        slots.set(slot, new WeakReference<>(description));
+        return description;
+    }
+
+    /**
+     * Returns the number of descriptions interned so far.
+     *
+     * @return Number of lookups.
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * Returns the number of descriptions that were replaced by a pooled String.
+     *
+     * @return Number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return Capacity of the pool.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Estimates the heap taken by a String, assuming one byte per character
+     * as for the Latin-1 text compact strings store.
+     *
+     * @param text String to measure.
+     * @return Estimated size in bytes.
+     */
+    public static long estimateSize(String text) {
+        return (STRING_OVERHEAD + text.length() + 7) & ~7L;
+    }
+}
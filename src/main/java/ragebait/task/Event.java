@@ -15,6 +15,12 @@ import java.time.format.DateTimeFormatter;
  */
 public class Event extends Task {
 
+    /** Formatter for the date/time stored in the task file. */
+    private static final DateTimeFormatter STORAGE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+
+    /** Formatter for the date/time shown to the user. */
+    private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
     /** Start date and time of the event. */
     protected final LocalDateTime from;
 
@@ -34,12 +40,7 @@ public class Event extends Task {
      * @param to End date and time.
      */
     public Event(String description, LocalDateTime from, LocalDateTime to) {
-        super(description, TaskType.EVENT);
-        assert from != null : "Start date/time must not be null.";
-        assert to != null : "End date/time must not be null.";
-        assert !to.isBefore(from) : "End date/time must not be before start date/time.";
-        this.from = from;
-        this.to = to;
+        this(description, from, to, false);
     }
 
     /**
@@ -51,7 +52,26 @@ public class Event extends Task {
      * @param isDone Indicates whether the event is already completed.
      */
     public Event(String description, LocalDateTime from, LocalDateTime to, boolean isDone) {
-        this(description, from, to);
+        this(description, from, to, isDone, true);
+    }
+
+    /**
+     * Constructs an Event, sharing its description through the
+     * DescriptionPool only if asked to.
+     *
+     * @param description Description of the event.
+     * @param from Start date and time.
+     * @param to End date and time.
+     * @param isDone Indicates whether the event is already completed.
+     * @param isPooled Whether to intern the description.
+     */
+    Event(String description, LocalDateTime from, LocalDateTime to, boolean isDone, boolean isPooled) {
+        super(description, TaskType.EVENT, isPooled);
+        assert from != null : "Start date/time must not be null.";
+        assert to != null : "End date/time must not be null.";
+        assert !to.isBefore(from) : "End date/time must not be before start date/time.";
+        this.from = from;
+        this.to = to;
         if (isDone) {
             markDone();
         }
@@ -87,9 +107,8 @@ public class Event extends Task {
      */
     @Override
     public String toFileFormat() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
         return type.getSymbol() + VERTICAL_BAR_SEPERATOR + super.toFileFormat() + VERTICAL_BAR_SEPERATOR
-                + from.format(formatter) + VERTICAL_BAR_SEPERATOR + to.format(formatter);
+                + from.format(STORAGE_FORMATTER) + VERTICAL_BAR_SEPERATOR + to.format(STORAGE_FORMATTER);
     }
 
     /**
@@ -101,8 +120,12 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        DateTimeFormatter displayFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
         return String.format("[%s]%s (from: %s to: %s)", type.getSymbol(), super.toString(),
-                from.format(displayFormatter), to.format(displayFormatter));
+                from.format(DISPLAY_FORMATTER), to.format(DISPLAY_FORMATTER));
+    }
+
+    @Override
+    Task copyWithStatus(boolean isDone) {
+        return new Event(description, from, to, isDone, false);
     }
 }
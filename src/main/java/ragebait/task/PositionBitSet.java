@@ -0,0 +1,156 @@
+package ragebait.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One bit per position of a list, kept in step with the list as elements are
+ * inserted and removed.
+ *
+ * Unlike java.util.BitSet, inserting or removing a position shifts every
+ * later bit along with it, a word at a time. The number of set bits is kept
+ * up to date, so counting is O(1), and listing the set positions costs one
+ * step per 64 positions plus one per match.
+ */
+class PositionBitSet {
+
+    /** Number of positions per word. */
+    private static final int WORD_BITS = 64;
+
+    /** Shift turning a position into a word number. */
+    private static final int WORD_SHIFT = 6;
+
+    /** Bits of all positions, lowest position in the lowest bit of word 0. */
+    private long[] words = new long[1];
+
+    /** Number of positions. */
+    private int size;
+
+    /** Number of set bits. */
+    private int cardinality;
+
+    /**
+     * Returns the bit at a position.
+     *
+     * @param index Position, below size().
+     * @return true if the bit is set.
+     */
+    boolean get(int index) {
+        return (words[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets or clears the bit at a position.
+     *
+     * @param index Position, below size().
+     * @param value New value of the bit.
+     */
+    void set(int index, boolean value) {
+        if (get(index) == value) {
+            return;
+        }
+        words[index >>> WORD_SHIFT] ^= 1L << index;
+        cardinality += value ? 1 : -1;
+    }
+
+    /**
+     * Inserts a position, moving the bits at and after it up by one.
+     *
+     * @param index Position to insert, at most size().
+     * @param value Value of the new bit.
+     */
+    void insert(int index, boolean value) {
+        if ((size >>> WORD_SHIFT) == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        int first = index >>> WORD_SHIFT;
+        for (int k = size >>> WORD_SHIFT; k > first; k--) {
+            words[k] = (words[k] << 1) | (words[k - 1] >>> (WORD_BITS - 1));
+        }
+        long below = (1L << index) - 1;
+        long word = words[first];
+        words[first] = (word & below) | ((word & ~below) << 1);
+        size++;
+        set(index, value);
+    }
+
+    /**
+     * Removes a position, moving the bits after it down by one.
+     *
+     * @param index Position to remove, below size().
+     */
+    void remove(int index) {
+        if (get(index)) {
+            cardinality--;
+        }
+        int first = index >>> WORD_SHIFT;
+        long below = (1L << index) - 1;
+        long word = words[first];
+        words[first] = (word & below) | ((word >>> 1) & ~below);
+        int last = (size - 1) >>> WORD_SHIFT;
+        for (int k = first; k < last; k++) {
+            words[k] |= words[k + 1] << (WORD_BITS - 1);
+            words[k + 1] >>>= 1;
+        }
+        size--;
+    }
+
+    /**
+     * Returns the number of positions.
+     *
+     * @return Number of positions.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of positions whose bit has the given value.
+     *
+     * @param value Bit value to count.
+     * @return Number of matching positions.
+     */
+    int count(boolean value) {
+        return value ? cardinality : size - cardinality;
+    }
+
+    /**
+     * Returns the positions whose bit has the given value, in ascending order.
+     *
+     * @param value Bit value to match.
+     * @return Matching positions.
+     */
+    List<Integer> positions(boolean value) {
+        return positions(value, null, false);
+    }
+
+    /**
+     * Returns the positions whose bit has the given value here and the other
+     * value in another set of the same size, in ascending order.
+     *
+     * @param value Bit value to match in this set.
+     * @param other Second set, or null to match on this set alone.
+     * @param otherValue Bit value to match in the second set.
+     * @return Matching positions.
+     */
+    List<Integer> positions(boolean value, PositionBitSet other, boolean otherValue) {
+        assert other == null || other.size == size : "Bit sets cover different lists.";
+        List<Integer> matches = new ArrayList<>();
+        int wordCount = (size + WORD_BITS - 1) >>> WORD_SHIFT;
+        for (int k = 0; k < wordCount; k++) {
+            long word = value ? words[k] : ~words[k];
+            if (other != null) {
+                word &= otherValue ? other.words[k] : ~other.words[k];
+            }
+            if (k == wordCount - 1 && (size & (WORD_BITS - 1)) != 0) {
+                word &= (1L << size) - 1;
+            }
+            while (word != 0) {
+                matches.add((k << WORD_SHIFT) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return matches;
+    }
+}
@@ -31,9 +31,13 @@ public abstract class Task {
     /** Type of the task. */
     protected final TaskType type;
 
+    /** ID given by the first TaskList the task was added to, or 0 if it has none. */
+    private long id;
+
     /**
      * Constructs a Task with the specified description and type.
-     * The task is initially marked as not completed.
+     * The task is initially marked as not completed, and the trimmed
+     * description is shared through the DescriptionPool.
      *
      * Preconditions:
      * - description must not be null
@@ -43,9 +47,24 @@ public abstract class Task {
      * @param type The type of the task.
      */
     public Task(String description, TaskType type) {
+        this(description, type, true);
+    }
+
+    /**
+     * Constructs a Task whose description is shared through the
+     * DescriptionPool only if asked to. Copies and views of a task whose
+     * description was already pooled skip the pool, so its statistics count
+     * every description once rather than every time it is copied.
+     *
+     * @param description The description of the task.
+     * @param type The type of the task.
+     * @param isPooled Whether to intern the description.
+     */
+    Task(String description, TaskType type, boolean isPooled) {
         assert description != null && !description.trim().isEmpty()
                 : "Description must not be null or empty.";
-        this.description = description.trim();
+        String trimmed = description.trim();
+        this.description = isPooled ? DescriptionPool.getShared().intern(trimmed) : trimmed;
         this.type = type;
         this.isDone = false;
     }
@@ -115,6 +134,56 @@ public abstract class Task {
         return description;
     }
 
+    /**
+     * Returns the ID of the task, which stays the same while other tasks are
+     * added and removed around it.
+     *
+     * @return The ID, or 0 if the task was never added to an indexed TaskList.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the task. Only TaskList assigns IDs.
+     *
+     * @param id The new ID.
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns a copy of this task with the same done flag and ID, which later
+     * changes to this task do not affect. The copy shares the description.
+     *
+     * @return The copy.
+     */
+    public Task copy() {
+        return withDone(isDone);
+    }
+
+    /**
+     * Returns a copy of this task with the given done flag and the same ID,
+     * which later changes to this task do not affect.
+     *
+     * @param isDone Done flag of the copy.
+     * @return The copy.
+     */
+    Task withDone(boolean isDone) {
+        Task copy = copyWithStatus(isDone);
+        copy.setId(id);
+        return copy;
+    }
+
+    /**
+     * Creates a task with the same type, description and dates as this one.
+     *
+     * @param isDone Done flag of the new task.
+     * @return The new task, without an ID.
+     */
+    abstract Task copyWithStatus(boolean isDone);
+
     /**
      * Returns the task type.
      *
@@ -0,0 +1,77 @@
+package ragebait.task;
+
+/**
+ * One change made to a TaskList, as tracked for saving: a task appended,
+ * or the task at an index deleted, marked or unmarked.
+ *
+ * Replaying the changes of a list in order, on a list holding what it held
+ * when modifications were last cleared, gives the list as it is now.
+ */
+public final class TaskChange {
+
+    /**
+     * Kind of change.
+     */
+    public enum Kind {
+        ADD, DELETE, MARK, UNMARK
+    }
+
+    private final Kind kind;
+
+    /** Index the change applies to, as the list was just before it. */
+    private final int index;
+
+    /** Appended task, or null unless the kind is ADD. */
+    private final Task task;
+
+    /**
+     * Constructs a change.
+     *
+     * @param kind Kind of change.
+     * @param index Index the change applies to, as the list was just before it.
+     * @param task Appended task, or null unless the kind is ADD.
+     */
+    TaskChange(Kind kind, int index, Task task) {
+        this.kind = kind;
+        this.index = index;
+        this.task = task;
+    }
+
+    /**
+     * Returns the kind of change.
+     *
+     * @return Kind of change.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the index the change applies to, as the list was just before it.
+     * For an ADD this is the index the task was appended at.
+     *
+     * @return Zero-based index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the appended task.
+     *
+     * @return The task, or null unless the kind is ADD.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns this change with its task replaced by a copy that keeps the
+     * done flag it has now, so later changes to the task do not affect it.
+     *
+     * @return Frozen change.
+     */
+    TaskChange freeze() {
+        return task == null ? this : new TaskChange(kind, index, task.withDone(task.isMarked()));
+    }
+}
@@ -1,8 +1,24 @@
 package ragebait.task;
 
+import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import ragebait.index.FuzzyIndex;
+import ragebait.index.TrigramIndex;
 
 /**
  * Manages a collection of Task objects.
@@ -14,33 +30,127 @@ import java.util.List;
  * - List tasks
  *
  * The internal list is encapsulated to prevent direct external modification.
+ *
+ * Tasks sit in an array of slots in list order. Removing a task leaves a
+ * tombstone in its slot instead of shifting the later ones, and the slots
+ * are compacted once tombstones outnumber tasks, so removing anywhere costs
+ * O(log n) amortised. A Fenwick tree counting the live slots turns a list
+ * position into a slot and back in O(log n), so positions as the user sees
+ * them are still derived from the order.
+ *
+ * A task added to the list gets an ID, counting up from 1, that does not
+ * change as other tasks come and go, so commands can address a task by ID
+ * instead of by its current position. Lists built from existing tasks, such
+ * as search results, keep the IDs the tasks already have.
+ *
+ * The list also tracks what changed since modifications were last cleared:
+ * the lowest index whose record may have moved or changed, plus the indices
+ * below it whose done flag was flipped. Storage uses this to rewrite only
+ * the changed part of the file. Up to a bound, it also keeps the changes
+ * themselves in order (see TaskChange), so a journal can record them as
+ * they are instead of a rewrite of the file.
+ *
+ * Secondary indexes record the type and done flag of every slot, and are
+ * updated as tasks are added, removed, marked and unmarked. Counts by type or
+ * status are O(1), and listing the indices of, say, every pending deadline
+ * costs one step per 64 slots plus one per match, or O(log n) per match
+ * while there are tombstones. Tasks must therefore be
+ * marked through the list rather than directly, or the indexes go stale.
+ * A TaskTimeIndex orders the dated tasks for range queries by time, and a
+ * TrigramIndex over the descriptions serves keyword searches, keeping the
+ * substring semantics of a plain scan, while a FuzzyIndex serves searches
+ * that tolerate typos. Each text index is built in one pass on the first
+ * search that needs it, so loading a list never pays for it, and is kept up
+ * to date from then on.
  */
 public class TaskList {
 
-    /** Internal list storing all tasks. */
-    private final List<Task> tasks;
+    /** Prefix marking a task ID, both in listings and in commands. */
+    public static final String ID_PREFIX = "#";
+
+    /** Number of slots of an empty list. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Tombstones left in place before compacting is considered. */
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 64;
+
+    /** Changes kept since modifications were last cleared, beyond which they are no longer tracked. */
+    private static final int MAX_TRACKED_CHANGES = 1024;
+
+    /** Task in every slot, in list order, or null where a task was removed. */
+    private Task[] slots = new Task[INITIAL_CAPACITY];
+
+    /** Number of slots in use, tombstones included. */
+    private int slotCount;
+
+    /** Number of tasks. */
+    private int size;
+
+    /** Fenwick tree counting the tasks in the slots, 1-based. */
+    private int[] liveCounts = new int[INITIAL_CAPACITY + 1];
+
+    /** Slot of every task by ID. */
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+
+    /** ID given to the next task added. */
+    private long nextId = 1;
+
+    /** Lowest index whose record may have moved or changed since modifications were last cleared. */
+    private int dirtyFrom;
+
+    /** Indices below dirtyFrom whose done flag was flipped since modifications were last cleared. */
+    private final SortedSet<Integer> flippedIndices = new TreeSet<>();
+
+    /** Changes since modifications were last cleared, oldest first, or null if not all of them were kept. */
+    private List<TaskChange> changes;
+
+    /** Slots holding each type of task. */
+    private final Map<TaskType, PositionBitSet> typeIndex = new EnumMap<>(TaskType.class);
+
+    /** Slots holding a done task. */
+    private PositionBitSet doneIndex = new PositionBitSet();
+
+    /** Slots holding a task rather than a tombstone. */
+    private PositionBitSet liveIndex = new PositionBitSet();
+
+    /** Dated tasks ordered by time. */
+    private final TaskTimeIndex timeIndex = new TaskTimeIndex();
+
+    /** Tasks by the trigrams of their descriptions, or null until the first search. */
+    private TrigramIndex<Task> textIndex;
+
+    /** Tasks by the words of their descriptions, for typo-tolerant search, or null until the first one. */
+    private FuzzyIndex<Task> fuzzyIndex;
 
     /**
      * Creates an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        for (TaskType type : TaskType.values()) {
+            typeIndex.put(type, new PositionBitSet());
+        }
     }
 
     /**
      * Creates a TaskList initialized with the given tasks.
      *
      * A defensive copy of the provided list is created to prevent
-     * external modifications from affecting this TaskList.
+     * external modifications from affecting this TaskList. The tasks keep
+     * the IDs they have, so a list of search results shows the same IDs as
+     * the list searched. Tasks added later get IDs past all of them.
      *
      * @param tasks List of tasks used to initialize this TaskList.
      */
     public TaskList(List<Task> tasks) {
-        this.tasks = new ArrayList<>(tasks);
+        this();
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+            append(task);
+        }
     }
 
     /**
-     * Adds a task to the list.
+     * Adds a task to the list, giving it an ID.
      *
      * @param task Task to be added. Must not be null.
      * @throws IllegalArgumentException if task is null.
@@ -49,20 +159,642 @@ public class TaskList {
         if (task == null) {
             throw new IllegalArgumentException("Task must not be null.");
         }
-        tasks.add(task);
+        dirtyFrom = Math.min(dirtyFrom, size);
+        assignId(task);
+        trackChange(TaskChange.Kind.ADD, size, task);
+        append(task);
+    }
+
+    /**
+     * Inserts a task at the specified index, shifting later tasks up, and
+     * gives it an ID. Unlike adding at the end this costs O(n).
+     *
+     * @param index Index the task will occupy.
+     * @param task Task to be inserted. Must not be null.
+     * @throws IllegalArgumentException if task is null.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     */
+    public void add(int index, Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null.");
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        dirtyFrom = Math.min(dirtyFrom, index);
+        assignId(task);
+        if (index == size) {
+            trackChange(TaskChange.Kind.ADD, index, task);
+            append(task);
+            return;
+        }
+
+        // A journal can only append, so an insert is not tracked as a change
+        changes = null;
+
+        // With no tombstones, the index is the slot
+        compact();
+        ensureCapacity(slotCount + 1);
+        System.arraycopy(slots, index, slots, index + 1, slotCount - index);
+        slots[index] = task;
+        slotCount++;
+        size++;
+        liveIndex.insert(index, true);
+        for (TaskType type : TaskType.values()) {
+            typeIndex.get(type).insert(index, type == task.getType());
+        }
+        doneIndex.insert(index, task.isMarked());
+        for (int slot = index; slot < slotCount; slot++) {
+            if (slots[slot].getId() != 0) {
+                slotsById.put(slots[slot].getId(), slot);
+            }
+        }
+        rebuildLiveCounts();
+        indexContent(task, index > 0 ? slots[index - 1] : null, slots[index + 1]);
     }
 
     /**
      * Removes and returns the task at the specified index.
      *
-     * Indexing is zero-based.
+     * Indexing is zero-based. The slot of the task becomes a tombstone, so
+     * no other task moves.
      *
      * @param index Index of the task to remove.
      * @return The removed Task.
      * @throws IndexOutOfBoundsException if the index is invalid.
      */
     public Task remove(int index) {
-        return tasks.remove(index);
+        int slot = slotOf(index);
+        Task removed = bury(slot);
+        dirtyFrom = Math.min(dirtyFrom, index);
+        trackChange(TaskChange.Kind.DELETE, index, null);
+        compactIfSparse();
+        return removed;
+    }
+
+    /**
+     * Removes the tasks at the given indices in one pass and returns them.
+     *
+     * Every index refers to the list as it was before the call. The slots
+     * of all the tasks become tombstones and are compacted at most once,
+     * so removing k tasks costs O(k log n) plus one sweep at worst.
+     *
+     * @param indices Distinct zero-based indices in ascending order.
+     * @return The removed tasks, in list order.
+     * @throws IndexOutOfBoundsException if an index is invalid.
+     */
+    public List<Task> removeAll(int[] indices) {
+        List<Task> removed = new ArrayList<>(indices.length);
+        if (indices.length == 0) {
+            return removed;
+        }
+        if (!isIndexed()) {
+            for (int i = indices.length - 1; i >= 0; i--) {
+                removed.add(remove(indices[i]));
+            }
+            Collections.reverse(removed);
+            return removed;
+        }
+
+        // Find every slot before any task goes, as positions shift with each one
+        int[] targets = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            assert i == 0 || indices[i] > indices[i - 1] : "Indices must be distinct and ascending.";
+            targets[i] = slotOf(indices[i]);
+        }
+        for (int slot : targets) {
+            removed.add(bury(slot));
+        }
+        dirtyFrom = Math.min(dirtyFrom, indices[0]);
+        for (int i = indices.length - 1; i >= 0; i--) {
+            trackChange(TaskChange.Kind.DELETE, indices[i], null);
+        }
+        compactIfSparse();
+        return removed;
+    }
+
+    /**
+     * Marks the task at the specified index as done.
+     *
+     * @param index Index of the task to mark.
+     * @return The marked Task.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     */
+    public Task markDone(int index) {
+        int slot = slotOf(index);
+        Task task = slots[slot];
+        task.markDone();
+        doneIndex.set(slot, true);
+        recordFlip(index);
+        trackChange(TaskChange.Kind.MARK, index, null);
+        return task;
+    }
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index Index of the task to unmark.
+     * @return The unmarked Task.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     */
+    public Task markUndone(int index) {
+        int slot = slotOf(index);
+        Task task = slots[slot];
+        task.markUndone();
+        doneIndex.set(slot, false);
+        recordFlip(index);
+        trackChange(TaskChange.Kind.UNMARK, index, null);
+        return task;
+    }
+
+    /**
+     * Returns the current index of the task with the given ID.
+     *
+     * @param id ID of the task.
+     * @return Zero-based index of the task, or -1 if no task in the list has that ID.
+     */
+    public int indexOfId(long id) {
+        if (!isIndexed()) {
+            for (int i = 0; i < size(); i++) {
+                if (get(i).getId() == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        Integer slot = slotsById.get(id);
+        return slot == null ? -1 : liveBefore(slot);
+    }
+
+    /**
+     * Returns the lowest index whose record may have moved or changed since
+     * modifications were last cleared. Equals size() if only flags were flipped.
+     *
+     * @return Lowest dirty index.
+     */
+    public int getDirtyFrom() {
+        return dirtyFrom;
+    }
+
+    /**
+     * Returns the indices below getDirtyFrom() whose done flag was flipped
+     * since modifications were last cleared, in ascending order.
+     *
+     * @return Unmodifiable set of flipped indices.
+     */
+    public SortedSet<Integer> getFlippedIndices() {
+        return Collections.unmodifiableSortedSet(flippedIndices.headSet(dirtyFrom));
+    }
+
+    /**
+     * Returns the changes made since modifications were last cleared, oldest
+     * first. They are not tracked until modifications are first cleared, nor
+     * after an insert anywhere but the end or once there are too many of them.
+     *
+     * @return Unmodifiable list of the changes, or null if they were not all tracked.
+     */
+    public List<TaskChange> getChanges() {
+        return changes == null ? null : Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Forgets all tracked modifications, typically after the list was saved.
+     */
+    public void clearModifications() {
+        dirtyFrom = size;
+        flippedIndices.clear();
+        changes = new ArrayList<>();
+    }
+
+    /**
+     * Returns a read-only snapshot of this list that keeps the tracked
+     * modifications, for saving the list as it is now from another thread.
+     *
+     * The snapshot holds the tasks in a plain array and builds no indexes,
+     * so taking one costs a single pass over the slots. It shares the Task
+     * objects but records their done flags, and hands out copies carrying
+     * those flags, so marking a task afterwards never shows in it.
+     *
+     * @return Snapshot of this TaskList.
+     */
+    public TaskList copy() {
+        Task[] tasks = new Task[size];
+        BitSet done = new BitSet(size);
+        int next = 0;
+        for (int slot = nextLive(0); slot < slotCount; slot = nextLive(slot + 1)) {
+            done.set(next, slots[slot].isMarked());
+            tasks[next++] = slots[slot];
+        }
+
+        List<TaskChange> frozenChanges = null;
+        if (changes != null) {
+            frozenChanges = new ArrayList<>(changes.size());
+            for (TaskChange change : changes) {
+                frozenChanges.add(change.freeze());
+            }
+        }
+        return new TaskSnapshot(tasks, done, dirtyFrom, flippedIndices.headSet(dirtyFrom), frozenChanges);
+    }
+
+    /**
+     * Returns the number of tasks of the given type.
+     *
+     * @param type Type of task to count.
+     * @return Number of tasks of that type.
+     */
+    public int countByType(TaskType type) {
+        if (!isIndexed()) {
+            return scanIndices(type, null).size();
+        }
+        return typeIndex.get(type).count(true);
+    }
+
+    /**
+     * Returns the number of tasks with the given done flag.
+     *
+     * @param isDone true to count done tasks, false to count pending ones.
+     * @return Number of matching tasks.
+     */
+    public int countByStatus(boolean isDone) {
+        if (!isIndexed()) {
+            return scanIndices(null, isDone).size();
+        }
+        return isDone ? doneIndex.count(true) : size - doneIndex.count(true);
+    }
+
+    /**
+     * Returns the indices of every task of the given type, in ascending order.
+     *
+     * @param type Type of task to find.
+     * @return Zero-based indices of the matching tasks.
+     */
+    public List<Integer> findByType(TaskType type) {
+        if (!isIndexed()) {
+            return scanIndices(type, null);
+        }
+        return toIndices(typeIndex.get(type).positions(true));
+    }
+
+    /**
+     * Returns the indices of every task with the given done flag, in ascending order.
+     *
+     * @param isDone true to find done tasks, false to find pending ones.
+     * @return Zero-based indices of the matching tasks.
+     */
+    public List<Integer> findByStatus(boolean isDone) {
+        if (!isIndexed()) {
+            return scanIndices(null, isDone);
+        }
+        return toIndices(liveIndex.positions(true, doneIndex, isDone));
+    }
+
+    /**
+     * Returns the indices of every task of the given type with the given done
+     * flag, such as every pending deadline, in ascending order.
+     *
+     * @param type Type of task to find.
+     * @param isDone true to find done tasks, false to find pending ones.
+     * @return Zero-based indices of the matching tasks.
+     */
+    public List<Integer> find(TaskType type, boolean isDone) {
+        if (!isIndexed()) {
+            return scanIndices(type, isDone);
+        }
+        return toIndices(typeIndex.get(type).positions(true, doneIndex, isDone));
+    }
+
+    /**
+     * Returns every Deadline due before the given time, earliest first.
+     *
+     * @param time Exclusive upper bound on the due time.
+     * @return Matching deadlines.
+     */
+    public List<Task> findDueBefore(LocalDateTime time) {
+        if (!isIndexed()) {
+            return scanByTime(task -> task instanceof Deadline && ((Deadline) task).getBy().isBefore(time));
+        }
+        return timeIndex.dueBefore(time);
+    }
+
+    /**
+     * Returns every Deadline due within the window and every Event overlapping
+     * it, ordered by due or start time.
+     *
+     * @param from Start of the window, inclusive.
+     * @param to End of the window, inclusive.
+     * @return Matching tasks.
+     */
+    public List<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        if (!isIndexed()) {
+            return scanByTime(task -> task instanceof Deadline
+                    ? !((Deadline) task).getBy().isBefore(from) && !((Deadline) task).getBy().isAfter(to)
+                    : task instanceof Event && !((Event) task).getFrom().isAfter(to)
+                            && !((Event) task).getTo().isBefore(from));
+        }
+        return timeIndex.between(from, to);
+    }
+
+    /**
+     * Returns every task whose description contains the keyword, ignoring case, in list order.
+     *
+     * @param keyword Keyword to search for.
+     * @return Matching tasks.
+     */
+    public List<Task> findByKeyword(String keyword) {
+        if (isIndexed()) {
+            if (textIndex == null) {
+                textIndex = new TrigramIndex<>(getAllTasks(), Task::getDescription);
+            }
+            List<Task> matches = textIndex.find(keyword);
+            if (matches != null) {
+                return matches;
+            }
+        }
+
+        // Keyword too short to look up, or no index.
+        // Iterating getAllTasks streams through the file when the list is lazy
+        List<Task> matches = new ArrayList<>();
+        String lowerKeyword = keyword.toLowerCase();
+        for (Task task : getAllTasks()) {
+            if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns every task with a word close to each word of the keyword, for
+     * when the user cannot spell. Closest matches come first, then list order.
+     *
+     * @param keyword Keyword to search for, possibly misspelt.
+     * @return Matching tasks, closest first.
+     */
+    public List<Task> findFuzzy(String keyword) {
+        if (!isIndexed()) {
+            return new FuzzyIndex<>(getAllTasks(), Task::getDescription).find(keyword);
+        }
+        if (fuzzyIndex == null) {
+            fuzzyIndex = new FuzzyIndex<>(getAllTasks(), Task::getDescription);
+        }
+        return fuzzyIndex.find(keyword);
+    }
+
+    /**
+     * Returns whether this list keeps its indexes. Subclasses that hold their
+     * tasks elsewhere return false, and the queries then scan every task.
+     *
+     * @return true if the indexes are maintained.
+     */
+    protected boolean isIndexed() {
+        return true;
+    }
+
+    /**
+     * Finds matching indices by reading every task, for lists without indexes.
+     *
+     * @param type Type to match, or null for any.
+     * @param isDone Done flag to match, or null for any.
+     */
+    private List<Integer> scanIndices(TaskType type, Boolean isDone) {
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < size(); i++) {
+            Task task = get(i);
+            if ((type == null || task.getType() == type) && (isDone == null || task.isMarked() == isDone)) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds matching dated tasks by reading every task, for lists without
+     * indexes, ordered by due or start time.
+     */
+    private List<Task> scanByTime(Predicate<Task> matches) {
+        List<Task> found = new ArrayList<>();
+        for (Task task : getAllTasks()) {
+            if (matches.test(task)) {
+                found.add(task);
+            }
+        }
+        found.sort(Comparator.comparing(task -> task instanceof Deadline
+                ? ((Deadline) task).getBy() : ((Event) task).getFrom()));
+        return found;
+    }
+
+    /**
+     * Puts a task in a new slot after the last one.
+     */
+    private void append(Task task) {
+        Task before = size > 0 ? get(size - 1) : null;
+        ensureCapacity(slotCount + 1);
+        int slot = slotCount++;
+        slots[slot] = task;
+        int k = slot + 1;
+        liveCounts[k] = 1 + liveBefore(k - 1) - liveBefore(k - (k & -k));
+        liveIndex.insert(slot, true);
+        for (TaskType type : TaskType.values()) {
+            typeIndex.get(type).insert(slot, type == task.getType());
+        }
+        doneIndex.insert(slot, task.isMarked());
+        if (task.getId() != 0) {
+            slotsById.put(task.getId(), slot);
+        }
+        size++;
+        indexContent(task, before, null);
+    }
+
+    /**
+     * Gives a task entering the list the next ID, even if it brings one from
+     * another list, so an ID is never reused once its task was removed.
+     */
+    private void assignId(Task task) {
+        task.setId(nextId++);
+    }
+
+    /**
+     * Adds a newly inserted task to the indexes over its content.
+     */
+    private void indexContent(Task task, Task before, Task after) {
+        timeIndex.add(task);
+        if (textIndex != null && !textIndex.add(task, before, after)) {
+            textIndex = new TrigramIndex<>(getAllTasks(), Task::getDescription);
+        }
+        if (fuzzyIndex != null && !fuzzyIndex.add(task, before, after)) {
+            fuzzyIndex = new FuzzyIndex<>(getAllTasks(), Task::getDescription);
+        }
+    }
+
+    /**
+     * Returns the slot of the task at a list position, descending the Fenwick tree.
+     */
+    private int slotOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        if (slotCount == size) {
+            return index;
+        }
+
+        // Find the largest prefix of slots holding fewer than index + 1 tasks
+        int k = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(slotCount); step > 0; step >>= 1) {
+            if (k + step <= slotCount && liveCounts[k + step] < remaining) {
+                k += step;
+                remaining -= liveCounts[k];
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Returns the number of tasks in the slots before the given one, which
+     * is the list position of a task in that slot.
+     */
+    private int liveBefore(int slot) {
+        int count = 0;
+        for (int k = slot; k > 0; k -= k & -k) {
+            count += liveCounts[k];
+        }
+        return count;
+    }
+
+    /**
+     * Turns the task in a slot into a tombstone and drops it from the indexes.
+     *
+     * @return The removed task.
+     */
+    private Task bury(int slot) {
+        Task removed = slots[slot];
+        slots[slot] = null;
+        for (int k = slot + 1; k <= slotCount; k += k & -k) {
+            liveCounts[k]--;
+        }
+        liveIndex.set(slot, false);
+        typeIndex.get(removed.getType()).set(slot, false);
+        doneIndex.set(slot, false);
+        slotsById.remove(removed.getId(), slot);
+        size--;
+
+        timeIndex.remove(removed);
+        if (textIndex != null) {
+            textIndex.remove(removed);
+        }
+        if (fuzzyIndex != null) {
+            fuzzyIndex.remove(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Compacts the slots once tombstones outnumber tasks.
+     */
+    private void compactIfSparse() {
+        int tombstones = slotCount - size;
+        if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Turns ascending slots into list positions.
+     */
+    private List<Integer> toIndices(List<Integer> slotList) {
+        if (slotCount == size) {
+            return slotList;
+        }
+        List<Integer> indices = new ArrayList<>(slotList.size());
+        for (int slot : slotList) {
+            indices.add(liveBefore(slot));
+        }
+        return indices;
+    }
+
+    /**
+     * Drops the tombstones, moving every task to the slot matching its position.
+     */
+    private void compact() {
+        if (slotCount == size) {
+            return;
+        }
+
+        Task[] live = new Task[Math.max(size * 2, INITIAL_CAPACITY)];
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots[slot] != null) {
+                live[next++] = slots[slot];
+            }
+        }
+        slots = live;
+        slotCount = size;
+
+        liveIndex = new PositionBitSet();
+        doneIndex = new PositionBitSet();
+        for (TaskType type : TaskType.values()) {
+            typeIndex.put(type, new PositionBitSet());
+        }
+        slotsById.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            Task task = slots[slot];
+            liveIndex.insert(slot, true);
+            for (TaskType type : TaskType.values()) {
+                typeIndex.get(type).insert(slot, type == task.getType());
+            }
+            doneIndex.insert(slot, task.isMarked());
+            if (task.getId() != 0) {
+                slotsById.put(task.getId(), slot);
+            }
+        }
+        rebuildLiveCounts();
+    }
+
+    /**
+     * Rebuilds the Fenwick tree from the slots in O(n).
+     */
+    private void rebuildLiveCounts() {
+        liveCounts = new int[slots.length + 1];
+        for (int k = 1; k <= slotCount; k++) {
+            if (slots[k - 1] != null) {
+                liveCounts[k]++;
+            }
+            int parent = k + (k & -k);
+            if (parent <= slotCount) {
+                liveCounts[parent] += liveCounts[k];
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (slots.length < capacity) {
+            int newCapacity = Math.max(capacity, slots.length * 2);
+            slots = Arrays.copyOf(slots, newCapacity);
+            liveCounts = Arrays.copyOf(liveCounts, newCapacity + 1);
+        }
+    }
+
+    /**
+     * Keeps a change, or stops tracking changes once there are too many.
+     */
+    private void trackChange(TaskChange.Kind kind, int index, Task task) {
+        if (changes == null) {
+            return;
+        }
+        if (changes.size() >= MAX_TRACKED_CHANGES) {
+            changes = null;
+            return;
+        }
+        changes.add(new TaskChange(kind, index, task));
+    }
+
+    /**
+     * Records a done flag flip, unless the record is rewritten anyway.
+     */
+    private void recordFlip(int index) {
+        if (index < dirtyFrom) {
+            flippedIndices.add(index);
+        }
     }
 
     /**
@@ -75,7 +807,7 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is invalid.
      */
     public Task get(int index) {
-        return tasks.get(index);
+        return slots[slotOf(index)];
     }
 
     /**
@@ -84,42 +816,103 @@ public class TaskList {
      * @return Total number of tasks.
      */
     public int size() {
-        return tasks.size();
+        return size;
     }
 
     /**
      * Returns an unmodifiable view of the task list.
      *
      * This prevents modification of the internal list structure.
+     * Iterating the view walks the slots directly.
      *
      * @return Unmodifiable list of tasks.
      */
     public List<Task> getAllTasks() {
-        return Collections.unmodifiableList(tasks);
+        return Collections.unmodifiableList(new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return TaskList.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return TaskList.this.size();
+            }
+
+            @Override
+            public Iterator<Task> iterator() {
+                return new Iterator<>() {
+                    private int slot = nextLive(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < slotCount;
+                    }
+
+                    @Override
+                    public Task next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Task task = slots[slot];
+                        slot = nextLive(slot + 1);
+                        return task;
+                    }
+                };
+            }
+        });
     }
 
     /**
      * Returns a formatted string representation of all tasks.
      *
-     * Tasks are numbered starting from 1.
+     * Tasks are numbered starting from 1, with their IDs alongside.
      * If the list is empty, a message is returned.
      *
      * @return Formatted string of tasks or an empty-list message.
      */
     public String listTasks() {
-        if (tasks.isEmpty()) {
+        if (size == 0) {
             return "Task list is empty.";
         }
 
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(i + 1)
-                    .append(". ")
-                    .append(tasks.get(i).toString());
+        int number = 0;
+        for (Task task : getAllTasks()) {
+            appendEntry(sb, ++number, task);
+            if (number < size) {
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
 
-            if (i < tasks.size() - 1) {
+    /**
+     * Returns a formatted string representation of one page of tasks,
+     * numbered as in the full listing, so a long list can be shown a page
+     * at a time. Only the tasks on the page are read.
+     *
+     * The position works as a cursor: the next page starts at from + count.
+     *
+     * @param from Index of the first task on the page.
+     * @param count Maximum number of tasks on the page.
+     * @return Formatted string of the tasks on the page, empty if from is past the end.
+     */
+    public String listTasks(int from, int count) {
+        assert from >= 0 && count >= 0 : "Page must not start or end before the list.";
+        int to = (int) Math.min((long) from + count, size());
+        StringBuilder sb = new StringBuilder();
+        int slot = isIndexed() && from < to ? slotOf(from) : 0;
+        for (int i = from; i < to; i++) {
+            if (i > from) {
                 sb.append("\n");
             }
+            if (isIndexed()) {
+                appendEntry(sb, i + 1, slots[slot]);
+                slot = nextLive(slot + 1);
+            } else {
+                appendEntry(sb, i + 1, get(i));
+            }
         }
         return sb.toString();
     }
@@ -130,6 +923,42 @@ public class TaskList {
      * @return true if empty, false otherwise.
      */
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        return size == 0;
+    }
+
+    /**
+     * Appends one numbered line of a task listing, with the ID of the task if it has one.
+     *
+     * @param sb Builder of the listing.
+     * @param number Number shown for the task, starting from 1.
+     * @param task Task to list.
+     */
+    protected static void appendEntry(StringBuilder sb, int number, Task task) {
+        sb.append(number).append(". ");
+        if (task.getId() != 0) {
+            sb.append(ID_PREFIX).append(task.getId()).append(" ");
+        }
+        sb.append(task.toString());
+    }
+
+    /**
+     * Sets the ID of a task, for subclasses that keep the IDs of their tasks
+     * themselves instead of in the tasks.
+     *
+     * @param task Task to label.
+     * @param id ID of the task.
+     */
+    protected static void setTaskId(Task task, long id) {
+        task.setId(id);
+    }
+
+    /**
+     * Returns the first slot from the given one that holds a task, or slotCount if none does.
+     */
+    private int nextLive(int slot) {
+        while (slot < slotCount && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
     }
 }
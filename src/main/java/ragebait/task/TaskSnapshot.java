@@ -0,0 +1,182 @@
+package ragebait.task;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Read-only copy of a TaskList as it was at one moment, for saving it
+ * while the list itself moves on.
+ *
+ * Taking one costs a single pass over the tasks: it keeps them in a plain
+ * array, in list order, together with the tracked modifications, and
+ * builds none of the indexes a TaskList keeps. Queries scan the array,
+ * which is all a save needs.
+ *
+ * The Task objects are shared with the list, so their done flags are
+ * recorded when the snapshot is taken, and every task handed out is a
+ * copy carrying the recorded flag. Encoding a snapshot on one thread is
+ * then safe while tasks are marked on another.
+ */
+final class TaskSnapshot extends TaskList {
+
+    /** Tasks in list order. */
+    private final Task[] tasks;
+
+    /** Done flag of every task when the snapshot was taken. */
+    private final BitSet done;
+
+    /** Lowest index whose record may have moved or changed when the snapshot was taken. */
+    private int dirtyFrom;
+
+    /** Indices below dirtyFrom whose done flag was flipped when the snapshot was taken. */
+    private final SortedSet<Integer> flippedIndices;
+
+    /** Changes made before the snapshot was taken, with frozen tasks, or null if they were not tracked. */
+    private List<TaskChange> changes;
+
+    /**
+     * Constructs a snapshot over the given tasks and modifications.
+     *
+     * @param tasks Tasks in list order. Kept, not copied.
+     * @param done Done flag of every task. Kept, not copied.
+     * @param dirtyFrom Lowest dirty index.
+     * @param flippedIndices Flipped indices below dirtyFrom.
+     * @param changes Tracked changes with frozen tasks, or null. Kept, not copied.
+     */
+    TaskSnapshot(Task[] tasks, BitSet done, int dirtyFrom, SortedSet<Integer> flippedIndices,
+                 List<TaskChange> changes) {
+        this.tasks = tasks;
+        this.done = done;
+        this.dirtyFrom = dirtyFrom;
+        this.flippedIndices = new TreeSet<>(flippedIndices);
+        this.changes = changes == null ? null : Collections.unmodifiableList(changes);
+    }
+
+    @Override
+    public void add(Task task) {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        throw readOnly();
+    }
+
+    @Override
+    public Task remove(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        throw readOnly();
+    }
+
+    @Override
+    public Task markDone(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public Task markUndone(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public int getDirtyFrom() {
+        return dirtyFrom;
+    }
+
+    @Override
+    public SortedSet<Integer> getFlippedIndices() {
+        return Collections.unmodifiableSortedSet(flippedIndices);
+    }
+
+    @Override
+    public List<TaskChange> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public void clearModifications() {
+        dirtyFrom = tasks.length;
+        flippedIndices.clear();
+        changes = List.of();
+    }
+
+    /**
+     * Returns another snapshot of the same tasks, with its own copy of the
+     * tracked modifications.
+     *
+     * @return Copy of this snapshot.
+     */
+    @Override
+    public TaskList copy() {
+        return new TaskSnapshot(tasks, done, dirtyFrom, flippedIndices, changes);
+    }
+
+    /**
+     * Returns false: a snapshot is read once and thrown away, so queries scan it.
+     *
+     * @return false.
+     */
+    @Override
+    protected boolean isIndexed() {
+        return false;
+    }
+
+    /**
+     * Returns a copy of the task at the given index, with the done flag it
+     * had when the snapshot was taken.
+     *
+     * @param index Index of the task.
+     * @return Copy of the task.
+     * @throws IndexOutOfBoundsException if the index is invalid.
+     */
+    @Override
+    public Task get(int index) {
+        return tasks[Objects.checkIndex(index, tasks.length)].withDone(done.get(index));
+    }
+
+    @Override
+    public int size() {
+        return tasks.length;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return Collections.unmodifiableList(new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return TaskSnapshot.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return tasks.length;
+            }
+        });
+    }
+
+    @Override
+    public String listTasks() {
+        return tasks.length == 0 ? "Task list is empty." : listTasks(0, tasks.length);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tasks.length == 0;
+    }
+
+    /**
+     * Returns the exception thrown by every attempt to change the snapshot.
+     */
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Task snapshots are read-only.");
+    }
+}
@@ -0,0 +1,150 @@
+package ragebait.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Orders the dated tasks of a TaskList by time, for range queries.
+ *
+ * Deadlines are keyed on their due time and Events on their start time.
+ * An Event overlaps a window if it starts before the window ends and ends
+ * after it starts. Only the first half is a range on the start time, so the
+ * index also counts the Events of every length, which gives the longest
+ * Event it holds now: any Event overlapping the window started at most that
+ * long before the window. Queries therefore cost O(log n + k), where k also
+ * counts the Events that start within the longest length before the window
+ * but end before it.
+ */
+class TaskTimeIndex {
+
+    /** Deadlines by due time, in insertion order for equal times. */
+    private final TreeMap<LocalDateTime, List<Task>> deadlines = new TreeMap<>();
+
+    /** Events by start time, in insertion order for equal times. */
+    private final TreeMap<LocalDateTime, List<Task>> events = new TreeMap<>();
+
+    /** Number of Events held of every length, so the longest is known after removals. */
+    private final TreeMap<Duration, Integer> eventLengths = new TreeMap<>();
+
+    /**
+     * Adds a task. Tasks without a date are ignored.
+     *
+     * @param task Task to add.
+     */
+    void add(Task task) {
+        if (task instanceof Deadline) {
+            deadlines.computeIfAbsent(((Deadline) task).getBy(), by -> new ArrayList<>(1)).add(task);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            events.computeIfAbsent(event.getFrom(), from -> new ArrayList<>(1)).add(task);
+            eventLengths.merge(lengthOf(event), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Removes a task. Tasks without a date are ignored.
+     *
+     * @param task Task to remove, the same object that was added.
+     */
+    void remove(Task task) {
+        if (task instanceof Deadline) {
+            removeFrom(deadlines, ((Deadline) task).getBy(), task);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            if (removeFrom(events, event.getFrom(), task)) {
+                eventLengths.computeIfPresent(lengthOf(event), (length, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * Returns every Deadline due before the given time, earliest first.
+     *
+     * @param time Exclusive upper bound on the due time.
+     * @return Matching deadlines.
+     */
+    List<Task> dueBefore(LocalDateTime time) {
+        return flatten(deadlines.headMap(time, false).values());
+    }
+
+    /**
+     * Returns every Deadline due within the window and every Event
+     * overlapping it, ordered by due or start time.
+     *
+     * @param from Start of the window, inclusive.
+     * @param to End of the window, inclusive.
+     * @return Matching tasks.
+     */
+    List<Task> between(LocalDateTime from, LocalDateTime to) {
+        List<Task> dueInWindow = flatten(deadlines.subMap(from, true, to, true).values());
+        List<Task> overlapping = new ArrayList<>();
+        Duration longestEvent = eventLengths.isEmpty() ? Duration.ZERO : eventLengths.lastKey();
+        for (List<Task> starting : events.subMap(from.minus(longestEvent), true, to, true).values()) {
+            for (Task task : starting) {
+                if (!((Event) task).getTo().isBefore(from)) {
+                    overlapping.add(task);
+                }
+            }
+        }
+        return merge(dueInWindow, overlapping);
+    }
+
+    private static Duration lengthOf(Event event) {
+        return Duration.between(event.getFrom(), event.getTo());
+    }
+
+    /**
+     * Removes one task from its entry, dropping the entry once empty.
+     *
+     * @return true if the task was found.
+     */
+    private static boolean removeFrom(Map<LocalDateTime, List<Task>> index, LocalDateTime time, Task task) {
+        List<Task> atTime = index.get(time);
+        if (atTime == null) {
+            return false;
+        }
+        boolean isFound = false;
+        for (int i = 0; i < atTime.size(); i++) {
+            if (atTime.get(i) == task) {
+                atTime.remove(i);
+                isFound = true;
+                break;
+            }
+        }
+        if (atTime.isEmpty()) {
+            index.remove(time);
+        }
+        return isFound;
+    }
+
+    private static List<Task> flatten(Collection<List<Task>> entries) {
+        List<Task> tasks = new ArrayList<>();
+        for (List<Task> atTime : entries) {
+            tasks.addAll(atTime);
+        }
+        return tasks;
+    }
+
+    /**
+     * Merges deadlines and events that are each sorted by time, deadlines first on ties.
+     */
+    private static List<Task> merge(List<Task> deadlines, List<Task> events) {
+        List<Task> merged = new ArrayList<>(deadlines.size() + events.size());
+        int d = 0;
+        int e = 0;
+        while (d < deadlines.size() || e < events.size()) {
+            if (e == events.size() || (d < deadlines.size()
+                    && !((Deadline) deadlines.get(d)).getBy().isAfter(((Event) events.get(e)).getFrom()))) {
+                merged.add(deadlines.get(d++));
+            } else {
+                merged.add(events.get(e++));
+            }
+        }
+        return merged;
+    }
+}
@@ -17,7 +17,7 @@ public class ToDo extends Task {
      * @param description Description of the task.
      */
     public ToDo(String description) {
-        super(description, TaskType.TODO);
+        this(description, false);
     }
 
     /**
@@ -28,7 +28,19 @@ public class ToDo extends Task {
      * @param isDone Indicates whether the task is completed.
      */
     public ToDo(String description, boolean isDone) {
-        super(description, TaskType.TODO);
+        this(description, isDone, true);
+    }
+
+    /**
+     * Creates a ToDo task, sharing its description through the
+     * DescriptionPool only if asked to.
+     *
+     * @param description Description of the task.
+     * @param isDone Indicates whether the task is completed.
+     * @param isPooled Whether to intern the description.
+     */
+    ToDo(String description, boolean isDone, boolean isPooled) {
+        super(description, TaskType.TODO, isPooled);
         if (isDone) {
             markDone();
         }
@@ -61,4 +73,9 @@ public class ToDo extends Task {
     public String toString() {
         return String.format("[%s]%s", type.getSymbol(), super.toString());
     }
+
+    @Override
+    Task copyWithStatus(boolean isDone) {
+        return new ToDo(description, isDone, false);
+    }
 }
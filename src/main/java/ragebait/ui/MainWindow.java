@@ -1,5 +1,7 @@
 package ragebait.ui;
 
+import java.util.concurrent.CompletionException;
+
 import javafx.animation.FadeTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -78,43 +80,64 @@ public class MainWindow extends AnchorPane {
 
     /**
      * Handles user input when the send button is pressed or Enter is hit.
-     * Displays the user's message and Ragebait's response in dialog boxes.
+     * Displays the user's message right away and Ragebait's response once the
+     * command has run, which may be after startup loading finishes.
      * If an exception occurs, displays a color-coded error message instead.
      * Clears the input field after processing.
      * If the user types the exit command, disables input and plays a fade-out animation
-     * before closing the application.
+     * before closing the application, once the final save has completed.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        try {
-            String response = ragebait.getResponse(input);
-            dialogContainer.getChildren().addAll(
-                    DialogBox.getUserDialog(input, userImage),
-                    DialogBox.getRagebaitDialog(response, ragebaitImage)
-            );
-        } catch (RagebaitException e) {
-            TextFlow formattedError = ErrorMessageFormatter.format(e.getMessage());
-            dialogContainer.getChildren().addAll(
-                    DialogBox.getUserDialog(input, userImage),
-                    DialogBox.getErrorDialog(formattedError, ragebaitImage)
-            );
-        }
-
+        dialogContainer.getChildren().add(DialogBox.getUserDialog(input, userImage));
         userInput.clear();
+
         String trimmed = input.trim();
         String[] parts = trimmed.split("\\s+");
-
-        if (parts[0].equals(BYE)) {
+        boolean isExit = parts[0].equals(BYE);
+        if (isExit) {
             userInput.setDisable(true);
             sendButton.setDisable(true);
+        }
+
+        ragebait.getResponseAsync(input).whenComplete((response, error) -> Platform.runLater(() -> {
+            showResponse(response, error);
+            if (isExit) {
+                fadeOut();
+            }
+        }));
+    }
 
-            // AI Assisted: Used ChatGPT to get fade transition to black before exiting
-            FadeTransition fade = new FadeTransition(Duration.seconds(2.5), fadeOverlay);
-            fade.setFromValue(0);
-            fade.setToValue(1);
-            fade.setOnFinished(e -> Platform.exit());
-            fade.play();
+    /**
+     * Displays a command's response, or its error in a color-coded dialog.
+     *
+     * @param response Response message, or null if the command failed.
+     * @param error Failure of the command, or null if it succeeded.
+     */
+    private void showResponse(String response, Throwable error) {
+        if (error == null) {
+            dialogContainer.getChildren().add(DialogBox.getRagebaitDialog(response, ragebaitImage));
+            return;
         }
+
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        String message = cause instanceof RagebaitException
+                ? cause.getMessage()
+                : "Something broke and it's not even your fault this time: " + cause;
+        TextFlow formattedError = ErrorMessageFormatter.format(message);
+        dialogContainer.getChildren().add(DialogBox.getErrorDialog(formattedError, ragebaitImage));
+    }
+
+    /**
+     * Fades the window to black, then closes the application.
+     */
+    private void fadeOut() {
+        // AI Assisted: Used ChatGPT to get fade transition to black before exiting
+        FadeTransition fade = new FadeTransition(Duration.seconds(2.5), fadeOverlay);
+        fade.setFromValue(0);
+        fade.setToValue(1);
+        fade.setOnFinished(e -> Platform.exit());
+        fade.play();
     }
 }
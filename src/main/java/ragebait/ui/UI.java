@@ -1,5 +1,7 @@
 package ragebait.ui;
 
+import java.util.List;
+
 import ragebait.contacts.Contact;
 import ragebait.contacts.ContactList;
 import ragebait.task.Task;
@@ -11,6 +13,9 @@ import ragebait.task.TaskList;
  */
 public class UI {
 
+    /** Number of tasks shown by name after a bulk mark, unmark or delete. */
+    private static final int BULK_LISTING_LIMIT = 10;
+
     public String getWelcome() {
         return "Oh look who’s back. I’m Ragebait Bot. How can I help you today! :)";
     }
@@ -28,8 +33,9 @@ public class UI {
         return "Goodbye. Go touch some grass. Or don’t. Not my problem anymore.";
     }
 
-    public String getListHeader(TaskList tasks) {
-        return "Brace yourself. Here’s your disaster lineup:\n" + tasks.listTasks();
+    public String getListHeader(String entries, int first, int last, int total, int page, int pageCount) {
+        return "Brace yourself. Here’s your disaster lineup:\n" + entries
+                + getPageFooter("task", first, last, total, page, pageCount);
     }
 
     public String getTaskAdded(Task t, int size) {
@@ -48,6 +54,24 @@ public class UI {
         return "Commitment issues already?\n" + t;
     }
 
+    public String getMarkedMany(List<Task> marked, int skipped) {
+        return "Marked " + marked.size() + " " + (marked.size() == 1 ? "task" : "tasks")
+                + " done. Who are you and what have you done with the real you?\n" + listSome(marked)
+                + (skipped > 0 ? "\nSkipped " + skipped + " that were already done. Nice try." : "");
+    }
+
+    public String getUnmarkedMany(List<Task> unmarked, int skipped) {
+        return "Unmarked " + unmarked.size() + " " + (unmarked.size() == 1 ? "task" : "tasks")
+                + ". Commitment issues in bulk?\n" + listSome(unmarked)
+                + (skipped > 0 ? "\nSkipped " + skipped + " that weren't done anyway. Obviously." : "");
+    }
+
+    public String getDeleteMany(List<Task> removed, int size) {
+        return "Deleted " + removed.size() + " " + (removed.size() == 1 ? "task" : "tasks") + ". Happy now?\n"
+                + listSome(removed)
+                + "\nYou’re down to " + size + " task(s). Try not to mess those up too.";
+    }
+
     public String getNoTasks() {
         return "Nothing scheduled. Either you’re ultra-organized… or wildly unproductive.";
     }
@@ -61,6 +85,97 @@ public class UI {
                 + tasks.listTasks();
     }
 
+    public String getFuzzyFindHeader(TaskList tasks) {
+        return "You can't spell, so I guessed. Closest matches first:\n" + tasks.listTasks();
+    }
+
+    public String getDueHeader(TaskList tasks) {
+        return "Ticking time bombs, earliest first. You’re welcome:\n" + tasks.listTasks();
+    }
+
+    public String getBetweenHeader(TaskList tasks) {
+        return "Here’s what’s eating that stretch of your life:\n" + tasks.listTasks();
+    }
+
+    public String getStats(int size, int distinct, long unpooledBytes, long pooledBytes, long heapMb,
+                           long lookups, long hits) {
+        return size + " " + (size == 1 ? "task" : "tasks") + ", " + distinct + " distinct descriptions."
+                + " You repeat yourself a lot.\n"
+                + "Descriptions without pooling: ~" + unpooledBytes / 1024 + " KB\n"
+                + "Descriptions with pooling: ~" + pooledBytes / 1024 + " KB\n"
+                + "Pool hits: " + hits + " of " + lookups + " lookups\n"
+                + "Heap in use: " + heapMb + " MB";
+    }
+
+    public String getExported(int size, String exportPath) {
+        return "Exported " + size + " " + (size == 1 ? "task" : "tasks") + " to " + exportPath
+                + ". Now you can read your failures in plain text.";
+    }
+
+    public String getImported(int imported, int size, long elapsedMillis, int errorCount, List<String> errors) {
+        long perSecond = imported * 1000L / Math.max(elapsedMillis, 1);
+        StringBuilder sb = new StringBuilder("Imported " + imported + " " + (imported == 1 ? "task" : "tasks")
+                + " in " + elapsedMillis + " ms (" + perSecond + " tasks/s). You now have " + size
+                + " " + (size == 1 ? "task" : "tasks") + " to ignore.");
+        if (errorCount > 0) {
+            sb.append("\nSkipped ").append(errorCount).append(errorCount == 1 ? " line" : " lines")
+                    .append(" you clearly didn’t proofread:");
+            for (String error : errors) {
+                sb.append("\n").append(error);
+            }
+            if (errorCount > errors.size()) {
+                sb.append("\n...and ").append(errorCount - errors.size()).append(" more.");
+            }
+        }
+        return sb.toString();
+    }
+
+    public String getArchiveList(List<Integer> numbers, List<Task> tasks) {
+        return "The graveyard of things you actually finished:\n" + listArchived(numbers, tasks);
+    }
+
+    public String getArchiveFindHeader(List<Integer> numbers, List<Task> tasks) {
+        return "Dug these out of the archive. Happy now?\n" + listArchived(numbers, tasks);
+    }
+
+    public String getNoArchivedTasks() {
+        return "The archive is empty. Finishing things isn’t really your thing, huh?";
+    }
+
+    public String getRestored(Task t, int size) {
+        return "Back from the archive. Don’t make me put it away again:\n  " + t
+                + "\nThat makes " + size + " " + (size == 1 ? "task" : "tasks") + " in your list.";
+    }
+
+    /**
+     * Lists the first few tasks of a bulk change, one per line, and counts the rest.
+     */
+    private String listSome(List<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        int shown = Math.min(tasks.size(), BULK_LISTING_LIMIT);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                sb.append("\n");
+            }
+            sb.append("  ").append(tasks.get(i));
+        }
+        if (tasks.size() > shown) {
+            sb.append("\n  ...and ").append(tasks.size() - shown).append(" more. I stopped reading.");
+        }
+        return sb.toString();
+    }
+
+    private String listArchived(List<Integer> numbers, List<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) {
+                sb.append("\n");
+            }
+            sb.append(numbers.get(i)).append(". ").append(tasks.get(i));
+        }
+        return sb.toString();
+    }
+
     public String showError(String message) {
         return "!Error! \n" + message;
     }
@@ -86,12 +201,35 @@ public class UI {
                 + matchingContacts.listContacts();
     }
 
+    public String getFuzzyFindContactHeader(ContactList matchingContacts) {
+        return "Typos forgiven, not forgotten. Closest names first:\n"
+                + matchingContacts.listContacts();
+    }
+
     public String getNoContacts() {
         return "Zero contacts. Not even a spam caller?";
     }
 
-    public String getContactList(ContactList contacts) {
-        return "Here’s the full list of people who haven’t blocked you yet:\n"
-                + contacts.listContacts();
+    public String getContactList(String entries, int first, int last, int total, int page, int pageCount) {
+        return "Here’s the full list of people who haven’t blocked you yet:\n" + entries
+                + getPageFooter("contact", first, last, total, page, pageCount);
+    }
+
+    /**
+     * Returns the line under a page of a listing, with the total count and
+     * the command for the next page, if there is one.
+     */
+    private String getPageFooter(String category, int first, int last, int total, int page, int pageCount) {
+        if (total == 1) {
+            return "\nThat's your only " + category + ".";
+        }
+        if (pageCount == 1) {
+            return "\nThat's all " + total + " " + category + "s.";
+        }
+        return "\nShowing " + first + "-" + last + " of " + total + " " + category + "s, page " + page
+                + " of " + pageCount
+                + (page < pageCount
+                        ? ". More misery on " + category + " list page " + (page + 1) + "."
+                        : ". That's the last page. Finally.");
     }
 }
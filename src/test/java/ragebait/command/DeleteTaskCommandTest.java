@@ -0,0 +1,77 @@
+package ragebait.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
+import ragebait.parser.Parser;
+import ragebait.storage.ContactStorage;
+import ragebait.storage.Storage;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+import ragebait.ui.UI;
+
+public class DeleteTaskCommandTest {
+
+    private TaskList tasks;
+    private UI ui;
+    private Context context;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path dir = Files.createTempDirectory("ragebait-bulk");
+        tasks = new TaskList();
+        for (int i = 1; i <= 300; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        ui = new UI();
+        Storage storage = new Storage(dir.resolve("tasks.txt").toString());
+        ContactStorage contactStorage = new ContactStorage(dir.resolve("contacts.txt").toString());
+        context = new Context(tasks, storage, new ContactList(), contactStorage);
+    }
+
+    @Test
+    public void testDeleteListAndRangeInOnePass() throws RagebaitException {
+        String result = Parser.parse("task delete 3,7,10-250,#300,7").execute(ui, context);
+
+        assertEquals(300 - 244, tasks.size());
+        assertEquals("task 1", tasks.get(0).getDescription());
+        assertEquals("task 4", tasks.get(2).getDescription());
+        assertEquals("task 9", tasks.get(6).getDescription());
+        assertEquals("task 251", tasks.get(7).getDescription());
+        assertEquals("task 299", tasks.get(tasks.size() - 1).getDescription());
+        assertTrue(result.startsWith("Deleted 244 tasks."));
+        assertTrue(result.contains("...and 234 more."));
+    }
+
+    @Test
+    public void testMarkRangeSkipsMarkedTasks() throws RagebaitException {
+        Parser.parse("task mark 2").execute(ui, context);
+        String result = Parser.parse("task mark 1-3").execute(ui, context);
+
+        assertEquals(3, tasks.countByStatus(true));
+        assertTrue(result.contains("Skipped 1"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task mark 1-3").execute(ui, context));
+
+        Parser.parse("task unmark 1,#3").execute(ui, context);
+        assertEquals(1, tasks.countByStatus(true));
+    }
+
+    @Test
+    public void testBadSelectionChangesNothing() {
+        assertThrows(RagebaitException.class, () -> Parser.parse("task delete 1,301").execute(ui, context));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task delete 5,#999").execute(ui, context));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task delete 9-3"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task delete 1,,2"));
+        assertEquals(300, tasks.size());
+    }
+}
@@ -0,0 +1,82 @@
+package ragebait.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
+import ragebait.storage.ContactStorage;
+import ragebait.storage.Storage;
+import ragebait.task.TaskList;
+import ragebait.ui.UI;
+
+public class ImportTaskCommandTest {
+
+    private Path dir;
+    private TaskList tasks;
+    private UI ui;
+    private Context context;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("ragebait-import");
+        tasks = new TaskList();
+        ui = new UI();
+        Storage storage = new Storage(dir.resolve("tasks.txt").toString());
+        ContactStorage contactStorage = new ContactStorage(dir.resolve("contacts.txt").toString());
+        context = new Context(tasks, storage, new ContactList(), contactStorage);
+    }
+
+    @Test
+    public void testImportKeepsOrderAndSkipsBadLines() throws IOException, RagebaitException {
+        Path file = dir.resolve("import.txt");
+        Files.write(file, List.of(
+                "todo read book",
+                "",
+                "task deadline submit /by 01/01/2026 1200",
+                "deadline no date",
+                "event meeting /from 1/1/2024 1210 /to 1/2/2024 2200",
+                "mark 1"));
+
+        String result = new ImportTaskCommand(file.toString()).execute(ui, context);
+
+        assertEquals(3, tasks.size());
+        assertEquals("read book", tasks.get(0).getDescription());
+        assertEquals("submit", tasks.get(1).getDescription());
+        assertEquals("meeting", tasks.get(2).getDescription());
+        assertTrue(result.contains("Imported 3 tasks"));
+        assertTrue(result.contains("Line 4: "));
+        assertTrue(result.contains("Line 6: "));
+        assertEquals(3, new Storage(dir.resolve("tasks.txt").toString()).load().size());
+    }
+
+    @Test
+    public void testImportSpansBatches() throws IOException, RagebaitException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            sb.append("todo task ").append(i).append("\n");
+        }
+        Path file = dir.resolve("import.txt");
+        Files.writeString(file, sb);
+
+        new ImportTaskCommand(file.toString()).execute(ui, context);
+
+        assertEquals(20_000, tasks.size());
+        assertEquals("task 19999", tasks.get(19_999).getDescription());
+    }
+
+    @Test
+    public void testMissingFile() {
+        ImportTaskCommand cmd = new ImportTaskCommand(dir.resolve("nope.txt").toString());
+        assertThrows(RagebaitException.class, () -> cmd.execute(ui, context));
+    }
+}
@@ -0,0 +1,68 @@
+package ragebait.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
+import ragebait.parser.Parser;
+import ragebait.storage.ContactStorage;
+import ragebait.storage.Storage;
+import ragebait.storage.StorageFormat;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+import ragebait.ui.UI;
+
+public class RestoreTaskCommandTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private Path dir;
+    private TaskList tasks;
+    private Storage storage;
+    private Context context;
+
+    @BeforeEach
+    public void setUp() throws IOException, RagebaitException {
+        dir = Files.createTempDirectory("ragebait-restore");
+        storage = new Storage(dir.resolve("tasks.txt").toString(), 0, StorageFormat.TEXT, false, 30 * DAY);
+        tasks = new TaskList();
+        tasks.add(new ToDo("open"));
+        tasks.add(new ToDo("done", true));
+        storage.getArchive().sweep(tasks, 0);
+        storage.getArchive().sweep(tasks, 30 * DAY);
+        storage.save(tasks);
+        ContactStorage contactStorage = new ContactStorage(dir.resolve("contacts.txt").toString());
+        context = new Context(tasks, storage, new ContactList(), contactStorage);
+    }
+
+    @Test
+    public void testRestoreMovesTaskBack() throws RagebaitException {
+        Parser.parse("task archive restore 1").execute(new UI(), context);
+
+        assertEquals(2, tasks.size());
+        assertEquals("done", tasks.get(1).getDescription());
+        assertThrows(RagebaitException.class, () -> storage.getArchive().get(1));
+    }
+
+    @Test
+    public void testFailedSaveLeavesTaskInArchiveOnly() throws IOException, RagebaitException {
+        Path taskFile = dir.resolve("tasks.txt");
+        Files.delete(taskFile);
+        Files.createDirectories(taskFile.resolve("in-the-way"));
+
+        assertThrows(RagebaitException.class,
+                () -> Parser.parse("task archive restore 1").execute(new UI(), context));
+
+        assertEquals(1, tasks.size());
+        assertEquals("open", tasks.get(0).getDescription());
+        assertEquals("done", storage.getArchive().get(1).getDescription());
+    }
+}
@@ -0,0 +1,66 @@
+package ragebait.contacts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentContactListTest {
+
+    @Test
+    public void testReadersSeeWholeChanges() throws InterruptedException {
+        ConcurrentContactList contacts = new ConcurrentContactList();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+
+        // Appends friends in order and drops the oldest every third one, so any
+        // consistent view holds a run of consecutive friends
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 3000; i++) {
+                contacts.add(new Contact("friend " + i, "9" + i, "f" + i + "@mail.com"));
+                if (i % 3 == 2) {
+                    contacts.remove(0);
+                }
+            }
+        });
+        Thread reader = new Thread(() -> {
+            while (isWriting.get()) {
+                checkConsecutive(contacts.getAllContacts(), failures);
+                checkConsecutive(contacts.findByName("friend"), failures);
+                String listing = contacts.listContacts();
+                int lines = listing.startsWith("No contacts") ? 0 : listing.split("\n").length;
+                if (lines > 0 && !listing.startsWith("1. Name: friend ")) {
+                    failures.add("Listing starts with " + listing.substring(0, 20));
+                }
+            }
+        });
+
+        reader.start();
+        writer.start();
+        writer.join();
+        isWriting.set(false);
+        reader.join();
+
+        assertEquals(List.of(), List.copyOf(failures));
+        assertEquals(2000, contacts.size());
+        assertEquals("friend 1000", contacts.get(0).getName());
+        assertEquals(2000, contacts.findByName("friend").size());
+    }
+
+    private static void checkConsecutive(List<Contact> contacts, Queue<String> failures) {
+        for (int i = 1; i < contacts.size(); i++) {
+            if (number(contacts.get(i)) != number(contacts.get(i - 1)) + 1) {
+                failures.add("Saw " + contacts.get(i - 1).getName() + " then " + contacts.get(i).getName());
+                return;
+            }
+        }
+    }
+
+    private static int number(Contact contact) {
+        return Integer.parseInt(contact.getName().substring("friend ".length()));
+    }
+}
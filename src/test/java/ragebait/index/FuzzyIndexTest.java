@@ -0,0 +1,49 @@
+package ragebait.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class FuzzyIndexTest {
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, FuzzyIndex.distance("milk", "milk"));
+        assertEquals(2, FuzzyIndex.distance("milk", "mlik"));
+        assertEquals(1, FuzzyIndex.distance("milk", "silk"));
+        assertEquals(3, FuzzyIndex.distance("kitten", "sitting"));
+        assertEquals(4, FuzzyIndex.distance("", "boss"));
+    }
+
+    @Test
+    public void testTyposFoundClosestFirst() {
+        List<String> items = List.of("Buy silk", "Buy milk", "Email the boss", "Read book");
+        FuzzyIndex<String> index = new FuzzyIndex<>(items, item -> item);
+
+        assertEquals(List.of("Buy milk", "Buy silk"), index.find("milk"));
+        assertEquals(List.of("Buy silk", "Buy milk"), index.find("by silk"));
+        assertEquals(List.of("Email the boss"), index.find("emial"));
+        assertEquals(List.of("Read book"), index.find("REED"));
+        assertEquals(List.of(), index.find("bus milk boss"));
+        assertEquals(List.of(), index.find("--"));
+    }
+
+    @Test
+    public void testRemovedWordsNoLongerMatch() {
+        List<String> items = new ArrayList<>(List.of("buy milk", "walk dog"));
+        FuzzyIndex<String> index = new FuzzyIndex<>(items, item -> item);
+
+        index.remove(items.get(0));
+        assertEquals(List.of(), index.find("milk"));
+
+        String first = "milk the cow";
+        index.add(first, null, items.get(1));
+        String last = "silk dog";
+        index.add(last, items.get(1), null);
+        assertEquals(List.of("milk the cow", "silk dog"), index.find("milk"));
+        assertEquals(List.of("walk dog", "silk dog"), index.find("dug"));
+    }
+}
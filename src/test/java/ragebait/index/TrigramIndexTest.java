@@ -0,0 +1,38 @@
+package ragebait.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void testSubstringInsideWordFound() {
+        List<String> items = List.of("Buy milk", "Mail the boss", "SILKY smooth");
+        TrigramIndex<String> index = new TrigramIndex<>(items, item -> item);
+
+        assertEquals(List.of("Buy milk", "SILKY smooth"), index.find("ilk"));
+        assertEquals(List.of("Mail the boss"), index.find("L THE"));
+        assertEquals(List.of(), index.find("milky"));
+        assertNull(index.find("mi"));
+    }
+
+    @Test
+    public void testInsertKeepsListOrder() {
+        List<String> items = new ArrayList<>(List.of("abc 1", "abc 2"));
+        TrigramIndex<String> index = new TrigramIndex<>(items, item -> item);
+
+        String middle = "abc middle";
+        assertTrue(index.add(middle, items.get(0), items.get(1)));
+        String first = "abc first";
+        index.add(first, null, items.get(0));
+        index.remove(items.get(1));
+
+        assertEquals(List.of("abc first", "abc 1", "abc middle"), index.find("abc"));
+    }
+}
@@ -7,10 +7,18 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import ragebait.command.AddTaskCommand;
+import ragebait.command.BetweenTaskCommand;
 import ragebait.command.DeleteTaskCommand;
+import ragebait.command.DueTaskCommand;
 import ragebait.command.ExitCommand;
+import ragebait.command.ExportTaskCommand;
+import ragebait.command.FindArchivedTaskCommand;
+import ragebait.command.ImportTaskCommand;
+import ragebait.command.ListArchivedTaskCommand;
 import ragebait.command.ListTaskCommand;
 import ragebait.command.MarkTaskCommand;
+import ragebait.command.RestoreTaskCommand;
+import ragebait.command.StatsTaskCommand;
 import ragebait.command.UnmarkTaskCommand;
 import ragebait.exception.RagebaitException;
 
@@ -22,6 +30,17 @@ public class ParserTest {
         assertTrue(Parser.parse("task list") instanceof ListTaskCommand);
         assertTrue(Parser.parse("task todo read book") instanceof AddTaskCommand);
         assertTrue(Parser.parse("task deadline submit /by 01/01/2026 1200") instanceof AddTaskCommand);
+        assertTrue(Parser.parse("task export tasks.txt") instanceof ExportTaskCommand);
+        assertTrue(Parser.parse("task due /before 01/01/2026 1200") instanceof DueTaskCommand);
+        assertTrue(Parser.parse("task between /from 1/1/2026 0000 /to 2/1/2026 0000") instanceof BetweenTaskCommand);
+        assertTrue(Parser.parse("task stats") instanceof StatsTaskCommand);
+    }
+
+    @Test
+    public void testParseImportCommand() throws RagebaitException {
+        ImportTaskCommand importCommand = (ImportTaskCommand) Parser.parse("task import old tasks.txt");
+        assertEquals("old tasks.txt", importCommand.getImportPath());
+        assertThrows(RagebaitException.class, () -> Parser.parse("task import"));
     }
 
     @Test
@@ -30,6 +49,33 @@ public class ParserTest {
         assertEquals(0, mark.getIndex());
     }
 
+    @Test
+    public void testParseIdAddressing() throws RagebaitException {
+        assertEquals(12, ((MarkTaskCommand) Parser.parse("task mark #12")).getId());
+        assertEquals(3, ((UnmarkTaskCommand) Parser.parse("task unmark #3")).getId());
+        assertEquals(7, ((DeleteTaskCommand) Parser.parse("task delete #7")).getId());
+        assertEquals(0, ((DeleteTaskCommand) Parser.parse("task delete 7")).getId());
+        assertThrows(RagebaitException.class, () -> Parser.parse("task mark #"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task delete #0"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task unmark #two"));
+    }
+
+    @Test
+    public void testParseListPage() throws RagebaitException {
+        ListTaskCommand first = (ListTaskCommand) Parser.parse("task list");
+        assertEquals(1, first.getPage());
+        assertEquals(ListTaskCommand.DEFAULT_PAGE_SIZE, first.getPageSize());
+        ListTaskCommand third = (ListTaskCommand) Parser.parse("task list page 3 size 20");
+        assertEquals(3, third.getPage());
+        assertEquals(20, third.getPageSize());
+        ListTaskCommand second = (ListTaskCommand) Parser.parse("task list page 2");
+        assertEquals(ListTaskCommand.DEFAULT_PAGE_SIZE, second.getPageSize());
+        assertThrows(RagebaitException.class, () -> Parser.parse("task list 3"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task list page"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task list page two"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("contact list page 1 size"));
+    }
+
     @Test
     public void testParseUnmarkCommand() throws RagebaitException {
         UnmarkTaskCommand unmark = (UnmarkTaskCommand) Parser.parse("task unmark 2");
@@ -42,6 +88,17 @@ public class ParserTest {
         assertEquals(2, delete.getIndex());
     }
 
+    @Test
+    public void testParseArchiveCommands() throws RagebaitException {
+        assertTrue(Parser.parse("task archive list") instanceof ListArchivedTaskCommand);
+        FindArchivedTaskCommand find = (FindArchivedTaskCommand) Parser.parse("task archive find read book");
+        assertEquals("read book", find.getKeyword());
+        RestoreTaskCommand restore = (RestoreTaskCommand) Parser.parse("task archive restore 3");
+        assertEquals(3, restore.getNumber());
+        assertThrows(RagebaitException.class, () -> Parser.parse("task archive burn"));
+        assertThrows(RagebaitException.class, () -> Parser.parse("task archive restore"));
+    }
+
     @Test
     public void testInvalidIndexFormat() {
         assertThrows(RagebaitException.class, () -> Parser.parse("task mark abc"));
@@ -0,0 +1,43 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
+
+public class DataFileWatcherTest {
+
+    @Test
+    public void testExternalEditAppliedToList() throws IOException, InterruptedException, RagebaitException {
+        Path dir = Files.createTempDirectory("ragebait-watcher");
+        Path file = dir.resolve("contacts.txt");
+        Files.writeString(file, "Bob | 91234567 | bob@example.com\n");
+        ContactStorage storage = new ContactStorage(file.toString());
+        ContactList contacts = storage.load();
+
+        CountDownLatch reloaded = new CountDownLatch(1);
+        DataFileWatcher watcher = new DataFileWatcher((changed, e) -> { });
+        watcher.watch(file.toString(), () -> {
+            storage.reload(contacts);
+            reloaded.countDown();
+        });
+        watcher.start();
+        Files.writeString(file, "Bob | 91234567 | bob@example.com\nAmy | 98765432 | amy@example.com\n");
+
+        try {
+            reloaded.await(10, TimeUnit.SECONDS);
+            assertEquals(2, contacts.size());
+            assertEquals("Amy", contacts.get(1).getName());
+        } finally {
+            watcher.close();
+        }
+    }
+}
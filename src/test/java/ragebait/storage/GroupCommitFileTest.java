@@ -0,0 +1,111 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitFileTest {
+
+    private File target;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        target = Files.createTempDirectory("ragebait-commit").resolve("data.txt").toFile();
+    }
+
+    @Test
+    public void testCommitsDuringWriteAreGrouped() throws Exception {
+        GroupCommitFile file = new GroupCommitFile(target);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        AtomicInteger writes = new AtomicInteger();
+
+        Thread first = new Thread(() -> commitQuietly(file, out -> {
+            writes.incrementAndGet();
+            firstWriteStarted.countDown();
+            awaitQuietly(releaseFirstWrite);
+            out.write("first".getBytes(StandardCharsets.UTF_8));
+        }));
+        first.start();
+        firstWriteStarted.await();
+
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String contents = "follower " + i;
+            Thread follower = new Thread(() -> commitQuietly(file, out -> {
+                writes.incrementAndGet();
+                out.write(contents.getBytes(StandardCharsets.UTF_8));
+            }));
+            followers.add(follower);
+            follower.start();
+            follower.join(50);
+        }
+        releaseFirstWrite.countDown();
+        first.join();
+        for (Thread follower : followers) {
+            follower.join();
+        }
+
+        assertEquals(2, writes.get());
+        assertEquals("follower 4", Files.readString(target.toPath()));
+    }
+
+    @Test
+    public void testFailedCommitLeavesTargetUntouched() throws IOException {
+        GroupCommitFile file = new GroupCommitFile(target);
+        file.commit(out -> out.write("old".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IOException.class, () -> file.commit(out -> {
+            out.write("half".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Disk said no.");
+        }));
+
+        assertEquals("old", Files.readString(target.toPath()));
+        assertFalse(new File(target.getPath() + ".commit").exists());
+    }
+
+    @Test
+    public void testFailedCommitKeepsOwnedTempFile() throws IOException {
+        File temp = new File(target.getPath() + ".tmp");
+        GroupCommitFile file = new GroupCommitFile(target, temp);
+
+        assertThrows(IOException.class, () -> file.commit(out -> {
+            throw new IOException("Disk said no.");
+        }));
+        assertTrue(temp.exists());
+        assertFalse(target.exists());
+
+        file.commit(out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("new", Files.readString(target.toPath()));
+        assertFalse(temp.exists());
+    }
+
+    private static void commitQuietly(GroupCommitFile file, GroupCommitFile.Contents contents) {
+        try {
+            file.commit(contents);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+
+public class LazyTaskListTest {
+
+    private String filePath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        filePath = Files.createTempDirectory("ragebait-lazy").resolve("tasks.txt").toString();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("T | 0 | task " + i);
+        }
+        lines.add("D | 1 | deadline | 26/02/2026 2359");
+        Files.write(Path.of(filePath), lines);
+    }
+
+    @Test
+    public void testMatchesEagerLoad() throws RagebaitException {
+        Storage storage = new Storage(filePath);
+        TaskList eager = storage.load();
+        LazyTaskList lazy = storage.loadLazily(8);
+
+        assertEquals(eager.size(), lazy.size());
+        assertEquals(eager.listTasks(), lazy.listTasks());
+        assertEquals(eager.get(100).toFileFormat(), lazy.get(100).toFileFormat());
+    }
+
+    @Test
+    public void testChangesSurviveSave() throws RagebaitException {
+        Storage storage = new Storage(filePath);
+        LazyTaskList lazy = storage.loadLazily(4);
+        lazy.markDone(3);
+        lazy.remove(0);
+        lazy.add(new ToDo("fresh"));
+        for (int i = 10; i < 50; i++) {
+            lazy.get(i);
+        }
+        storage.save(lazy);
+
+        TaskList reloaded = new Storage(filePath).load();
+        assertEquals(101, reloaded.size());
+        assertEquals("task 1", reloaded.get(0).getDescription());
+        assertTrue(reloaded.get(2).isMarked());
+        assertEquals("fresh", reloaded.get(100).getDescription());
+        assertEquals(lazy.getAllTasks().toString(), reloaded.getAllTasks().toString());
+    }
+
+    @Test
+    public void testEvictedFlagIsWrittenBack() throws IOException, RagebaitException {
+        LazyTaskList lazy = new Storage(filePath).loadLazily(1);
+        lazy.markDone(0);
+        lazy.get(1);
+        lazy.close();
+
+        assertEquals("T | 1 | task 0", Files.readAllLines(Path.of(filePath)).get(0));
+        assertTrue(lazy.get(0).isMarked());
+    }
+
+    @Test
+    public void testOffsetIndexReused() throws IOException, RagebaitException {
+        new Storage(filePath).loadLazily(8);
+        File index = new File(filePath + ".idx");
+        assertTrue(index.exists());
+        long written = index.lastModified();
+
+        LazyTaskList lazy = new Storage(filePath).loadLazily(8);
+
+        assertEquals(written, index.lastModified());
+        assertEquals("task 42", lazy.get(42).getDescription());
+    }
+
+    @Test
+    public void testStreamingReadsEveryTask() throws RagebaitException {
+        LazyTaskList lazy = new Storage(filePath).loadLazily(2);
+        int count = 0;
+        for (Task task : lazy.getAllTasks()) {
+            count += task.getDescription().startsWith("task") ? 1 : 0;
+        }
+        assertEquals(100, count);
+    }
+
+    @Test
+    public void testChangesDuringSnapshotSaveSurvive() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath);
+        LazyTaskList lazy = storage.loadLazily(2);
+        lazy.markDone(0);
+        lazy.add(new ToDo("saved"));
+        TaskList snapshot = lazy.copy();
+
+        lazy.markDone(1);
+        lazy.remove(2);
+        lazy.add(new ToDo("pending"));
+        lazy.get(3);
+        lazy.get(4);
+        storage.save(snapshot);
+
+        List<String> lines = Files.readAllLines(Path.of(filePath));
+        assertEquals(102, lines.size());
+        assertEquals("T | 1 | task 0", lines.get(0));
+        assertEquals("T | 0 | task 1", lines.get(1));
+        assertEquals("T | 0 | saved", lines.get(101));
+
+        assertTrue(lazy.get(1).isMarked());
+        assertEquals("task 3", lazy.get(2).getDescription());
+        assertEquals("pending", lazy.get(101).getDescription());
+        storage.save(lazy);
+        assertEquals(lazy.getAllTasks().toString(), new Storage(filePath).load().getAllTasks().toString());
+    }
+
+    @Test
+    public void testJournaledStorageRejected() {
+        assertThrows(RagebaitException.class, () -> new Storage(filePath, 1024).loadLazily(8));
+    }
+}
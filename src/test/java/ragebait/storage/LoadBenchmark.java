@@ -0,0 +1,96 @@
+package ragebait.storage;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+
+/**
+ * Compares the serial and parallel task loaders on generated storage files.
+ *
+ * Run with {@code ./gradlew loadBenchmark}. Line counts can be overridden
+ * on the command line, e.g. {@code --args="100000 1000000"}.
+ */
+public class LoadBenchmark {
+
+    private static final long[] DEFAULT_LINE_COUNTS = {100_000, 1_000_000, 10_000_000};
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    /**
+     * Runs the benchmark for every requested line count.
+     *
+     * @param args Optional line counts to benchmark.
+     */
+    public static void main(String[] args) throws IOException, RagebaitException {
+        long[] lineCounts = DEFAULT_LINE_COUNTS;
+        if (args.length > 0) {
+            lineCounts = new long[args.length];
+            for (int i = 0; i < args.length; i++) {
+                lineCounts[i] = Long.parseLong(args[i]);
+            }
+        }
+
+        System.out.printf("%12s %12s %12s %8s%n", "lines", "serial ms", "parallel ms", "speedup");
+        for (long lineCount : lineCounts) {
+            File file = File.createTempFile("ragebait-load-benchmark", ".txt");
+            file.deleteOnExit();
+            writeTasks(file, lineCount);
+
+            Storage storage = new Storage(file.getPath());
+            double serial = measure(() -> storage.readTasksSerially(new TaskList()));
+            double parallel = measure(() -> storage.readTasksInParallel(new TaskList()));
+            System.out.printf("%12d %12.1f %12.1f %7.2fx%n", lineCount, serial, parallel, serial / parallel);
+
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes a mix of todo, deadline and event lines.
+     */
+    private static void writeTasks(File file, long lineCount) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+            for (long i = 0; i < lineCount; i++) {
+                int day = (int) (i % 28) + 1;
+                switch ((int) (i % 3)) {
+                case 0:
+                    bw.write("T | " + (i % 2) + " | Buy milk " + i);
+                    break;
+                case 1:
+                    bw.write(String.format("D | 0 | Submit report %d | %02d/02/2026 1200", i, day));
+                    break;
+                default:
+                    bw.write(String.format("E | 1 | Standup %d | %02d/03/2026 0900 | %02d/03/2026 0915", i, day, day));
+                    break;
+                }
+                bw.newLine();
+            }
+        }
+    }
+
+    /**
+     * Returns the mean wall-clock time of a load in milliseconds after warming up.
+     */
+    private static double measure(Load load) throws RagebaitException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            load.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            load.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+
+    /**
+     * A load run that may fail with a storage error.
+     */
+    @FunctionalInterface
+    private interface Load {
+        void run() throws RagebaitException;
+    }
+}
@@ -0,0 +1,106 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+
+public class PartitionedTaskStoreTest {
+
+    private static final YearMonth NOW = YearMonth.of(2025, 6);
+
+    private File directory;
+    private PartitionedTaskStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ragebait-partitions").resolve("tasks.txt.partitions").toFile();
+        store = new PartitionedTaskStore(directory, new ScannerTaskCodec(), false);
+    }
+
+    @Test
+    public void testRoundTripKeepsOrder() throws RagebaitException {
+        store.write(tasks());
+
+        PartitionedTaskList loaded = store.load(NOW);
+        assertEquals(List.of("old", "todo", "current", "older"), descriptions(loaded));
+        assertTrue(new File(directory, "2024-01.txt").exists());
+    }
+
+    @Test
+    public void testOnlyMonthsAroundNowLoaded() throws RagebaitException {
+        store.write(tasks());
+
+        PartitionedTaskList loaded = store.load(NOW);
+        assertFalse(loaded.isLoaded(0));
+        assertTrue(loaded.isLoaded(1));
+        assertTrue(loaded.isLoaded(2));
+        assertFalse(loaded.isLoaded(3));
+
+        assertEquals("old", loaded.get(0).getDescription());
+        assertTrue(loaded.isLoaded(0));
+        assertTrue(loaded.isLoaded(3));
+    }
+
+    @Test
+    public void testSaveRewritesOnlyChangedPartition() throws RagebaitException, IOException {
+        store.write(tasks());
+        File old = new File(directory, "2024-01.txt");
+        old.setLastModified(0);
+
+        PartitionedTaskList loaded = store.load(NOW);
+        loaded.markDone(2);
+        loaded.add(new ToDo("another"));
+        store.save(loaded);
+
+        assertEquals(0, old.lastModified());
+        PartitionedTaskList reloaded = store.load(NOW);
+        assertEquals(List.of("old", "todo", "current", "older", "another"), descriptions(reloaded));
+        assertTrue(reloaded.get(2).isMarked());
+    }
+
+    @Test
+    public void testTornPartitionRecovered() throws RagebaitException, IOException {
+        store.write(tasks());
+        File undated = new File(directory, PartitionedTaskStore.UNDATED + ".txt");
+        Files.writeString(undated.toPath(), "T | 0 | todo\nT | 0 | written before the crash\n");
+
+        PartitionedTaskList recovered = store.load(NOW);
+        assertEquals(List.of("old", "todo", "current", "older", "written before the crash"),
+                descriptions(recovered));
+        assertEquals(5, store.load(NOW).size());
+    }
+
+    private static List<Task> tasks() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("old", LocalDateTime.of(2024, 1, 10, 12, 0)));
+        tasks.add(new ToDo("todo"));
+        tasks.add(new Deadline("current", LocalDateTime.of(2025, 6, 1, 9, 0)));
+        tasks.add(new Deadline("older", LocalDateTime.of(2024, 1, 20, 12, 0)));
+        return tasks.getAllTasks();
+    }
+
+    private static List<String> descriptions(TaskList tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            descriptions.add(tasks.get(i).getDescription());
+        }
+        return descriptions;
+    }
+}
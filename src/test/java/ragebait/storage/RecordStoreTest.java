@@ -0,0 +1,72 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.contacts.Contact;
+import ragebait.exception.RagebaitException;
+
+public class RecordStoreTest {
+
+    private File file;
+    private RecordStore<Contact> store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempDirectory("ragebait-records").resolve("contacts.txt").toFile();
+        store = new RecordStore<>(file, new ContactCodec(), "contact", false);
+    }
+
+    @Test
+    public void testSaveThenLoadRoundTrip() throws RagebaitException {
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            contacts.add(new Contact("Bob " + i, "9123" + i, "bob" + i + "@example.com"));
+        }
+
+        store.save(contacts);
+        List<Contact> loaded = new ArrayList<>();
+        store.load(loaded::add);
+
+        assertEquals(contacts.size(), loaded.size());
+        for (int i = 0; i < contacts.size(); i++) {
+            assertEquals(contacts.get(i).toFileFormat(), loaded.get(i).toFileFormat());
+        }
+    }
+
+    @Test
+    public void testMixedLineEndingsAcrossBufferBoundaries() throws IOException, RagebaitException {
+        StringBuilder sb = new StringBuilder();
+        String[] endings = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 20_000; i++) {
+            sb.append("Bob ").append(i).append(" | 9123 | bob@example.com").append(endings[i % 3]);
+        }
+        sb.append("Last | 8 | last@example.com");
+        Files.writeString(file.toPath(), sb);
+
+        List<Contact> loaded = new ArrayList<>();
+        store.loadSerially(loaded::add);
+
+        assertEquals(20_001, loaded.size());
+        assertEquals("Bob 19999", loaded.get(19_999).getName());
+        assertEquals("Last", loaded.get(20_000).getName());
+    }
+
+    @Test
+    public void testCorruptedLineNamesRecordType() throws IOException {
+        Files.writeString(file.toPath(), "Bob | 9123 | bob@example.com\nnot a contact\n");
+
+        RagebaitException e = assertThrows(RagebaitException.class, () -> store.load(contact -> { }));
+        assertTrue(e.getMessage().contains("Corrupted contact line: not a contact"));
+    }
+}
@@ -0,0 +1,424 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Event;
+import ragebait.task.Task;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+
+public class StorageTest {
+
+    private Path dir;
+    private String filePath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("ragebait-storage");
+        filePath = dir.resolve("tasks.txt").toString();
+    }
+
+    @Test
+    public void testJournalReplayedOnLoad() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath, Long.MAX_VALUE);
+        TaskList tasks = storage.load();
+
+        tasks.add(new ToDo("Buy milk"));
+        storage.save(tasks);
+        tasks.add(new ToDo("Touch grass"));
+        tasks.markDone(1);
+        storage.save(tasks);
+        tasks.remove(0);
+        storage.save(tasks);
+
+        assertFalse(new File(filePath).exists());
+        assertEquals(List.of("ADD | T | 0 | Buy milk", "ADD | T | 1 | Touch grass", "MARK | 1", "DELETE | 0"),
+                Files.readAllLines(Path.of(filePath + ".journal")));
+
+        TaskList reloaded = new Storage(filePath, Long.MAX_VALUE).load();
+        assertEquals(1, reloaded.size());
+        assertEquals("Touch grass", reloaded.get(0).getDescription());
+        assertTrue(reloaded.get(0).isMarked());
+    }
+
+    @Test
+    public void testUntrackedChangesCompactJournal() throws RagebaitException {
+        Storage storage = new Storage(filePath, Long.MAX_VALUE);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk"));
+        storage.save(tasks);
+        assertTrue(new File(filePath + ".journal").exists());
+
+        tasks.add(0, new ToDo("Touch grass"));
+        storage.save(tasks);
+
+        assertFalse(new File(filePath + ".journal").exists());
+        assertEquals("Touch grass", new Storage(filePath).load().get(0).getDescription());
+    }
+
+    @Test
+    public void testInsertJournaledAsDirtyTail() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath, Long.MAX_VALUE, StorageFormat.TEXT, true);
+        TaskList tasks = storage.load();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        tasks.add(new ToDo("last"));
+        storage.save(tasks);
+
+        tasks.markDone(0);
+        tasks.add(3, new ToDo("inserted"));
+        tasks.remove(5);
+        storage.save(tasks);
+
+        assertEquals(List.of("ADD | T | 0 | task 0", "ADD | T | 0 | task 1", "ADD | T | 0 | task 2",
+                        "ADD | T | 0 | task 3", "ADD | T | 0 | last",
+                        "TRUNCATE | 3", "MARK | 0", "ADD | T | 0 | inserted", "ADD | T | 0 | task 3"),
+                Files.readAllLines(Path.of(filePath + ".journal")));
+        TaskList reloaded = new Storage(filePath, Long.MAX_VALUE).load();
+        assertEquals("[[T][X] task 0, [T][ ] task 1, [T][ ] task 2, [T][ ] inserted, [T][ ] task 3]",
+                reloaded.getAllTasks().toString());
+    }
+
+    @Test
+    public void testCompactionTriggeredByThreshold() throws RagebaitException {
+        Storage storage = new Storage(filePath, 1);
+        TaskList tasks = storage.load();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new ToDo("task " + i));
+            storage.save(tasks);
+        }
+        // An insert is not tracked, so this save waits for the background compaction and compacts again
+        tasks.add(0, new ToDo("first"));
+        storage.save(tasks);
+
+        TaskList reloaded = new Storage(filePath, 1).load();
+        assertEquals(51, reloaded.size());
+        assertEquals("task 49", reloaded.get(50).getDescription());
+    }
+
+    @Test
+    public void testInterruptedCompactionIsReplayed() throws IOException, RagebaitException {
+        Files.write(Path.of(filePath), List.of("T | 0 | old"));
+        Files.write(Path.of(filePath + ".journal.compacting"), List.of("ADD | T | 0 | rotated"));
+        Files.write(Path.of(filePath + ".journal"), List.of("MARK | 1"));
+        Files.createFile(Path.of(filePath + ".tmp"));
+
+        TaskList tasks = new Storage(filePath, Long.MAX_VALUE).load();
+
+        assertEquals(2, tasks.size());
+        assertEquals("rotated", tasks.get(1).getDescription());
+        assertTrue(tasks.get(1).isMarked());
+    }
+
+    @Test
+    public void testTornRecordCutOffBeforeNextAppend() throws IOException, RagebaitException {
+        Files.write(Path.of(filePath), List.of("T | 0 | old"));
+        Files.writeString(Path.of(filePath + ".journal"), "ADD | T | 0 | whole\nADD | T | 0 | tw");
+
+        Storage storage = new Storage(filePath, Long.MAX_VALUE);
+        TaskList tasks = storage.load();
+        assertEquals(2, tasks.size());
+        tasks.markDone(1);
+        storage.save(tasks);
+
+        assertEquals(List.of("ADD | T | 0 | whole", "MARK | 1"), Files.readAllLines(Path.of(filePath + ".journal")));
+        TaskList reloaded = new Storage(filePath, Long.MAX_VALUE).load();
+        assertEquals("[[T][ ] old, [T][X] whole]", reloaded.getAllTasks().toString());
+    }
+
+    @Test
+    public void testCommittedCompactionIsNotReplayed() throws IOException, RagebaitException {
+        Files.write(Path.of(filePath), List.of("T | 0 | old", "T | 0 | rotated"));
+        Files.write(Path.of(filePath + ".journal.compacting"), List.of("ADD | T | 0 | rotated"));
+
+        TaskList tasks = new Storage(filePath, Long.MAX_VALUE).load();
+
+        assertEquals(2, tasks.size());
+        assertFalse(new File(filePath + ".journal.compacting").exists());
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws IOException, RagebaitException {
+        Files.writeString(Path.of(filePath + ".journal"), "ADD | T | 0 | kept\nADD | T | 0 | to");
+
+        TaskList tasks = new Storage(filePath, Long.MAX_VALUE).load();
+
+        assertEquals(1, tasks.size());
+        assertEquals("kept", tasks.get(0).getDescription());
+    }
+
+    @Test
+    public void testParallelLoadMatchesSerialLoad() throws IOException, RagebaitException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 60_000; i++) {
+            sb.append("T | ").append(i % 2).append(" | todo ").append(i).append(i % 5 == 0 ? "\r\n" : "\n");
+            sb.append("D | 0 | deadline ").append(i).append(" | 01/02/2026 1200\n");
+            sb.append("E | 1 | event ").append(i).append(" | 01/02/2026 1200 | 02/02/2026 1300\n");
+        }
+        File file = new File(filePath);
+        Files.writeString(file.toPath(), sb);
+        Storage storage = new Storage(filePath);
+
+        TaskList serial = new TaskList();
+        storage.readTasksSerially(serial);
+        TaskList parallel = new TaskList();
+        storage.readTasksInParallel(parallel);
+
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).toFileFormat(), parallel.get(i).toFileFormat());
+        }
+    }
+
+    @Test
+    public void testParallelLoadReportsFirstCorruptedLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            sb.append("T | 0 | fine\n");
+        }
+        sb.insert(150_000 * "T | 0 | fine\n".length(), "X | 0 | first bad\n");
+        sb.append("T | broken\n");
+        File file = new File(filePath);
+        Files.writeString(file.toPath(), sb);
+        Storage storage = new Storage(filePath);
+
+        RagebaitException serial = assertThrows(RagebaitException.class,
+                () -> storage.readTasksSerially(new TaskList()));
+        RagebaitException parallel = assertThrows(RagebaitException.class,
+                () -> storage.readTasksInParallel(new TaskList()));
+        assertEquals(serial.getMessage(), parallel.getMessage());
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws RagebaitException {
+        Storage storage = new Storage(filePath, 0, StorageFormat.BINARY);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk", true));
+        tasks.add(new Deadline("Submit report", LocalDateTime.of(2026, 2, 26, 23, 59)));
+        tasks.add(new Event("Überstunden", LocalDateTime.of(2026, 3, 1, 9, 0), LocalDateTime.of(2026, 3, 1, 17, 30)));
+        storage.save(tasks);
+
+        assertTrue(BinaryTaskFormat.isBinary(new File(filePath)));
+        TaskList reloaded = new Storage(filePath).load();
+        assertEquals(3, reloaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toFileFormat(), reloaded.get(i).toFileFormat());
+        }
+    }
+
+    @Test
+    public void testTextFileMigratedToBinary() throws IOException, RagebaitException {
+        List<String> lines = List.of("T | 1 | Buy milk", "D | 0 | Submit report | 26/02/2026 2359");
+        Files.write(Path.of(filePath), lines);
+
+        TaskList tasks = new Storage(filePath, 0, StorageFormat.BINARY).load();
+
+        assertEquals(2, tasks.size());
+        assertTrue(BinaryTaskFormat.isBinary(new File(filePath)));
+        assertEquals(lines.get(1), new Storage(filePath).load().get(1).toFileFormat());
+    }
+
+    @Test
+    public void testBinaryFileStaysBinary() throws RagebaitException {
+        Storage binary = new Storage(filePath, 0, StorageFormat.BINARY);
+        TaskList tasks = binary.load();
+        tasks.add(new ToDo("Buy milk"));
+        binary.save(tasks);
+
+        Storage text = new Storage(filePath);
+        text.save(text.load());
+
+        assertTrue(BinaryTaskFormat.isBinary(new File(filePath)));
+    }
+
+    @Test
+    public void testExportWritesText() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath, 0, StorageFormat.BINARY);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk"));
+        String exportPath = dir.resolve("export/tasks.txt").toString();
+
+        storage.exportText(tasks, exportPath);
+
+        assertEquals(List.of("T | 0 | Buy milk"), Files.readAllLines(Path.of(exportPath)));
+    }
+
+    @Test
+    public void testDurableSaveReplacesFile() throws IOException, RagebaitException {
+        Files.write(Path.of(filePath), List.of("T | 0 | old"));
+        Storage storage = new Storage(filePath, 0, StorageFormat.TEXT, true);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("new"));
+
+        storage.save(tasks);
+
+        assertEquals(List.of("T | 0 | old", "T | 0 | new"), Files.readAllLines(Path.of(filePath)));
+        assertFalse(new File(filePath + ".commit").exists());
+    }
+
+    @Test
+    public void testIncrementalSaveMatchesFullRewrite() throws IOException, RagebaitException {
+        for (StorageFormat format : List.of(StorageFormat.TEXT, StorageFormat.BINARY)) {
+            Files.deleteIfExists(Path.of(filePath));
+            Storage storage = new Storage(filePath, 0, format);
+            TaskList tasks = storage.load();
+            for (int i = 0; i < 5; i++) {
+                tasks.add(new ToDo("task " + i));
+            }
+            storage.save(tasks);
+
+            tasks.markDone(1);
+            tasks.add(new Deadline("late", LocalDateTime.of(2026, 2, 26, 23, 59)));
+            storage.save(tasks);
+            tasks.markUndone(1);
+            tasks.markDone(4);
+            tasks.remove(3);
+            storage.save(tasks);
+
+            byte[] incremental = Files.readAllBytes(Path.of(filePath));
+            tasks.clearModifications();
+            new Storage(filePath, 0, format).save(new TaskList(tasks.getAllTasks()));
+            assertArrayEquals(Files.readAllBytes(Path.of(filePath)), incremental);
+        }
+    }
+
+    @Test
+    public void testFlagFlipIsPatchedInPlace() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk"));
+        tasks.add(new ToDo("Touch grass"));
+        storage.save(tasks);
+
+        Files.writeString(Path.of(filePath), Files.readString(Path.of(filePath)).replace("Touch", "Pinch"));
+        tasks.markDone(0);
+        storage.save(tasks);
+
+        List<String> lines = Files.readAllLines(Path.of(filePath));
+        assertEquals("T | 1 | Buy milk", lines.get(0));
+        assertEquals("T | 0 | Pinch grass", lines.get(1));
+    }
+
+    @Test
+    public void testFlatFileMovedIntoPartitions() throws IOException, RagebaitException {
+        Files.write(Path.of(filePath), List.of("T | 0 | old", "D | 1 | due | 01/03/2024 1200"));
+        Storage storage = new Storage(filePath, Long.MAX_VALUE, StorageFormat.PARTITIONED);
+
+        TaskList tasks = storage.load();
+        assertTrue(tasks instanceof PartitionedTaskList);
+        assertFalse(new File(filePath).exists());
+        tasks.add(new ToDo("new"));
+        storage.save(tasks);
+
+        TaskList reloaded = new Storage(filePath).load();
+        assertEquals(3, reloaded.size());
+        assertEquals("due", reloaded.get(1).getDescription());
+        assertEquals("new", reloaded.get(2).getDescription());
+    }
+
+    @Test
+    public void testReloadEditsOnlyChangedTasks() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath);
+        TaskList tasks = storage.load();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        storage.save(tasks);
+        Task untouched = tasks.get(0);
+
+        List<String> lines = Files.readAllLines(Path.of(filePath));
+        lines.set(2, "T | 1 | task 2");
+        lines.add("T | 0 | task 5");
+        Files.write(Path.of(filePath), lines);
+
+        assertEquals(3, storage.reload(tasks));
+        assertEquals(6, tasks.size());
+        assertTrue(tasks.get(2).isMarked());
+        assertEquals("task 5", tasks.get(5).getDescription());
+        assertSame(untouched, tasks.get(0));
+        assertEquals(0, storage.reload(tasks));
+    }
+
+    @Test
+    public void testExternalEditDiscardsJournal() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath, Long.MAX_VALUE);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk"));
+        tasks.add(new ToDo("Touch grass"));
+        storage.save(tasks);
+        tasks.markDone(1);
+        storage.save(tasks);
+
+        Files.write(Path.of(filePath), List.of("T | 0 | Call mum"));
+        assertEquals(3, storage.reload(tasks));
+
+        assertEquals("[[T][ ] Call mum]", tasks.getAllTasks().toString());
+        assertFalse(new File(filePath + ".journal").exists());
+        TaskList reloaded = new Storage(filePath, Long.MAX_VALUE).load();
+        assertEquals("[[T][ ] Call mum]", reloaded.getAllTasks().toString());
+    }
+
+    @Test
+    public void testCompactJournalCompletesTaskFile() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath, Long.MAX_VALUE);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk"));
+        tasks.markDone(0);
+        storage.save(tasks);
+        assertTrue(new File(filePath + ".journal").exists());
+
+        storage.compactJournal(tasks);
+
+        assertFalse(new File(filePath + ".journal").exists());
+        assertEquals(List.of("T | 1 | Buy milk"), Files.readAllLines(Path.of(filePath)));
+        assertTrue(storage.isUnchangedSinceWrite());
+    }
+
+    @Test
+    public void testReloadDoesNotReuseIdOfRemovedTask() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("Buy milk"));
+        tasks.add(new ToDo("Touch grass"));
+        tasks.remove(1);
+        storage.save(tasks);
+
+        Files.write(Path.of(filePath), List.of("T | 0 | Buy milk", "T | 0 | Call mum"));
+        storage.reload(tasks);
+
+        assertEquals(-1, tasks.indexOfId(2));
+        assertEquals(3, tasks.get(1).getId());
+    }
+
+    @Test
+    public void testOwnWriteTellsApartExternalEdit() throws IOException, RagebaitException {
+        Storage storage = new Storage(filePath, 0, StorageFormat.TEXT, true);
+        TaskList tasks = storage.load();
+        assertFalse(storage.isUnchangedSinceWrite());
+
+        tasks.add(new ToDo("Buy milk"));
+        storage.save(tasks);
+        assertTrue(storage.isUnchangedSinceWrite());
+
+        Files.write(Path.of(filePath), List.of("T | 0 | Buy milk", "T | 0 | Touch grass"));
+        assertFalse(storage.isUnchangedSinceWrite());
+    }
+}
@@ -0,0 +1,76 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+
+public class TaskArchiveTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private File hotFile;
+    private TaskArchive archive;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        hotFile = Files.createTempDirectory("ragebait-archive").resolve("tasks.txt").toFile();
+        archive = new TaskArchive(hotFile, new ScannerTaskCodec(), 30 * DAY);
+    }
+
+    @Test
+    public void testDoneTasksArchivedOnceOldEnough() throws RagebaitException {
+        TaskList tasks = tasks("open", "done early", "done late");
+        tasks.markDone(1);
+
+        assertEquals(0, archive.sweep(tasks, 0));
+        tasks.markDone(2);
+        assertEquals(0, archive.sweep(tasks, 10 * DAY));
+        assertEquals(1, archive.sweep(tasks, 30 * DAY));
+        assertEquals(1, archive.sweep(tasks, 40 * DAY));
+
+        assertEquals(1, tasks.size());
+        assertEquals("open", tasks.get(0).getDescription());
+        assertEquals(List.of("done early", "done late"), archived());
+    }
+
+    @Test
+    public void testRestoreRemovesFromSegment() throws RagebaitException {
+        TaskList tasks = tasks("a", "b", "c");
+        for (int i = 0; i < 3; i++) {
+            tasks.markDone(i);
+        }
+        archive.sweep(tasks, 0);
+        archive.sweep(tasks, 30 * DAY);
+
+        assertEquals("b", archive.get(2).getDescription());
+        archive.remove(2);
+        assertEquals(List.of("a", "c"), archived());
+        assertThrows(RagebaitException.class, () -> archive.get(3));
+    }
+
+    private TaskList tasks(String... descriptions) {
+        TaskList tasks = new TaskList();
+        for (String description : descriptions) {
+            tasks.add(new ToDo(description));
+        }
+        return tasks;
+    }
+
+    private List<String> archived() throws RagebaitException {
+        List<String> descriptions = new ArrayList<>();
+        archive.scan((number, task) -> descriptions.add(task.getDescription()));
+        return descriptions;
+    }
+}
@@ -0,0 +1,102 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ragebait.exception.RagebaitException;
+import ragebait.task.Deadline;
+import ragebait.task.Event;
+import ragebait.task.Task;
+import ragebait.task.ToDo;
+
+public class TaskCodecTest {
+
+    private final TaskCodec reference = new ReferenceTaskCodec();
+    private final TaskCodec scanner = new ScannerTaskCodec();
+
+    @Test
+    public void testEncodeMatchesReference() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            Task task = randomTask(random, i);
+            assertEquals(encode(reference, task), encode(scanner, task));
+        }
+    }
+
+    @Test
+    public void testDecodeMatchesReference() throws RagebaitException {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            String line = encode(reference, randomTask(random, i));
+            assertEquals(line, encode(reference, reference.decode(line)));
+            assertEquals(line, encode(reference, scanner.decode(line)));
+        }
+    }
+
+    @Test
+    public void testDecodeEdgeCasesMatchReference() throws RagebaitException {
+        String[] lines = {
+            "t | 0 | lower case type",
+            " E | 1 | padded type | 29/02/2024 2359 | 01/03/2024 0000",
+            "D | 2 | not done unless exactly one | 01/01/2026 1200",
+            "T | 0 | extra fields are ignored | for todos",
+            "D | 0 | clamped by the formatter | 31/02/2026 1200",
+        };
+        for (String line : lines) {
+            assertEquals(encode(reference, reference.decode(line)), encode(reference, scanner.decode(line)));
+        }
+    }
+
+    @Test
+    public void testCorruptedLinesRejected() {
+        String[] lines = {
+            "",
+            "T | 0",
+            "X | 0 | unknown type",
+            "T | 0 | a | b | c | d",
+            "E | 0 | missing end | 01/01/2026 1200",
+        };
+        for (String line : lines) {
+            assertThrows(Exception.class, () -> reference.decode(line));
+            assertThrows(Exception.class, () -> scanner.decode(line));
+        }
+    }
+
+    @Test
+    public void testUnreadableDatesRejectedAsCorruptedLines() {
+        String[] lines = {
+            "D | 0 | bad month | 01/13/2026 1200",
+            "D | 0 | not a date | tomorrow",
+            "E | 0 | bad end | 01/01/2026 1200 | 32/01/2026 1300",
+        };
+        for (String line : lines) {
+            assertThrows(RagebaitException.class, () -> reference.decode(line));
+            assertThrows(RagebaitException.class, () -> scanner.decode(line));
+        }
+    }
+
+    private static String encode(TaskCodec codec, Task task) {
+        StringBuilder sb = new StringBuilder();
+        codec.encode(task, sb);
+        return sb.toString();
+    }
+
+    private static Task randomTask(Random random, int i) {
+        boolean isDone = random.nextBoolean();
+        LocalDateTime start = LocalDateTime.of(1 + random.nextInt(9999), 1 + random.nextInt(12),
+                1 + random.nextInt(28), random.nextInt(24), random.nextInt(60));
+        switch (random.nextInt(3)) {
+        case 0:
+            return new ToDo("todo " + i, isDone);
+        case 1:
+            return new Deadline("deadline " + i, start, isDone);
+        default:
+            return new Event("event " + i, start, start.plusMinutes(random.nextInt(100_000)), isDone);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ragebait.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ragebait.contacts.Contact;
+import ragebait.contacts.ContactList;
+import ragebait.exception.RagebaitException;
+import ragebait.task.TaskList;
+import ragebait.task.ToDo;
+
+public class WriteBehindPersisterTest {
+
+    private Path dir;
+    private TaskList tasks;
+    private ContactList contacts;
+    private ContactStorage contactStorage;
+    private AtomicInteger saves;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("ragebait-persister");
+        tasks = new TaskList();
+        contacts = new ContactList();
+        contactStorage = new ContactStorage(dir.resolve("contacts.txt").toString());
+        saves = new AtomicInteger();
+    }
+
+    @Test
+    public void testBurstCoalescedIntoOneSave() throws RagebaitException {
+        WriteBehindPersister persister = new WriteBehindPersister(tasks, countingStorage(),
+                contacts, contactStorage, 60_000);
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new ToDo("task " + i));
+            persister.markTasksDirty();
+        }
+
+        persister.flush();
+
+        assertEquals(1, saves.get());
+        assertEquals(100, new Storage(taskPath()).load().size());
+    }
+
+    @Test
+    public void testSavedWithinStalenessWindow() throws InterruptedException, RagebaitException {
+        WriteBehindPersister persister = new WriteBehindPersister(tasks, countingStorage(),
+                contacts, contactStorage, 10);
+        tasks.add(new ToDo("Buy milk"));
+        persister.markTasksDirty();
+
+        for (int i = 0; i < 500 && saves.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, saves.get());
+        persister.close();
+    }
+
+    @Test
+    public void testCloseFlushesContactsAndLaterChangesSaveInline() throws RagebaitException {
+        WriteBehindPersister persister = new WriteBehindPersister(tasks, countingStorage(),
+                contacts, contactStorage, 60_000);
+        contacts.add(new Contact("Bob", "91234567", "bob@example.com"));
+        persister.markContactsDirty();
+
+        persister.close();
+        assertEquals(1, contactStorage.load().size());
+
+        tasks.add(new ToDo("Buy milk"));
+        persister.markTasksDirty();
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    public void testJournaledBurstAppendedInOneWrite() throws IOException, RagebaitException {
+        Storage storage = new Storage(taskPath(), Long.MAX_VALUE);
+        tasks = storage.load();
+        WriteBehindPersister persister = new WriteBehindPersister(tasks, storage, contacts, contactStorage, 60_000);
+        for (int i = 0; i < 3; i++) {
+            tasks.add(new ToDo("task " + i));
+            persister.markTasksDirty();
+        }
+        tasks.markDone(1);
+        persister.markTasksDirty();
+
+        persister.flush();
+
+        assertFalse(Files.exists(Path.of(taskPath())));
+        assertEquals(List.of("ADD | T | 0 | task 0", "ADD | T | 1 | task 1", "ADD | T | 0 | task 2", "MARK | 1"),
+                Files.readAllLines(Path.of(taskPath() + ".journal")));
+        assertTrue(new Storage(taskPath(), Long.MAX_VALUE).load().get(1).isMarked());
+    }
+
+    @Test
+    public void testFailedSaveReportedByFlush() {
+        Storage failing = new Storage(taskPath()) {
+            @Override
+            public void save(TaskList tasks) throws RagebaitException {
+                throw new RagebaitException("Disk said no.");
+            }
+        };
+        WriteBehindPersister persister = new WriteBehindPersister(tasks, failing, contacts, contactStorage, 60_000);
+        tasks.add(new ToDo("Buy milk"));
+        persister.markTasksDirty();
+
+        RagebaitException e = assertThrows(RagebaitException.class, persister::flush);
+        assertTrue(e.getMessage().contains("Disk said no."));
+    }
+
+    private String taskPath() {
+        return dir.resolve("tasks.txt").toString();
+    }
+
+    private Storage countingStorage() {
+        return new Storage(taskPath()) {
+            @Override
+            public void save(TaskList tasks) throws RagebaitException {
+                super.save(tasks);
+                saves.incrementAndGet();
+            }
+        };
+    }
+}
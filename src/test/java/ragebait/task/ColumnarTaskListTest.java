@@ -0,0 +1,101 @@
+package ragebait.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ColumnarTaskListTest {
+
+    @Test
+    public void testMatchesTaskListAcrossManyEdits() {
+        Random random = new Random(20);
+        TaskList expected = new TaskList();
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        for (int step = 0; step < 3_000; step++) {
+            int choice = random.nextInt(5);
+            if (choice == 0 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index).toString(), columnar.remove(index).toString());
+            } else if (choice == 1 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.markDone(index).toString(), columnar.markDone(index).toString());
+            } else if (choice == 2 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.markUndone(index).toString(), columnar.markUndone(index).toString());
+            } else {
+                Task task = randomTask(random, step);
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, task);
+                columnar.add(index, task);
+            }
+            if (step % 500 == 0) {
+                expected.clearModifications();
+                columnar.clearModifications();
+            }
+        }
+
+        assertEquals(expected.listTasks(), columnar.listTasks());
+        assertEquals(expected.getDirtyFrom(), columnar.getDirtyFrom());
+        assertEquals(expected.getFlippedIndices(), columnar.getFlippedIndices());
+        for (TaskType type : TaskType.values()) {
+            assertEquals(expected.findByType(type), columnar.findByType(type));
+            assertEquals(expected.countByType(type), columnar.countByType(type));
+            assertEquals(expected.find(type, true), columnar.find(type, true));
+        }
+        assertEquals(expected.findByStatus(false), columnar.findByStatus(false));
+        assertEquals(expected.countByStatus(true), columnar.countByStatus(true));
+        LocalDateTime from = LocalDateTime.of(2026, 3, 5, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 9, 0, 0);
+        assertEquals(expected.findBetween(from, to).toString(), columnar.findBetween(from, to).toString());
+        assertEquals(expected.findByKeyword("7").toString(), columnar.findByKeyword("7").toString());
+    }
+
+    @Test
+    public void testRemovedDescriptionsCompacted() {
+        ColumnarTaskList tasks = new ColumnarTaskList();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new ToDo("Write report number " + i));
+        }
+        for (int i = 0; i < 60; i++) {
+            tasks.remove(0);
+        }
+
+        assertTrue(tasks.getDeadBytes() < 60 * "Write report number 0".length());
+        assertEquals("[T][ ] Write report number 60", tasks.get(0).toString());
+        assertEquals("[T][ ] Write report number 99", tasks.get(39).toString());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        ColumnarTaskList tasks = new ColumnarTaskList(List.of(new ToDo("Ünïcødé milk"),
+                new Event("party", LocalDateTime.of(2026, 5, 1, 18, 0), LocalDateTime.of(2026, 5, 1, 23, 30))));
+        TaskList copy = tasks.copy();
+        tasks.markDone(0);
+        tasks.remove(1);
+
+        assertFalse(copy.get(0).isMarked());
+        assertEquals("Ünïcødé milk", copy.get(0).getDescription());
+        assertEquals(LocalDateTime.of(2026, 5, 1, 23, 30), ((Event) copy.get(1)).getTo());
+        assertEquals(2, copy.size());
+        assertTrue(tasks.get(0).isMarked());
+    }
+
+    private static Task randomTask(Random random, int step) {
+        boolean isDone = random.nextBoolean();
+        LocalDateTime time = LocalDateTime.of(2026, 3, 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60));
+        switch (random.nextInt(3)) {
+        case 0:
+            return new ToDo("todo " + step, isDone);
+        case 1:
+            return new Deadline("deadline " + step, time, isDone);
+        default:
+            return new Event("event " + step, time, time.plusHours(1 + random.nextInt(48)), isDone);
+        }
+    }
+}
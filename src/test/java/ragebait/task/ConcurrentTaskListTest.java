@@ -0,0 +1,188 @@
+package ragebait.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentTaskListTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int TASKS_PER_WRITER = 1500;
+
+    /** A listing line: number, ID, done flag, writer and sequence number. */
+    private static final Pattern ENTRY = Pattern.compile("(\\d+)\\. #\\d+ \\[T]\\[([ X])] w(\\d+) (\\d+)");
+
+    @Test
+    public void testConcurrentReadersSeeWritesInOrder() throws InterruptedException {
+        ConcurrentTaskList tasks = new ConcurrentTaskList();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Writer w adds "w<w> <i>" in order and marks every odd one before adding the next
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                    Task task = new ToDo("w" + writer + " " + i);
+                    tasks.add(task);
+                    if (i % 2 == 1) {
+                        tasks.markDone(tasks.indexOfId(task.getId()));
+                    }
+                }
+            }));
+        }
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            int reader = r;
+            readers.add(new Thread(() -> {
+                await(start);
+                int[] seen = new int[WRITERS];
+                while (isWriting.get()) {
+                    checkListing(tasks.listTasks(), seen, failures);
+                    checkKeyword(tasks.findByKeyword("w" + reader + " "), reader, failures);
+                    int done = tasks.countByStatus(true);
+                    int size = tasks.size();
+                    if (done > size) {
+                        failures.add("Counted " + done + " done tasks in a list of " + size);
+                    }
+                }
+            }));
+        }
+
+        readers.forEach(Thread::start);
+        writers.forEach(Thread::start);
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        isWriting.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(List.of(), List.copyOf(failures));
+        assertEquals(WRITERS * TASKS_PER_WRITER, tasks.size());
+        assertEquals(WRITERS * TASKS_PER_WRITER / 2, tasks.countByStatus(true));
+        checkListing(tasks.listTasks(), new int[WRITERS], failures);
+        assertEquals(List.of(), List.copyOf(failures));
+    }
+
+    @Test
+    public void testRemovalsAreAtomic() throws InterruptedException {
+        ConcurrentTaskList tasks = new ConcurrentTaskList();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new ToDo("keep " + i));
+        }
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+
+        // Adds a pair of tasks one at a time and removes both in one call, so
+        // readers may see the first alone but never the second
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 3000; i++) {
+                tasks.add(new ToDo("pair " + i + " first"));
+                tasks.add(new ToDo("pair " + i + " second"));
+                tasks.removeAll(new int[] {100, 101});
+            }
+        });
+        Thread reader = new Thread(() -> {
+            while (isWriting.get()) {
+                List<Task> snapshot = tasks.getAllTasks();
+                checkPair(snapshot.subList(100, snapshot.size()), failures);
+                checkPair(tasks.findByKeyword("pair"), failures);
+            }
+        });
+
+        reader.start();
+        writer.start();
+        writer.join();
+        isWriting.set(false);
+        reader.join();
+
+        assertEquals(List.of(), List.copyOf(failures));
+        assertEquals(100, tasks.size());
+        assertTrue(tasks.findByKeyword("pair").isEmpty());
+    }
+
+    /**
+     * Checks that a listing shows, for every writer, its first tasks in order
+     * with every odd one marked once the next is there, and that the reader
+     * never sees a writer go backwards.
+     */
+    private static void checkListing(String listing, int[] seen, Queue<String> failures) {
+        int[] counts = new int[WRITERS];
+        boolean[] isLastDone = new boolean[WRITERS];
+        int number = 0;
+        for (String line : listing.split("\n")) {
+            if (line.equals("Task list is empty.")) {
+                break;
+            }
+            Matcher entry = ENTRY.matcher(line);
+            if (!entry.matches()) {
+                failures.add("Unexpected line: " + line);
+                return;
+            }
+            int writer = Integer.parseInt(entry.group(3));
+            int sequence = Integer.parseInt(entry.group(4));
+            if (Integer.parseInt(entry.group(1)) != ++number || sequence != counts[writer]++) {
+                failures.add("Out of order: " + line);
+                return;
+            }
+            boolean isDone = entry.group(2).equals("X");
+            if (isDone && sequence % 2 == 0) {
+                failures.add("Marked the wrong task: " + line);
+            }
+            if (sequence % 2 == 0 && sequence > 0 && !isLastDone[writer]) {
+                failures.add("Added a task before marking the one before: " + line);
+            }
+            isLastDone[writer] = isDone;
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            if (counts[w] < seen[w]) {
+                failures.add("Writer " + w + " went back from " + seen[w] + " to " + counts[w] + " tasks");
+            }
+            seen[w] = counts[w];
+        }
+    }
+
+    private static void checkKeyword(List<Task> matches, int writer, Queue<String> failures) {
+        for (int i = 0; i < matches.size(); i++) {
+            if (!matches.get(i).getDescription().equals("w" + writer + " " + i)) {
+                failures.add("Keyword search missed a task before " + matches.get(i).getDescription());
+                return;
+            }
+        }
+    }
+
+    private static void checkPair(List<Task> pair, Queue<String> failures) {
+        boolean isWhole = pair.isEmpty()
+                || pair.size() == 1 && pair.get(0).getDescription().endsWith("first")
+                || pair.size() == 2 && pair.get(1).getDescription().endsWith("second");
+        if (!isWhole) {
+            failures.add("Saw half a removal: " + pair);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
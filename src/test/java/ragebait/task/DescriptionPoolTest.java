@@ -0,0 +1,59 @@
+package ragebait.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class DescriptionPoolTest {
+
+    @Test
+    public void testEqualDescriptionsShared() {
+        DescriptionPool pool = new DescriptionPool(16);
+        String first = pool.intern(new String("Buy milk"));
+        String second = pool.intern(new String("Buy milk"));
+        String other = pool.intern(new String("Buy eggs"));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(3, pool.getLookups());
+        assertEquals(1, pool.getHits());
+    }
+
+    @Test
+    public void testPoolNeverGrows() {
+        DescriptionPool pool = new DescriptionPool(5);
+        assertEquals(8, pool.getCapacity());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("task " + i, pool.intern("task " + i));
+        }
+        assertEquals(8, pool.getCapacity());
+    }
+
+    @Test
+    public void testTasksShareDescriptions() {
+        Task first = new ToDo(" standup ");
+        Task second = new Deadline("standup", LocalDateTime.of(2026, 1, 1, 9, 0));
+
+        assertSame(first.getDescription(), second.getDescription());
+    }
+
+    @Test
+    public void testCopiesAndViewsNotLookedUpAgain() {
+        Task task = new Event("standup", LocalDateTime.of(2026, 1, 1, 9, 0), LocalDateTime.of(2026, 1, 1, 9, 15));
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        columnar.add(new ToDo("retro"));
+        DescriptionPool pool = DescriptionPool.getShared();
+        long lookups = pool.getLookups();
+
+        Task copy = task.withDone(true);
+        task.copy();
+        columnar.get(0);
+
+        assertSame(task.getDescription(), copy.getDescription());
+        assertEquals(lookups, pool.getLookups());
+    }
+}
@@ -0,0 +1,93 @@
+package ragebait.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the heap retained by a plain ArrayList of tasks, an indexed
+ * TaskList and a ColumnarTaskList holding the same generated tasks.
+ *
+ * Run with {@code ./gradlew memoryBenchmark}. Task counts can be overridden
+ * on the command line, e.g. {@code --args="100000 1000000"}.
+ */
+public class MemoryBenchmark {
+
+    private static final int[] DEFAULT_TASK_COUNTS = {1_000_000};
+    private static final int GC_ROUNDS = 5;
+
+    /**
+     * Runs the benchmark for every requested task count.
+     *
+     * @param args Optional task counts to benchmark.
+     */
+    public static void main(String[] args) {
+        int[] taskCounts = DEFAULT_TASK_COUNTS;
+        if (args.length > 0) {
+            taskCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                taskCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%12s %18s %18s %18s%n", "tasks", "ArrayList B/task", "TaskList B/task", "Columnar B/task");
+        for (int taskCount : taskCounts) {
+            double arrayList = measure(taskCount, () -> generate(taskCount));
+            double taskList = measure(taskCount, () -> new TaskList(generate(taskCount)));
+            double columnar = measure(taskCount, () -> {
+                ColumnarTaskList tasks = new ColumnarTaskList();
+                for (int i = 0; i < taskCount; i++) {
+                    tasks.add(task(i));
+                }
+                return tasks;
+            });
+            System.out.printf("%12d %18.1f %18.1f %18.1f%n", taskCount, arrayList, taskList, columnar);
+        }
+    }
+
+    /**
+     * Returns the bytes per task retained by whatever the build step returns.
+     */
+    private static double measure(int taskCount, Supplier<Object> build) {
+        long before = usedHeap();
+        Object retained = build.get();
+        long after = usedHeap();
+        if (retained.hashCode() == 42) {
+            // Keeps the result reachable until the heap was measured
+            System.out.print("");
+        }
+        return (after - before) / (double) taskCount;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static List<Task> generate(int taskCount) {
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(task(i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the i-th task of a mix of todos, deadlines and events.
+     */
+    private static Task task(int i) {
+        LocalDateTime time = LocalDateTime.of(2026, 2, i % 28 + 1, 9, 0);
+        switch (i % 3) {
+        case 0:
+            return new ToDo("Buy milk " + i, i % 2 == 0);
+        case 1:
+            return new Deadline("Submit report " + i, time);
+        default:
+            return new Event("Standup " + i, time, time.plusMinutes(15), true);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package ragebait.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
 import org.junit.jupiter.api.Test;
 
 public class TaskListTest {
@@ -77,4 +85,303 @@ public class TaskListTest {
         tasks.add(new ToDo("Not empty anymore"));
         assertTrue(!tasks.isEmpty());
     }
+
+    @Test
+    public void testModificationTracking() {
+        TaskList tasks = new TaskList();
+        tasks.add(new ToDo("first"));
+        tasks.add(new ToDo("second"));
+        tasks.add(new ToDo("third"));
+        tasks.clearModifications();
+        assertEquals(3, tasks.getDirtyFrom());
+
+        tasks.markDone(0);
+        tasks.add(new ToDo("fourth"));
+        assertEquals(3, tasks.getDirtyFrom());
+        assertEquals(Set.of(0), tasks.getFlippedIndices());
+
+        tasks.remove(0);
+        assertEquals(0, tasks.getDirtyFrom());
+        assertTrue(tasks.getFlippedIndices().isEmpty());
+    }
+
+    @Test
+    public void testCopyKeepsOrderAndModifications() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        for (int i = 0; i < 150; i += 2) {
+            tasks.remove(i / 2);
+        }
+        tasks.clearModifications();
+        tasks.markDone(3);
+        tasks.add(new ToDo("new"));
+
+        TaskList copy = tasks.copy();
+        tasks.remove(0);
+        tasks.add(new ToDo("newer"));
+        tasks.markUndone(2);
+
+        assertEquals(126, copy.size());
+        assertEquals("task 1", copy.get(0).getDescription());
+        assertEquals("new", copy.get(125).getDescription());
+        assertEquals(125, copy.getDirtyFrom());
+        assertEquals(Set.of(3), copy.getFlippedIndices());
+        assertEquals(copy.get(3).getId(), tasks.get(2).getId());
+        assertTrue(copy.get(3).isMarked());
+        assertEquals(List.of(TaskChange.Kind.MARK, TaskChange.Kind.ADD),
+                copy.getChanges().stream().map(TaskChange::getKind).toList());
+        assertThrows(UnsupportedOperationException.class, () -> copy.add(new ToDo("late")));
+
+        copy.clearModifications();
+        assertEquals(126, copy.getDirtyFrom());
+        assertEquals(0, tasks.getDirtyFrom());
+    }
+
+    @Test
+    public void testIndexesFollowChanges() {
+        TaskList tasks = new TaskList();
+        tasks.add(new ToDo("a"));
+        tasks.add(new Deadline("b", LocalDateTime.of(2026, 1, 1, 12, 0)));
+        tasks.add(new Deadline("c", LocalDateTime.of(2026, 1, 2, 12, 0), true));
+        tasks.add(0, new Event("d", LocalDateTime.of(2026, 1, 1, 9, 0), LocalDateTime.of(2026, 1, 1, 10, 0)));
+
+        assertEquals(List.of(2), tasks.find(TaskType.DEADLINE, false));
+        assertEquals(List.of(3), tasks.findByStatus(true));
+        assertEquals(2, tasks.countByType(TaskType.DEADLINE));
+
+        tasks.markDone(2);
+        tasks.remove(0);
+        assertEquals(List.of(), tasks.find(TaskType.DEADLINE, false));
+        assertEquals(List.of(1, 2), tasks.find(TaskType.DEADLINE, true));
+        assertEquals(1, tasks.countByStatus(false));
+        assertEquals(0, tasks.countByType(TaskType.EVENT));
+    }
+
+    @Test
+    public void testIndexesMatchScanAcrossManyEdits() {
+        Random random = new Random(15);
+        TaskList tasks = new TaskList();
+        for (int step = 0; step < 5_000; step++) {
+            int choice = random.nextInt(4);
+            if (choice == 0 && !tasks.isEmpty()) {
+                tasks.remove(random.nextInt(tasks.size()));
+            } else if (choice == 1 && !tasks.isEmpty()) {
+                tasks.markDone(random.nextInt(tasks.size()));
+            } else if (choice == 2 && !tasks.isEmpty()) {
+                tasks.markUndone(random.nextInt(tasks.size()));
+            } else {
+                Task task = random.nextBoolean()
+                        ? new ToDo("t" + step)
+                        : new Deadline("d" + step, LocalDateTime.of(2026, 1, 1, 12, 0), random.nextBoolean());
+                tasks.add(random.nextInt(tasks.size() + 1), task);
+            }
+        }
+
+        for (TaskType type : TaskType.values()) {
+            for (boolean isDone : new boolean[] {true, false}) {
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (tasks.get(i).getType() == type && tasks.get(i).isMarked() == isDone) {
+                        expected.add(i);
+                    }
+                }
+                assertEquals(expected, tasks.find(type, isDone));
+            }
+        }
+        assertEquals(tasks.size(), tasks.countByStatus(true) + tasks.countByStatus(false));
+        assertEquals(tasks.findByStatus(false).size(), tasks.countByStatus(false));
+    }
+
+    @Test
+    public void testTimeQueries() {
+        TaskList tasks = new TaskList();
+        Deadline early = new Deadline("early", LocalDateTime.of(2026, 3, 1, 12, 0));
+        Deadline late = new Deadline("late", LocalDateTime.of(2026, 3, 20, 12, 0));
+        Event conference = new Event("conference", LocalDateTime.of(2026, 2, 1, 9, 0),
+                LocalDateTime.of(2026, 3, 31, 17, 0));
+        Event lunch = new Event("lunch", LocalDateTime.of(2026, 3, 10, 12, 0), LocalDateTime.of(2026, 3, 10, 13, 0));
+        Event over = new Event("over", LocalDateTime.of(2026, 2, 2, 9, 0), LocalDateTime.of(2026, 2, 2, 10, 0));
+        tasks.add(late);
+        tasks.add(new ToDo("undated"));
+        tasks.add(lunch);
+        tasks.add(early);
+        tasks.add(conference);
+        tasks.add(over);
+
+        assertEquals(List.of(early), tasks.findDueBefore(LocalDateTime.of(2026, 3, 20, 12, 0)));
+        assertEquals(List.of(conference, lunch, late),
+                tasks.findBetween(LocalDateTime.of(2026, 3, 5, 0, 0), LocalDateTime.of(2026, 3, 25, 0, 0)));
+
+        tasks.remove(4);
+        tasks.remove(0);
+        assertEquals(List.of(early, lunch),
+                tasks.findBetween(LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 3, 25, 0, 0)));
+    }
+
+    @Test
+    public void testKeywordSearchMatchesSubstringScan() {
+        Random random = new Random(17);
+        String[] words = {"read", "book", "homework", "Work", "e-mail", "boss", "Übung", "42"};
+        TaskList tasks = new TaskList();
+        List<String> keywords = List.of("work", "read b", "MAIL", "e-m", "-", "ss 4", "übu", "ook", "nothing");
+        for (int step = 0; step < 3_000; step++) {
+            if (step % 500 == 0) {
+                for (String keyword : keywords) {
+                    assertEquals(scan(tasks, keyword), tasks.findByKeyword(keyword));
+                }
+            }
+            if (random.nextInt(4) == 0 && !tasks.isEmpty()) {
+                tasks.remove(random.nextInt(tasks.size()));
+            } else {
+                String description = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                tasks.add(random.nextInt(tasks.size() + 1), new ToDo(description));
+            }
+        }
+    }
+
+    @Test
+    public void testIdsSurviveRemovesAndCompaction() {
+        Random random = new Random(22);
+        TaskList tasks = new TaskList();
+        List<Task> model = new ArrayList<>();
+        for (int step = 0; step < 4_000; step++) {
+            if (random.nextInt(3) == 0 && !model.isEmpty()) {
+                int index = step < 2_000 ? 0 : random.nextInt(model.size());
+                assertSame(model.remove(index), tasks.remove(index));
+            } else if (random.nextInt(10) == 0) {
+                Task task = new ToDo("inserted " + step);
+                int index = random.nextInt(model.size() + 1);
+                model.add(index, task);
+                tasks.add(index, task);
+            } else {
+                Task task = new Deadline("added " + step, LocalDateTime.of(2026, 1, 1, 12, 0), random.nextBoolean());
+                model.add(task);
+                tasks.add(task);
+            }
+
+            if (step % 250 == 0) {
+                assertEquals(model, new ArrayList<>(tasks.getAllTasks()));
+                for (int i = 0; i < model.size(); i++) {
+                    assertSame(model.get(i), tasks.get(i));
+                    assertEquals(i, tasks.indexOfId(model.get(i).getId()));
+                }
+                List<Integer> pending = new ArrayList<>();
+                for (int i = 0; i < model.size(); i++) {
+                    if (!model.get(i).isMarked()) {
+                        pending.add(i);
+                    }
+                }
+                assertEquals(pending, tasks.findByStatus(false));
+            }
+        }
+    }
+
+    @Test
+    public void testIdsAssignedOnceAndShownInListing() {
+        TaskList tasks = new TaskList();
+        tasks.add(new ToDo("first"));
+        tasks.add(new ToDo("second"));
+        tasks.add(new ToDo("third"));
+        Task removed = tasks.remove(0);
+        tasks.add(new ToDo("fourth"));
+
+        assertEquals(1, removed.getId());
+        assertEquals(-1, tasks.indexOfId(1));
+        assertEquals(2, tasks.indexOfId(4));
+        assertEquals("1. #2 [T][ ] second\n2. #3 [T][ ] third\n3. #4 [T][ ] fourth", tasks.listTasks());
+
+        TaskList results = new TaskList(tasks.findByKeyword("th"));
+        assertEquals("1. #3 [T][ ] third\n2. #4 [T][ ] fourth", results.listTasks());
+    }
+
+    @Test
+    public void testIdOfRemovedTaskNeverReused() {
+        TaskList tasks = new TaskList();
+        tasks.add(new ToDo("first"));
+        tasks.add(new ToDo("second"));
+        tasks.add(new ToDo("third"));
+        tasks.remove(2);
+
+        TaskList fresh = new TaskList();
+        fresh.add(new ToDo("a"));
+        fresh.add(new ToDo("b"));
+        fresh.add(new ToDo("c"));
+        tasks.add(1, fresh.get(2));
+        tasks.add(fresh.get(1));
+
+        assertEquals(-1, tasks.indexOfId(3));
+        assertEquals("1. #1 [T][ ] first\n2. #4 [T][ ] c\n3. #2 [T][ ] second\n4. #5 [T][ ] b",
+                tasks.listTasks());
+    }
+
+    @Test
+    public void testPagesMatchFullListing() {
+        TaskList tasks = new TaskList();
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new ToDo("task " + i, i % 4 == 0));
+            columnar.add(new ToDo("task " + i, i % 4 == 0));
+        }
+        for (int i = 290; i >= 0; i -= 3) {
+            tasks.remove(i);
+            columnar.remove(i);
+        }
+
+        String[] lines = tasks.listTasks().split("\n");
+        for (int from = 0; from < tasks.size(); from += 45) {
+            String expected = String.join("\n",
+                    Arrays.copyOfRange(lines, from, Math.min(from + 45, lines.length)));
+            assertEquals(expected, tasks.listTasks(from, 45));
+            assertEquals(expected, columnar.listTasks(from, 45));
+        }
+        assertEquals("", tasks.listTasks(tasks.size(), 45));
+        assertEquals(lines[lines.length - 1], tasks.listTasks(tasks.size() - 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testRemoveAllMatchesRemovingOneByOne() {
+        Random random = new Random(23);
+        TaskList tasks = new TaskList();
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        List<Task> model = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                Task task = new ToDo("round " + round + " task " + i, random.nextBoolean());
+                model.add(task);
+                tasks.add(task);
+                columnar.add(task);
+            }
+            List<Integer> picked = new ArrayList<>();
+            for (int i = 0; i < model.size(); i++) {
+                if (random.nextInt(3) == 0) {
+                    picked.add(i);
+                }
+            }
+            int[] indices = picked.stream().mapToInt(Integer::intValue).toArray();
+            List<Task> expected = new ArrayList<>();
+            for (int i = indices.length - 1; i >= 0; i--) {
+                expected.add(0, model.remove(indices[i]));
+            }
+
+            assertEquals(expected, tasks.removeAll(indices));
+            assertEquals(expected.toString(), columnar.removeAll(indices).toString());
+            assertEquals(model, new ArrayList<>(tasks.getAllTasks()));
+            assertEquals(tasks.listTasks(), columnar.listTasks());
+            assertEquals(picked.isEmpty() ? tasks.size() : picked.get(0), tasks.getDirtyFrom());
+            tasks.clearModifications();
+            columnar.clearModifications();
+        }
+    }
+
+    private static List<Task> scan(TaskList tasks, String keyword) {
+        List<Task> matches = new ArrayList<>();
+        for (Task task : tasks.getAllTasks()) {
+            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
 }